@@ -43,6 +43,10 @@ public interface Artifact {
     String BASE_PACKAGE_KEY = "basePackageName";
     String CREATE_PROPERTY_NAMES = "createPropertyNames";
     String CREATE_PK_PROPERTIES = "createPKProperties";
+    /**
+     * @since 5.0
+     */
+    String CREATE_ACCESSORS = "createAccessors";
     String PROPERTY_UTILS_KEY = "propertyUtils";
     String METADATA_UTILS_KEY = "metadataUtils";
 
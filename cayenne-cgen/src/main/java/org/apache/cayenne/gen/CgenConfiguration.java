@@ -100,6 +100,21 @@ public class CgenConfiguration implements Serializable, XMLSerializable {
      */
     private String externalToolConfig;
 
+    /**
+     * @since 5.0
+     */
+    private Path manifestPath;
+
+    /**
+     * @since 5.0
+     */
+    private int threadCount;
+
+    /**
+     * @since 5.0
+     */
+    private boolean createAccessors;
+
     public CgenConfiguration() {
         this.name = CgenConfigList.DEFAULT_CONFIG_NAME;
         /**
@@ -110,6 +125,7 @@ public class CgenConfiguration implements Serializable, XMLSerializable {
         this.usePkgPath = true;
         this.makePairs = true;
         this.createPKProperties = true;
+        this.threadCount = 1;
         this.artifactsGenerationMode = ArtifactsGenerationMode.ENTITY;
 
         this.artifacts = new ArrayList<>();
@@ -383,6 +399,60 @@ public class CgenConfiguration implements Serializable, XMLSerializable {
         return embeddableArtifacts;
     }
 
+    /**
+     * Returns a path of the manifest file used for incremental generation, or null if incremental generation is
+     * disabled. The manifest stores a fingerprint of the model and the template for each generated file, so that
+     * the file is only regenerated when one of them changes, regardless of file timestamps.
+     *
+     * @since 5.0
+     */
+    public Path getManifestPath() {
+        return manifestPath;
+    }
+
+    /**
+     * @since 5.0
+     */
+    public void setManifestPath(Path manifestPath) {
+        this.manifestPath = manifestPath;
+    }
+
+    /**
+     * Returns the number of threads used to render artifacts. Default is 1.
+     *
+     * @since 5.0
+     */
+    public int getThreadCount() {
+        return threadCount;
+    }
+
+    /**
+     * @since 5.0
+     */
+    public void setThreadCount(int threadCount) {
+        this.threadCount = Math.max(1, threadCount);
+    }
+
+    /**
+     * Returns whether generated entity classes should include ordinal-based property accessors, that are registered
+     * as {@link java.util.ServiceLoader} providers and used by Cayenne runtime instead of reflection. Accessors read
+     * and write the generated fields directly, so changes made to {@code readPropertyDirectly(String)} or
+     * {@code writePropertyDirectly(String, Object)} of the generated class itself are not seen by them. Entities
+     * whose subclasses override these methods are detected at runtime and keep using them.
+     *
+     * @since 5.0
+     */
+    public boolean isCreateAccessors() {
+        return createAccessors;
+    }
+
+    /**
+     * @since 5.0
+     */
+    public void setCreateAccessors(boolean createAccessors) {
+        this.createAccessors = createAccessors;
+    }
+
     public String getExternalToolConfig() {
         return externalToolConfig;
     }
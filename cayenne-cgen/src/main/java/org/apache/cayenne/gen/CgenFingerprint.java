@@ -0,0 +1,140 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.gen;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.apache.cayenne.CayenneRuntimeException;
+import org.apache.cayenne.configuration.EmptyConfigurationNodeVisitor;
+import org.apache.cayenne.map.DataMap;
+import org.apache.cayenne.map.DbEntity;
+import org.apache.cayenne.map.DbRelationship;
+import org.apache.cayenne.map.Embeddable;
+import org.apache.cayenne.map.EmbeddedAttribute;
+import org.apache.cayenne.map.ObjAttribute;
+import org.apache.cayenne.map.ObjEntity;
+import org.apache.cayenne.map.ObjRelationship;
+import org.apache.cayenne.map.Relationship;
+import org.apache.cayenne.util.XMLEncoder;
+import org.apache.cayenne.util.XMLSerializable;
+
+/**
+ * Builds a SHA-256 fingerprint of the inputs a generated file depends on. For model objects it includes the XML form
+ * of the object and of the parts of the model the generated class refers to, i.e. super entities, relationships and
+ * their targets, mapped DbEntities and embeddables.
+ *
+ * @since 5.0
+ */
+class CgenFingerprint {
+
+    private static final EmptyConfigurationNodeVisitor NOOP_VISITOR = new EmptyConfigurationNodeVisitor();
+
+    private final MessageDigest digest;
+
+    CgenFingerprint() {
+        try {
+            this.digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new CayenneRuntimeException("SHA-256 digest is not available", e);
+        }
+    }
+
+    CgenFingerprint add(Object value) {
+        digest.update(String.valueOf(value).getBytes(StandardCharsets.UTF_8));
+        // separator, so that ("ab", "c") and ("a", "bc") give different fingerprints
+        digest.update((byte) 0);
+        return this;
+    }
+
+    CgenFingerprint addModel(Object object) {
+        if (object instanceof ObjEntity) {
+            addEntity((ObjEntity) object);
+        } else if (object instanceof Embeddable || object instanceof DataMap) {
+            addXml((XMLSerializable) object);
+        } else {
+            add(object);
+        }
+        return this;
+    }
+
+    private void addEntity(ObjEntity entity) {
+        DataMap dataMap = entity.getDataMap();
+        if (dataMap != null) {
+            add(dataMap.getDefaultPackage());
+            add(dataMap.getDefaultSuperclass());
+        }
+
+        for (ObjEntity e = entity; e != null; e = e.getSuperEntity()) {
+            addXml(e);
+
+            for (ObjAttribute attribute : e.getDeclaredAttributes()) {
+                if (attribute instanceof EmbeddedAttribute && ((EmbeddedAttribute) attribute).getEmbeddable() != null) {
+                    addXml(((EmbeddedAttribute) attribute).getEmbeddable());
+                }
+            }
+
+            for (ObjRelationship relationship : sorted(e.getDeclaredRelationships())) {
+                addXml(relationship);
+                if (relationship.getTargetEntity() != null) {
+                    addXml(relationship.getTargetEntity());
+                }
+            }
+
+            DbEntity dbEntity = e.getDbEntity();
+            if (dbEntity != null) {
+                addXml(dbEntity);
+                for (DbRelationship relationship : sorted(dbEntity.getRelationships())) {
+                    addXml(relationship);
+                }
+            }
+        }
+    }
+
+    private void addXml(XMLSerializable node) {
+        StringWriter buffer = new StringWriter();
+        node.encodeAsXML(new XMLEncoder(new PrintWriter(buffer)), NOOP_VISITOR);
+        add(buffer);
+    }
+
+    private static <R extends Relationship<?, ?, ?>> Collection<R> sorted(Collection<R> relationships) {
+        Map<String, R> byName = new TreeMap<>();
+        for (R relationship : relationships) {
+            byName.put(relationship.getName(), relationship);
+        }
+        return byName.values();
+    }
+
+    /**
+     * Returns the fingerprint as a hex string. The builder should not be used after this call.
+     */
+    String build() {
+        StringBuilder hex = new StringBuilder();
+        for (byte b : digest.digest()) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+}
@@ -0,0 +1,121 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.gen;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.cayenne.CayenneRuntimeException;
+
+/**
+ * A manifest of files generated by {@link ClassGenerationAction} in the incremental mode. Maps each generated file
+ * to a fingerprint of the inputs it was generated from. The file is stored as sorted "path=fingerprint" lines, with
+ * paths relative to the manifest directory, so that it stays stable between runs.
+ *
+ * @since 5.0
+ */
+class CgenManifest {
+
+    private final Path file;
+    private final ConcurrentMap<String, String> fingerprints;
+    private volatile boolean changed;
+
+    private CgenManifest(Path file) {
+        this.file = file.toAbsolutePath().normalize();
+        this.fingerprints = new ConcurrentHashMap<>();
+    }
+
+    static CgenManifest load(Path file) {
+        CgenManifest manifest = new CgenManifest(file);
+
+        if (Files.isRegularFile(manifest.file)) {
+            try {
+                for (String line : Files.readAllLines(manifest.file, StandardCharsets.UTF_8)) {
+                    int split = line.lastIndexOf('=');
+                    if (split > 0) {
+                        manifest.fingerprints.put(line.substring(0, split), line.substring(split + 1));
+                    }
+                }
+            } catch (IOException e) {
+                throw new CayenneRuntimeException("Error reading cgen manifest '%s'", e, manifest.file);
+            }
+        }
+
+        return manifest;
+    }
+
+    /**
+     * Returns true if the file exists and was generated from the inputs with the same fingerprint.
+     */
+    boolean isUpToDate(Path generatedFile, String fingerprint) {
+        return Files.exists(generatedFile) && fingerprint.equals(fingerprints.get(key(generatedFile)));
+    }
+
+    void put(Path generatedFile, String fingerprint) {
+        if (!fingerprint.equals(fingerprints.put(key(generatedFile), fingerprint))) {
+            changed = true;
+        }
+    }
+
+    /**
+     * Saves the manifest if any of the fingerprints has changed.
+     */
+    void save() {
+        if (!changed) {
+            return;
+        }
+
+        try {
+            if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
+            }
+
+            try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+                for (Map.Entry<String, String> e : new TreeMap<>(fingerprints).entrySet()) {
+                    out.write(e.getKey());
+                    out.write('=');
+                    out.write(e.getValue());
+                    out.newLine();
+                }
+            }
+        } catch (IOException e) {
+            throw new CayenneRuntimeException("Error writing cgen manifest '%s'", e, file);
+        }
+
+        changed = false;
+    }
+
+    private String key(Path generatedFile) {
+        Path path = generatedFile.toAbsolutePath().normalize();
+        Path dir = file.getParent();
+
+        if (dir != null && path.getRoot() != null && path.getRoot().equals(dir.getRoot())) {
+            path = dir.relativize(path);
+        }
+
+        return path.toString().replace('\\', '/');
+    }
+}
@@ -23,6 +23,8 @@ import org.apache.cayenne.CayenneRuntimeException;
 import org.apache.cayenne.map.DataMap;
 import org.apache.cayenne.map.Embeddable;
 import org.apache.cayenne.map.ObjEntity;
+import org.apache.cayenne.reflect.generic.PersistentClassAccessors;
+import org.apache.cayenne.util.LocalizedStringsHandler;
 import org.apache.velocity.Template;
 import org.apache.velocity.VelocityContext;
 import org.apache.velocity.app.VelocityEngine;
@@ -40,13 +42,26 @@ import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStreamWriter;
+import java.io.Reader;
 import java.io.Writer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 public class ClassGenerationAction {
@@ -54,6 +69,9 @@ public class ClassGenerationAction {
     public static final String SUPERCLASS_PREFIX = "_";
     private static final String WILDCARD = "*";
     private static final String CUSTOM_TEMPLATE_REPO = "customTemplateRepo";
+    private static final String ACCESSORS_SERVICE_FILE = "META-INF/services/" + PersistentClassAccessors.class.getName();
+    private static final Pattern ACCESSORS_DECLARATION =
+            Pattern.compile("\\bclass\\s+Accessors\\s+implements\\s+(?:[\\w.]+\\.)?PersistentClassAccessors\\b");
 
     /**
      * @since 4.1
@@ -68,6 +86,13 @@ public class ClassGenerationAction {
     private ToolsUtilsFactory utilsFactory;
     private MetadataUtils metadataUtils;
 
+    // incremental generation state, only set during "execute()" when the manifest path is configured
+    private CgenManifest manifest;
+    private Map<CgenTemplate, String> templateFingerprints;
+
+    // names of generated accessor classes, only set during "execute()" when accessors are generated
+    private Set<String> accessorClasses;
+
     /**
      * Optionally allows user-defined tools besides {@link ImportUtils} for working with velocity templates.<br/>
      * To use this feature, either set the java system property {@code -Dorg.apache.velocity.tools=tools.properties}
@@ -131,6 +156,7 @@ public class ClassGenerationAction {
 
         context.put(Artifact.CREATE_PROPERTY_NAMES, cgenConfiguration.isCreatePropertyNames());
         context.put(Artifact.CREATE_PK_PROPERTIES, cgenConfiguration.isCreatePKProperties());
+        context.put(Artifact.CREATE_ACCESSORS, cgenConfiguration.isCreateAccessors());
     }
 
     /**
@@ -204,13 +230,74 @@ public class ClassGenerationAction {
 
         validateAttributes();
 
+        if (cgenConfiguration.getManifestPath() != null) {
+            manifest = CgenManifest.load(cgenConfiguration.getManifestPath());
+            templateFingerprints = new ConcurrentHashMap<>();
+        }
+
+        if (cgenConfiguration.isCreateAccessors()) {
+            accessorClasses = ConcurrentHashMap.newKeySet();
+        }
+
         try {
-            for (Artifact artifact : cgenConfiguration.getArtifacts()) {
-                execute(artifact);
+            if (cgenConfiguration.getThreadCount() > 1 && cgenConfiguration.getArtifacts().size() > 1) {
+                executeInParallel();
+            } else {
+                for (Artifact artifact : cgenConfiguration.getArtifacts()) {
+                    execute(artifact);
+                }
+            }
+
+            if (accessorClasses != null && !accessorClasses.isEmpty()) {
+                writeAccessorsServiceFile();
+            }
+
+            if (manifest != null) {
+                manifest.save();
             }
         } finally {
             // must reset engine at the end of class generator run to avoid memory leaks and stale templates
-            templateCache.clear();
+            synchronized (templateCache) {
+                templateCache.clear();
+            }
+            manifest = null;
+            templateFingerprints = null;
+            accessorClasses = null;
+        }
+    }
+
+    /**
+     * Renders artifacts in a pool of threads. Artifacts are independent of each other, and each thread works with
+     * its own Velocity context layered over the shared one.
+     */
+    private void executeInParallel() throws Exception {
+        Context sharedContext = context;
+        context = new ThreadLocalContext(sharedContext);
+
+        ExecutorService executor = Executors.newFixedThreadPool(cgenConfiguration.getThreadCount());
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (Artifact artifact : cgenConfiguration.getArtifacts()) {
+                results.add(executor.submit(() -> {
+                    execute(artifact);
+                    return null;
+                }));
+            }
+
+            for (Future<?> result : results) {
+                try {
+                    result.get();
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    if (cause instanceof Exception) {
+                        throw (Exception) cause;
+                    }
+                    throw new CayenneRuntimeException("Error generating classes", cause);
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+            context = sharedContext;
         }
     }
 
@@ -234,14 +321,78 @@ public class ClassGenerationAction {
                 }
             }
         }
+
+        if (accessorClasses != null && artifact instanceof EntityArtifact) {
+            addAccessorClass();
+        }
+    }
+
+    /**
+     * Registers the accessors class of the current artifact if its generated source declares one. Custom templates
+     * may not generate accessors at all. The file is checked even if it was up-to-date and was not regenerated.
+     */
+    private void addAccessorClass() throws Exception {
+        boolean pairs = cgenConfiguration.isMakePairs();
+        String packageName = (String) context.get(pairs ? Artifact.SUPER_PACKAGE_KEY : Artifact.SUB_PACKAGE_KEY);
+        String className = (String) context.get(pairs ? Artifact.SUPER_CLASS_KEY : Artifact.SUB_CLASS_KEY);
+
+        File source = outputFile(packageName, className);
+        if (!source.isFile()) {
+            return;
+        }
+
+        Charset encoding = cgenConfiguration.getEncoding() != null
+                ? Charset.forName(cgenConfiguration.getEncoding())
+                : Charset.defaultCharset();
+        if (ACCESSORS_DECLARATION.matcher(new String(Files.readAllBytes(source.toPath()), encoding)).find()) {
+            String accessorsName = className + "$Accessors";
+            accessorClasses.add(packageName != null && !packageName.isEmpty()
+                    ? packageName + "." + accessorsName
+                    : accessorsName);
+        }
+    }
+
+    /**
+     * Adds generated accessor classes to the "META-INF/services" file in the output directory, preserving entries
+     * that were added by the other generator runs, e.g. for other DataMaps.
+     */
+    private void writeAccessorsServiceFile() throws IOException {
+        Path serviceFile = cgenConfiguration.buildOutputPath().resolve(ACCESSORS_SERVICE_FILE);
+
+        Set<String> entries = new TreeSet<>(accessorClasses);
+        if (Files.exists(serviceFile)) {
+            for (String line : Files.readAllLines(serviceFile, StandardCharsets.UTF_8)) {
+                line = line.trim();
+                if (!line.isEmpty() && !line.startsWith("#")) {
+                    entries.add(line);
+                }
+            }
+        }
+
+        Files.createDirectories(serviceFile.getParent());
+        Files.write(serviceFile, entries, StandardCharsets.UTF_8);
     }
 
     protected Template getTemplate(TemplateType type) {
-        Properties props = new Properties();
-        initVelocityProperties(props, type);
-        VelocityEngine velocityEngine = new VelocityEngine();
-        velocityEngine.init(props);
-        return velocityEngine.getTemplate(cgenConfiguration.getTemplateByType(type).getName());
+        CgenTemplate template = cgenConfiguration.getTemplateByType(type);
+        String key = type.name() + ":" + template.isFile() + ":" + template.getData();
+
+        // parsed templates are immutable and can be shared between artifacts and threads. Creation is serialized,
+        // as the "string" resource loader uses a static repository
+        synchronized (templateCache) {
+            Template cached = templateCache.get(key);
+            if (cached != null) {
+                return cached;
+            }
+
+            Properties props = new Properties();
+            initVelocityProperties(props, type);
+            VelocityEngine velocityEngine = new VelocityEngine();
+            velocityEngine.init(props);
+            Template velocityTemplate = velocityEngine.getTemplate(template.getName());
+            templateCache.put(key, velocityTemplate);
+            return velocityTemplate;
+        }
     }
 
     protected void initVelocityProperties(Properties props, TemplateType type) {
@@ -303,11 +454,16 @@ public class ClassGenerationAction {
      */
     protected Writer openWriter(TemplateType templateType) throws Exception {
 
-        File outFile = (templateType.isSuperclass()) ? fileForSuperclass() : fileForClass();
+        String fingerprint = manifest != null ? fingerprint(templateType) : null;
+        File outFile = (templateType.isSuperclass()) ? fileForSuperclass(fingerprint) : fileForClass(fingerprint);
         if (outFile == null) {
             return null;
         }
 
+        if (fingerprint != null) {
+            manifest.put(outFile.toPath(), fingerprint);
+        }
+
         if (logger != null) {
             String label = templateType.isSuperclass() ? "superclass" : "class";
             logger.info("Generating " + label + " file: " + outFile.getCanonicalPath());
@@ -323,15 +479,13 @@ public class ClassGenerationAction {
      * Returns a target file where a generated superclass must be saved. If null
      * is returned, class shouldn't be generated.
      */
-    private File fileForSuperclass() throws Exception {
-
-        String packageName = (String) context.get(Artifact.SUPER_PACKAGE_KEY);
-        String className = (String) context.get(Artifact.SUPER_CLASS_KEY);
+    private File fileForSuperclass(String fingerprint) throws Exception {
 
-        String filename = StringUtils.getInstance().replaceWildcardInStringWithString(WILDCARD, cgenConfiguration.getOutputPattern(), className);
-        File dest = new File(mkpath(cgenConfiguration.buildOutputPath().toFile(), packageName), filename);
+        File dest = outputFile(
+                (String) context.get(Artifact.SUPER_PACKAGE_KEY),
+                (String) context.get(Artifact.SUPER_CLASS_KEY));
 
-        if (dest.exists() && !fileNeedUpdate(dest, cgenConfiguration.getSuperTemplate().getData())) {
+        if (dest.exists() && !fileNeedUpdate(dest, cgenConfiguration.getSuperTemplate().getData(), fingerprint)) {
             return null;
         }
 
@@ -342,13 +496,11 @@ public class ClassGenerationAction {
      * Returns a target file where a generated class must be saved. If null is
      * returned, class shouldn't be generated.
      */
-    private File fileForClass() throws Exception {
-
-        String packageName = (String) context.get(Artifact.SUB_PACKAGE_KEY);
-        String className = (String) context.get(Artifact.SUB_CLASS_KEY);
+    private File fileForClass(String fingerprint) throws Exception {
 
-        String filename = StringUtils.getInstance().replaceWildcardInStringWithString(WILDCARD, cgenConfiguration.getOutputPattern(), className);
-        File dest = new File(mkpath(cgenConfiguration.buildOutputPath().toFile(), packageName), filename);
+        File dest = outputFile(
+                (String) context.get(Artifact.SUB_PACKAGE_KEY),
+                (String) context.get(Artifact.SUB_CLASS_KEY));
 
         if (dest.exists()) {
             // no overwrite of subclasses
@@ -361,7 +513,7 @@ public class ClassGenerationAction {
                 return null;
             }
 
-            if (!fileNeedUpdate(dest, cgenConfiguration.getTemplate().getData())) {
+            if (!fileNeedUpdate(dest, cgenConfiguration.getTemplate().getData(), fingerprint)) {
                 return null;
             }
         }
@@ -369,6 +521,70 @@ public class ClassGenerationAction {
         return dest;
     }
 
+    private File outputFile(String packageName, String className) throws Exception {
+        String filename = StringUtils.getInstance().replaceWildcardInStringWithString(WILDCARD, cgenConfiguration.getOutputPattern(), className);
+        return new File(mkpath(cgenConfiguration.buildOutputPath().toFile(), packageName), filename);
+    }
+
+    // in the incremental mode, file is regenerated when the fingerprint of its inputs changes, otherwise when
+    // the timestamps say so
+    private boolean fileNeedUpdate(File dest, String templateFileName, String fingerprint) {
+        if (fingerprint == null) {
+            return fileNeedUpdate(dest, templateFileName);
+        }
+
+        return cgenConfiguration.isForce() || !manifest.isUpToDate(dest.toPath(), fingerprint);
+    }
+
+    /**
+     * Returns a fingerprint of everything that a file generated for the current artifact with a given template
+     * depends on: the model, the template, the generator version and the relevant configuration options.
+     *
+     * @since 5.0
+     */
+    protected String fingerprint(TemplateType templateType) {
+        CgenTemplate template = cgenConfiguration.getTemplateByType(templateType);
+
+        return new CgenFingerprint()
+                .add(LocalizedStringsHandler.getString("cayenne.version"))
+                .add(templateType)
+                .add(templateFingerprints.computeIfAbsent(template, this::templateFingerprint))
+                .add(context.get(Artifact.SUB_PACKAGE_KEY))
+                .add(context.get(Artifact.SUB_CLASS_KEY))
+                .add(context.get(Artifact.SUPER_PACKAGE_KEY))
+                .add(context.get(Artifact.SUPER_CLASS_KEY))
+                .add(context.get(Artifact.BASE_PACKAGE_KEY))
+                .add(context.get(Artifact.BASE_CLASS_KEY))
+                .add(cgenConfiguration.isMakePairs())
+                .add(cgenConfiguration.isCreatePropertyNames())
+                .add(cgenConfiguration.isCreatePKProperties())
+                .add(cgenConfiguration.isCreateAccessors())
+                .add(cgenConfiguration.getEncoding())
+                .add(cgenConfiguration.getExternalToolConfig())
+                .addModel(context.get(Artifact.OBJECT_KEY))
+                .build();
+    }
+
+    private String templateFingerprint(CgenTemplate template) {
+        if (!template.isFile()) {
+            return new CgenFingerprint().add(template.getData()).build();
+        }
+
+        StringBuilder text = new StringBuilder();
+        try (Reader in = new ClassGeneratorResourceLoader(cgenConfiguration.getRootPath())
+                .getResourceReader(template.getData(), null)) {
+            char[] buffer = new char[8192];
+            int read;
+            while ((read = in.read(buffer)) >= 0) {
+                text.append(buffer, 0, read);
+            }
+        } catch (IOException e) {
+            throw new CayenneRuntimeException("Error reading template '%s'", e, template.getData());
+        }
+
+        return new CgenFingerprint().add(text).build();
+    }
+
     /**
      * Ignore if the destination is newer than the map
      * (internal timestamp), i.e. has been generated after the map was
@@ -410,7 +626,8 @@ public class ClassGenerationAction {
 
         String path = pkgName.replace('.', File.separatorChar);
         File fullPath = new File(dest, path);
-        if (!fullPath.isDirectory() && !fullPath.mkdirs()) {
+        // the directory may have been created concurrently by another thread
+        if (!fullPath.isDirectory() && !fullPath.mkdirs() && !fullPath.isDirectory()) {
             throw new Exception("Error making path: " + fullPath);
         }
 
@@ -462,4 +679,41 @@ public class ClassGenerationAction {
     public MetadataUtils getMetadataUtils() {
         return metadataUtils;
     }
+
+    /**
+     * A Velocity context that keeps values separately for each thread, falling back to a shared context for reads.
+     */
+    private static class ThreadLocalContext implements Context {
+
+        private final ThreadLocal<Context> threadContext;
+
+        ThreadLocalContext(Context sharedContext) {
+            this.threadContext = ThreadLocal.withInitial(() -> new VelocityContext(sharedContext));
+        }
+
+        @Override
+        public Object put(String key, Object value) {
+            return threadContext.get().put(key, value);
+        }
+
+        @Override
+        public Object get(String key) {
+            return threadContext.get().get(key);
+        }
+
+        @Override
+        public boolean containsKey(String key) {
+            return threadContext.get().containsKey(key);
+        }
+
+        @Override
+        public String[] getKeys() {
+            return threadContext.get().getKeys();
+        }
+
+        @Override
+        public Object remove(String key) {
+            return threadContext.get().remove(key);
+        }
+    }
 }
@@ -44,6 +44,18 @@ public class ClassGeneratorResourceLoader extends FileResourceLoader {
 
     private Path root;
 
+    public ClassGeneratorResourceLoader() {
+    }
+
+    /**
+     * Creates a loader to read templates outside of Velocity.
+     *
+     * @since 5.0
+     */
+    ClassGeneratorResourceLoader(Path root) {
+        this.root = root;
+    }
+
     @Override
     public void init(ExtProperties configuration) {
         root = (Path)configuration.getProperty("root");
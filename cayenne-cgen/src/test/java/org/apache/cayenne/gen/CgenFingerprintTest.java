@@ -0,0 +1,81 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.gen;
+
+import org.apache.cayenne.map.DataMap;
+import org.apache.cayenne.map.ObjAttribute;
+import org.apache.cayenne.map.ObjEntity;
+import org.apache.cayenne.map.ObjRelationship;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+public class CgenFingerprintTest {
+
+    @Test
+    public void testAdd() {
+        assertEquals(new CgenFingerprint().add("a").add(1).build(), new CgenFingerprint().add("a").add(1).build());
+        assertNotEquals(new CgenFingerprint().add("a").build(), new CgenFingerprint().add("b").build());
+        assertNotEquals(new CgenFingerprint().add("ab").add("c").build(), new CgenFingerprint().add("a").add("bc").build());
+        assertEquals(64, new CgenFingerprint().add("a").build().length());
+    }
+
+    @Test
+    public void testAddModel_Entity() {
+        DataMap map = new DataMap("m");
+        ObjEntity e1 = new ObjEntity("E1");
+        e1.setClassName("org.example.E1");
+        map.addObjEntity(e1);
+
+        ObjEntity e2 = new ObjEntity("E2");
+        e2.setClassName("org.example.E2");
+        map.addObjEntity(e2);
+
+        ObjRelationship relationship = new ObjRelationship("e2");
+        relationship.setTargetEntityName(e2);
+        e1.addRelationship(relationship);
+
+        String fingerprint = new CgenFingerprint().addModel(e1).build();
+        assertEquals(fingerprint, new CgenFingerprint().addModel(e1).build());
+
+        // own changes
+        ObjAttribute attribute = new ObjAttribute("name");
+        attribute.setType("java.lang.String");
+        e1.addAttribute(attribute);
+        String withAttribute = new CgenFingerprint().addModel(e1).build();
+        assertNotEquals(fingerprint, withAttribute);
+
+        // changes of the relationship target
+        e2.setClassName("org.example.E2x");
+        assertNotEquals(withAttribute, new CgenFingerprint().addModel(e1).build());
+    }
+
+    @Test
+    public void testAddModel_DataMapDefaults() {
+        DataMap map = new DataMap("m");
+        ObjEntity e1 = new ObjEntity("E1");
+        e1.setClassName("org.example.E1");
+        map.addObjEntity(e1);
+
+        String fingerprint = new CgenFingerprint().addModel(e1).build();
+        map.setDefaultSuperclass("org.example.Base");
+        assertNotEquals(fingerprint, new CgenFingerprint().addModel(e1).build());
+    }
+}
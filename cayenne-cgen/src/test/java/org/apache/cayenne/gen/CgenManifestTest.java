@@ -0,0 +1,103 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.gen;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class CgenManifestTest {
+
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
+    @Test
+    public void testIsUpToDate() throws Exception {
+        Path root = tempFolder.getRoot().toPath();
+        Path generated = root.resolve("org/example/E1.java");
+
+        CgenManifest manifest = CgenManifest.load(root.resolve("cgen.manifest"));
+        assertFalse(manifest.isUpToDate(generated, "f1"));
+
+        manifest.put(generated, "f1");
+
+        // the file doesn't exist yet
+        assertFalse(manifest.isUpToDate(generated, "f1"));
+
+        Files.createDirectories(generated.getParent());
+        Files.write(generated, new byte[0]);
+        assertTrue(manifest.isUpToDate(generated, "f1"));
+        assertFalse(manifest.isUpToDate(generated, "f2"));
+    }
+
+    @Test
+    public void testSaveLoad() throws Exception {
+        Path root = tempFolder.getRoot().toPath();
+        Path manifestFile = root.resolve("target/cgen.manifest");
+        Path e1 = root.resolve("target/org/example/E1.java");
+        Path e2 = root.resolve("target/org/example/E2.java");
+        Files.createDirectories(e1.getParent());
+        Files.write(e1, new byte[0]);
+        Files.write(e2, new byte[0]);
+
+        CgenManifest manifest = CgenManifest.load(manifestFile);
+        manifest.put(e2, "f2");
+        manifest.put(e1, "f1");
+        manifest.save();
+
+        // sorted, with paths relative to the manifest
+        assertEquals(
+                List.of("org/example/E1.java=f1", "org/example/E2.java=f2"),
+                Files.readAllLines(manifestFile, StandardCharsets.UTF_8));
+
+        CgenManifest loaded = CgenManifest.load(manifestFile);
+        assertTrue(loaded.isUpToDate(e1, "f1"));
+        assertTrue(loaded.isUpToDate(e2, "f2"));
+        assertFalse(loaded.isUpToDate(e2, "f1"));
+    }
+
+    @Test
+    public void testSave_Unchanged() throws Exception {
+        Path root = tempFolder.getRoot().toPath();
+        Path manifestFile = root.resolve("cgen.manifest");
+        Path e1 = root.resolve("E1.java");
+
+        CgenManifest manifest = CgenManifest.load(manifestFile);
+        manifest.put(e1, "f1");
+        manifest.save();
+        Files.write(manifestFile, "E1.java=f1\n# untouched\n".getBytes(StandardCharsets.UTF_8));
+
+        // same fingerprints are not saved again
+        CgenManifest loaded = CgenManifest.load(manifestFile);
+        loaded.put(e1, "f1");
+        loaded.save();
+        assertEquals(
+                List.of("E1.java=f1", "# untouched"),
+                Files.readAllLines(manifestFile, StandardCharsets.UTF_8));
+    }
+}
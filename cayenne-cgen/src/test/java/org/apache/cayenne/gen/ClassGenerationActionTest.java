@@ -20,11 +20,22 @@
 package org.apache.cayenne.gen;
 
 import java.io.*;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
 
+import org.apache.cayenne.Persistent;
 import org.apache.cayenne.gen.mock.TestClassGenerationAction;
 import org.apache.cayenne.map.CallbackDescriptor;
 import org.apache.cayenne.map.DataMap;
@@ -32,6 +43,8 @@ import org.apache.cayenne.map.ObjAttribute;
 import org.apache.cayenne.map.ObjEntity;
 import org.apache.cayenne.map.ObjRelationship;
 import org.apache.cayenne.map.QueryDescriptor;
+import org.apache.cayenne.reflect.generic.PersistentClassAccessors;
+import org.apache.cayenne.reflect.generic.PersistentClassAccessorsRegistry;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Rule;
@@ -39,6 +52,7 @@ import org.junit.Test;
 import org.junit.rules.TemporaryFolder;
 
 import static org.junit.Assert.*;
+import static org.junit.Assume.assumeNotNull;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
@@ -214,6 +228,153 @@ public class ClassGenerationActionTest extends CgenCase {
 		}
 	}
 
+	@Test
+	public void testExecuteArtifactPairsAccessors() throws Exception {
+
+		ObjEntity testEntity1 = new ObjEntity("TE1");
+		testEntity1.setClassName("org.example.TestClass1");
+
+		ObjAttribute attr = new ObjAttribute();
+		attr.setName("name");
+		attr.setType("java.lang.String");
+		testEntity1.addAttribute(attr);
+
+		cgenConfiguration.setMakePairs(true);
+		cgenConfiguration.setSuperPkg("org.example.auto");
+		cgenConfiguration.setCreateAccessors(true);
+
+		List<String> generated = execute(new EntityArtifact(testEntity1));
+		assertEquals(2, generated.size());
+
+		String superclass = generated.get(0);
+		assertTrue(superclass, superclass.contains("import org.apache.cayenne.reflect.generic.PersistentClassAccessors;"));
+		assertTrue(superclass, superclass.contains("public static class Accessors implements PersistentClassAccessors"));
+		assertTrue(superclass, superclass.contains("return \"org.example.TestClass1\";"));
+		assertTrue(superclass, superclass.contains("_TestClass1 o = (_TestClass1) object;"));
+		assertTrue(superclass, superclass.contains("return o.name;"));
+		assertTrue(superclass, superclass.contains("o.name = (String)val;"));
+
+		String subclass = generated.get(1);
+		assertFalse(subclass, subclass.contains("Accessors"));
+	}
+
+	@Test
+	public void testExecuteArtifactPairsNoAccessors() throws Exception {
+
+		ObjEntity testEntity1 = new ObjEntity("TE1");
+		testEntity1.setClassName("org.example.TestClass1");
+
+		cgenConfiguration.setMakePairs(true);
+
+		List<String> generated = execute(new EntityArtifact(testEntity1));
+		String superclass = generated.get(0);
+		assertFalse(superclass, superclass.contains("PersistentClassAccessors"));
+	}
+
+	@Test
+	public void testExecute_AccessorsServiceFile() throws Exception {
+		DataMap map = new DataMap("m");
+		createEntity(map, "TE1", "org.example.TestClass1");
+		createEntity(map, "TE2", "org.example.TestClass2");
+
+		File serviceFile = new File(tempFolder.getRoot(),
+				"META-INF/services/org.apache.cayenne.reflect.generic.PersistentClassAccessors");
+		assertTrue(serviceFile.getParentFile().mkdirs());
+		writeFile(serviceFile, "org.example.other.auto._Other$Accessors\n");
+
+		cgenConfiguration.setRootPath(tempFolder.getRoot().toPath());
+		cgenConfiguration.updateOutputPath(Paths.get("."));
+		cgenConfiguration.setSuperPkg("org.example.auto");
+		cgenConfiguration.setCreateAccessors(true);
+		action = getUnitTestInjector().getInstance(ClassGenerationActionFactory.class).createAction(cgenConfiguration);
+		action.addEntities(map.getObjEntities());
+		action.execute();
+
+		assertEquals(List.of(
+				"org.example.auto._TestClass1$Accessors",
+				"org.example.auto._TestClass2$Accessors",
+				"org.example.other.auto._Other$Accessors"),
+				Files.readAllLines(serviceFile.toPath(), StandardCharsets.UTF_8));
+	}
+
+	@Test
+	public void testExecute_AccessorsServiceFile_CustomTemplate() throws Exception {
+		DataMap map = new DataMap("m");
+		createEntity(map, "TE1", "org.example.TestClass1");
+
+		cgenConfiguration.setRootPath(tempFolder.getRoot().toPath());
+		cgenConfiguration.updateOutputPath(Paths.get("."));
+		cgenConfiguration.setSuperPkg("org.example.auto");
+		cgenConfiguration.setCreateAccessors(true);
+		cgenConfiguration.setSuperTemplate(new CgenTemplate(
+				"package ${superPackageName};\npublic abstract class ${superClassName} {}\n",
+				false,
+				TemplateType.ENTITY_SUPERCLASS));
+		action = getUnitTestInjector().getInstance(ClassGenerationActionFactory.class).createAction(cgenConfiguration);
+		action.addEntities(map.getObjEntities());
+		action.execute();
+
+		assertTrue(new File(tempFolder.getRoot(), "org/example/auto/_TestClass1.java").exists());
+
+		// template doesn't generate accessors, so there's nothing to register
+		assertFalse(new File(tempFolder.getRoot(),
+				"META-INF/services/org.apache.cayenne.reflect.generic.PersistentClassAccessors").exists());
+	}
+
+	@Test
+	public void testExecute_AccessorsRuntime() throws Exception {
+		JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+		assumeNotNull(compiler);
+
+		DataMap map = new DataMap("m");
+		ObjEntity entity = createEntity(map, "TE1", "org.example.TestClass1");
+		ObjAttribute attribute = new ObjAttribute("name");
+		attribute.setType("java.lang.String");
+		entity.addAttribute(attribute);
+		ObjAttribute intAttribute = new ObjAttribute("count");
+		intAttribute.setType("int");
+		entity.addAttribute(intAttribute);
+
+		File root = tempFolder.getRoot();
+		cgenConfiguration.setRootPath(root.toPath());
+		cgenConfiguration.updateOutputPath(Paths.get("."));
+		cgenConfiguration.setSuperPkg("org.example.auto");
+		cgenConfiguration.setCreateAccessors(true);
+		action = getUnitTestInjector().getInstance(ClassGenerationActionFactory.class).createAction(cgenConfiguration);
+		action.addEntities(map.getObjEntities());
+		action.execute();
+
+		String classpath = System.getProperty("java.class.path") + File.pathSeparator
+				+ new File(Persistent.class.getProtectionDomain().getCodeSource().getLocation().toURI()).getAbsolutePath();
+		int result = compiler.run(null, null, null,
+				"-classpath", classpath,
+				"-d", root.getAbsolutePath(),
+				new File(root, "org/example/auto/_TestClass1.java").getAbsolutePath(),
+				new File(root, "org/example/TestClass1.java").getAbsolutePath());
+		assertEquals(0, result);
+
+		// the loader sees the compiled classes together with the generated "META-INF/services" file
+		try (URLClassLoader loader = new URLClassLoader(new URL[]{root.toURI().toURL()}, getClass().getClassLoader())) {
+			Class<?> entityClass = loader.loadClass("org.example.TestClass1");
+
+			PersistentClassAccessors accessors = new PersistentClassAccessorsRegistry().getAccessors(entityClass);
+			assertNotNull(accessors);
+			assertEquals("org.example.TestClass1", accessors.getClassName());
+			assertArrayEquals(new String[]{"name", "count"}, accessors.getPropertyNames());
+
+			Persistent object = (Persistent) entityClass.getDeclaredConstructor().newInstance();
+			accessors.writePropertyDirectly(object, 0, "n1");
+			accessors.writePropertyDirectly(object, 1, 5);
+			assertEquals("n1", accessors.readPropertyDirectly(object, 0));
+			assertEquals(5, accessors.readPropertyDirectly(object, 1));
+
+			// same fields as the name-based access
+			assertEquals("n1", object.readPropertyDirectly("name"));
+			object.writePropertyDirectly("count", 6);
+			assertEquals(6, accessors.readPropertyDirectly(object, 1));
+		}
+	}
+
 	protected List<String> execute(Artifact artifact) throws Exception {
 
 		action.execute(artifact);
@@ -312,4 +473,176 @@ public class ClassGenerationActionTest extends CgenCase {
 		cgenConfiguration.setOverwrite(true);
 		assertNull(action.openWriter(templateType));
 	}
-}
\ No newline at end of file
+
+	@Test
+	public void testExecute_Incremental() throws Exception {
+		DataMap map = new DataMap("m");
+		ObjEntity testEntity1 = createEntity(map, "TE1", "org.example.TestClass1");
+		createEntity(map, "TE2", "org.example.TestClass2");
+
+		cgenConfiguration.setRootPath(tempFolder.getRoot().toPath());
+		cgenConfiguration.updateOutputPath(Paths.get("."));
+		cgenConfiguration.setSuperPkg("org.example.auto");
+		cgenConfiguration.setManifestPath(tempFolder.getRoot().toPath().resolve("cgen.manifest"));
+		action = getUnitTestInjector().getInstance(ClassGenerationActionFactory.class).createAction(cgenConfiguration);
+		action.addEntities(map.getObjEntities());
+		action.execute();
+
+		File superclass1 = new File(tempFolder.getRoot(), "org/example/auto/_TestClass1.java");
+		File superclass2 = new File(tempFolder.getRoot(), "org/example/auto/_TestClass2.java");
+		assertTrue(superclass1.exists());
+		assertTrue(superclass2.exists());
+		assertTrue(new File(tempFolder.getRoot(), "cgen.manifest").exists());
+
+		// nothing changed, nothing is regenerated
+		writeFile(superclass1, "stale");
+		writeFile(superclass2, "stale");
+		action.execute();
+		assertEquals("stale", readFile(superclass1));
+		assertEquals("stale", readFile(superclass2));
+
+		// only the changed entity is regenerated
+		ObjAttribute attribute = new ObjAttribute("name");
+		attribute.setType("java.lang.String");
+		testEntity1.addAttribute(attribute);
+		action.execute();
+		assertTrue(readFile(superclass1).contains("class _TestClass1"));
+		assertEquals("stale", readFile(superclass2));
+
+		// deleted files are regenerated
+		assertTrue(superclass2.delete());
+		action.execute();
+		assertTrue(readFile(superclass2).contains("class _TestClass2"));
+	}
+
+	@Test
+	public void testExecute_Parallel() throws Exception {
+		DataMap map = new DataMap("m");
+		for (int i = 0; i < 20; i++) {
+			createEntity(map, "TE" + i, "org.example.TestClass" + i);
+		}
+
+		cgenConfiguration.setRootPath(tempFolder.getRoot().toPath());
+		cgenConfiguration.updateOutputPath(Paths.get("."));
+		cgenConfiguration.setSuperPkg("org.example.auto");
+		cgenConfiguration.setThreadCount(4);
+		action = getUnitTestInjector().getInstance(ClassGenerationActionFactory.class).createAction(cgenConfiguration);
+		action.addEntities(map.getObjEntities());
+		action.execute();
+
+		for (int i = 0; i < 20; i++) {
+			String superclass = readFile(new File(tempFolder.getRoot(), "org/example/auto/_TestClass" + i + ".java"));
+			assertTrue(superclass, superclass.contains("class _TestClass" + i + " "));
+
+			String subclass = readFile(new File(tempFolder.getRoot(), "org/example/TestClass" + i + ".java"));
+			assertTrue(subclass, subclass.contains("class TestClass" + i + " extends _TestClass" + i));
+		}
+	}
+
+	@Test
+	public void testExecute_ParallelMatchesSerial() throws Exception {
+		DataMap map = new DataMap("m");
+		ObjEntity previous = null;
+		for (int i = 0; i < 20; i++) {
+			ObjEntity entity = createEntity(map, "TE" + i, "org.example.TestClass" + i);
+
+			ObjAttribute attribute = new ObjAttribute("name" + i);
+			attribute.setType("java.lang.String");
+			entity.addAttribute(attribute);
+
+			if (previous != null) {
+				ObjRelationship relationship = new ObjRelationship("previous");
+				relationship.setTargetEntityName(previous);
+				entity.addRelationship(relationship);
+			}
+			previous = entity;
+		}
+
+		File serialRoot = tempFolder.newFolder("serial");
+		File parallelRoot = tempFolder.newFolder("parallel");
+		generate(map, serialRoot, 1);
+		generate(map, parallelRoot, 4);
+
+		List<Path> serialFiles = listFiles(serialRoot.toPath());
+		assertEquals(40, serialFiles.size());
+		assertEquals(serialFiles, listFiles(parallelRoot.toPath()));
+
+		for (Path file : serialFiles) {
+			assertArrayEquals(file.toString(),
+					Files.readAllBytes(serialRoot.toPath().resolve(file)),
+					Files.readAllBytes(parallelRoot.toPath().resolve(file)));
+		}
+	}
+
+	@Test
+	public void testExecute_Incremental_TemplateChanged() throws Exception {
+		DataMap map = new DataMap("m");
+		createEntity(map, "TE1", "org.example.TestClass1");
+
+		File template = new File(tempFolder.getRoot(), "superclass.vm");
+		try (InputStream in = getClass().getClassLoader()
+				.getResourceAsStream(TemplateType.ENTITY_SUPERCLASS.pathFromSourceRoot())) {
+			Files.copy(in, template.toPath());
+		}
+
+		cgenConfiguration.setRootPath(tempFolder.getRoot().toPath());
+		cgenConfiguration.updateOutputPath(Paths.get("."));
+		cgenConfiguration.setSuperPkg("org.example.auto");
+		cgenConfiguration.setSuperTemplate(
+				new CgenTemplate(template.getAbsolutePath(), true, TemplateType.ENTITY_SUPERCLASS));
+		cgenConfiguration.setManifestPath(tempFolder.getRoot().toPath().resolve("cgen.manifest"));
+		action = getUnitTestInjector().getInstance(ClassGenerationActionFactory.class).createAction(cgenConfiguration);
+		action.addEntities(map.getObjEntities());
+		action.execute();
+
+		File superclass = new File(tempFolder.getRoot(), "org/example/auto/_TestClass1.java");
+		assertTrue(readFile(superclass).contains("class _TestClass1"));
+
+		// template is unchanged, file is not regenerated
+		writeFile(superclass, "stale");
+		action.execute();
+		assertEquals("stale", readFile(superclass));
+
+		// a template comment doesn't change the output, but still invalidates the fingerprint
+		Files.write(template.toPath(), "## changed\n".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+		action.execute();
+		assertTrue(readFile(superclass).contains("class _TestClass1"));
+	}
+
+	private void generate(DataMap map, File root, int threadCount) throws Exception {
+		CgenConfiguration configuration = new CgenConfiguration();
+		configuration.setRootPath(root.toPath());
+		configuration.updateOutputPath(Paths.get("."));
+		configuration.setSuperPkg("org.example.auto");
+		configuration.setThreadCount(threadCount);
+
+		ClassGenerationAction action = getUnitTestInjector().getInstance(ClassGenerationActionFactory.class)
+				.createAction(configuration);
+		action.addEntities(map.getObjEntities());
+		action.execute();
+	}
+
+	private List<Path> listFiles(Path root) throws IOException {
+		try (Stream<Path> files = Files.walk(root)) {
+			return files.filter(Files::isRegularFile)
+					.map(root::relativize)
+					.sorted()
+					.collect(Collectors.toList());
+		}
+	}
+
+	private ObjEntity createEntity(DataMap map, String name, String className) {
+		ObjEntity entity = new ObjEntity(name);
+		entity.setClassName(className);
+		map.addObjEntity(entity);
+		return entity;
+	}
+
+	private void writeFile(File file, String text) throws IOException {
+		Files.write(file.toPath(), text.getBytes(StandardCharsets.UTF_8));
+	}
+
+	private String readFile(File file) throws IOException {
+		return new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+	}
+}
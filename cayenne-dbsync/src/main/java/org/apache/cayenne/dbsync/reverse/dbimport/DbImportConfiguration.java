@@ -313,6 +313,15 @@ public class DbImportConfiguration {
         dbLoaderConfiguration.setTableTypes(tableTypes);
     }
 
+    /**
+     * Sets the number of threads (and DB connections) used to load per-table metadata.
+     *
+     * @since 5.0
+     */
+    public void setThreadCount(int threadCount) {
+        dbLoaderConfiguration.setThreadCount(threadCount);
+    }
+
     public void setForceDataMapCatalog(boolean forceDataMapCatalog) {
         this.forceDataMapCatalog = forceDataMapCatalog;
     }
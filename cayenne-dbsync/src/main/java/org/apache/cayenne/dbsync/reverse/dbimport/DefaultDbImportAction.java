@@ -196,7 +196,7 @@ public class DefaultDbImportAction implements DbImportAction {
         }
 
         try (Connection connection = dataSource.getConnection()) {
-            sourceDataMap = load(config, adapter, connection);
+            sourceDataMap = load(config, adapter, connection, dataSource);
         }
 
         if (targetDataMap == null) {
@@ -505,7 +505,22 @@ public class DefaultDbImportAction implements DbImportAction {
     }
 
     protected DataMap load(DbImportConfiguration config, DbAdapter adapter, Connection connection) throws Exception {
-        return createDbLoader(adapter, connection, config).load();
+        return load(config, adapter, connection, null);
+    }
+
+    /**
+     * Loads DB schema via the connection, using extra connections from the DataSource if the loader is configured to
+     * run in parallel.
+     *
+     * @since 5.0
+     */
+    protected DataMap load(DbImportConfiguration config,
+                           DbAdapter adapter,
+                           Connection connection,
+                           DataSource dataSource) throws Exception {
+        DbLoader loader = createDbLoader(adapter, connection, config);
+        loader.setDataSource(dataSource);
+        return loader.load();
     }
 
     protected DbLoader createDbLoader(DbAdapter adapter, Connection connection, DbImportConfiguration config) {
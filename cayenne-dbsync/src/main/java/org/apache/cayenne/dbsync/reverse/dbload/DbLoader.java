@@ -29,6 +29,7 @@ import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
+import javax.sql.DataSource;
 
 /**
  * Loads DB schema into a DataMap, creating DbEntities and Procedures. Consists of a list of specialized loaders that
@@ -46,6 +47,7 @@ public class DbLoader {
     private final DbLoaderConfiguration config;
     private final DbLoaderDelegate delegate;
     private final ObjectNameGenerator nameGenerator;
+    private DataSource dataSource;
 
     public DbLoader(DbAdapter adapter, Connection connection, DbLoaderConfiguration config,
                     DbLoaderDelegate delegate, ObjectNameGenerator nameGenerator) {
@@ -72,6 +74,17 @@ public class DbLoader {
         loaders.add(new ProcedureColumnLoader(adapter, config, delegate));
     }
 
+    /**
+     * Sets a DataSource used to open extra connections when loading in parallel, i.e. when
+     * {@link DbLoaderConfiguration#getThreadCount()} is greater than one. Without a DataSource all metadata is loaded
+     * serially via the main connection.
+     *
+     * @since 5.0
+     */
+    public void setDataSource(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
     /**
      * @return new DataMap with data loaded from DB
      */
@@ -79,8 +92,22 @@ public class DbLoader {
         DbLoadDataStore loadedData = new DbLoadDataStore();
         DatabaseMetaData metaData = connection.getMetaData();
 
-        for(AbstractLoader loader : loaders) {
-            loader.load(metaData, loadedData);
+        if(dataSource == null || config.getThreadCount() <= 1) {
+            for(AbstractLoader loader : loaders) {
+                loader.load(metaData, loadedData);
+            }
+            return loadedData;
+        }
+
+        // per-catalog and per-schema calls are few, so only per-entity calls are worth running in parallel
+        try(MetaDataExecutor executor = new MetaDataExecutor(dataSource, config.getThreadCount())) {
+            for(AbstractLoader loader : loaders) {
+                if(loader instanceof PerEntityLoader) {
+                    ((PerEntityLoader) loader).load(executor, loadedData);
+                } else {
+                    loader.load(metaData, loadedData);
+                }
+            }
         }
         return loadedData;
     }
@@ -32,6 +32,7 @@ public class DbLoaderConfiguration {
     private Boolean skipPrimaryKeyLoading;
     private String[] tableTypes;
     private FiltersConfig filtersConfig;
+    private int threadCount = 1;
 
     public String[] getTableTypes() {
         return tableTypes;
@@ -69,6 +70,24 @@ public class DbLoaderConfiguration {
         this.skipPrimaryKeyLoading = skipPrimaryKeyLoading;
     }
 
+    /**
+     * Returns the number of threads used to load per-table metadata, such as primary and foreign keys. Parallel loading
+     * requires a DataSource set via {@link DbLoader#setDataSource(javax.sql.DataSource)}. Default is 1, i.e. all
+     * metadata is loaded serially.
+     *
+     * @since 5.0
+     */
+    public int getThreadCount() {
+        return threadCount;
+    }
+
+    /**
+     * @since 5.0
+     */
+    public void setThreadCount(int threadCount) {
+        this.threadCount = Math.max(1, threadCount);
+    }
+
     @Override
     public String toString() {
         String res = "EntitiesFilters: " + getFiltersConfig();
@@ -80,6 +99,10 @@ public class DbLoaderConfiguration {
             res += "\n Skip Loading PrimaryKeys! \n";
         }
 
+        if (threadCount > 1) {
+            res += "\n Loading with " + threadCount + " threads \n";
+        }
+
         return res;
     }
 }
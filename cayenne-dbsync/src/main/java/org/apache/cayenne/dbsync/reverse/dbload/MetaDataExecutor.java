@@ -0,0 +1,142 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.dbsync.reverse.dbload;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Runs {@link DatabaseMetaData} calls of a {@link DbLoader} in a pool of threads. Each thread uses its own connection
+ * taken from a DataSource, as JDBC connections can't be reliably shared between threads. Connections are opened
+ * lazily, so there's never more of them than there are threads, and are closed together with the executor.
+ *
+ * @since 5.0
+ */
+class MetaDataExecutor implements AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(DbLoader.class);
+
+    private final DataSource dataSource;
+    private final ExecutorService executor;
+    private final Queue<Connection> idleConnections;
+    private final List<Connection> connections;
+
+    MetaDataExecutor(DataSource dataSource, int threadCount) {
+        this.dataSource = dataSource;
+        this.idleConnections = new ConcurrentLinkedQueue<>();
+        this.connections = new ArrayList<>(threadCount);
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(threadCount, r -> {
+            Thread thread = new Thread(r, "cayenne-dbloader-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Schedules a call with the metadata of one of the pooled connections.
+     */
+    <T> Future<T> submit(MetaDataCall<T> call) {
+        return executor.submit(() -> {
+            Connection connection = idleConnections.poll();
+            if (connection == null) {
+                connection = openConnection();
+            }
+
+            try {
+                return call.call(connection.getMetaData());
+            } finally {
+                idleConnections.offer(connection);
+            }
+        });
+    }
+
+    /**
+     * Waits for the result of a call, rethrowing SQLException thrown by the call as is.
+     */
+    <T> T get(Future<T> future) throws SQLException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while loading DB metadata", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof SQLException) {
+                throw (SQLException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new SQLException("Error loading DB metadata", cause);
+        }
+    }
+
+    private Connection openConnection() throws SQLException {
+        Connection connection = dataSource.getConnection();
+        synchronized (connections) {
+            connections.add(connection);
+        }
+        return connection;
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+        try {
+            // let the calls interrupted on error finish before closing their connections
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        synchronized (connections) {
+            for (Connection connection : connections) {
+                try {
+                    connection.close();
+                } catch (SQLException e) {
+                    LOGGER.warn("Error closing DB metadata connection", e);
+                }
+            }
+            connections.clear();
+        }
+    }
+
+    @FunctionalInterface
+    interface MetaDataCall<T> {
+
+        T call(DatabaseMetaData metaData) throws SQLException;
+    }
+}
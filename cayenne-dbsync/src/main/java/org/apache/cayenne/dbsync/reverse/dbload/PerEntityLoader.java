@@ -22,6 +22,12 @@ package org.apache.cayenne.dbsync.reverse.dbload;
 import java.sql.DatabaseMetaData;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Future;
+import javax.sql.rowset.CachedRowSet;
+import javax.sql.rowset.RowSetFactory;
+import javax.sql.rowset.RowSetProvider;
 
 import org.apache.cayenne.dba.DbAdapter;
 import org.apache.cayenne.map.DbEntity;
@@ -50,6 +56,46 @@ public abstract class PerEntityLoader extends AbstractLoader {
         }
     }
 
+    /**
+     * Loads metadata making per-entity calls in parallel. Results are copied in memory by the executor threads, and
+     * then processed in this thread in the order of entities, so the outcome is the same as in {@link
+     * #load(DatabaseMetaData, DbLoadDataStore)}.
+     *
+     * @since 5.0
+     */
+    void load(MetaDataExecutor executor, DbLoadDataStore map) throws SQLException {
+        RowSetFactory rowSetFactory = RowSetProvider.newFactory();
+
+        List<DbEntity> entities = new ArrayList<>();
+        List<Future<CachedRowSet>> results = new ArrayList<>();
+        for(DbEntity dbEntity : map.getDbEntities()) {
+            if(!shouldLoad(dbEntity)) {
+                continue;
+            }
+            entities.add(dbEntity);
+            results.add(executor.submit(metaData -> {
+                try(ResultSet rs = getResultSet(dbEntity, metaData)) {
+                    CachedRowSet rowSet = rowSetFactory.createCachedRowSet();
+                    rowSet.populate(rs);
+                    return rowSet;
+                }
+            }));
+        }
+
+        for(int i = 0; i < entities.size(); i++) {
+            DbEntity dbEntity = entities.get(i);
+            try(ResultSet rs = executor.get(results.get(i))) {
+                while(rs.next()) {
+                    processResultSet(dbEntity, map, rs);
+                }
+            } catch (SQLException ex) {
+                if(!catchException(dbEntity, ex)) {
+                    throw ex;
+                }
+            }
+        }
+    }
+
     boolean shouldLoad(DbEntity entity) {
         return true;
     }
@@ -32,6 +32,7 @@ import org.apache.cayenne.di.Inject;
 import org.apache.cayenne.map.DataMap;
 import org.apache.cayenne.map.DbAttribute;
 import org.apache.cayenne.map.DbEntity;
+import org.apache.cayenne.map.DbJoin;
 import org.apache.cayenne.map.DbRelationship;
 import org.apache.cayenne.runtime.CayenneRuntime;
 import org.apache.cayenne.unit.UnitDbAdapter;
@@ -144,6 +145,44 @@ public class DbLoaderIT extends RuntimeCase {
         assertNotNull(target);
     }
 
+    @Test
+    public void testParallelLoad() throws Exception {
+        DataMap serial = createDbLoader(CONFIG).load();
+
+        DbLoaderConfiguration parallelConfig = new DbLoaderConfiguration();
+        parallelConfig.setThreadCount(2);
+        DbLoader parallelLoader = createDbLoader(parallelConfig);
+        parallelLoader.setDataSource(dataSourceFactory.getSharedDataSource());
+        DataMap parallel = parallelLoader.load();
+
+        assertFalse(serial.getDbEntities().isEmpty());
+        assertEquals(describe(serial), describe(parallel));
+    }
+
+    private String describe(DataMap map) {
+        StringBuilder out = new StringBuilder();
+        for (DbEntity entity : map.getDbEntities()) {
+            out.append(entity.getName()).append('\n');
+            for (DbAttribute attribute : entity.getAttributes()) {
+                out.append("  ").append(attribute.getName())
+                        .append(' ').append(attribute.getType())
+                        .append(' ').append(attribute.getMaxLength())
+                        .append(attribute.isPrimaryKey() ? " PK" : "")
+                        .append(attribute.isMandatory() ? " NOT NULL" : "")
+                        .append('\n');
+            }
+            for (DbRelationship relationship : entity.getRelationships()) {
+                out.append("  ").append(relationship.getName())
+                        .append(" -> ").append(relationship.getTargetEntityName());
+                for (DbJoin join : relationship.getJoins()) {
+                    out.append(' ').append(join.getSourceName()).append('=').append(join.getTargetName());
+                }
+                out.append('\n');
+            }
+        }
+        return out.toString();
+    }
+
     private DbAttribute getDbAttribute(DbEntity ent, String name) {
         DbAttribute da = ent.getAttribute(name);
         // sometimes table names get converted to lowercase
@@ -0,0 +1,215 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+
+import org.apache.cayenne.access.DataContext;
+import org.apache.cayenne.di.Injector;
+import org.apache.cayenne.query.Query;
+import org.apache.cayenne.query.Select;
+import org.apache.cayenne.runtime.CayenneRuntime;
+import org.apache.cayenne.tx.TransactionContext;
+
+/**
+ * An asynchronous facade to an {@link ObjectContext}, that runs context operations on an {@link Executor} and returns
+ * their results as {@link CompletableFuture CompletableFutures}. Useful for non-blocking applications that can't
+ * afford to block the calling thread on database access.
+ * <p>
+ * ObjectContext is not thread-safe, so the operations submitted via a single facade are executed strictly one after
+ * another in the order of submission, each one seeing the results of the previous. The next operation starts even if
+ * the previous one failed. Operations on the underlying context must not be performed directly while there are
+ * pending asynchronous operations.
+ * <p>
+ * Thread-bound state of the submitting thread is carried over to the executor thread for the duration of each
+ * operation. Namely, the current transaction (so that an operation submitted within "performInTransaction" joins
+ * the caller transaction, as described in {@link TransactionContext}), the DI injector and the "thread
+ * ObjectContext", that is set to the wrapped context. When submitting operations within a transaction, the caller
+ * must wait for their completion before the transaction ends.
+ *
+ * @see org.apache.cayenne.runtime.CayenneRuntime#newAsyncContext()
+ * @since 5.0
+ */
+public class AsyncObjectContext {
+
+    protected final ObjectContext context;
+    protected final Executor executor;
+
+    // the last submitted operation, used to serialize operations on the context
+    private CompletableFuture<?> tail;
+
+    public AsyncObjectContext(ObjectContext context, Executor executor) {
+        this.context = Objects.requireNonNull(context);
+        this.executor = Objects.requireNonNull(executor);
+        this.tail = CompletableFuture.completedFuture(null);
+    }
+
+    /**
+     * Returns the underlying ObjectContext.
+     */
+    public ObjectContext getContext() {
+        return context;
+    }
+
+    /**
+     * Returns the Executor running the operations of this context.
+     */
+    public Executor getExecutor() {
+        return executor;
+    }
+
+    /**
+     * Asynchronously executes a selecting query.
+     *
+     * @see ObjectContext#select(Select)
+     */
+    public <T> CompletableFuture<List<T>> selectAsync(Select<T> query) {
+        return callAsync(c -> c.select(query));
+    }
+
+    /**
+     * Asynchronously executes a selecting query, expecting a single object or none.
+     *
+     * @see ObjectContext#selectOne(Select)
+     */
+    public <T> CompletableFuture<T> selectOneAsync(Select<T> query) {
+        return callAsync(c -> c.selectOne(query));
+    }
+
+    /**
+     * Asynchronously executes a selecting query, returning the first matched object or null.
+     *
+     * @see ObjectContext#selectFirst(Select)
+     */
+    public <T> CompletableFuture<T> selectFirstAsync(Select<T> query) {
+        return callAsync(c -> c.selectFirst(query));
+    }
+
+    /**
+     * Asynchronously executes a query.
+     *
+     * @see ObjectContext#performQuery(Query)
+     */
+    @SuppressWarnings("rawtypes")
+    public CompletableFuture<List> performQueryAsync(Query query) {
+        return callAsync(c -> c.performQuery(query));
+    }
+
+    /**
+     * Asynchronously iterates over the query result, passing each object to the callback. The callback is invoked
+     * on the executor thread. The returned future is completed once the iteration is over and the underlying
+     * iterator is closed.
+     *
+     * @see ObjectContext#iterate(Select, ResultIteratorCallback)
+     */
+    public <T> CompletableFuture<Void> iterateAsync(Select<T> query, ResultIteratorCallback<T> callback) {
+        return callAsync(c -> {
+            c.iterate(query, callback);
+            return null;
+        });
+    }
+
+    /**
+     * Asynchronously commits changes made in the context.
+     *
+     * @see ObjectContext#commitChanges()
+     */
+    public CompletableFuture<Void> commitChangesAsync() {
+        return callAsync(c -> {
+            c.commitChanges();
+            return null;
+        });
+    }
+
+    /**
+     * Asynchronously runs an arbitrary operation on the context, serialized with the other operations of this
+     * facade.
+     */
+    public <T> CompletableFuture<T> callAsync(Function<ObjectContext, T> operation) {
+        ThreadState callerState = ThreadState.capture(context);
+        TransactionContext transactionContext = TransactionContext.capture();
+
+        synchronized (this) {
+            CompletableFuture<T> result = tail
+                    .handle((r, e) -> null)
+                    .thenApplyAsync(r -> {
+                        ThreadState workerState = ThreadState.capture(null);
+                        callerState.bind();
+                        try {
+                            return transactionContext.perform(() -> operation.apply(context));
+                        } finally {
+                            workerState.bind();
+                        }
+                    }, executor);
+
+            this.tail = result;
+            return unwrapping(result);
+        }
+    }
+
+    // the exceptions thrown by the operations are reported as CompletionException, which is not useful to the caller
+    private static <T> CompletableFuture<T> unwrapping(CompletableFuture<T> future) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        future.whenComplete((r, e) -> {
+            if (e == null) {
+                result.complete(r);
+            } else {
+                result.completeExceptionally(e instanceof CompletionException && e.getCause() != null
+                        ? e.getCause()
+                        : e);
+            }
+        });
+        return result;
+    }
+
+    private static class ThreadState {
+
+        final Injector injector;
+        final ObjectContext context;
+
+        ThreadState(Injector injector, ObjectContext context) {
+            this.injector = injector;
+            this.context = context;
+        }
+
+        // captures current thread state, optionally replacing the thread context
+        static ThreadState capture(ObjectContext context) {
+            ObjectContext threadContext = context;
+            if (threadContext == null) {
+                try {
+                    threadContext = DataContext.getThreadObjectContext();
+                } catch (IllegalStateException e) {
+                    // no context bound
+                }
+            }
+
+            return new ThreadState(CayenneRuntime.getThreadInjector(), threadContext);
+        }
+
+        void bind() {
+            CayenneRuntime.bindThreadInjector(injector);
+            DataContext.bindThreadObjectContext(context);
+        }
+    }
+}
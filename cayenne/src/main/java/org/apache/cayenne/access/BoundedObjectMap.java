@@ -0,0 +1,193 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.access;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.cayenne.PersistenceState;
+import org.apache.cayenne.Persistent;
+import org.apache.cayenne.util.WeakValueMap;
+
+/**
+ * An {@link ObjectStore} object map that keeps hard references to at most "maxSize" most recently used objects.
+ * Objects pushed out of this bounded region are evicted in LRU order and are only weakly referenced after that, so
+ * they stay registered for as long as the application holds on to them, preserving object uniquing within the
+ * context. NEW, MODIFIED and DELETED objects are never released, as they are hard-referenced by the ObjectStore change
+ * tracker until commit or rollback, and they are not counted as evicted.
+ * <p>
+ * Like other object maps, this map can be read concurrently, while modifications rely on {@link ObjectStore}
+ * synchronization. LRU bookkeeping on read is guarded by its own short lock.
+ *
+ * @see DefaultObjectMapRetainStrategy
+ * @since 5.0
+ */
+public class BoundedObjectMap extends WeakValueMap<Object, Persistent> {
+
+    private static final long serialVersionUID = 2683906154716405263L;
+
+    protected int maxSize;
+    protected transient LinkedHashMap<Object, Persistent> retained;
+    protected transient LongAdder evictionCounter;
+    protected transient long evictedCount;
+
+    public BoundedObjectMap(int maxSize) {
+        this(maxSize, null);
+    }
+
+    /**
+     * Creates a map with an optional shared counter that is incremented on each eviction, in addition to this map's
+     * own eviction count.
+     */
+    public BoundedObjectMap(int maxSize, LongAdder evictionCounter) {
+        super();
+
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("Bounded object map size must be positive: " + maxSize);
+        }
+
+        this.maxSize = maxSize;
+        this.evictionCounter = evictionCounter;
+        this.retained = createRetainedMap(maxSize);
+    }
+
+    private static LinkedHashMap<Object, Persistent> createRetainedMap(int maxSize) {
+        // access order for LRU, capacity selected so that the map never needs to grow
+        return new LinkedHashMap<>((int) Math.min((long) maxSize * 4 / 3 + 1, 1 << 16), 0.75f, true);
+    }
+
+    @Override
+    public Persistent get(Object key) {
+        Persistent value = super.get(key);
+        if (value != null) {
+            retain(key, value);
+        }
+
+        return value;
+    }
+
+    @Override
+    public Persistent put(Object key, Persistent value) {
+        Persistent old = super.put(key, value);
+
+        // null during deserialization, when the superclass is restoring its state
+        if (retained != null) {
+            retain(key, value);
+        }
+        return old;
+    }
+
+    @Override
+    public void putAll(Map<?, ? extends Persistent> m) {
+        for (Map.Entry<?, ? extends Persistent> e : m.entrySet()) {
+            put(e.getKey(), e.getValue());
+        }
+    }
+
+    @Override
+    public Persistent remove(Object key) {
+        synchronized (retained) {
+            retained.remove(key);
+        }
+        return super.remove(key);
+    }
+
+    @Override
+    public void clear() {
+        synchronized (retained) {
+            retained.clear();
+        }
+        super.clear();
+    }
+
+    /**
+     * Returns the max number of objects this map keeps hard references to.
+     */
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Returns the number of objects currently held via hard references.
+     */
+    public int getRetainedSize() {
+        synchronized (retained) {
+            return retained.size();
+        }
+    }
+
+    /**
+     * Returns how many objects were evicted from the hard-referenced region of this map since its creation.
+     */
+    public long getEvictedCount() {
+        return evictedCount;
+    }
+
+    protected void retain(Object key, Persistent value) {
+        synchronized (retained) {
+            // for existing keys "put" would simply move the entry to the most recently used end
+            if (retained.put(key, value) == null && retained.size() > maxSize) {
+                evict();
+            }
+        }
+    }
+
+    // must be called while holding "retained" lock
+    protected void evict() {
+        Iterator<Map.Entry<Object, Persistent>> it = retained.entrySet().iterator();
+        while (retained.size() > maxSize && it.hasNext()) {
+            Persistent object = it.next().getValue();
+            it.remove();
+
+            // objects with uncommitted changes are hard-referenced by the ObjectStore change tracker regardless of
+            // this map, so dropping them here is not an eviction. They will be re-added on the next access
+            if (isEvictable(object)) {
+                evictedCount++;
+                if (evictionCounter != null) {
+                    evictionCounter.increment();
+                }
+            }
+        }
+    }
+
+    protected boolean isEvictable(Persistent object) {
+        switch (object.getPersistenceState()) {
+            case PersistenceState.COMMITTED:
+            case PersistenceState.HOLLOW:
+            case PersistenceState.TRANSIENT:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        retained = createRetainedMap(maxSize);
+
+        // the superclass has already restored its contents, though without the hard references...
+        for (Map.Entry<Object, Persistent> e : entrySet()) {
+            retain(e.getKey(), e.getValue());
+        }
+    }
+}
@@ -0,0 +1,270 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.access;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import org.apache.cayenne.CayenneRuntimeException;
+import org.apache.cayenne.access.util.DefaultOperationObserver;
+import org.apache.cayenne.dba.PkGenerator;
+import org.apache.cayenne.map.DbAttribute;
+import org.apache.cayenne.map.DbEntity;
+import org.apache.cayenne.query.BatchQueryRow;
+import org.apache.cayenne.query.InsertBatchQuery;
+import org.apache.cayenne.tx.TransactionManager;
+import org.apache.cayenne.util.Util;
+
+/**
+ * Inserts large amounts of rows into a single table, bypassing ObjectContext. Rows are passed either as maps of
+ * DbAttribute names to values (e.g. {@link org.apache.cayenne.DataRow DataRows}), or as Object[] arrays with values
+ * in the order of {@link #columns(String...) columns}. Missing PK values are obtained from the adapter
+ * {@link PkGenerator}, unless the PK is generated by the database. Rows are written in {@link InsertBatchQuery}
+ * batches of a configurable size, with no object graph, snapshot cache or lifecycle events involved. Only a single
+ * batch of rows is held in memory at any given time, so the source of rows can be a lazy stream of any length.
+ * <p>
+ * By default, the whole load is done in a single transaction. For very large loads, a transaction can be committed
+ * every N batches via {@link #batchesPerTransaction(int)}. In this case a failed load leaves the rows of the
+ * previously committed transactions in the database.
+ *
+ * @see org.apache.cayenne.runtime.CayenneRuntime#bulkLoader(String)
+ * @since 5.0
+ */
+public class BulkLoader {
+
+    static final int DEFAULT_BATCH_SIZE = 1000;
+
+    private final DataNode node;
+    private final DbEntity entity;
+    private final TransactionManager transactionManager;
+
+    private int batchSize;
+    private int batchesPerTransaction;
+    private String[] columns;
+
+    public BulkLoader(DataNode node, DbEntity entity, TransactionManager transactionManager) {
+        this.node = node;
+        this.entity = entity;
+        this.transactionManager = transactionManager;
+        this.batchSize = DEFAULT_BATCH_SIZE;
+    }
+
+    /**
+     * Sets the number of rows sent to the database in a single batch. The default is 1000.
+     */
+    public BulkLoader batchSize(int batchSize) {
+        if (batchSize < 1) {
+            throw new CayenneRuntimeException("Invalid batch size: %d", batchSize);
+        }
+        this.batchSize = batchSize;
+        return this;
+    }
+
+    /**
+     * Sets the number of batches after which the transaction is committed and a new one is started. Zero (the
+     * default) means that all rows are loaded in a single transaction.
+     */
+    public BulkLoader batchesPerTransaction(int batchesPerTransaction) {
+        this.batchesPerTransaction = batchesPerTransaction;
+        return this;
+    }
+
+    /**
+     * Sets the names of DbAttributes corresponding to the values of Object[] rows. If not set, all entity
+     * attributes are expected in the order they are defined in the DbEntity.
+     */
+    public BulkLoader columns(String... columns) {
+        this.columns = columns;
+        return this;
+    }
+
+    /**
+     * Inserts rows from a stream of maps with DbAttribute names as keys.
+     *
+     * @return the number of inserted rows
+     */
+    public long load(Stream<? extends Map<String, ?>> rows) {
+        return load(rows.iterator());
+    }
+
+    /**
+     * Inserts rows from an iterator over maps with DbAttribute names as keys.
+     *
+     * @return the number of inserted rows
+     */
+    public long load(Iterator<? extends Map<String, ?>> rows) {
+        RowFactory<Map<String, ?>> factory = new RowFactory<>(entity) {
+            @Override
+            Object value(Map<String, ?> row, int i) {
+                return row.get(attributes.get(i).getName());
+            }
+        };
+        return doLoad(rows, factory);
+    }
+
+    /**
+     * Inserts rows from a stream of Object[] arrays with values in the order of the {@link #columns(String...)}.
+     *
+     * @return the number of inserted rows
+     */
+    public long loadArrays(Stream<Object[]> rows) {
+        return loadArrays(rows.iterator());
+    }
+
+    /**
+     * Inserts rows from an iterator over Object[] arrays with values in the order of the
+     * {@link #columns(String...)}.
+     *
+     * @return the number of inserted rows
+     */
+    public long loadArrays(Iterator<Object[]> rows) {
+        RowFactory<Object[]> factory = new RowFactory<>(entity) {
+
+            final int[] positions = arrayPositions(attributes);
+
+            @Override
+            Object value(Object[] row, int i) {
+                int pos = positions[i];
+                return pos >= 0 ? row[pos] : null;
+            }
+        };
+        return doLoad(rows, factory);
+    }
+
+    private int[] arrayPositions(List<DbAttribute> attributes) {
+        int[] positions = new int[attributes.size()];
+        if (columns == null) {
+            for (int i = 0; i < positions.length; i++) {
+                positions[i] = i;
+            }
+            return positions;
+        }
+
+        for (int i = 0; i < positions.length; i++) {
+            positions[i] = -1;
+            for (int j = 0; j < columns.length; j++) {
+                if (attributes.get(i).getName().equals(columns[j])) {
+                    positions[i] = j;
+                    break;
+                }
+            }
+        }
+
+        for (String column : columns) {
+            if (entity.getAttribute(column) == null) {
+                throw new CayenneRuntimeException("No attribute '%s' in DbEntity '%s'", column, entity.getName());
+            }
+        }
+
+        return positions;
+    }
+
+    private <T> long doLoad(Iterator<? extends T> rows, RowFactory<T> factory) {
+        long count = 0;
+        while (rows.hasNext()) {
+            count += transactionManager.performInTransaction(() -> loadTransaction(rows, factory));
+        }
+        return count;
+    }
+
+    private <T> long loadTransaction(Iterator<? extends T> rows, RowFactory<T> factory) {
+        long count = 0;
+        int batches = 0;
+
+        while (rows.hasNext() && (batchesPerTransaction <= 0 || batches < batchesPerTransaction)) {
+            InsertBatchQuery batch = new InsertBatchQuery(entity, batchSize);
+            List<BatchQueryRow> batchRows = batch.getRows();
+            while (batchRows.size() < batchSize && rows.hasNext()) {
+                batchRows.add(factory.createRow(rows.next()));
+            }
+
+            DefaultOperationObserver observer = new DefaultOperationObserver();
+            node.performQueries(Collections.singletonList(batch), observer);
+            if (observer.hasExceptions()) {
+                Throwable cause = !observer.getQueryExceptions().isEmpty()
+                        ? observer.getQueryExceptions().values().iterator().next()
+                        : observer.getGlobalExceptions().get(0);
+                throw new CayenneRuntimeException("Bulk load into '%s' failed", Util.unwindException(cause),
+                        entity.getName());
+            }
+
+            count += batchRows.size();
+            batches++;
+        }
+
+        return count;
+    }
+
+    /**
+     * Creates batch rows reading values from the source rows, and generating missing PKs.
+     */
+    private abstract class RowFactory<T> {
+
+        final List<DbAttribute> attributes;
+        final int generatedPk;
+
+        RowFactory(DbEntity entity) {
+            // same attribute order as in the InsertBatchQuery
+            InsertBatchQuery prototype = new InsertBatchQuery(entity, 0);
+            this.attributes = prototype.getDbAttributes();
+            this.generatedPk = generatedPkIndex();
+        }
+
+        abstract Object value(T row, int i);
+
+        BatchQueryRow createRow(T row) {
+            Object[] values = new Object[attributes.size()];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = value(row, i);
+            }
+
+            if (generatedPk >= 0 && values[generatedPk] == null) {
+                try {
+                    values[generatedPk] = node.getAdapter().getPkGenerator().generatePk(node, attributes.get(generatedPk));
+                } catch (Exception e) {
+                    throw new CayenneRuntimeException("Error generating PK for '%s'", e, entity.getName());
+                }
+            }
+
+            return new BatchQueryRow(null, null) {
+                @Override
+                public Object getValue(int i) {
+                    return values[i];
+                }
+            };
+        }
+
+        // returns the index of the PK that needs to be generated by Cayenne, or -1 if there's none
+        private int generatedPkIndex() {
+            if (entity.getPrimaryKeys().size() != 1) {
+                return -1;
+            }
+
+            DbAttribute pk = entity.getPrimaryKeys().iterator().next();
+            if (pk.isGenerated() && node.getAdapter().supportsGeneratedKeys()) {
+                return -1;
+            }
+
+            return attributes.indexOf(pk);
+        }
+    }
+}
@@ -26,6 +26,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -44,6 +45,7 @@ import org.apache.cayenne.QueryResponse;
 import org.apache.cayenne.ResultBatchIterator;
 import org.apache.cayenne.ResultIterator;
 import org.apache.cayenne.ResultIteratorCallback;
+import org.apache.cayenne.access.event.SnapshotEvent;
 import org.apache.cayenne.cache.NestedQueryCache;
 import org.apache.cayenne.cache.QueryCache;
 import org.apache.cayenne.di.Injector;
@@ -144,6 +146,11 @@ public class DataContext implements ObjectContext {
 
     protected boolean validatingObjectsOnCommit = true;
 
+    /**
+     * @since 5.0
+     */
+    protected boolean committingDirectlyToDomain;
+
     protected transient DataContextObjectCreator objectCreator;
 
     /**
@@ -811,6 +818,96 @@ public class DataContext implements ObjectContext {
         }
     }
 
+    private GraphDiff syncWithParent(ObjectStoreGraphDiff changes, int syncType) {
+
+        if (syncType == DataChannel.FLUSH_CASCADE_SYNC
+                && committingDirectlyToDomain
+                && channel instanceof DataContext
+                && ((DataContext) channel).getChannel() instanceof DataDomain) {
+
+            DataContext parent = (DataContext) channel;
+            ObjectStore parentStore = parent.getObjectStore();
+
+            // lock the parent, so that it can't get any changes of its own while we commit around it
+            synchronized (parentStore) {
+                if (!parentStore.hasChanges()) {
+                    return commitDirectlyToDomain(parent, changes);
+                }
+            }
+        }
+
+        return getChannel().onSync(this, changes, syncType);
+    }
+
+    /**
+     * Commits this nested context changes straight to the parent's DataDomain, skipping the replay of the changes in
+     * the parent context. Parent copies of the committed objects are refreshed afterwards via a {@link SnapshotEvent},
+     * same as sibling contexts are after a regular commit. Must be called with the parent ObjectStore locked.
+     */
+    private GraphDiff commitDirectlyToDomain(DataContext parent, ObjectStoreGraphDiff changes) {
+
+        ObjectStore parentStore = parent.getObjectStore();
+
+        // new objects are not known to the parent, so only need to track the committed ones
+        Collection<ObjectId> deletedIds = new ArrayList<>();
+        Collection<ObjectId> updatedIds = new ArrayList<>();
+        for (Object key : changes.getChangesByObjectId().keySet()) {
+            ObjectId id = (ObjectId) key;
+            if (id.isTemporary()) {
+                continue;
+            }
+
+            Persistent object = (Persistent) objectStore.getNode(id);
+            if (object != null && object.getPersistenceState() == PersistenceState.DELETED) {
+                deletedIds.add(id);
+            } else {
+                updatedIds.add(id);
+
+                // our object was copied from the parent one, so it replaces the same snapshot as the parent's would
+                Persistent parentObject = (Persistent) parentStore.getNode(id);
+                if (object != null
+                        && parentObject != null
+                        && parentObject.getPersistenceState() != PersistenceState.HOLLOW) {
+                    object.setSnapshotVersion(parentObject.getSnapshotVersion());
+                }
+            }
+        }
+
+        DataDomain domain = (DataDomain) parent.getChannel();
+        GraphDiff result = domain.onSync(this, changes, DataChannel.FLUSH_CASCADE_SYNC);
+
+        // parent queries (and the queries of its children) are routed under the parent context
+        if (domain.getReadReplicaRouter() != null) {
+            domain.getReadReplicaRouter().committed(parent);
+        }
+
+        DataRowStore parentCache = parentStore.getDataRowCache();
+
+        // refresh parent objects from the snapshots just committed, invalidating those whose snapshot is not cached
+        Map<ObjectId, DataRow> updatedSnapshots = new HashMap<>();
+        Collection<ObjectId> invalidatedIds = new ArrayList<>();
+        for (ObjectId id : updatedIds) {
+            DataRow snapshot = parentCache != null ? parentCache.getCachedSnapshot(id) : null;
+            if (snapshot != null) {
+                updatedSnapshots.put(id, snapshot);
+            } else {
+                invalidatedIds.add(id);
+            }
+        }
+
+        if (!updatedSnapshots.isEmpty() || !deletedIds.isEmpty() || !invalidatedIds.isEmpty()) {
+            parentStore.processSnapshotEvent(new SnapshotEvent(
+                    parentCache != null ? parentCache : parentStore,
+                    objectStore,
+                    updatedSnapshots,
+                    deletedIds,
+                    invalidatedIds,
+                    Collections.emptyList()));
+        }
+
+        return result;
+    }
+
     /**
      * Synchronizes with the parent channel, performing a flush or a commit.
      * 
@@ -839,7 +936,7 @@ public class DataContext implements ObjectContext {
             } else {
 
                 try {
-                    parentChanges = getChannel().onSync(this, changes, syncType);
+                    parentChanges = syncWithParent(changes, syncType);
 
                     // note that this is a hack resulting from a fix to CAY-766...
                     // To support valid object state in PostPersist callback,
@@ -1299,6 +1396,34 @@ public class DataContext implements ObjectContext {
         this.validatingObjectsOnCommit = flag;
     }
 
+    /**
+     * Returns whether a nested context commits its changes straight to the
+     * DataDomain of its parent on {@link #commitChanges()}, instead of
+     * replaying them in the parent context first.
+     *
+     * @since 5.0
+     */
+    public boolean isCommittingDirectlyToDomain() {
+        return committingDirectlyToDomain;
+    }
+
+    /**
+     * Sets the property defining whether a nested context should commit its
+     * changes straight to the DataDomain of its parent on
+     * {@link #commitChanges()}. This avoids copying every changed object into
+     * the parent context, which matters for large changesets. Parent copies of
+     * the committed objects are invalidated and refetched on access. The
+     * direct commit is only done when this context's parent is a DataContext
+     * attached to a DataDomain, and the parent has no uncommitted changes.
+     * Otherwise the changes are committed through the parent as usual. Has no
+     * effect on {@link #commitChangesToParent()}.
+     *
+     * @since 5.0
+     */
+    public void setCommittingDirectlyToDomain(boolean flag) {
+        this.committingDirectlyToDomain = flag;
+    }
+
     /**
      * Returns a map of user-defined properties associated with this
      * DataContext.
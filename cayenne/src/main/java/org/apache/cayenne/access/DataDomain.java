@@ -29,6 +29,9 @@ import org.apache.cayenne.ObjectContext;
 import org.apache.cayenne.QueryResponse;
 import org.apache.cayenne.access.flush.DataDomainFlushAction;
 import org.apache.cayenne.access.flush.DataDomainFlushActionFactory;
+import org.apache.cayenne.access.metrics.OperationTimer;
+import org.apache.cayenne.access.metrics.OperationTimingEvent;
+import org.apache.cayenne.access.metrics.OperationTimingListener;
 import org.apache.cayenne.cache.QueryCache;
 import org.apache.cayenne.configuration.Constants;
 import org.apache.cayenne.di.AdhocObjectFactory;
@@ -70,6 +73,11 @@ public class DataDomain implements QueryEngine, DataChannel {
 	public static final String VALIDATING_OBJECTS_ON_COMMIT_PROPERTY = "cayenne.DataDomain.validatingObjectsOnCommit";
 	public static final boolean VALIDATING_OBJECTS_ON_COMMIT_DEFAULT = true;
 
+	/**
+	 * @since 5.0
+	 */
+	public static final int DEFAULT_ITERATOR_PREFETCH_CHUNK_SIZE = 100;
+
 	/**
 	 * @since 3.1
 	 */
@@ -92,6 +100,16 @@ public class DataDomain implements QueryEngine, DataChannel {
 	 */
 	protected int maxIdQualifierSize;
 
+	/**
+	 * @since 5.0
+	 */
+	protected int iteratorPrefetchChunkSize = DEFAULT_ITERATOR_PREFETCH_CHUNK_SIZE;
+
+	/**
+	 * @since 5.0
+	 */
+	protected boolean nestedContextDirectCommit;
+
 	/**
 	 * @since 4.1
 	 */
@@ -124,6 +142,21 @@ public class DataDomain implements QueryEngine, DataChannel {
 	protected String name;
 	protected QueryCache queryCache;
 
+	/**
+	 * @since 5.0
+	 */
+	protected ReadReplicaRouter readReplicaRouter;
+
+	/**
+	 * @since 5.0
+	 */
+	protected ShardRouter shardRouter;
+
+	/**
+	 * @since 5.0
+	 */
+	protected OperationTimingListener operationTimingListener;
+
 	// these are initialized from properties...
 	protected boolean sharedCacheEnabled;
 	protected boolean validatingObjectsOnCommit;
@@ -626,7 +659,22 @@ public class DataDomain implements QueryEngine, DataChannel {
 		}
 
 		DataDomainFlushAction action = flushActionFactory.createFlushAction(this);
-		return action.flush((DataContext) originatingContext, childChanges);
+
+		GraphDiff result;
+		OperationTimer timer = OperationTimer.start(OperationTimingEvent.Type.COMMIT, null, operationTimingListener);
+		try {
+			result = action.flush((DataContext) originatingContext, childChanges);
+		} finally {
+			if (timer != null) {
+				timer.finish();
+			}
+		}
+
+		if (readReplicaRouter != null) {
+			readReplicaRouter.committed(originatingContext);
+		}
+
+		return result;
 	}
 
 	@Override
@@ -789,6 +837,57 @@ public class DataDomain implements QueryEngine, DataChannel {
 		}
 	}
 
+	/**
+	 * Returns an optional router that spreads read-only queries between read
+	 * replicas of the DataNodes.
+	 *
+	 * @since 5.0
+	 */
+	public ReadReplicaRouter getReadReplicaRouter() {
+		return readReplicaRouter;
+	}
+
+	/**
+	 * @since 5.0
+	 */
+	public void setReadReplicaRouter(ReadReplicaRouter readReplicaRouter) {
+		this.readReplicaRouter = readReplicaRouter;
+	}
+
+	/**
+	 * Returns an optional router that spreads queries and commits of sharded
+	 * entities between the shard DataNodes.
+	 *
+	 * @since 5.0
+	 */
+	public ShardRouter getShardRouter() {
+		return shardRouter;
+	}
+
+	/**
+	 * @since 5.0
+	 */
+	public void setShardRouter(ShardRouter shardRouter) {
+		this.shardRouter = shardRouter;
+	}
+
+	/**
+	 * Returns an optional listener notified of the timing breakdown of each query and commit. If null (the default),
+	 * operations are not timed.
+	 *
+	 * @since 5.0
+	 */
+	public OperationTimingListener getOperationTimingListener() {
+		return operationTimingListener;
+	}
+
+	/**
+	 * @since 5.0
+	 */
+	public void setOperationTimingListener(OperationTimingListener operationTimingListener) {
+		this.operationTimingListener = operationTimingListener;
+	}
+
 	/**
 	 * An optional DataNode that is used for DataMaps that are not linked to a
 	 * DataNode explicitly.
@@ -830,6 +929,50 @@ public class DataDomain implements QueryEngine, DataChannel {
 		this.maxIdQualifierSize = maxIdQualifierSize;
 	}
 
+	/**
+	 * Returns how many objects are read ahead and resolved together by an
+	 * iterator of a query with DISJOINT_BY_ID prefetches. Each chunk is
+	 * resolved with a single query per prefetch, instead of a query per
+	 * object. Zero or a negative value means no chunking. The default is 100.
+	 * It can be changed either by calling
+	 * {@link #setIteratorPrefetchChunkSize(int)} or changing the value for
+	 * property {@link Constants#ITERATOR_PREFETCH_CHUNK_SIZE_PROPERTY}.
+	 *
+	 * @since 5.0
+	 */
+	public int getIteratorPrefetchChunkSize() {
+		return iteratorPrefetchChunkSize;
+	}
+
+	/**
+	 * @since 5.0
+	 */
+	public void setIteratorPrefetchChunkSize(int iteratorPrefetchChunkSize) {
+		this.iteratorPrefetchChunkSize = iteratorPrefetchChunkSize;
+	}
+
+	/**
+	 * Returns whether nested DataContexts created with a parent DataContext of
+	 * this domain commit their changes straight to the domain, instead of
+	 * replaying them in the parent context first. It can be changed either by
+	 * calling {@link #setNestedContextDirectCommit(boolean)} or changing the
+	 * value for property
+	 * {@link Constants#NESTED_CONTEXT_DIRECT_COMMIT_PROPERTY}.
+	 *
+	 * @since 5.0
+	 * @see DataContext#setCommittingDirectlyToDomain(boolean)
+	 */
+	public boolean isNestedContextDirectCommit() {
+		return nestedContextDirectCommit;
+	}
+
+	/**
+	 * @since 5.0
+	 */
+	public void setNestedContextDirectCommit(boolean nestedContextDirectCommit) {
+		this.nestedContextDirectCommit = nestedContextDirectCommit;
+	}
+
 	TransactionManager getTransactionManager() {
 		return transactionManager;
 	}
@@ -26,7 +26,11 @@ import org.apache.cayenne.ObjectContext;
 import org.apache.cayenne.ObjectId;
 import org.apache.cayenne.Persistent;
 import org.apache.cayenne.QueryResponse;
+import org.apache.cayenne.access.jdbc.reader.DefaultRowReaderFactory;
 import org.apache.cayenne.ResultIterator;
+import org.apache.cayenne.access.metrics.OperationPhase;
+import org.apache.cayenne.access.metrics.OperationTimer;
+import org.apache.cayenne.access.metrics.OperationTimingEvent;
 import org.apache.cayenne.cache.QueryCache;
 import org.apache.cayenne.cache.QueryCacheEntryFactory;
 import org.apache.cayenne.di.AdhocObjectFactory;
@@ -37,9 +41,11 @@ import org.apache.cayenne.map.DbRelationship;
 import org.apache.cayenne.map.Embeddable;
 import org.apache.cayenne.map.EntityInheritanceTree;
 import org.apache.cayenne.map.LifecycleEvent;
+import org.apache.cayenne.map.ObjEntity;
 import org.apache.cayenne.map.ObjRelationship;
 import org.apache.cayenne.query.EmbeddableResultSegment;
 import org.apache.cayenne.query.EntityResultSegment;
+import org.apache.cayenne.query.FluentSelect;
 import org.apache.cayenne.query.IteratedQueryDecorator;
 import org.apache.cayenne.query.ObjectIdQuery;
 import org.apache.cayenne.query.PrefetchSelectQuery;
@@ -50,6 +56,8 @@ import org.apache.cayenne.query.QueryMetadata;
 import org.apache.cayenne.query.QueryRouter;
 import org.apache.cayenne.query.RefreshQuery;
 import org.apache.cayenne.query.RelationshipQuery;
+import org.apache.cayenne.query.Select;
+import org.apache.cayenne.query.SelectById;
 import org.apache.cayenne.reflect.ClassDescriptor;
 import org.apache.cayenne.reflect.LifecycleCallbackRegistry;
 import org.apache.cayenne.tx.BaseTransaction;
@@ -67,6 +75,8 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -99,6 +109,13 @@ class DataDomainQueryAction implements QueryRouter, OperationObserver {
     private boolean noObjectConversion;
     private boolean cachedResult;
 
+    // replicas are only used for queries started outside of transaction
+    private final boolean readReplicasAllowed;
+    private Map<DataNode, DataNode> replicasByPrimary;
+
+    // selects of sharded entities sent to multiple shards, keyed by the query run on each shard
+    private Map<Query, ScatterGatherSelect> scatteredSelects;
+
     /*
      * A constructor for the "new" way of performing a query via 'execute' with
      * QueryResponse created internally.
@@ -123,18 +140,37 @@ class DataDomainQueryAction implements QueryRouter, OperationObserver {
         if (this.cache == null) {
             this.cache = domain.getSharedSnapshotCache();
         }
+
+        this.readReplicasAllowed = domain.getReadReplicaRouter() != null
+                && BaseTransaction.getThreadTransaction() == null;
     }
 
     QueryResponse execute() {
+        OperationTimer timer = OperationTimer.start(OperationTimingEvent.Type.QUERY, query,
+                domain.getOperationTimingListener());
+        if (timer == null) {
+            return executeChain();
+        }
+
+        try {
+            return executeChain();
+        } finally {
+            timer.finish();
+        }
+    }
+
+    private QueryResponse executeChain() {
 
         // run chain...
         if (interceptIteratedQuery() != DONE) {
             if (interceptOIDQuery() != DONE) {
                 if (interceptRelationshipQuery() != DONE) {
                     if (interceptRefreshQuery() != DONE) {
-                        if (interceptSharedCache() != DONE) {
-                            if (interceptDataDomainQuery() != DONE) {
-                                runQueryInTransaction();
+                        if (interceptEntityCache() != DONE) {
+                            if (interceptSharedCache() != DONE) {
+                                if (interceptDataDomainQuery() != DONE) {
+                                    runQueryInTransaction();
+                                }
                             }
                         }
                     }
@@ -164,9 +200,9 @@ class DataDomainQueryAction implements QueryRouter, OperationObserver {
         if (metadata.getPrefetchTree() != null) {
             for (PrefetchTreeNode prefetchTreeNode : metadata.getPrefetchTree().getChildren()) {
                 if (prefetchTreeNode.isDisjointPrefetch()) {
-                    throw new CayenneRuntimeException("\"Disjoint\" semantic doesn't work with iterator. Use \"Joint\" instead");
+                    throw new CayenneRuntimeException("\"Disjoint\" semantic doesn't work with iterator. Use \"Joint\" or \"DisjointById\" instead");
                 }
-                if (prefetchTreeNode.isDisjointByIdPrefetch()) {
+                if (prefetchTreeNode.isDisjointByIdPrefetch() && domain.getIteratorPrefetchChunkSize() <= 0) {
                     LOGGER.warn("A separate select query will be created for each iterated item");
                 }
             }
@@ -425,6 +461,44 @@ class DataDomainQueryAction implements QueryRouter, OperationObserver {
         return !DONE;
     }
 
+    /*
+     * Resolves SelectById of a cached "reference data" entity from the snapshot cache, if all the requested
+     * snapshots are there. Only the queries using the shared cache are resolved this way, the rest (including
+     * the cache refresh queries) go to the DB.
+     */
+    private boolean interceptEntityCache() {
+        if (!(query instanceof SelectById) || cache == null || metadata.getPrefetchTree() != null) {
+            return !DONE;
+        }
+
+        if (metadata.getCacheStrategy() != QueryCacheStrategy.SHARED_CACHE) {
+            return !DONE;
+        }
+
+        ObjEntity entity = metadata.getObjEntity();
+        if (entity == null || !cache.isEntityCached(entity.getName())) {
+            return !DONE;
+        }
+
+        Collection<ObjectId> ids = ((SelectById<?>) query).getObjectIds(domain.getEntityResolver());
+        if (ids == null) {
+            return !DONE;
+        }
+
+        List<DataRow> rows = new ArrayList<>(ids.size());
+        for (ObjectId id : new LinkedHashSet<>(ids)) {
+            DataRow row = cache.getCachedSnapshot(id);
+            if (row == null) {
+                return !DONE;
+            }
+
+            rows.add(row);
+        }
+
+        this.response = new GenericResponse(rows);
+        return DONE;
+    }
+
     /*
      * Wraps execution in shared cache checks
      */
@@ -501,6 +575,7 @@ class DataDomainQueryAction implements QueryRouter, OperationObserver {
         this.fullResponse = new GenericResponse();
         this.response = this.fullResponse;
         this.queriesByNode = null;
+        this.scatteredSelects = null;
 
         // whether this is null or not will driver further decisions on how to process prefetched rows
         this.prefetchResultsByPath = metadata.getPrefetchTree() != null && !metadata.isFetchingDataRows()
@@ -510,12 +585,73 @@ class DataDomainQueryAction implements QueryRouter, OperationObserver {
         query.route(this, domain.getEntityResolver(), null);
 
         // run categorized queries
-        if (queriesByNode != null) {
-            for (Map.Entry<QueryEngine, Collection<Query>> entry : queriesByNode.entrySet()) {
-                QueryEngine nextNode = entry.getKey();
-                Collection<Query> nodeQueries = entry.getValue();
-                nextNode.performQueries(nodeQueries, this);
+        try {
+            if (queriesByNode != null) {
+                for (Map.Entry<QueryEngine, Collection<Query>> entry : queriesByNode.entrySet()) {
+                    QueryEngine nextNode = entry.getKey();
+                    Collection<Query> nodeQueries = entry.getValue();
+                    nextNode.performQueries(nodeQueries, this);
+                }
+            }
+
+            gatherScatteredSelects();
+        } finally {
+            releaseReplicas();
+        }
+    }
+
+    private void scatter(FluentSelect<?, ?> select, List<DataNode> shards) {
+
+        ObjEntity entity = select.getMetaData(domain.getEntityResolver()).getObjEntity();
+        if (isIteratedResult()) {
+            throw new CayenneRuntimeException("Iterated select of sharded entity '%s' must match a single shard",
+                    entity.getName());
+        }
+
+        if (select.getColumns() != null) {
+            throw new CayenneRuntimeException("Column select of sharded entity '%s' must match a single shard",
+                    entity.getName());
+        }
+
+        ScatterGatherSelect scattered = new ScatterGatherSelect(select, domain.getEntityResolver());
+        if (scatteredSelects == null) {
+            scatteredSelects = new IdentityHashMap<>();
+        }
+        scatteredSelects.put(scattered.getShardQuery(), scattered);
+
+        for (DataNode shard : shards) {
+            routeToEngine(shard, scattered.getShardQuery(), null);
+        }
+    }
+
+    private void gatherScatteredSelects() {
+        if (scatteredSelects != null) {
+            Collection<ScatterGatherSelect> scattered = scatteredSelects.values();
+            scatteredSelects = null;
+
+            for (ScatterGatherSelect select : scattered) {
+                nextRows(select.getSelect(), select.merge());
+            }
+        }
+    }
+
+    private QueryEngine replicaFor(DataNode primary) {
+        if (replicasByPrimary == null) {
+            replicasByPrimary = new HashMap<>();
+        }
+
+        // a single replica per primary for all queries of this action (e.g. prefetches), so that they would see
+        // consistent data
+        return replicasByPrimary.computeIfAbsent(primary,
+                p -> domain.getReadReplicaRouter().select(domain, p, context));
+    }
+
+    private void releaseReplicas() {
+        if (replicasByPrimary != null) {
+            for (DataNode replica : replicasByPrimary.values()) {
+                domain.getReadReplicaRouter().release(replica);
             }
+            replicasByPrimary = null;
         }
     }
 
@@ -529,12 +665,19 @@ class DataDomainQueryAction implements QueryRouter, OperationObserver {
         fullResponse.reset();
     }
 
-    @SuppressWarnings({"unchecked", "rawtypes"})
     private void interceptObjectConversion() {
         if (noObjectConversion()) {
             return;
         }
 
+        try (OperationTimer.PhaseScope ignored = OperationTimer.phase(OperationPhase.OBJECT_RESOLUTION)) {
+            convertObjects();
+        }
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private void convertObjects() {
+
         ObjectConversionStrategy<?, ?> converter = getConverter();
         // local copy because it can change while iterating
         QueryResponse response = this.response;
@@ -550,12 +693,30 @@ class DataDomainQueryAction implements QueryRouter, OperationObserver {
             } else if (response.isIterator()) {
                 // iterator should be a part of full response
                 ResultIterator<?> iterator = fullResponse.currentIterator();
-                fullResponse.replaceResult(iterator, new ResultIteratorConverterDecorator(iterator, converter));
+                int chunkSize = domain.getIteratorPrefetchChunkSize();
+                ResultIterator<?> converted = chunkSize > 0 && hasDisjointByIdPrefetches(metadata.getPrefetchTree())
+                        ? new ChunkedResultIteratorConverterDecorator(iterator, converter, chunkSize)
+                        : new ResultIteratorConverterDecorator(iterator, converter);
+                fullResponse.replaceResult(iterator, converted);
             }
         }
         response.reset();
     }
 
+    private static boolean hasDisjointByIdPrefetches(PrefetchTreeNode node) {
+        if (node == null) {
+            return false;
+        }
+
+        for (PrefetchTreeNode child : node.getChildren()) {
+            if (child.isDisjointByIdPrefetch() || hasDisjointByIdPrefetches(child)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
     private boolean noObjectConversion() {
         return context == null
                 || noObjectConversion
@@ -586,6 +747,13 @@ class DataDomainQueryAction implements QueryRouter, OperationObserver {
             }
         }
 
+        if (metadata.getRowMapper() != null) {
+            // rows of scalars are mapped by the RowReader, the rest are mapped here after the conversion to objects
+            converter = DefaultRowReaderFactory.isScalarOnly(metadata.getResultSetMapping())
+                    ? new SingleScalarConversionStrategy()
+                    : new RowMapperConversionStrategy(converter);
+        }
+
         if (metadata.getResultMapper() != null) {
             converter = new MapperConversionStrategy(converter);
         }
@@ -594,6 +762,34 @@ class DataDomainQueryAction implements QueryRouter, OperationObserver {
 
     @Override
     public void route(QueryEngine engine, Query query, Query substitutedQuery) {
+
+        ShardRouter shardRouter = domain.getShardRouter();
+        if (shardRouter != null && engine instanceof DataNode && query instanceof FluentSelect) {
+            FluentSelect<?, ?> select = (FluentSelect<?, ?>) query;
+            ObjEntity entity = select.getMetaData(domain.getEntityResolver()).getObjEntity();
+
+            if (shardRouter.isSharded(entity)) {
+                List<DataNode> shards = shardRouter.nodesForQualifier(domain, entity, select.getWhere());
+                if (shards.size() != 1) {
+                    scatter(select, shards);
+                    return;
+                }
+
+                engine = shards.get(0);
+            }
+        }
+
+        routeToEngine(engine, query, substitutedQuery);
+    }
+
+    private void routeToEngine(QueryEngine engine, Query query, Query substitutedQuery) {
+
+        if (readReplicasAllowed
+                && engine instanceof DataNode
+                && (query instanceof Select || substitutedQuery instanceof Select)) {
+            engine = replicaFor((DataNode) engine);
+        }
+
         Collection<Query> queries = null;
         if (queriesByNode == null) {
             queriesByNode = new HashMap<>();
@@ -659,6 +855,16 @@ class DataDomainQueryAction implements QueryRouter, OperationObserver {
 
     @Override
     public void nextRows(Query query, List<?> dataRows) {
+
+        // rows of a scattered select are merged once all the shards are done
+        if (scatteredSelects != null) {
+            ScatterGatherSelect scattered = scatteredSelects.get(query);
+            if (scattered != null) {
+                scattered.addRows(dataRows);
+                return;
+            }
+        }
+
         // exclude prefetched rows in the main result
         if (prefetchResultsByPath != null && query instanceof PrefetchSelectQuery) {
             PrefetchSelectQuery<?> prefetchQuery = (PrefetchSelectQuery<?>) query;
@@ -992,6 +1198,43 @@ class DataDomainQueryAction implements QueryRouter, OperationObserver {
         }
     }
 
+    /**
+     * Conversion strategy that uses row mapper function to map converted rows
+     *
+     * @since 5.0
+     */
+    private class RowMapperConversionStrategy extends ObjectConversionStrategy<Object, Object> {
+
+        private final Function<Object[], ?> mapper;
+        private final ObjectConversionStrategy<Object, Object> parentStrategy;
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        RowMapperConversionStrategy(ObjectConversionStrategy<?, ?> parentStrategy) {
+            this.mapper = metadata.getRowMapper();
+            this.parentStrategy = (ObjectConversionStrategy) parentStrategy;
+        }
+
+        @Override
+        List<Object> convert(List<Object> mainRows) {
+            List<?> converted = parentStrategy.convert(mainRows);
+            List<Object> result = new ArrayList<>(converted.size());
+            for (Object row : converted) {
+                result.add(map(row));
+            }
+            return result;
+        }
+
+        @Override
+        Object convert(Object object) {
+            return map(parentStrategy.convert(object));
+        }
+
+        private Object map(Object row) {
+            // a single column result is not wrapped in an array
+            return mapper.apply(row instanceof Object[] ? (Object[]) row : new Object[]{row});
+        }
+    }
+
     /**
      * Conversion strategy that uses mapper function to map raw result
      */
@@ -26,6 +26,9 @@ import org.apache.cayenne.access.jdbc.RowDescriptor;
 import org.apache.cayenne.access.jdbc.SQLTemplateProcessor;
 import org.apache.cayenne.access.jdbc.reader.RowReader;
 import org.apache.cayenne.access.jdbc.reader.RowReaderFactory;
+import org.apache.cayenne.access.metrics.OperationPhase;
+import org.apache.cayenne.access.metrics.OperationTimer;
+import org.apache.cayenne.access.metrics.QueryMetricsListener;
 import org.apache.cayenne.access.translator.batch.BatchTranslator;
 import org.apache.cayenne.access.translator.batch.BatchTranslatorFactory;
 import org.apache.cayenne.access.translator.select.SelectTranslator;
@@ -43,6 +46,7 @@ import org.apache.cayenne.query.QueryMetadata;
 import org.apache.cayenne.query.Select;
 import org.apache.cayenne.tx.BaseTransaction;
 import org.apache.cayenne.tx.Transaction;
+import org.apache.cayenne.tx.TransactionContext;
 import org.apache.cayenne.util.ToStringBuilder;
 
 import javax.sql.DataSource;
@@ -76,6 +80,7 @@ public class DataNode implements QueryEngine {
 	private BatchTranslatorFactory batchTranslatorFactory;
 	private SelectTranslatorFactory selectTranslatorFactory;
 	private SQLTemplateProcessor sqlTemplateProcessor;
+	private QueryMetricsListener queryMetricsListener;
 
 	TransactionDataSource readThroughDataSource;
 
@@ -131,6 +136,24 @@ public class DataNode implements QueryEngine {
 		this.jdbcEventLogger = logger;
 	}
 
+	/**
+	 * Returns a listener notified of each SQL statement execution, or null if query metrics are not collected.
+	 *
+	 * @since 5.0
+	 */
+	public QueryMetricsListener getQueryMetricsListener() {
+		return queryMetricsListener;
+	}
+
+	/**
+	 * Sets a listener notified of each SQL statement execution. Null (the default) disables query metrics collection.
+	 *
+	 * @since 5.0
+	 */
+	public void setQueryMetricsListener(QueryMetricsListener queryMetricsListener) {
+		this.queryMetricsListener = queryMetricsListener;
+	}
+
 	/**
 	 * Returns node name. Name is used to uniquely identify DataNode within a
 	 * DataDomain.
@@ -248,8 +271,16 @@ public class DataNode implements QueryEngine {
 
 		Connection connection = null;
 
-		try {
+		// only measure connection wait if anyone is listening
+		long connectionWaitStart = queryMetricsListener != null ? System.nanoTime() : 0L;
+		long connectionWaitNanos = 0L;
+
+		try (OperationTimer.PhaseScope ignored = OperationTimer.phase(OperationPhase.CONNECTION)) {
 			connection = this.getDataSource().getConnection();
+
+			if (queryMetricsListener != null) {
+				connectionWaitNanos = System.nanoTime() - connectionWaitStart;
+			}
 		} catch (Exception globalEx) {
 			getJdbcEventLogger().logQueryError(globalEx);
 
@@ -264,6 +295,7 @@ public class DataNode implements QueryEngine {
 
 		try {
 			DataNodeQueryAction queryRunner = new DataNodeQueryAction(this, callback);
+			queryRunner.setConnectionWaitNanos(connectionWaitNanos);
 
 			for (Query nextQuery : queries) {
 
@@ -422,7 +454,13 @@ public class DataNode implements QueryEngine {
             }
 
             Transaction t = BaseTransaction.getThreadTransaction();
-            return (t != null) ? t.getOrCreateConnection(CONNECTION_RESOURCE_PREFIX + name, dataSource)
+            if (t != null) {
+                return t.getOrCreateConnection(CONNECTION_RESOURCE_PREFIX + name, dataSource);
+            }
+
+            // a task of a read-only TransactionContext
+            TransactionContext context = TransactionContext.getThreadContext();
+            return (context != null) ? context.getConnection(CONNECTION_RESOURCE_PREFIX + name, dataSource)
                     : dataSource.getConnection();
         }
 
@@ -433,7 +471,13 @@ public class DataNode implements QueryEngine {
             }
 
             Transaction t = BaseTransaction.getThreadTransaction();
-            return (t != null) ? t.getOrCreateConnection(CONNECTION_RESOURCE_PREFIX + name, dataSource)
+            if (t != null) {
+                return t.getOrCreateConnection(CONNECTION_RESOURCE_PREFIX + name, dataSource);
+            }
+
+            // a task of a read-only TransactionContext
+            TransactionContext context = TransactionContext.getThreadContext();
+            return (context != null) ? context.getConnection(CONNECTION_RESOURCE_PREFIX + name, dataSource)
                     : dataSource.getConnection(username, password);
         }
 
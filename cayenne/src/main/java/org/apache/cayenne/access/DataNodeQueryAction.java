@@ -25,6 +25,9 @@ import java.util.List;
 
 import org.apache.cayenne.ObjectId;
 import org.apache.cayenne.ResultIterator;
+import org.apache.cayenne.access.jdbc.BaseSQLAction;
+import org.apache.cayenne.access.metrics.OperationPhase;
+import org.apache.cayenne.access.metrics.OperationTimer;
 import org.apache.cayenne.query.Query;
 import org.apache.cayenne.query.SQLAction;
 
@@ -39,12 +42,22 @@ class DataNodeQueryAction {
 
     OperationObserver observer;
     DataNode node;
+    long connectionWaitNanos;
 
     public DataNodeQueryAction(DataNode node, OperationObserver observer) {
         this.observer = observer;
         this.node = node;
     }
 
+    /**
+     * Sets the time spent waiting for the connection, that should be reported with the next query metrics.
+     *
+     * @since 5.0
+     */
+    void setConnectionWaitNanos(long connectionWaitNanos) {
+        this.connectionWaitNanos = connectionWaitNanos;
+    }
+
     public void runQuery(Connection connection, final Query originalQuery)
             throws SQLException, Exception {
 
@@ -94,6 +107,15 @@ class DataNodeQueryAction {
         };
 
         SQLAction action = node.getAdapter().getAction(originalQuery, node);
-        action.performAction(connection, wrapper);
+
+        // connection wait is attributed to the first query run over the connection
+        if (connectionWaitNanos > 0 && action instanceof BaseSQLAction) {
+            ((BaseSQLAction) action).setConnectionWaitNanos(connectionWaitNanos);
+            connectionWaitNanos = 0L;
+        }
+
+        try (OperationTimer.PhaseScope ignored = OperationTimer.phase(OperationPhase.EXECUTION)) {
+            action.performAction(connection, wrapper);
+        }
     }
 }
@@ -60,7 +60,9 @@ public class DataRowStore implements Serializable {
 
     protected String name;
     private int maxSize;
+    private boolean targetedDelivery;
     protected ConcurrentMap<ObjectId, DataRow> snapshots;
+    private EntityCache entityCache;
 
     protected transient EventManager eventManager;
     protected transient EventBridge remoteNotificationsHandler;
@@ -69,6 +71,8 @@ public class DataRowStore implements Serializable {
     // too early, and thus disabling events.
     protected transient EventSubject eventSubject;
 
+    private transient ObjectStoreIndex objectStoreIndex;
+
     /**
      * Creates new DataRowStore with a specified name and a set of properties. If no
      * properties are defined, default values are used.
@@ -90,6 +94,7 @@ public class DataRowStore implements Serializable {
         this.eventSubject = createSubject();
         this.eventManager = eventManager;
         initWithProperties(properties);
+        startIndexListener();
     }
 
     private EventSubject createSubject() {
@@ -108,6 +113,16 @@ public class DataRowStore implements Serializable {
         this.snapshots = new ConcurrentLinkedHashMap.Builder<ObjectId, DataRow>()
                 .maximumWeightedCapacity(maxSize)
                 .build();
+
+        targetedDelivery = properties.getBoolean(Constants.SNAPSHOT_EVENT_TARGETED_DELIVERY_PROPERTY, false);
+        if (targetedDelivery) {
+            objectStoreIndex = new ObjectStoreIndex();
+        }
+
+        entityCache = EntityCache.parse(properties.get(Constants.ENTITY_CACHE_PROPERTY));
+        if (entityCache != null && logger.isDebugEnabled()) {
+            logger.debug("DataRowStore property " + Constants.ENTITY_CACHE_PROPERTY + " = " + entityCache.getEntityNames());
+        }
     }
 
     protected void setEventBridge(EventBridge eventBridge) {
@@ -158,7 +173,7 @@ public class DataRowStore implements Serializable {
             // add snapshots if refresh is forced, or if a snapshot is
             // missing
 
-            DataRow cachedSnapshot = this.snapshots.get(oid);
+            DataRow cachedSnapshot = getCachedSnapshot(oid);
             if (refresh || cachedSnapshot == null) {
 
                 DataRow newSnapshot = snapshots.get(i);
@@ -249,15 +264,48 @@ public class DataRowStore implements Serializable {
             stopListeners();
             this.eventManager = eventManager;
             startListeners();
+            startIndexListener();
         }
     }
 
+    /**
+     * Returns whether this DataRowStore delivers SnapshotEvents only to the ObjectStores that hold the affected
+     * objects. In this mode ObjectStores that have none of the objects changed by a given event do not receive any
+     * notification at all, including the GraphEvent normally posted by their DataContext.
+     *
+     * @see Constants#SNAPSHOT_EVENT_TARGETED_DELIVERY_PROPERTY
+     * @since 5.0
+     */
+    public boolean isTargetedDelivery() {
+        return targetedDelivery;
+    }
+
+    /**
+     * Returns an index of ObjectStores by the ids of objects they hold, or null if targeted delivery is not enabled.
+     *
+     * @since 5.0
+     */
+    ObjectStoreIndex getObjectStoreIndex() {
+        return objectStoreIndex;
+    }
+
     /**
      * Returns cached snapshot or null if no snapshot is currently cached for the given
      * ObjectId.
      */
     public DataRow getCachedSnapshot(ObjectId oid) {
-        return snapshots.get(oid);
+        DataRow snapshot = snapshots.get(oid);
+        return snapshot == null && entityCache != null ? entityCache.get(oid) : snapshot;
+    }
+
+    /**
+     * Returns true if snapshots of a given ObjEntity are kept in this store regardless of the cache size limit.
+     *
+     * @see Constants#ENTITY_CACHE_PROPERTY
+     * @since 5.0
+     */
+    public boolean isEntityCached(String entityName) {
+        return entityCache != null && entityCache.isCached(entityName);
     }
 
     /**
@@ -272,13 +320,38 @@ public class DataRowStore implements Serializable {
      */
     public void clear() {
         snapshots.clear();
+        if (entityCache != null) {
+            entityCache.clear();
+        }
     }
 
     /**
      * Evicts a snapshot from cache without generating any SnapshotEvents.
      */
     public void forgetSnapshot(ObjectId id) {
-        snapshots.remove(id);
+        removeSnapshot(id);
+    }
+
+    private DataRow putSnapshot(ObjectId id, DataRow snapshot) {
+        DataRow oldSnapshot = snapshots.put(id, snapshot);
+        if (entityCache != null) {
+            DataRow oldCachedSnapshot = entityCache.put(id, snapshot);
+            if (oldSnapshot == null) {
+                oldSnapshot = oldCachedSnapshot;
+            }
+        }
+        return oldSnapshot;
+    }
+
+    private DataRow removeSnapshot(ObjectId id) {
+        DataRow oldSnapshot = snapshots.remove(id);
+        if (entityCache != null) {
+            DataRow oldCachedSnapshot = entityCache.remove(id);
+            if (oldSnapshot == null) {
+                oldSnapshot = oldCachedSnapshot;
+            }
+        }
+        return oldSnapshot;
     }
 
     /**
@@ -354,7 +427,7 @@ public class DataRowStore implements Serializable {
         // DELETED: evict deleted snapshots
         if (!deletedSnapshotIDs.isEmpty()) {
             for (ObjectId deletedSnapshotID : deletedSnapshotIDs) {
-                snapshots.remove(deletedSnapshotID);
+                removeSnapshot(deletedSnapshotID);
             }
         }
     }
@@ -363,7 +436,7 @@ public class DataRowStore implements Serializable {
         // INVALIDATED: forget snapshot, treat as expired from cache
         if (!invalidatedSnapshotIds.isEmpty()) {
             for (ObjectId invalidatedSnapshotId : invalidatedSnapshotIds) {
-                snapshots.remove(invalidatedSnapshotId);
+                removeSnapshot(invalidatedSnapshotId);
             }
         }
     }
@@ -376,7 +449,7 @@ public class DataRowStore implements Serializable {
             for (Map.Entry<ObjectId, DataRow> entry : updatedSnapshots.entrySet()) {
                 ObjectId key = entry.getKey();
                 DataRow newSnapshot = entry.getValue();
-                DataRow oldSnapshot = snapshots.put(key, newSnapshot);
+                DataRow oldSnapshot = putSnapshot(key, newSnapshot);
 
                 // generate diff for the updated event, if this not a new
                 // snapshot
@@ -436,14 +509,14 @@ public class DataRowStore implements Serializable {
         if (!diffs.isEmpty()) {
             for (Map.Entry<ObjectId, DataRow> entry : diffs.entrySet()) {
                 ObjectId key = entry.getKey();
-                DataRow oldSnapshot = snapshots.remove(key);
+                DataRow oldSnapshot = removeSnapshot(key);
 
                 if (oldSnapshot == null) {
                     continue;
                 }
 
                 DataRow newSnapshot = oldSnapshot.applyDiff(entry.getValue());
-                snapshots.put(key, newSnapshot);
+                putSnapshot(key, newSnapshot);
             }
         }
     }
@@ -487,11 +560,19 @@ public class DataRowStore implements Serializable {
 
         // restore subjects
         this.eventSubject = createSubject();
+
+        if (targetedDelivery) {
+            this.objectStoreIndex = new ObjectStoreIndex();
+        }
     }
 
     void stopListeners() {
         if (eventManager != null) {
             eventManager.removeListener(this);
+
+            if (objectStoreIndex != null) {
+                eventManager.removeListener(objectStoreIndex);
+            }
         }
 
         if (remoteNotificationsHandler != null) {
@@ -504,6 +585,19 @@ public class DataRowStore implements Serializable {
         }
     }
 
+    // the index is the only listener to this store's events that dispatches them further to the ObjectStores. Must be
+    // non-blocking for the same reason ObjectStores register as non-blocking listeners when they listen directly
+    private void startIndexListener() {
+        if (eventManager != null && objectStoreIndex != null) {
+            eventManager.addNonBlockingListener(
+                    objectStoreIndex,
+                    "snapshotsChanged",
+                    SnapshotEvent.class,
+                    getSnapshotEventSubject(),
+                    this);
+        }
+    }
+
     void startListeners() {
         if (eventManager != null) {
             if (remoteNotificationsHandler != null) {
@@ -87,7 +87,7 @@ class DataRowUtils {
                 String dbAttrPath = attr.getDbAttributePath().value();
 
                 Object value = snapshot.get(dbAttrPath);
-                property.writePropertyDirectly(object, null, value);
+                property.writePropertyDirectly(object, null, LobStreamFetcher.bind(value, object, property.getName()));
 
                 // note that a check "snaphsot.get(..) == null" would be incorrect in this
                 // case, as NULL value is entirely valid; still save a map lookup by
@@ -153,7 +153,8 @@ class DataRowUtils {
                     // if value not modified, update it from snapshot, otherwise leave it alone
                     if (property.equals(curValue, oldValue)
                             && !property.equals(newValue, curValue)) {
-                        property.writePropertyDirectly(object, oldValue, newValue);
+                        property.writePropertyDirectly(object, oldValue,
+                                LobStreamFetcher.bind(newValue, object, property.getName()));
                     }
                 }
                 return true;
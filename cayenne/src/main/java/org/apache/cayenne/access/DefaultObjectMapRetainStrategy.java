@@ -18,8 +18,9 @@
  ****************************************************************/
 package org.apache.cayenne.access;
 
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 
 import org.apache.cayenne.CayenneRuntimeException;
 import org.apache.cayenne.Persistent;
@@ -39,11 +40,16 @@ public class DefaultObjectMapRetainStrategy implements ObjectMapRetainStrategy {
     private static final String WEAK_RETAIN_STRATEGY = "weak";
     private static final String SOFT_RETAIN_STRATEGY = "soft";
     private static final String HARD_RETAIN_STRATEGY = "hard";
+    private static final String BOUNDED_RETAIN_STRATEGY = "bounded";
+
+    static final int DEFAULT_BOUNDED_SIZE = 10000;
 
     protected RuntimeProperties runtimeProperties;
+    protected LongAdder evictedObjects;
 
     public DefaultObjectMapRetainStrategy(@Inject RuntimeProperties runtimeProperties) {
         this.runtimeProperties = runtimeProperties;
+        this.evictedObjects = new LongAdder();
     }
 
     public Map<Object, Persistent> createObjectMap() {
@@ -54,9 +60,22 @@ public class DefaultObjectMapRetainStrategy implements ObjectMapRetainStrategy {
         } else if (SOFT_RETAIN_STRATEGY.equals(strategy)) {
             return new SoftValueMap<>();
         } else if (HARD_RETAIN_STRATEGY.equals(strategy)) {
-            return new HashMap<>();
+            return new ConcurrentHashMap<>();
+        } else if (BOUNDED_RETAIN_STRATEGY.equals(strategy)) {
+            int size = runtimeProperties.getInt(Constants.OBJECT_RETAIN_BOUNDED_SIZE_PROPERTY, DEFAULT_BOUNDED_SIZE);
+            return new BoundedObjectMap(size, evictedObjects);
         } else {
             throw new CayenneRuntimeException("Unsupported retain strategy %s", strategy);
         }
     }
+
+    /**
+     * Returns a total number of objects evicted from the hard-referenced region of all "bounded" object maps created
+     * by this strategy. Always zero for other strategies.
+     *
+     * @since 5.0
+     */
+    public long getEvictedObjectsCount() {
+        return evictedObjects.sum();
+    }
 }
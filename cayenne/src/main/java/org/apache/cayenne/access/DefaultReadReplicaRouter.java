@@ -0,0 +1,198 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.access;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.cayenne.ConfigurationException;
+import org.apache.cayenne.ObjectContext;
+import org.apache.cayenne.configuration.Constants;
+import org.apache.cayenne.configuration.RuntimeProperties;
+import org.apache.cayenne.di.Inject;
+
+/**
+ * Default implementation of {@link ReadReplicaRouter}. Replicas are DataNodes of the same DataDomain that have no
+ * DataMaps of their own. They are assigned to the primary nodes via {@link Constants#READ_REPLICAS_MAP}, that maps
+ * replica node names to primary node names. Selection between replicas of a given primary is done either in the
+ * round-robin order ("round_robin", default) or by picking a replica with the least number of outstanding queries
+ * ("least_outstanding"), as defined by {@link Constants#READ_REPLICAS_BALANCING_PROPERTY}. Optionally a context that
+ * has just committed its changes can be "pinned" to the primary nodes for a configured number of milliseconds (see
+ * {@link Constants#READ_REPLICAS_PIN_AFTER_COMMIT_PROPERTY}), so that it would see its own writes regardless of the
+ * replication lag.
+ *
+ * @since 5.0
+ */
+public class DefaultReadReplicaRouter implements ReadReplicaRouter {
+
+    static final String ROUND_ROBIN_BALANCING = "round_robin";
+    static final String LEAST_OUTSTANDING_BALANCING = "least_outstanding";
+
+    static final String LAST_COMMIT_PROPERTY = DefaultReadReplicaRouter.class.getName() + ".lastCommit";
+
+    protected final Map<String, List<String>> replicaNamesByPrimary;
+    protected final boolean leastOutstanding;
+    protected final long pinAfterCommitMs;
+
+    protected final Map<String, ReplicaPool> pools;
+    protected final Map<DataNode, AtomicInteger> outstanding;
+
+    public DefaultReadReplicaRouter(
+            @Inject(Constants.READ_REPLICAS_MAP) Map<String, String> primaryNamesByReplica,
+            @Inject RuntimeProperties runtimeProperties) {
+
+        Map<String, List<String>> replicaNamesByPrimary = new HashMap<>();
+        primaryNamesByReplica.forEach((replica, primary)
+                -> replicaNamesByPrimary.computeIfAbsent(primary, p -> new ArrayList<>()).add(replica));
+
+        // sort for stable round-robin order regardless of contribution order
+        replicaNamesByPrimary.values().forEach(Collections::sort);
+        this.replicaNamesByPrimary = replicaNamesByPrimary;
+
+        String balancing = runtimeProperties.get(Constants.READ_REPLICAS_BALANCING_PROPERTY);
+        if (balancing == null || ROUND_ROBIN_BALANCING.equals(balancing)) {
+            this.leastOutstanding = false;
+        } else if (LEAST_OUTSTANDING_BALANCING.equals(balancing)) {
+            this.leastOutstanding = true;
+        } else {
+            throw new ConfigurationException("Unsupported read replicas balancing strategy: %s", balancing);
+        }
+
+        this.pinAfterCommitMs = runtimeProperties.getLong(Constants.READ_REPLICAS_PIN_AFTER_COMMIT_PROPERTY, 0L);
+        this.pools = new ConcurrentHashMap<>();
+        this.outstanding = new ConcurrentHashMap<>();
+    }
+
+    @Override
+    public DataNode select(DataDomain domain, DataNode primary, ObjectContext context) {
+
+        if (replicaNamesByPrimary.isEmpty()) {
+            return primary;
+        }
+
+        ReplicaPool pool = pools.computeIfAbsent(primary.getName(), n -> createPool(domain, n));
+        if (pool.replicas.length == 0 || isPinnedToPrimary(context)) {
+            return primary;
+        }
+
+        DataNode replica = leastOutstanding ? pool.leastOutstanding() : pool.next();
+        if (leastOutstanding) {
+            outstanding.get(replica).incrementAndGet();
+        }
+
+        return replica;
+    }
+
+    @Override
+    public void release(DataNode node) {
+        if (leastOutstanding) {
+            AtomicInteger counter = outstanding.get(node);
+            if (counter != null) {
+                counter.decrementAndGet();
+            }
+        }
+    }
+
+    @Override
+    public void committed(ObjectContext context) {
+        if (pinAfterCommitMs > 0 && context != null) {
+            context.setUserProperty(LAST_COMMIT_PROPERTY, System.currentTimeMillis());
+        }
+    }
+
+    /**
+     * Returns the number of queries currently running on a given replica node. Only tracked for
+     * "least_outstanding" balancing.
+     */
+    public int getOutstandingQueries(DataNode replica) {
+        AtomicInteger counter = outstanding.get(replica);
+        return counter != null ? counter.get() : 0;
+    }
+
+    protected boolean isPinnedToPrimary(ObjectContext context) {
+        if (pinAfterCommitMs <= 0 || context == null) {
+            return false;
+        }
+
+        Object lastCommit = context.getUserProperty(LAST_COMMIT_PROPERTY);
+        return lastCommit != null && System.currentTimeMillis() - (Long) lastCommit < pinAfterCommitMs;
+    }
+
+    protected ReplicaPool createPool(DataDomain domain, String primaryName) {
+        List<String> names = replicaNamesByPrimary.getOrDefault(primaryName, Collections.emptyList());
+        DataNode[] replicas = new DataNode[names.size()];
+
+        for (int i = 0; i < replicas.length; i++) {
+            DataNode replica = domain.getDataNode(names.get(i));
+            if (replica == null) {
+                throw new ConfigurationException("No replica DataNode '%s' for primary DataNode '%s'",
+                        names.get(i), primaryName);
+            }
+
+            if (!replica.getDataMaps().isEmpty()) {
+                throw new ConfigurationException("Replica DataNode '%s' must not be linked to any DataMaps",
+                        names.get(i));
+            }
+
+            replicas[i] = replica;
+            outstanding.putIfAbsent(replica, new AtomicInteger());
+        }
+
+        return new ReplicaPool(replicas);
+    }
+
+    protected class ReplicaPool {
+
+        final DataNode[] replicas;
+        final AtomicInteger counter;
+
+        ReplicaPool(DataNode[] replicas) {
+            this.replicas = replicas;
+            this.counter = new AtomicInteger();
+        }
+
+        DataNode next() {
+            return replicas[Math.floorMod(counter.getAndIncrement(), replicas.length)];
+        }
+
+        DataNode leastOutstanding() {
+
+            // start from a rotating offset, so that idle replicas are used evenly
+            int offset = Math.floorMod(counter.getAndIncrement(), replicas.length);
+            DataNode best = null;
+            int bestCount = Integer.MAX_VALUE;
+
+            for (int i = 0; i < replicas.length; i++) {
+                DataNode replica = replicas[(offset + i) % replicas.length];
+                int count = outstanding.get(replica).get();
+                if (count < bestCount) {
+                    best = replica;
+                    bestCount = count;
+                }
+            }
+
+            return best;
+        }
+    }
+}
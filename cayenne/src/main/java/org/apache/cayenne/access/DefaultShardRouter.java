@@ -0,0 +1,274 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.access;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.cayenne.CayenneRuntimeException;
+import org.apache.cayenne.ConfigurationException;
+import org.apache.cayenne.DataRow;
+import org.apache.cayenne.ObjectId;
+import org.apache.cayenne.Persistent;
+import org.apache.cayenne.configuration.Constants;
+import org.apache.cayenne.di.Inject;
+import org.apache.cayenne.exp.Expression;
+import org.apache.cayenne.exp.parser.ASTDbPath;
+import org.apache.cayenne.exp.parser.ASTList;
+import org.apache.cayenne.exp.path.CayennePath;
+import org.apache.cayenne.map.DbEntity;
+import org.apache.cayenne.map.ObjAttribute;
+import org.apache.cayenne.map.ObjEntity;
+
+/**
+ * Default implementation of {@link ShardRouter} that uses {@link ShardKeyResolver ShardKeyResolvers} contributed
+ * under the {@link Constants#SHARD_KEY_RESOLVERS_MAP} key, mapped by ObjEntity name. A select is narrowed down to a
+ * subset of shards if its qualifier has a top-level condition matching the shard key with "=" or "in" to a constant
+ * value.
+ *
+ * @since 5.0
+ */
+public class DefaultShardRouter implements ShardRouter {
+
+    protected final Map<String, ShardKeyResolver> resolversByEntity;
+    protected final Map<String, Optional<ShardKey>> shardKeys;
+
+    public DefaultShardRouter(@Inject(Constants.SHARD_KEY_RESOLVERS_MAP) Map<String, ShardKeyResolver> resolversByEntity) {
+        this.resolversByEntity = resolversByEntity;
+        this.shardKeys = new ConcurrentHashMap<>();
+    }
+
+    @Override
+    public boolean isSharded(ObjEntity entity) {
+        return entity != null && shardKey(entity) != null;
+    }
+
+    @Override
+    public List<DataNode> nodesForQualifier(DataDomain domain, ObjEntity entity, Expression qualifier) {
+        ShardKey key = entity != null ? shardKey(entity) : null;
+        if (key == null) {
+            return null;
+        }
+
+        Collection<String> shards = key.resolver.getShards();
+        if (qualifier != null) {
+            Set<Object> keyValues = keyValues(entity.translateToDbPath(qualifier), key.column);
+            if (keyValues != null) {
+                shards = new LinkedHashSet<>();
+                for (Object value : keyValues) {
+                    shards.add(key.resolver.getShard(value));
+                }
+            }
+        }
+
+        List<DataNode> nodes = new ArrayList<>(shards.size());
+        for (String shard : shards) {
+            nodes.add(shardNode(domain, shard));
+        }
+        return nodes;
+    }
+
+    @Override
+    public DataNode nodeForObject(DataDomain domain, Persistent object, Map<String, ?> newValues) {
+        ObjEntity entity = domain.getEntityResolver().getObjEntity(object);
+        ShardKey key = entity != null ? shardKey(entity) : null;
+        if (key == null) {
+            return null;
+        }
+
+        Object committedValue = committedValue(object, key.column);
+        Object newValue = newValues != null ? newValues.get(key.column) : null;
+
+        if (committedValue != null && newValue != null && !Objects.equals(committedValue, newValue)) {
+            throw new CayenneRuntimeException("Can't change shard key '%s' of %s from %s to %s",
+                    key.column, object.getObjectId(), committedValue, newValue);
+        }
+
+        Object value = committedValue != null ? committedValue : newValue;
+        if (value == null) {
+            throw new CayenneRuntimeException("No shard key '%s' value for %s", key.column, object.getObjectId());
+        }
+
+        return shardNode(domain, key.resolver.getShard(value));
+    }
+
+    /**
+     * Returns a shard key value of a previously committed object, or null for the new objects.
+     */
+    protected Object committedValue(Persistent object, String column) {
+        ObjectId id = object.getObjectId();
+        if (id == null || id.isTemporary()) {
+            return null;
+        }
+
+        Object value = id.getIdSnapshot().get(column);
+        if (value == null && object.getObjectContext() instanceof DataContext) {
+            DataRow snapshot = ((DataContext) object.getObjectContext()).getObjectStore().getSnapshot(id);
+            value = snapshot != null ? snapshot.get(column) : null;
+        }
+        return value;
+    }
+
+    protected DataNode shardNode(DataDomain domain, String shard) {
+        DataNode node = domain.getDataNode(shard);
+        if (node == null) {
+            throw new ConfigurationException("No shard DataNode '%s'", shard);
+        }
+        return node;
+    }
+
+    protected ShardKey shardKey(ObjEntity entity) {
+        if (resolversByEntity.isEmpty()) {
+            return null;
+        }
+
+        return shardKeys.computeIfAbsent(entity.getName(), n -> Optional.ofNullable(createShardKey(entity))).orElse(null);
+    }
+
+    protected ShardKey createShardKey(ObjEntity entity) {
+
+        // a resolver of the super entity applies to all its subentities
+        ShardKeyResolver resolver = null;
+        for (ObjEntity e = entity; e != null && resolver == null; e = e.getSuperEntity()) {
+            resolver = resolversByEntity.get(e.getName());
+        }
+
+        if (resolver == null) {
+            return null;
+        }
+
+        String name = resolver.getShardKey();
+        DbEntity dbEntity = entity.getDbEntity();
+        ObjAttribute attribute = entity.getAttribute(name);
+
+        if (attribute != null) {
+            if (attribute.isFlattened()) {
+                throw new ConfigurationException("Shard key '%s' of entity '%s' must not be flattened",
+                        name, entity.getName());
+            }
+            return new ShardKey(resolver, attribute.getDbAttributeName());
+        }
+
+        if (dbEntity != null && dbEntity.getAttribute(name) != null) {
+            return new ShardKey(resolver, name);
+        }
+
+        throw new ConfigurationException("Shard key '%s' is not an attribute of entity '%s'", name, entity.getName());
+    }
+
+    /**
+     * Returns a set of shard key values that the qualifier matches, or null if the qualifier may match any value.
+     */
+    protected Set<Object> keyValues(Expression qualifier, String column) {
+
+        if (qualifier == null) {
+            return null;
+        }
+
+        switch (qualifier.getType()) {
+            case Expression.AND:
+                Set<Object> andValues = null;
+                for (int i = 0; i < qualifier.getOperandCount(); i++) {
+                    Set<Object> values = keyValues(operand(qualifier, i), column);
+                    if (values != null) {
+                        if (andValues == null) {
+                            andValues = new LinkedHashSet<>(values);
+                        } else {
+                            andValues.retainAll(values);
+                        }
+                    }
+                }
+                return andValues;
+
+            case Expression.OR:
+                Set<Object> orValues = new LinkedHashSet<>();
+                for (int i = 0; i < qualifier.getOperandCount(); i++) {
+                    Set<Object> values = keyValues(operand(qualifier, i), column);
+                    if (values == null) {
+                        return null;
+                    }
+                    orValues.addAll(values);
+                }
+                return orValues;
+
+            case Expression.EQUAL_TO:
+                if (isKeyPath(qualifier.getOperand(0), column) && isValue(qualifier.getOperand(1))) {
+                    return Collections.singleton(qualifier.getOperand(1));
+                }
+                if (isKeyPath(qualifier.getOperand(1), column) && isValue(qualifier.getOperand(0))) {
+                    return Collections.singleton(qualifier.getOperand(0));
+                }
+                return null;
+
+            case Expression.IN:
+                if (isKeyPath(qualifier.getOperand(0), column) && qualifier.getOperand(1) instanceof ASTList) {
+                    Object[] values = (Object[]) ((ASTList) qualifier.getOperand(1)).getOperand(0);
+                    Set<Object> inValues = new LinkedHashSet<>();
+                    for (Object value : values) {
+                        if (!isValue(value)) {
+                            return null;
+                        }
+                        inValues.add(value);
+                    }
+                    return inValues;
+                }
+                return null;
+
+            default:
+                return null;
+        }
+    }
+
+    private static Expression operand(Expression expression, int i) {
+        Object operand = expression.getOperand(i);
+        return operand instanceof Expression ? (Expression) operand : null;
+    }
+
+    private static boolean isKeyPath(Object operand, String column) {
+        if (!(operand instanceof ASTDbPath)) {
+            return false;
+        }
+
+        CayennePath path = ((ASTDbPath) operand).getPath();
+        return path.length() == 1 && column.equals(path.first().value());
+    }
+
+    private static boolean isValue(Object operand) {
+        return operand != null && !(operand instanceof Expression);
+    }
+
+    protected static class ShardKey {
+
+        final ShardKeyResolver resolver;
+        final String column;
+
+        ShardKey(ShardKeyResolver resolver, String column) {
+            this.resolver = resolver;
+            this.column = column;
+        }
+    }
+}
@@ -0,0 +1,98 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.access;
+
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.cayenne.DataRow;
+import org.apache.cayenne.ObjectId;
+
+/**
+ * A cache of snapshots of the "reference data" entities, used by a {@link DataRowStore} in addition to its LRU map.
+ * Snapshots of the configured entities are never evicted due to the cache size limit, so once fetched, such objects
+ * can be resolved by id, and as to-one relationship targets, without going to the database. Just like the rest of the
+ * DataRowStore, the cache is updated and invalidated as a part of SnapshotEvent processing.
+ *
+ * @since 5.0
+ */
+class EntityCache implements Serializable {
+
+    private final Set<String> entityNames;
+    private final ConcurrentMap<ObjectId, DataRow> snapshots;
+
+    EntityCache(Collection<String> entityNames) {
+        this.entityNames = new HashSet<>(entityNames);
+        this.snapshots = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Parses a comma-separated list of ObjEntity names, returning null if the list is empty.
+     */
+    static EntityCache parse(String entityNames) {
+        if (entityNames == null) {
+            return null;
+        }
+
+        Set<String> names = new HashSet<>();
+        for (String name : entityNames.split(",")) {
+            String trimmed = name.trim();
+            if (!trimmed.isEmpty()) {
+                names.add(trimmed);
+            }
+        }
+
+        return names.isEmpty() ? null : new EntityCache(names);
+    }
+
+    boolean isCached(String entityName) {
+        return entityNames.contains(entityName);
+    }
+
+    Set<String> getEntityNames() {
+        return entityNames;
+    }
+
+    DataRow get(ObjectId id) {
+        return snapshots.get(id);
+    }
+
+    /**
+     * Stores a snapshot if its entity is cached, returning the snapshot previously stored for the same id.
+     */
+    DataRow put(ObjectId id, DataRow snapshot) {
+        return isCached(id.getEntityName()) ? snapshots.put(id, snapshot) : null;
+    }
+
+    DataRow remove(ObjectId id) {
+        return snapshots.remove(id);
+    }
+
+    void clear() {
+        snapshots.clear();
+    }
+
+    int size() {
+        return snapshots.size();
+    }
+}
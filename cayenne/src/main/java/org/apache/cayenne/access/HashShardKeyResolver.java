@@ -0,0 +1,79 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.access;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+import org.apache.cayenne.CayenneRuntimeException;
+
+/**
+ * A {@link ShardKeyResolver} that assigns rows to the shards based on the hash code of the shard key value. Integral
+ * numbers are hashed by their long value, so that the same key maps to the same shard regardless of its Java type.
+ *
+ * @since 5.0
+ */
+public class HashShardKeyResolver implements ShardKeyResolver {
+
+    protected final String shardKey;
+    protected final List<String> shards;
+
+    public HashShardKeyResolver(String shardKey, String... shards) {
+        this(shardKey, List.of(shards));
+    }
+
+    public HashShardKeyResolver(String shardKey, List<String> shards) {
+        if (shards.isEmpty()) {
+            throw new IllegalArgumentException("At least one shard is required");
+        }
+
+        this.shardKey = Objects.requireNonNull(shardKey);
+        this.shards = Collections.unmodifiableList(new ArrayList<>(shards));
+    }
+
+    @Override
+    public String getShardKey() {
+        return shardKey;
+    }
+
+    @Override
+    public Collection<String> getShards() {
+        return shards;
+    }
+
+    @Override
+    public String getShard(Object shardKeyValue) {
+        if (shardKeyValue == null) {
+            throw new CayenneRuntimeException("Null shard key value for '%s'", shardKey);
+        }
+
+        return shards.get(Math.floorMod(hash(shardKeyValue), shards.size()));
+    }
+
+    protected int hash(Object value) {
+        if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            return Long.hashCode(((Number) value).longValue());
+        }
+
+        return value.hashCode();
+    }
+}
@@ -22,6 +22,8 @@ package org.apache.cayenne.access;
 import org.apache.cayenne.CayenneRuntimeException;
 import org.apache.cayenne.DataRow;
 import org.apache.cayenne.Persistent;
+import org.apache.cayenne.access.metrics.OperationPhase;
+import org.apache.cayenne.access.metrics.OperationTimer;
 import org.apache.cayenne.exp.Expression;
 import org.apache.cayenne.exp.ExpressionFactory;
 import org.apache.cayenne.exp.path.CayennePath;
@@ -77,22 +79,24 @@ class HierarchicalObjectResolver {
             List<DataRow> mainResultRows,
             Map<CayennePath, List<?>> extraResultsByPath) {
 
-        PrefetchProcessorNode decoratedTree = decorateTree(tree, mainResultRows, extraResultsByPath);
+        try (OperationTimer.PhaseScope ignored = OperationTimer.phase(OperationPhase.PREFETCH_PROCESSING)) {
+            PrefetchProcessorNode decoratedTree = decorateTree(tree, mainResultRows, extraResultsByPath);
 
-        // prepare data for disjoint by id prefetches
-        decoratedTree.traverse(new DisjointByIdProcessor());
+            // prepare data for disjoint by id prefetches
+            decoratedTree.traverse(new DisjointByIdProcessor());
 
-        // resolve objects under global lock to keep object graph consistent
-        synchronized (context.getObjectStore()) {
-            // do a single path for disjoint prefetches, joint subtrees will be processed at
-            // each disjoint node that is a parent of joint prefetches.
-            decoratedTree.traverse(new DisjointProcessor());
+            // resolve objects under global lock to keep object graph consistent
+            synchronized (context.getObjectStore()) {
+                // do a single path for disjoint prefetches, joint subtrees will be processed at
+                // each disjoint node that is a parent of joint prefetches.
+                decoratedTree.traverse(new DisjointProcessor());
 
-            // connect related objects
-            decoratedTree.traverse(new PostProcessor());
-        }
+                // connect related objects
+                decoratedTree.traverse(new PostProcessor());
+            }
 
-        return decoratedTree;
+            return decoratedTree;
+        }
     }
 
     /**
@@ -0,0 +1,130 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.access;
+
+import java.io.Closeable;
+import java.io.FilterInputStream;
+import java.io.FilterReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+
+import org.apache.cayenne.CayenneRuntimeException;
+import org.apache.cayenne.ObjectContext;
+import org.apache.cayenne.ObjectId;
+import org.apache.cayenne.Persistent;
+import org.apache.cayenne.ResultIterator;
+import org.apache.cayenne.exp.Expression;
+import org.apache.cayenne.exp.ExpressionFactory;
+import org.apache.cayenne.exp.property.PropertyFactory;
+import org.apache.cayenne.query.ObjectSelect;
+import org.apache.cayenne.value.LobStream;
+
+/**
+ * Re-fetches the content of a {@link LobStream} property of a persistent object by the object id, when the LOB
+ * locator obtained with the object is no longer valid. The content is streamed from an open ResultIterator, that is
+ * closed together with the returned stream.
+ *
+ * @since 5.0
+ */
+class LobStreamFetcher implements LobStream.Opener {
+
+    private final Persistent object;
+    private final String property;
+
+    /**
+     * Returns a copy of the LobStream that falls back to re-fetching its content for a given object property.
+     */
+    static Object bind(Object value, Persistent object, String property) {
+        return value instanceof LobStream
+                ? ((LobStream) value).withFallback(new LobStreamFetcher(object, property))
+                : value;
+    }
+
+    LobStreamFetcher(Persistent object, String property) {
+        this.object = object;
+        this.property = property;
+    }
+
+    @Override
+    public Closeable open() throws Exception {
+        ObjectContext context = object.getObjectContext();
+        ObjectId id = object.getObjectId();
+        if (context == null || id == null || id.isTemporary()) {
+            throw new CayenneRuntimeException("Can't re-fetch LOB property '%s' of an unsaved object", property);
+        }
+
+        ResultIterator<LobStream> it = ObjectSelect.query(Persistent.class, id.getEntityName())
+                .where(ExpressionFactory.matchAllDbExp(id.getIdSnapshot(), Expression.EQUAL_TO))
+                .column(PropertyFactory.createBase(property, LobStream.class))
+                .iterator(context);
+
+        try {
+            LobStream lob = it.hasNextRow() ? it.nextRow() : null;
+            if (lob == null) {
+                throw new CayenneRuntimeException("LOB property '%s' of %s is null or the object is deleted", property, id);
+            }
+
+            return lob.isCharacter()
+                    ? new IteratorReader(lob.openReader(), it)
+                    : new IteratorInputStream(lob.openStream(), it);
+        } catch (Exception e) {
+            it.close();
+            throw e;
+        }
+    }
+
+    private static class IteratorInputStream extends FilterInputStream {
+
+        private final ResultIterator<?> iterator;
+
+        IteratorInputStream(InputStream in, ResultIterator<?> iterator) {
+            super(in);
+            this.iterator = iterator;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                super.close();
+            } finally {
+                iterator.close();
+            }
+        }
+    }
+
+    private static class IteratorReader extends FilterReader {
+
+        private final ResultIterator<?> iterator;
+
+        IteratorReader(Reader in, ResultIterator<?> iterator) {
+            super(in);
+            this.iterator = iterator;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                super.close();
+            } finally {
+                iterator.close();
+            }
+        }
+    }
+}
@@ -30,5 +30,10 @@ import org.apache.cayenne.Persistent;
  */
 public interface ObjectMapRetainStrategy {
 
+    /**
+     * Creates a map for ObjectStore registered objects. Since 5.0 the returned map must be safe for reading
+     * concurrently with a single writer (e.g. a ConcurrentHashMap), as ObjectStore no longer locks on reads. Writes
+     * are still synchronized by the ObjectStore.
+     */
     Map<Object, Persistent> createObjectMap();
 }
@@ -25,6 +25,8 @@ import org.apache.cayenne.ObjectContext;
 import org.apache.cayenne.ObjectId;
 import org.apache.cayenne.PersistenceState;
 import org.apache.cayenne.Persistent;
+import org.apache.cayenne.access.metrics.OperationPhase;
+import org.apache.cayenne.access.metrics.OperationTimer;
 import org.apache.cayenne.exp.path.CayennePath;
 import org.apache.cayenne.map.DbAttribute;
 import org.apache.cayenne.map.DbEntity;
@@ -114,14 +116,18 @@ class ObjectResolver {
 		}
 
 		List<Persistent> results = new ArrayList<>(rows.size());
-		for (DataRow row : rows) {
-			// nulls are possible here since 3.0 for some varieties of EJBQL,
-			// simple example of this: "select p.toGallery+ from Painting p" where toGallery is null.
-			results.add(objectFromDataRow(row));
+		try (OperationTimer.PhaseScope ignored = OperationTimer.phase(OperationPhase.OBJECT_RESOLUTION)) {
+			for (DataRow row : rows) {
+				// nulls are possible here since 3.0 for some varieties of EJBQL,
+				// simple example of this: "select p.toGallery+ from Painting p" where toGallery is null.
+				results.add(objectFromDataRow(row));
+			}
 		}
 
 		// now deal with snapshots
-		cache.snapshotsUpdatedForObjects(results, rows, refreshObjects);
+		try (OperationTimer.PhaseScope ignored = OperationTimer.phase(OperationPhase.SNAPSHOT_CACHE)) {
+			cache.snapshotsUpdatedForObjects(results, rows, refreshObjects);
+		}
 		return results;
 	}
 
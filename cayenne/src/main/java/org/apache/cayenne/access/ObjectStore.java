@@ -60,6 +60,12 @@ import java.util.concurrent.ConcurrentHashMap;
  * object cache for a DataContext. Users rarely need to access ObjectStore directly, as
  * DataContext serves as a facade, providing cover methods for most ObjectStore
  * operations.
+ * <p>
+ * Graph reads ({@link #getNode(Object)}, {@link #registeredNodes()}, {@link #objectsInState(int)}, etc.) are not
+ * synchronized and go directly to the object map, which is required to support concurrent reads. Graph mutations,
+ * snapshot event processing and commit post-processing are synchronized on the ObjectStore instance, which is also
+ * the lock used by the rest of the access stack when registering fetched objects.
+ * </p>
  * 
  * @since 1.0
  */
@@ -87,7 +93,7 @@ public class ObjectStore implements Serializable, SnapshotEventListener, GraphMa
      * restore the DataRowStore by itself.
      * </p>
      */
-    protected transient DataRowStore dataRowCache;
+    protected transient volatile DataRowStore dataRowCache;
 
     // used to avoid incorrect on-demand DataRowStore initialization after deserialization
     protected boolean dataRowCacheSet;
@@ -101,8 +107,9 @@ public class ObjectStore implements Serializable, SnapshotEventListener, GraphMa
 
     /**
      * Creates an ObjectStore with {@link DataRowStore} and a map to use for storing
-     * registered objects. Passed map doesn't require any special synchronization
-     * behavior, as ObjectStore is synchronized itself.
+     * registered objects. Passed map must be safe for reads concurrent with a single
+     * writer (see {@link ObjectMapRetainStrategy}), as ObjectStore only synchronizes
+     * writes.
      * 
      * @since 3.0
      */
@@ -248,20 +255,33 @@ public class ObjectStore implements Serializable, SnapshotEventListener, GraphMa
     // note that as of 1.2, ObjectStore does not access DataRowStore directly when
     // retrieving snapshots. Instead it sends a query via the DataContext's channel so
     // that every element in the channel chain could intercept snapshot requests
-    public void setDataRowCache(DataRowStore dataRowCache) {
+    public synchronized void setDataRowCache(DataRowStore dataRowCache) {
         if (dataRowCache == this.dataRowCache) {
             return;
         }
 
-        if (this.dataRowCache != null && this.dataRowCache.getEventManager() != null) {
-            this.dataRowCache.getEventManager().removeListener(
-                    this,
-                    this.dataRowCache.getSnapshotEventSubject());
+        if (this.dataRowCache != null) {
+            ObjectStoreIndex index = this.dataRowCache.getObjectStoreIndex();
+            if (index != null) {
+                for (Object id : registeredIds()) {
+                    index.remove((ObjectId) id, this);
+                }
+            } else if (this.dataRowCache.getEventManager() != null) {
+                this.dataRowCache.getEventManager().removeListener(
+                        this,
+                        this.dataRowCache.getSnapshotEventSubject());
+            }
         }
 
         this.dataRowCache = dataRowCache;
 
-        if (dataRowCache != null && dataRowCache.getEventManager() != null) {
+        if (dataRowCache != null && dataRowCache.getObjectStoreIndex() != null) {
+            // with targeted delivery the cache only notifies ObjectStores that hold the affected objects, so instead
+            // of listening for events, add our objects to its index
+            for (Object id : registeredIds()) {
+                indexNode(id);
+            }
+        } else if (dataRowCache != null && dataRowCache.getEventManager() != null) {
             // setting itself as non-blocking listener,
             // since event sending thread will likely be locking sender's
             // ObjectStore and snapshot cache itself.
@@ -297,6 +317,7 @@ public class ObjectStore implements Serializable, SnapshotEventListener, GraphMa
 
             // remove object but not snapshot
             objectMap.remove(id);
+            unindexNode(id);
             changes.remove(id);
             if(id != null && trackedFlattenedPaths != null) {
                 trackedFlattenedPaths.remove(id);
@@ -411,6 +432,7 @@ public class ObjectStore implements Serializable, SnapshotEventListener, GraphMa
             switch (object.getPersistenceState()) {
                 case PersistenceState.DELETED:
                     objectMap.remove(id);
+                    unindexNode(id);
                     object.setObjectContext(null);
                     object.setPersistenceState(PersistenceState.TRANSIENT);
                     break;
@@ -487,7 +509,7 @@ public class ObjectStore implements Serializable, SnapshotEventListener, GraphMa
      * 
      * @since 1.2
      */
-    public synchronized DataRow getSnapshot(ObjectId oid) {
+    public DataRow getSnapshot(ObjectId oid) {
 
         if (context != null && context.getChannel() != null) {
             ObjectIdQuery query = new ObjectIdQuery(oid, true, ObjectIdQuery.CACHE);
@@ -502,7 +524,7 @@ public class ObjectStore implements Serializable, SnapshotEventListener, GraphMa
     /**
      * Returns an iterator over the registered objects.
      */
-    public synchronized Iterator<Persistent> getObjectIterator() {
+    public Iterator<Persistent> getObjectIterator() {
         return objectMap.values().iterator();
     }
 
@@ -521,7 +543,7 @@ public class ObjectStore implements Serializable, SnapshotEventListener, GraphMa
      * Return a subset of registered objects that are in a certain persistence state.
      * Collection is returned by copy.
      */
-    public synchronized List<Persistent> objectsInState(int state) {
+    public List<Persistent> objectsInState(int state) {
         List<Persistent> filteredObjects = new ArrayList<>();
 
         for (Persistent object : objectMap.values()) {
@@ -555,7 +577,50 @@ public class ObjectStore implements Serializable, SnapshotEventListener, GraphMa
     /**
      * @since 1.2
      */
-    synchronized void processSnapshotEvent(SnapshotEvent event) {
+    void processSnapshotEvent(SnapshotEvent event) {
+
+        // most events are irrelevant to any given context, so check for affected objects without locking
+        if (containsAnyObject(event)) {
+            synchronized (this) {
+                applySnapshotEvent(event);
+            }
+        }
+
+        // TODO: andrus, 3/28/2006 - 'SnapshotEventDecorator' serves as a bridge (or
+        // rather a noop wrapper) between old snapshot events and new GraphEvents. Once
+        // SnapshotEvents are replaced with GraphEvents (in 2.0) we won't need it
+        GraphDiff diff = new SnapshotEventDecorator(event);
+
+        ObjectContext originatingContext = (event.getPostedBy() instanceof ObjectContext)
+                ? (ObjectContext) event.getPostedBy()
+                : null;
+        context.fireDataChannelChanged(originatingContext, diff);
+    }
+
+    private boolean containsAnyObject(SnapshotEvent event) {
+        return containsAny(event.getModifiedDiffs() != null ? event.getModifiedDiffs().keySet() : null)
+                || containsAny(event.getDeletedIds())
+                || containsAny(event.getInvalidatedIds())
+                || containsAny(event.getIndirectlyModifiedIds());
+    }
+
+    private boolean containsAny(Collection<ObjectId> ids) {
+        if (ids != null) {
+            for (ObjectId id : ids) {
+                // "get" would update the LRU order of a bounded map, so check the keys only
+                if (objectMap.containsKey(id)) {
+                    return true;
+                }
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Requires external synchronization.
+     */
+    private void applySnapshotEvent(SnapshotEvent event) {
 
         Map<ObjectId, DataRow> modifiedDiffs = event.getModifiedDiffs();
         if (modifiedDiffs != null && !modifiedDiffs.isEmpty()) {
@@ -573,24 +638,16 @@ public class ObjectStore implements Serializable, SnapshotEventListener, GraphMa
 
         processInvalidatedIDs(event.getInvalidatedIds());
         processIndirectlyModifiedIDs(event.getIndirectlyModifiedIds());
-
-        // TODO: andrus, 3/28/2006 - 'SnapshotEventDecorator' serves as a bridge (or
-        // rather a noop wrapper) between old snapshot events and new GraphEvents. Once
-        // SnapshotEvents are replaced with GraphEvents (in 2.0) we won't need it
-        GraphDiff diff = new SnapshotEventDecorator(event);
-
-        ObjectContext originatingContext = (event.getPostedBy() instanceof ObjectContext)
-                ? (ObjectContext) event.getPostedBy()
-                : null;
-        context.fireDataChannelChanged(originatingContext, diff);
     }
 
     void processIdChange(Object nodeId, Object newId) {
         Persistent object = objectMap.remove(nodeId);
 
         if (object != null) {
+            unindexNode(nodeId);
             object.setObjectId((ObjectId) newId);
             objectMap.put(newId, object);
+            indexNode(newId);
 
             ObjectDiff change = changes.remove(nodeId);
             if (change != null) {
@@ -629,6 +686,7 @@ public class ObjectStore implements Serializable, SnapshotEventListener, GraphMa
 
                     if (delegate.shouldProcessDelete(object)) {
                         objectMap.remove(nodeId);
+                        unindexNode(nodeId);
                         changes.remove(nodeId);
 
                         // setting DataContext to null will also set
@@ -838,18 +896,42 @@ public class ObjectStore implements Serializable, SnapshotEventListener, GraphMa
     // *********** GraphManager Methods ********
     // =========================================
 
+    /**
+     * Returns whether an object with the ObjectId is registered in this store. Unlike {@link #getNode(Object)}, has no
+     * side effects on the object map, such as LRU reordering.
+     */
+    boolean containsNode(Object nodeId) {
+        return objectMap.containsKey(nodeId);
+    }
+
+    // null-safe, as the cache is set in constructor before the object map
+    private Collection<Object> registeredIds() {
+        return objectMap != null ? objectMap.keySet() : Collections.emptySet();
+    }
+
+    private void indexNode(Object nodeId) {
+        DataRowStore cache = this.dataRowCache;
+        ObjectStoreIndex index = cache != null ? cache.getObjectStoreIndex() : null;
+        if (index != null && nodeId instanceof ObjectId) {
+            index.add((ObjectId) nodeId, this);
+        }
+    }
+
+    private void unindexNode(Object nodeId) {
+        DataRowStore cache = this.dataRowCache;
+        ObjectStoreIndex index = cache != null ? cache.getObjectStoreIndex() : null;
+        if (index != null && nodeId instanceof ObjectId) {
+            index.remove((ObjectId) nodeId, this);
+        }
+    }
+
     /**
      * Returns a registered Persistent objects or null of no object exists for the ObjectId.
      * 
      * @since 1.2
      */
     @Override
-    public synchronized Object getNode(Object nodeId) {
-        return objectMap.get(nodeId);
-    }
-
-    // non-synchronized version of getNode for private use
-    final Object getNodeNoSync(Object nodeId) {
+    public Object getNode(Object nodeId) {
         return objectMap.get(nodeId);
     }
 
@@ -860,7 +942,7 @@ public class ObjectStore implements Serializable, SnapshotEventListener, GraphMa
      * @since 1.2
      */
     @Override
-    public synchronized Collection<Object> registeredNodes() {
+    public Collection<Object> registeredNodes() {
         return new ArrayList<Object>(objectMap.values());
     }
 
@@ -870,6 +952,7 @@ public class ObjectStore implements Serializable, SnapshotEventListener, GraphMa
     @Override
     public synchronized void registerNode(Object nodeId, Object nodeObject) {
         objectMap.put(nodeId, (Persistent) nodeObject);
+        indexNode(nodeId);
     }
 
     /**
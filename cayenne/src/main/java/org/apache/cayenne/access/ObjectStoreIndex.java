@@ -0,0 +1,246 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.access;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.cayenne.DataRow;
+import org.apache.cayenne.ObjectId;
+import org.apache.cayenne.access.event.SnapshotEvent;
+import org.apache.cayenne.access.event.SnapshotEventListener;
+
+/**
+ * A reverse index of ObjectIds to the ObjectStores that hold objects with those ids, used by a {@link DataRowStore}
+ * with targeted event delivery. Instead of each ObjectStore listening to all SnapshotEvents of the DataRowStore and
+ * discarding most of them, this index is the only listener. It splits each event and passes every ObjectStore just
+ * the part of the event related to the objects it holds. ObjectStores not holding any affected objects are not
+ * notified at all.
+ * <p>
+ * ObjectStores are referenced weakly, so the index does not prevent DataContexts from being garbage collected.
+ * Objects that disappear from the ObjectStore weak maps without explicit unregistration leave stale entries in the
+ * index, that are dropped on delivery, and by a periodic sweep that runs when the index doubles in size.
+ *
+ * @since 5.0
+ */
+class ObjectStoreIndex implements SnapshotEventListener {
+
+    static final int MIN_SWEEP_THRESHOLD = 1024;
+
+    private final ConcurrentMap<ObjectId, StoreRef[]> index;
+    private volatile int sweepThreshold;
+
+    ObjectStoreIndex() {
+        this.index = new ConcurrentHashMap<>();
+        this.sweepThreshold = MIN_SWEEP_THRESHOLD;
+    }
+
+    /**
+     * Records that the ObjectStore holds an object with a given id. Must be called after the object is added to the
+     * store object map.
+     */
+    void add(ObjectId id, ObjectStore store) {
+        index.compute(id, (k, refs) -> {
+            if (refs == null) {
+                return new StoreRef[]{new StoreRef(store)};
+            }
+
+            for (StoreRef ref : refs) {
+                if (ref.get() == store) {
+                    return refs;
+                }
+            }
+
+            StoreRef[] newRefs = new StoreRef[refs.length + 1];
+            int i = 0;
+            for (StoreRef ref : refs) {
+                // drop references to collected stores while we are here
+                if (ref.get() != null) {
+                    newRefs[i++] = ref;
+                }
+            }
+
+            newRefs[i++] = new StoreRef(store);
+            return i == newRefs.length ? newRefs : copyOf(newRefs, i);
+        });
+
+        if (index.size() > sweepThreshold) {
+            sweep();
+        }
+    }
+
+    /**
+     * Records that the ObjectStore no longer holds an object with a given id. Must be called after the object is
+     * removed from the store object map.
+     */
+    void remove(ObjectId id, ObjectStore store) {
+        index.computeIfPresent(id, (k, refs) -> retain(k, refs, store));
+    }
+
+    /**
+     * Returns the number of ObjectIds present in the index.
+     */
+    int size() {
+        return index.size();
+    }
+
+    /**
+     * Returns ObjectStores currently known to hold an object with a given id.
+     */
+    Collection<ObjectStore> getStores(ObjectId id) {
+        StoreRef[] refs = index.get(id);
+        if (refs == null) {
+            return new ArrayList<>(0);
+        }
+
+        Collection<ObjectStore> stores = new ArrayList<>(refs.length);
+        for (StoreRef ref : refs) {
+            ObjectStore store = ref.get();
+            if (store != null && store.containsNode(id)) {
+                stores.add(store);
+            }
+        }
+        return stores;
+    }
+
+    /**
+     * Splits the event per ObjectStore and delivers each part to the ObjectStore holding the affected objects.
+     */
+    @Override
+    public void snapshotsChanged(SnapshotEvent event) {
+        Map<ObjectStore, StoreEvent> events = new IdentityHashMap<>();
+
+        for (Map.Entry<ObjectId, DataRow> e : event.getModifiedDiffs().entrySet()) {
+            for (ObjectStore store : storesFor(e.getKey(), event)) {
+                events.computeIfAbsent(store, s -> new StoreEvent()).modifiedDiffs.put(e.getKey(), e.getValue());
+            }
+        }
+
+        for (ObjectId id : event.getDeletedIds()) {
+            for (ObjectStore store : storesFor(id, event)) {
+                events.computeIfAbsent(store, s -> new StoreEvent()).deletedIds.add(id);
+            }
+        }
+
+        for (ObjectId id : event.getInvalidatedIds()) {
+            for (ObjectStore store : storesFor(id, event)) {
+                events.computeIfAbsent(store, s -> new StoreEvent()).invalidatedIds.add(id);
+            }
+        }
+
+        for (ObjectId id : event.getIndirectlyModifiedIds()) {
+            for (ObjectStore store : storesFor(id, event)) {
+                events.computeIfAbsent(store, s -> new StoreEvent()).indirectlyModifiedIds.add(id);
+            }
+        }
+
+        for (Map.Entry<ObjectStore, StoreEvent> e : events.entrySet()) {
+            StoreEvent part = e.getValue();
+            e.getKey().snapshotsChanged(new SnapshotEvent(
+                    event.getSource(),
+                    event.getPostedBy(),
+                    part.modifiedDiffs,
+                    part.deletedIds,
+                    part.invalidatedIds,
+                    part.indirectlyModifiedIds));
+        }
+    }
+
+    private Collection<ObjectStore> storesFor(ObjectId id, SnapshotEvent event) {
+        StoreRef[] refs = index.get(id);
+        if (refs == null) {
+            return new ArrayList<>(0);
+        }
+
+        Collection<ObjectStore> stores = new ArrayList<>(refs.length);
+        boolean stale = false;
+        for (StoreRef ref : refs) {
+            ObjectStore store = ref.get();
+            if (store == null || !store.containsNode(id)) {
+                stale = true;
+            } else if (store != event.getPostedBy()) {
+                // the store that made the change doesn't need to hear about it
+                stores.add(store);
+            }
+        }
+
+        if (stale) {
+            index.computeIfPresent(id, (k, current) -> retain(k, current, null));
+        }
+
+        return stores;
+    }
+
+    /**
+     * Drops index entries pointing to collected ObjectStores, or to the objects no longer registered in their stores.
+     */
+    void sweep() {
+        for (ObjectId id : index.keySet()) {
+            index.computeIfPresent(id, (k, refs) -> retain(k, refs, null));
+        }
+
+        sweepThreshold = Math.max(MIN_SWEEP_THRESHOLD, index.size() * 2);
+    }
+
+    // returns refs that still hold "id" minus the "excluded" store, or null if there's none left. Checking the store
+    // inside "compute" makes the check atomic relative to "add" for the same id.
+    private static StoreRef[] retain(ObjectId id, StoreRef[] refs, ObjectStore excluded) {
+        StoreRef[] newRefs = new StoreRef[refs.length];
+        int i = 0;
+        for (StoreRef ref : refs) {
+            ObjectStore store = ref.get();
+            if (store != null && store != excluded && store.containsNode(id)) {
+                newRefs[i++] = ref;
+            }
+        }
+
+        if (i == 0) {
+            return null;
+        }
+
+        return i == refs.length ? refs : copyOf(newRefs, i);
+    }
+
+    private static StoreRef[] copyOf(StoreRef[] refs, int length) {
+        StoreRef[] copy = new StoreRef[length];
+        System.arraycopy(refs, 0, copy, 0, length);
+        return copy;
+    }
+
+    private static class StoreRef extends WeakReference<ObjectStore> {
+
+        StoreRef(ObjectStore store) {
+            super(store);
+        }
+    }
+
+    private static class StoreEvent {
+
+        final Map<ObjectId, DataRow> modifiedDiffs = new HashMap<>();
+        final Collection<ObjectId> deletedIds = new ArrayList<>();
+        final Collection<ObjectId> invalidatedIds = new ArrayList<>();
+        final Collection<ObjectId> indirectlyModifiedIds = new ArrayList<>();
+    }
+}
@@ -0,0 +1,54 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.access;
+
+import org.apache.cayenne.ObjectContext;
+
+/**
+ * A strategy for spreading read-only queries between a primary {@link DataNode} and its read replicas. DataDomain
+ * consults the router for selecting queries that are executed outside of a transaction. Writes and any queries
+ * executed within an explicit transaction always go to the primary node, mapped to the query DataMap.
+ *
+ * @see DefaultReadReplicaRouter
+ * @since 5.0
+ */
+public interface ReadReplicaRouter {
+
+    /**
+     * Returns a node to run a read-only query that was routed to the "primary" node. If the primary has no replicas,
+     * or the context should read its own recent writes, returns the primary node itself. Each call must be paired
+     * with a {@link #release(DataNode)} call once the query is done.
+     *
+     * @param domain  DataDomain running the query
+     * @param primary a DataNode a query was routed to based on its DataMap
+     * @param context a context that issued the query. May be null
+     */
+    DataNode select(DataDomain domain, DataNode primary, ObjectContext context);
+
+    /**
+     * Notifies the router that a query on the node returned from {@link #select(DataDomain, DataNode, ObjectContext)}
+     * is done.
+     */
+    void release(DataNode node);
+
+    /**
+     * Notifies the router that the context has committed its changes to the primary nodes.
+     */
+    void committed(ObjectContext context);
+}
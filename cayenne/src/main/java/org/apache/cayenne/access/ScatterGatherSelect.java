@@ -0,0 +1,187 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.access;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.apache.cayenne.CayenneRuntimeException;
+import org.apache.cayenne.exp.Expression;
+import org.apache.cayenne.exp.parser.ASTDbPath;
+import org.apache.cayenne.exp.property.Property;
+import org.apache.cayenne.map.EntityResolver;
+import org.apache.cayenne.map.ObjEntity;
+import org.apache.cayenne.query.FluentSelect;
+import org.apache.cayenne.query.ObjectSelect;
+import org.apache.cayenne.query.Ordering;
+import org.apache.cayenne.query.PrefetchSelectQuery;
+import org.apache.cayenne.query.PrefetchTreeNode;
+import org.apache.cayenne.query.Query;
+import org.apache.cayenne.query.QueryMetadata;
+import org.apache.cayenne.query.QueryMetadataProxy;
+
+/**
+ * A select of a sharded entity that is sent to multiple shards, gathering the rows fetched from each of them. The
+ * gathered rows of the main query are reordered and sliced according to the query orderings, offset and limit. Each
+ * shard is queried for "offset + limit" rows, as it is not known in advance how many of the skipped rows it holds.
+ *
+ * @since 5.0
+ */
+class ScatterGatherSelect {
+
+    private final FluentSelect<?, ?> select;
+    private final QueryMetadata metadata;
+    private final Query shardQuery;
+    private final List<Object> rows;
+
+    ScatterGatherSelect(FluentSelect<?, ?> select, EntityResolver resolver) {
+        this.select = select;
+        this.metadata = select.getMetaData(resolver);
+        this.shardQuery = metadata.getFetchOffset() > 0 ? new ShardSelect<>(select) : select;
+        this.rows = new ArrayList<>();
+    }
+
+    /**
+     * Returns the original select.
+     */
+    FluentSelect<?, ?> getSelect() {
+        return select;
+    }
+
+    /**
+     * Returns a query that should be run on each shard.
+     */
+    Query getShardQuery() {
+        return shardQuery;
+    }
+
+    void addRows(List<?> shardRows) {
+        rows.addAll(shardRows);
+    }
+
+    /**
+     * Returns rows gathered from all shards, as if they were fetched from a single DataNode.
+     */
+    List<?> merge() {
+
+        // prefetched rows are matched with their parents by the relationship keys, so their order is irrelevant
+        if (select instanceof PrefetchSelectQuery) {
+            return rows;
+        }
+
+        Collection<Ordering> orderings = select.getOrderings();
+        if (orderings != null && !orderings.isEmpty()) {
+            Ordering.orderList(rows, dbOrderings(metadata.getObjEntity(), orderings));
+        }
+
+        int offset = metadata.getFetchOffset();
+        int limit = metadata.getFetchLimit();
+
+        if (offset <= 0 && (limit <= 0 || rows.size() <= limit)) {
+            return rows;
+        }
+
+        int from = Math.min(offset, rows.size());
+        int to = limit > 0 ? Math.min(from + limit, rows.size()) : rows.size();
+        return new ArrayList<>(rows.subList(from, to));
+    }
+
+    // rows are DataRows keyed by column names, so the orderings must be translated to the root entity columns
+    private static List<Ordering> dbOrderings(ObjEntity entity, Collection<Ordering> orderings) {
+        List<Ordering> dbOrderings = new ArrayList<>(orderings.size());
+        for (Ordering ordering : orderings) {
+            Expression dbSpec = entity.translateToDbPath(ordering.getSortSpec());
+            if (!(dbSpec instanceof ASTDbPath) || ((ASTDbPath) dbSpec).getPath().length() != 1) {
+                throw new CayenneRuntimeException(
+                        "Can't merge rows of sharded entity '%s' ordered by '%s'. Only the entity columns are supported",
+                        entity.getName(), ordering.getSortSpecString());
+            }
+
+            Ordering dbOrdering = new Ordering(dbSpec, ordering.getSortOrder());
+            dbOrdering.setNullSortedFirst(ordering.isNullSortedFirst());
+            dbOrderings.add(dbOrdering);
+        }
+        return dbOrderings;
+    }
+
+    /**
+     * A delegating select that fetches "offset + limit" rows from the start of the result.
+     */
+    static class ShardSelect<T> extends ObjectSelect<T> {
+
+        private final FluentSelect<?, ?> select;
+
+        ShardSelect(FluentSelect<?, ?> select) {
+            this.select = select;
+        }
+
+        @Override
+        public QueryMetadata getMetaData(EntityResolver resolver) {
+            QueryMetadata md = select.getMetaData(resolver);
+            return new QueryMetadataProxy(md) {
+
+                @Override
+                public int getFetchOffset() {
+                    return 0;
+                }
+
+                @Override
+                public int getFetchLimit() {
+                    return md.getFetchLimit() > 0 ? md.getFetchLimit() + md.getFetchOffset() : 0;
+                }
+            };
+        }
+
+        @Override
+        public Expression getWhere() {
+            return select.getWhere();
+        }
+
+        @Override
+        public Expression getHaving() {
+            return select.getHaving();
+        }
+
+        @Override
+        public Collection<Ordering> getOrderings() {
+            return select.getOrderings();
+        }
+
+        @Override
+        public Collection<Property<?>> getColumns() {
+            return select.getColumns();
+        }
+
+        @Override
+        public boolean isDistinct() {
+            return select.isDistinct();
+        }
+
+        @Override
+        public PrefetchTreeNode getPrefetches() {
+            return select.getPrefetches();
+        }
+
+        @Override
+        public boolean isFetchingDataRows() {
+            return select.isFetchingDataRows();
+        }
+    }
+}
@@ -0,0 +1,52 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.access;
+
+import java.util.Collection;
+
+/**
+ * Defines how rows of a horizontally sharded entity are distributed between DataNodes. A resolver is registered for
+ * an ObjEntity via {@link org.apache.cayenne.configuration.runtime.CoreModuleExtender#addShardKeyResolver(String,
+ * ShardKeyResolver)} and applies to all of its subentities. Each row of the entity is stored on a single shard,
+ * selected by the value of its shard key column.
+ *
+ * @see HashShardKeyResolver
+ * @see ShardRouter
+ * @since 5.0
+ */
+public interface ShardKeyResolver {
+
+    /**
+     * Returns the name of the shard key. It can be either an ObjAttribute name or a DbAttribute name of the root
+     * DbEntity of the sharded entity. The value of the key must never change once the row is created.
+     */
+    String getShardKey();
+
+    /**
+     * Returns the names of all DataNodes that store the entity rows. Queries that can not be narrowed to a single
+     * shard are sent to all of them.
+     */
+    Collection<String> getShards();
+
+    /**
+     * Returns the name of a DataNode that stores a row with a given shard key value. Must be one of the names returned
+     * from {@link #getShards()}.
+     */
+    String getShard(Object shardKeyValue);
+}
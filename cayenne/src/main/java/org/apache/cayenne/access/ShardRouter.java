@@ -0,0 +1,63 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.access;
+
+import java.util.List;
+import java.util.Map;
+
+import org.apache.cayenne.Persistent;
+import org.apache.cayenne.exp.Expression;
+import org.apache.cayenne.map.ObjEntity;
+
+/**
+ * Routes queries and commits of horizontally sharded entities to their shard DataNodes. Selects that have the shard
+ * key in the qualifier are sent to a single shard, other selects are sent to all the shards of an entity and their
+ * results are merged. Committed rows are routed to the shards based on their shard key values.
+ *
+ * @see ShardKeyResolver
+ * @see DefaultShardRouter
+ * @since 5.0
+ */
+public interface ShardRouter {
+
+    /**
+     * Returns whether a given entity is sharded.
+     */
+    boolean isSharded(ObjEntity entity);
+
+    /**
+     * Returns shard DataNodes that may contain rows of a given entity matching the qualifier, or null if the entity
+     * is not sharded.
+     *
+     * @param domain    DataDomain running the query
+     * @param entity    query root entity
+     * @param qualifier query qualifier. May be null
+     */
+    List<DataNode> nodesForQualifier(DataDomain domain, ObjEntity entity, Expression qualifier);
+
+    /**
+     * Returns a shard DataNode that stores the row of a given object, or null if the object entity is not sharded.
+     *
+     * @param domain    DataDomain running the commit
+     * @param object    a new, modified or deleted object
+     * @param newValues values of the row to be written, keyed by column name. May be null or empty if the row values
+     *                  are not changing
+     */
+    DataNode nodeForObject(DataDomain domain, Persistent object, Map<String, ?> newValues);
+}
@@ -24,27 +24,36 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 
 import org.apache.cayenne.CayenneRuntimeException;
+import org.apache.cayenne.DataChannel;
 import org.apache.cayenne.ObjectId;
 import org.apache.cayenne.access.DataContext;
 import org.apache.cayenne.access.DataDomain;
+import org.apache.cayenne.access.DataNode;
+import org.apache.cayenne.access.DataRowStore;
 import org.apache.cayenne.access.ObjectDiff;
 import org.apache.cayenne.access.ObjectStore;
 import org.apache.cayenne.access.ObjectStoreGraphDiff;
 import org.apache.cayenne.access.OperationObserver;
+import org.apache.cayenne.access.ShardRouter;
 import org.apache.cayenne.access.flush.operation.DbRowOpMerger;
 import org.apache.cayenne.access.flush.operation.DbRowOpSorter;
 import org.apache.cayenne.access.flush.operation.DbRowOp;
 import org.apache.cayenne.access.flush.operation.DbRowOpVisitor;
+import org.apache.cayenne.access.flush.operation.DbRowOpWithValues;
 import org.apache.cayenne.access.flush.operation.DeleteDbRowOp;
 import org.apache.cayenne.access.flush.operation.InsertDbRowOp;
 import org.apache.cayenne.access.flush.operation.OpIdFactory;
 import org.apache.cayenne.access.flush.operation.UpdateDbRowOp;
+import org.apache.cayenne.access.metrics.OperationPhase;
+import org.apache.cayenne.access.metrics.OperationTimer;
+import org.apache.cayenne.cache.DbEntityTracker;
 import org.apache.cayenne.graph.CompoundDiff;
 import org.apache.cayenne.graph.GraphDiff;
 import org.apache.cayenne.log.JdbcEventLogger;
@@ -83,17 +92,37 @@ public class DefaultDataDomainFlushAction implements DataDomainFlushAction {
         ObjectStore objectStore = context.getObjectStore();
         ObjectStoreGraphDiff objectStoreGraphDiff = (ObjectStoreGraphDiff) changes;
 
-        List<DbRowOp> dbRowOps = createDbRowOps(objectStore, objectStoreGraphDiff);
-        updateObjectIds(dbRowOps);
-        List<DbRowOp> deduplicatedOps = mergeSameObjectIds(dbRowOps);
-        List<DbRowOp> filteredOps = filterOps(deduplicatedOps);
-        List<DbRowOp> sortedOps = sort(filteredOps);
-        List<? extends Query> queries = createQueries(sortedOps);
-        executeQueries(queries);
-        createReplacementIds(objectStore, afterCommitDiff, sortedOps);
-        // note: we are using here not filtered operations, but the original ones,
-        // as we need them all for the postprocessing
-        postprocess(context, objectStoreGraphDiff, afterCommitDiff, deduplicatedOps);
+        List<DbRowOp> deduplicatedOps;
+        List<DbRowOp> sortedOps;
+        try (OperationTimer.PhaseScope ignored = OperationTimer.phase(OperationPhase.COMMIT_PREPARATION)) {
+            List<DbRowOp> dbRowOps = createDbRowOps(objectStore, objectStoreGraphDiff);
+            updateObjectIds(dbRowOps);
+            deduplicatedOps = mergeSameObjectIds(dbRowOps);
+            List<DbRowOp> filteredOps = filterOps(deduplicatedOps);
+            sortedOps = sort(filteredOps);
+        }
+
+        // let the query cache know which tables are modified
+        if (DbEntityTracker.isTrackingWrites()) {
+            sortedOps.forEach(op -> DbEntityTracker.written(op.getEntity()));
+        }
+
+        if (hasShardedOps(sortedOps)) {
+            executeShardedQueries(sortedOps);
+        } else {
+            List<? extends Query> queries;
+            try (OperationTimer.PhaseScope ignored = OperationTimer.phase(OperationPhase.COMMIT_PREPARATION)) {
+                queries = createQueries(sortedOps);
+            }
+            executeQueries(queries);
+        }
+
+        try (OperationTimer.PhaseScope ignored = OperationTimer.phase(OperationPhase.COMMIT_POSTPROCESSING)) {
+            createReplacementIds(objectStore, afterCommitDiff, sortedOps);
+            // note: we are using here not filtered operations, but the original ones,
+            // as we need them all for the postprocessing
+            postprocess(context, objectStoreGraphDiff, afterCommitDiff, deduplicatedOps);
+        }
 
         return afterCommitDiff;
     }
@@ -186,6 +215,65 @@ public class DefaultDataDomainFlushAction implements DataDomainFlushAction {
         return queryCreator.getQueryList();
     }
 
+    /**
+     * @param dbRowOps collection of {@link DbRowOp}
+     * @return whether any of the operations modifies a sharded entity
+     * @since 5.0
+     */
+    protected boolean hasShardedOps(List<DbRowOp> dbRowOps) {
+        ShardRouter shardRouter = dataDomain.getShardRouter();
+        if (shardRouter == null) {
+            return false;
+        }
+
+        EntityResolver entityResolver = dataDomain.getEntityResolver();
+        for (DbRowOp row : dbRowOps) {
+            if (shardRouter.isSharded(entityResolver.getObjEntity(row.getObject()))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Execute operations, grouping them by nodes, with operations of sharded entities sent to the node of each object
+     * shard. Order of operations within each node is preserved. Note that nodes are committed one by one, so the
+     * commit is not atomic across the shards.
+     *
+     * @param dbRowOps sorted collection of {@link DbRowOp}
+     * @since 5.0
+     */
+    protected void executeShardedQueries(List<DbRowOp> dbRowOps) {
+        ShardRouter shardRouter = dataDomain.getShardRouter();
+        Map<DataNode, List<DbRowOp>> opsByNode = new LinkedHashMap<>();
+
+        for (DbRowOp row : dbRowOps) {
+            DataNode node = shardRouter.nodeForObject(dataDomain, row.getObject(), shardKeyValues(row));
+            if (node == null) {
+                node = dataDomain.lookupDataNode(row.getEntity().getDataMap());
+            }
+            opsByNode.computeIfAbsent(node, n -> new ArrayList<>()).add(row);
+        }
+
+        opsByNode.forEach((node, nodeOps) -> node.performQueries(createQueries(nodeOps), observer));
+    }
+
+    private Map<String, Object> shardKeyValues(DbRowOp row) {
+        Map<String, Object> values = new HashMap<>();
+
+        ObjectId id = row.getObject().getObjectId();
+        if (id.isTemporary() && id.isReplacementIdAttached()) {
+            values.putAll(id.getReplacementIdMap());
+        }
+
+        // only the values of the object's own table
+        if (row instanceof DbRowOpWithValues
+                && row.getEntity() == dataDomain.getEntityResolver().getObjEntity(row.getObject()).getDbEntity()) {
+            values.putAll(((DbRowOpWithValues) row).getValues().getSnapshot());
+        }
+        return values;
+    }
+
     /**
      * Execute queries, grouping them by nodes
      * @param queries to execute
@@ -228,17 +316,38 @@ public class DefaultDataDomainFlushAction implements DataDomainFlushAction {
         DataDomainIndirectDiffBuilder indirectDiffBuilder = new DataDomainIndirectDiffBuilder(context.getEntityResolver());
         indirectDiffBuilder.processChanges(changes);
 
-        objectStore.getDataRowCache()
-                .processSnapshotChanges(
-                        objectStore,
-                        postprocessor.getUpdatedSnapshots(),
-                        postprocessor.getDeletedIds(),
-                        Collections.emptyList(),
-                        indirectDiffBuilder.getIndirectModifications()
-                );
+        try (OperationTimer.PhaseScope ignored = OperationTimer.phase(OperationPhase.SNAPSHOT_CACHE)) {
+            getSnapshotCache(context)
+                    .processSnapshotChanges(
+                            objectStore,
+                            postprocessor.getUpdatedSnapshots(),
+                            postprocessor.getDeletedIds(),
+                            Collections.emptyList(),
+                            indirectDiffBuilder.getIndirectModifications()
+                    );
+        }
         objectStore.postprocessAfterCommit(afterCommitDiff);
     }
 
+    /**
+     * Returns snapshot cache to update after commit. Nested contexts committing directly to the DataDomain have no
+     * cache of their own, so the cache of the closest parent context is used.
+     *
+     * @since 5.0
+     */
+    protected DataRowStore getSnapshotCache(DataContext context) {
+        DataChannel channel = context;
+        while (channel instanceof DataContext) {
+            DataRowStore cache = ((DataContext) channel).getObjectStore().getDataRowCache();
+            if (cache != null) {
+                return cache;
+            }
+            channel = ((DataContext) channel).getChannel();
+        }
+
+        return dataDomain.getSharedSnapshotCache();
+    }
+
     protected static class PhantomDbRowOpCleaner implements DbRowOpVisitor<Void> {
 
         protected static final DbRowOpVisitor<Void> INSTANCE = new PhantomDbRowOpCleaner();
@@ -26,6 +26,9 @@ import java.util.List;
 import org.apache.cayenne.access.DataNode;
 import org.apache.cayenne.access.OperationObserver;
 import org.apache.cayenne.access.jdbc.reader.RowReader;
+import org.apache.cayenne.access.metrics.QueryExecutionEvent;
+import org.apache.cayenne.access.metrics.QueryMetricsListener;
+import org.apache.cayenne.access.translator.ParameterBinding;
 import org.apache.cayenne.query.Query;
 import org.apache.cayenne.query.QueryMetadata;
 import org.apache.cayenne.query.SQLAction;
@@ -39,6 +42,11 @@ public abstract class BaseSQLAction implements SQLAction {
 
     protected DataNode dataNode;
 
+    /**
+     * @since 5.0
+     */
+    protected long connectionWaitNanos;
+
     /**
      * @since 4.0
      */
@@ -46,6 +54,45 @@ public abstract class BaseSQLAction implements SQLAction {
         this.dataNode = dataNode;
     }
 
+    /**
+     * Sets the time spent waiting for a JDBC connection before this action was run, to be reported to the
+     * DataNode {@link QueryMetricsListener}.
+     *
+     * @since 5.0
+     */
+    public void setConnectionWaitNanos(long connectionWaitNanos) {
+        this.connectionWaitNanos = connectionWaitNanos;
+    }
+
+    /**
+     * Notifies DataNode {@link QueryMetricsListener}, if there's one, of a statement execution. Connection wait time is
+     * reported with the first notification only.
+     *
+     * @since 5.0
+     */
+    protected void fireQueryExecuted(QueryExecutionEvent.Type type, String sql, ParameterBinding[] bindings,
+                                     int batchSize, int rows, long statementNanos, long fetchNanos) {
+
+        QueryMetricsListener listener = dataNode.getQueryMetricsListener();
+        if (listener == null) {
+            return;
+        }
+
+        long connectionWait = this.connectionWaitNanos;
+        this.connectionWaitNanos = 0L;
+
+        listener.queryExecuted(new QueryExecutionEvent(
+                type,
+                dataNode.getName(),
+                sql,
+                bindings,
+                batchSize,
+                rows,
+                statementNanos,
+                fetchNanos,
+                connectionWait));
+    }
+
     /**
      * Helper method to process a ResultSet.
      */
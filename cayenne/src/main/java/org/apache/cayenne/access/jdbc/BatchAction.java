@@ -25,6 +25,7 @@ import org.apache.cayenne.access.DataNode;
 import org.apache.cayenne.access.OperationObserver;
 import org.apache.cayenne.access.OptimisticLockException;
 import org.apache.cayenne.access.jdbc.reader.RowReader;
+import org.apache.cayenne.access.metrics.QueryExecutionEvent;
 import org.apache.cayenne.access.translator.DbAttributeBinding;
 import org.apache.cayenne.access.translator.batch.BatchTranslator;
 import org.apache.cayenne.dba.DbAdapter;
@@ -118,6 +119,8 @@ public class BatchAction extends BaseSQLAction {
 		String sql = translator.getSql();
 		JdbcEventLogger logger = dataNode.getJdbcEventLogger();
 		boolean isLoggable = logger.isLoggable();
+		boolean collectMetrics = dataNode.getQueryMetricsListener() != null;
+		long statementStart = collectMetrics ? System.nanoTime() : 0L;
 
 		// log batch SQL execution
 		logger.log(sql);
@@ -144,7 +147,7 @@ public class BatchAction extends BaseSQLAction {
 				processGeneratedKeys(statement, delegate, query.getRows());
 			}
 			
-			if (isLoggable) {
+			if (isLoggable || collectMetrics) {
 				int totalUpdateCount = 0;
 				for (int result : results) {
 
@@ -159,6 +162,11 @@ public class BatchAction extends BaseSQLAction {
 				}
 
 				logger.logUpdateCount(totalUpdateCount);
+
+				if (collectMetrics) {
+					fireQueryExecuted(QueryExecutionEvent.Type.BATCH, sql, null, results.length, totalUpdateCount,
+							System.nanoTime() - statementStart, 0L);
+				}
 			}
 		}
 	}
@@ -175,6 +183,10 @@ public class BatchAction extends BaseSQLAction {
 
 		JdbcEventLogger logger = dataNode.getJdbcEventLogger();
 		boolean useOptimisticLock = query.isUsingOptimisticLocking();
+		boolean collectMetrics = dataNode.getQueryMetricsListener() != null;
+		long statementStart = collectMetrics ? System.nanoTime() : 0L;
+		int totalUpdateCount = 0;
+		DbAttributeBinding[] lastBindings = null;
 
 		String queryStr = translator.getSql();
 
@@ -192,6 +204,7 @@ public class BatchAction extends BaseSQLAction {
 				logger.logQueryParameters("bind", bindings);
 
 				bind(adapter, statement, bindings);
+				lastBindings = bindings;
 
 				int updated = statement.executeUpdate();
 				if (useOptimisticLock && updated != 1) {
@@ -206,8 +219,16 @@ public class BatchAction extends BaseSQLAction {
 				}
 
 				logger.logUpdateCount(updated);
+				totalUpdateCount += updated;
 			}
 		}
+
+		if (collectMetrics) {
+			// parameters are only meaningful for a single row, as the bindings are reused between rows
+			int batchSize = query.getRows().size();
+			fireQueryExecuted(QueryExecutionEvent.Type.BATCH, queryStr, batchSize == 1 ? lastBindings : null,
+					batchSize, totalUpdateCount, System.nanoTime() - statementStart, 0L);
+		}
 	}
 
 	protected PreparedStatement prepareStatement(Connection connection,	String queryStr,
@@ -25,6 +25,7 @@ import java.util.List;
 
 import org.apache.cayenne.CayenneRuntimeException;
 import org.apache.cayenne.ResultIterator;
+import org.apache.cayenne.tx.BaseTransaction;
 
 /**
  * A {@link ResultIterator} wrapper that handles closing a connection. Also
@@ -43,7 +44,10 @@ public class ConnectionAwareResultIterator<T> implements ResultIterator<T> {
 
     public ConnectionAwareResultIterator(ResultIterator<T> delegate, Connection connection) {
         this.delegate = delegate;
-        this.connection = connection;
+
+        // a connection of a shared transaction is released to other threads when the query returns, but the
+        // iterator keeps reading from it
+        this.connection = BaseTransaction.retainConnection(connection);
     }
 
     @Override
@@ -36,6 +36,9 @@ import org.apache.cayenne.ResultIterator;
 import org.apache.cayenne.access.DataNode;
 import org.apache.cayenne.access.OperationObserver;
 import org.apache.cayenne.access.jdbc.reader.RowReader;
+import org.apache.cayenne.access.metrics.OperationPhase;
+import org.apache.cayenne.access.metrics.OperationTimer;
+import org.apache.cayenne.access.metrics.QueryExecutionEvent;
 import org.apache.cayenne.access.translator.ParameterBinding;
 import org.apache.cayenne.access.types.ExtendedType;
 import org.apache.cayenne.access.types.ExtendedTypeMap;
@@ -48,7 +51,6 @@ import org.apache.cayenne.map.DefaultScalarResultSegment;
 import org.apache.cayenne.map.ObjAttribute;
 import org.apache.cayenne.map.ObjEntity;
 import org.apache.cayenne.query.QueryMetadata;
-import org.apache.cayenne.query.SQLAction;
 import org.apache.cayenne.query.SQLTemplate;
 import org.apache.cayenne.util.Util;
 
@@ -57,21 +59,25 @@ import org.apache.cayenne.util.Util;
  *
  * @since 1.2 replaces SQLTemplateExecutionPlan
  */
-public class SQLTemplateAction implements SQLAction {
+public class SQLTemplateAction extends BaseSQLAction {
 
 	protected SQLTemplate query;
 	protected QueryMetadata queryMetadata;
 
 	protected DbEntity dbEntity;
-	protected DataNode dataNode;
 	protected DbAdapter dbAdapter;
 
+	// query metrics state of the statement being executed
+	private long statementStart;
+	private long fetchNanos;
+	private int fetchedRows;
+
 	/**
 	 * @since 4.0
 	 */
 	public SQLTemplateAction(SQLTemplate query, DataNode dataNode) {
+		super(dataNode);
 		this.query = query;
-		this.dataNode = dataNode;
 		this.queryMetadata = query.getMetaData(dataNode.getEntityResolver());
 		this.dbEntity = queryMetadata.getDbEntity();
 
@@ -147,7 +153,7 @@ public class SQLTemplateAction implements SQLAction {
 			dataNode.getJdbcEventLogger().logQuery(compiled.getSql(), compiled.getBindings());
 		}
 
-		execute(connection, callback, compiled, counts);
+		executeWithMetrics(connection, callback, compiled, counts);
 	}
 
 	@SuppressWarnings("unchecked")
@@ -177,11 +183,43 @@ public class SQLTemplateAction implements SQLAction {
 				dataNode.getJdbcEventLogger().logQuery(compiled.getSql(), compiled.getBindings());
 			}
 
-			execute(connection, callback, compiled, counts);
+			executeWithMetrics(connection, callback, compiled, counts);
 		}
 
 	}
 
+	private void executeWithMetrics(Connection connection, OperationObserver callback, SQLStatement compiled,
+									Collection<Number> updateCounts) throws Exception {
+
+		if (dataNode.getQueryMetricsListener() == null) {
+			execute(connection, callback, compiled, updateCounts);
+			return;
+		}
+
+		int countsBefore = updateCounts.size();
+		fetchNanos = 0L;
+		fetchedRows = 0;
+		statementStart = System.nanoTime();
+
+		execute(connection, callback, compiled, updateCounts);
+
+		// iterated results are reported when the iterator is closed
+		if (!callback.isIteratedResult()) {
+			long totalNanos = System.nanoTime() - statementStart;
+
+			int rows = fetchedRows;
+			int i = 0;
+			for (Number count : updateCounts) {
+				if (i++ >= countsBefore) {
+					rows += count.intValue();
+				}
+			}
+
+			fireQueryExecuted(QueryExecutionEvent.Type.SQL_TEMPLATE, compiled.getSql(), compiled.getBindings(), 1,
+					rows, totalNanos - fetchNanos, fetchNanos);
+		}
+	}
+
 	protected void execute(Connection connection, OperationObserver callback, SQLStatement compiled,
 						   Collection<Number> updateCounts) throws SQLException, Exception {
 
@@ -251,6 +289,10 @@ public class SQLTemplateAction implements SQLAction {
 									   ResultSet resultSet, OperationObserver callback, final long startTime) throws Exception {
 
 		boolean iteratedResult = callback.isIteratedResult();
+		boolean collectMetrics = dataNode.getQueryMetricsListener() != null;
+		long fetchStart = collectMetrics ? System.nanoTime() : 0L;
+		long statementStartedAt = this.statementStart;
+
 		ExtendedTypeMap types = dataNode.getAdapter().getExtendedTypes();
 		RowDescriptorBuilder builder = configureRowDescriptorBuilder(compiled, resultSet);
 		recreateQueryMetadata(resultSet);
@@ -263,6 +305,12 @@ public class SQLTemplateAction implements SQLAction {
 				@Override
 				protected void doClose() {
 					dataNode.getJdbcEventLogger().logSelectCount(rowCounter, System.currentTimeMillis() - startTime);
+
+					if (collectMetrics) {
+						fireQueryExecuted(QueryExecutionEvent.Type.SQL_TEMPLATE, compiled.getSql(),
+								compiled.getBindings(), 1, rowCounter, fetchStart - statementStartedAt,
+								System.nanoTime() - fetchStart);
+					}
 					super.doClose();
 				}
 			};
@@ -281,10 +329,18 @@ public class SQLTemplateAction implements SQLAction {
 			// note that we are not closing the iterator here, relying on caller
 			// to close the underlying ResultSet on its own... this is a hack,
 			// maybe a cleaner flow is due here.
-			List<?> resultRows = it.allRows();
+			List<?> resultRows;
+			try (OperationTimer.PhaseScope ignored = OperationTimer.phase(OperationPhase.ROW_READING)) {
+				resultRows = it.allRows();
+			}
 
 			dataNode.getJdbcEventLogger().logSelectCount(resultRows.size(), System.currentTimeMillis() - startTime);
 
+			if (collectMetrics) {
+				fetchedRows += resultRows.size();
+				fetchNanos += System.nanoTime() - fetchStart;
+			}
+
 			callback.nextRows(query, resultRows);
 		}
 	}
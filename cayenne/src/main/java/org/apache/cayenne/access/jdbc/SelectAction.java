@@ -28,6 +28,9 @@ import org.apache.cayenne.ResultIterator;
 import org.apache.cayenne.access.DataNode;
 import org.apache.cayenne.access.OperationObserver;
 import org.apache.cayenne.access.jdbc.reader.RowReader;
+import org.apache.cayenne.access.metrics.OperationPhase;
+import org.apache.cayenne.access.metrics.OperationTimer;
+import org.apache.cayenne.access.metrics.QueryExecutionEvent;
 import org.apache.cayenne.access.translator.DbAttributeBinding;
 import org.apache.cayenne.access.translator.select.SelectTranslator;
 import org.apache.cayenne.dba.DbAdapter;
@@ -81,6 +84,8 @@ public class SelectAction extends BaseSQLAction {
 	public void performAction(Connection connection, OperationObserver observer) throws Exception {
 
 		final long t1 = System.currentTimeMillis();
+		final boolean collectMetrics = dataNode.getQueryMetricsListener() != null;
+		final long statementStart = collectMetrics ? System.nanoTime() : 0L;
 
 		JdbcEventLogger logger = dataNode.getJdbcEventLogger();
 		SelectTranslator translator = dataNode.selectTranslator(query);
@@ -112,13 +117,15 @@ public class SelectAction extends BaseSQLAction {
 			statement.close();
 			throw ex;
 		}
+		final long fetchStart = collectMetrics ? System.nanoTime() : 0L;
+
 		RowDescriptor descriptor = new RowDescriptorBuilder().setColumns(translator.getResultColumns()).getDescriptor(
 				dataNode.getAdapter().getExtendedTypes());
 
 		RowReader<?> rowReader = dataNode.rowReader(descriptor, queryMetadata, translator.getAttributeOverrides());
 
 		ResultIterator<?> it = new JDBCResultIterator<>(statement, rs, rowReader);
-		it = forIteratedResult(it, observer, connection, t1, sql);
+		it = forIteratedResult(it, observer, connection, t1, sql, bindings, statementStart, fetchStart);
 		it = forSuppressedDistinct(it, translator);
 		it = forFetchLimit(it, translator);
 
@@ -135,7 +142,7 @@ public class SelectAction extends BaseSQLAction {
 			}
 		} else {
 			List<?> resultRows;
-			try {
+			try (OperationTimer.PhaseScope ignored = OperationTimer.phase(OperationPhase.ROW_READING)) {
 				resultRows = it.allRows();
 			} finally {
 				it.close();
@@ -143,20 +150,32 @@ public class SelectAction extends BaseSQLAction {
 
 			dataNode.getJdbcEventLogger().logSelectCount(resultRows.size(), System.currentTimeMillis() - t1, sql);
 
+			if (collectMetrics) {
+				fireQueryExecuted(QueryExecutionEvent.Type.SELECT, sql, bindings, 1, resultRows.size(),
+						fetchStart - statementStart, System.nanoTime() - fetchStart);
+			}
+
 			observer.nextRows(query, resultRows);
 		}
 	}
 
 	private <T> ResultIterator<T> forIteratedResult(ResultIterator<T> iterator, OperationObserver observer,
-			Connection connection, final long queryStartedAt, final String sql) {
+			Connection connection, final long queryStartedAt, final String sql, final DbAttributeBinding[] bindings,
+			final long statementStart, final long fetchStart) {
 		if (!observer.isIteratedResult()) {
 			return iterator;
 		}
 
+		final boolean collectMetrics = dataNode.getQueryMetricsListener() != null;
 		return new ConnectionAwareResultIterator<T>(iterator, connection) {
 			@Override
 			protected void doClose() {
 				dataNode.getJdbcEventLogger().logSelectCount(rowCounter, System.currentTimeMillis() - queryStartedAt, sql);
+
+				if (collectMetrics) {
+					fireQueryExecuted(QueryExecutionEvent.Type.SELECT, sql, bindings, 1, rowCounter,
+							fetchStart - statementStart, System.nanoTime() - fetchStart);
+				}
 				super.doClose();
 			}
 		};
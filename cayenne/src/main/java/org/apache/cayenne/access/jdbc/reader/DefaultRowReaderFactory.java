@@ -24,6 +24,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.function.Function;
 
 import org.apache.cayenne.CayenneRuntimeException;
 import org.apache.cayenne.access.jdbc.ColumnDescriptor;
@@ -63,6 +64,11 @@ public class DefaultRowReaderFactory implements RowReaderFactory {
 			throw new CayenneRuntimeException("Empty result descriptor");
 		}
 
+		Function<Object[], ?> rowMapper = queryMetadata.getRowMapper();
+		if (rowMapper != null && isScalarOnly(rsMapping)) {
+			return createMappedRowReader(descriptor, rsMapping, rowMapper);
+		}
+
 		if (queryMetadata.isSingleResultSetMapping()) {
 
 			Object segment = rsMapping.get(0);
@@ -97,6 +103,28 @@ public class DefaultRowReaderFactory implements RowReaderFactory {
 		}
 	}
 
+	/**
+	 * Returns true if the result set mapping consists of scalar columns only.
+	 *
+	 * @since 5.0
+	 */
+	public static boolean isScalarOnly(List<Object> rsMapping) {
+		for (Object segment : rsMapping) {
+			if (!(segment instanceof ScalarResultSegment)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * @since 5.0
+	 */
+	protected RowReader<?> createMappedRowReader(RowDescriptor descriptor, List<Object> rsMapping,
+			Function<Object[], ?> rowMapper) {
+		return new MappedRowReader<>(descriptor, rsMapping, rowMapper);
+	}
+
 	private RowReader<?> createEmbeddableRowReader(RowDescriptor descriptor, QueryMetadata queryMetadata, EmbeddableResultSegment segment) {
 		return new EmbeddableRowReader(descriptor, queryMetadata, segment);
 	}
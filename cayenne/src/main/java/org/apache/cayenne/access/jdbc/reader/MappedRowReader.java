@@ -0,0 +1,79 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.access.jdbc.reader;
+
+import java.sql.ResultSet;
+import java.util.List;
+import java.util.function.Function;
+
+import org.apache.cayenne.CayenneRuntimeException;
+import org.apache.cayenne.access.jdbc.ColumnDescriptor;
+import org.apache.cayenne.access.jdbc.RowDescriptor;
+import org.apache.cayenne.access.types.ExtendedType;
+import org.apache.cayenne.query.ScalarResultSegment;
+import org.apache.cayenne.util.Util;
+
+/**
+ * A row reader for the results consisting of scalar columns only, that passes column values straight to the query
+ * row mapper. A single values array is reused for all the rows read, so no intermediate array is created per row.
+ *
+ * @since 5.0
+ */
+class MappedRowReader<T> implements RowReader<T> {
+
+    private final ExtendedType<?>[] converters;
+    private final int[] indexes;
+    private final int[] types;
+    private final Function<Object[], T> mapper;
+    private final Object[] values;
+
+    MappedRowReader(RowDescriptor descriptor, List<Object> segments, Function<Object[], T> mapper) {
+        int width = segments.size();
+        this.converters = new ExtendedType[width];
+        this.indexes = new int[width];
+        this.types = new int[width];
+        this.mapper = mapper;
+        this.values = new Object[width];
+
+        ExtendedType<?>[] allConverters = descriptor.getConverters();
+        ColumnDescriptor[] columns = descriptor.getColumns();
+        for (int i = 0; i < width; i++) {
+            int offset = ((ScalarResultSegment) segments.get(i)).getColumnOffset();
+            converters[i] = allConverters[offset];
+            types[i] = columns[offset].getJdbcType();
+            indexes[i] = offset + 1;
+        }
+    }
+
+    @Override
+    public T readRow(ResultSet resultSet) {
+        try {
+            for (int i = 0; i < values.length; i++) {
+                values[i] = converters[i].materializeObject(resultSet, indexes[i], types[i]);
+            }
+        } catch (CayenneRuntimeException cex) {
+            // rethrow unmodified
+            throw cex;
+        } catch (Exception otherex) {
+            throw new CayenneRuntimeException("Exception materializing column.", Util.unwindException(otherex));
+        }
+
+        return mapper.apply(values);
+    }
+}
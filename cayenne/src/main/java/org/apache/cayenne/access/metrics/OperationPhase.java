@@ -0,0 +1,78 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.access.metrics;
+
+/**
+ * Phases of a DataDomain operation, tracked by {@link OperationTimer}. Phase times are exclusive, i.e. the time spent
+ * in a phase nested within another phase is only counted for the nested phase.
+ *
+ * @since 5.0
+ */
+public enum OperationPhase {
+
+    /**
+     * Generating SQL from a query.
+     */
+    TRANSLATION,
+
+    /**
+     * Waiting for a JDBC connection from a DataSource.
+     */
+    CONNECTION,
+
+    /**
+     * Preparing and executing JDBC statements.
+     */
+    EXECUTION,
+
+    /**
+     * Reading ResultSet rows into DataRows.
+     */
+    ROW_READING,
+
+    /**
+     * Creating and refreshing objects from DataRows.
+     */
+    OBJECT_RESOLUTION,
+
+    /**
+     * Resolving prefetched relationships, including running disjoint-by-id prefetch queries.
+     */
+    PREFETCH_PROCESSING,
+
+    /**
+     * Updating snapshots in the DataRowStore and notifying other contexts.
+     */
+    SNAPSHOT_CACHE,
+
+    /**
+     * Converting context changes to sorted batch queries on commit.
+     */
+    COMMIT_PREPARATION,
+
+    /**
+     * Updating ObjectStore state after the commit.
+     */
+    COMMIT_POSTPROCESSING,
+
+    /**
+     * Anything not covered by other phases.
+     */
+    OTHER
+}
@@ -0,0 +1,150 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.access.metrics;
+
+import org.apache.cayenne.query.Query;
+
+/**
+ * Breaks down the time of a DataDomain operation (a query or a commit) into {@link OperationPhase phases}. A timer is
+ * bound to the thread running the operation, so that the code performing each phase could find it without any
+ * changes to the call signatures. When no operation is being timed, {@link #phase(OperationPhase)} costs a single
+ * ThreadLocal lookup and does nothing.
+ * <p>
+ * Phases are entered with try-with-resources:
+ *
+ * <pre>
+ * try (OperationTimer.PhaseScope ignored = OperationTimer.phase(OperationPhase.TRANSLATION)) {
+ *     ...
+ * }
+ * </pre>
+ * <p>
+ * Operations started while another operation is timed on the same thread (e.g. prefetch queries run during object
+ * resolution) are counted as a part of the outer operation.
+ *
+ * @since 5.0
+ */
+public final class OperationTimer {
+
+    private static final ThreadLocal<OperationTimer> CURRENT = new ThreadLocal<>();
+    private static final PhaseScope NOOP_SCOPE = () -> {};
+    private static final int PHASE_COUNT = OperationPhase.values().length;
+
+    /**
+     * Closes a phase started via {@link OperationTimer#phase(OperationPhase)}.
+     */
+    @FunctionalInterface
+    public interface PhaseScope extends AutoCloseable {
+
+        @Override
+        void close();
+    }
+
+    private final OperationTimingEvent.Type type;
+    private final Query query;
+    private final OperationTimingListener listener;
+    private final long startedAt;
+    private final long[] phaseNanos;
+    private final PhaseScope scope;
+
+    private OperationPhase[] stack;
+    private int depth;
+    private OperationPhase currentPhase;
+    private long phaseStartedAt;
+
+    private OperationTimer(OperationTimingEvent.Type type, Query query, OperationTimingListener listener) {
+        this.type = type;
+        this.query = query;
+        this.listener = listener;
+        this.phaseNanos = new long[PHASE_COUNT];
+        this.stack = new OperationPhase[8];
+        this.currentPhase = OperationPhase.OTHER;
+        this.scope = this::exit;
+        this.startedAt = this.phaseStartedAt = System.nanoTime();
+    }
+
+    /**
+     * Starts timing an operation on the current thread, returning the timer that must be {@link #finish() finished}
+     * when the operation is done. Returns null if the listener is null, or if another operation is already timed on
+     * this thread.
+     */
+    public static OperationTimer start(OperationTimingEvent.Type type, Query query, OperationTimingListener listener) {
+        if (listener == null || CURRENT.get() != null) {
+            return null;
+        }
+
+        OperationTimer timer = new OperationTimer(type, query, listener);
+        CURRENT.set(timer);
+        return timer;
+    }
+
+    /**
+     * Returns a timer of the operation running on the current thread, or null if no operation is timed.
+     */
+    public static OperationTimer current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Enters a given phase of the operation timed on the current thread, if any. The returned scope must be closed
+     * when the phase is over.
+     */
+    public static PhaseScope phase(OperationPhase phase) {
+        OperationTimer timer = CURRENT.get();
+        if (timer == null) {
+            return NOOP_SCOPE;
+        }
+
+        timer.enter(phase);
+        return timer.scope;
+    }
+
+    private void enter(OperationPhase phase) {
+        long now = System.nanoTime();
+        phaseNanos[currentPhase.ordinal()] += now - phaseStartedAt;
+        phaseStartedAt = now;
+
+        if (depth == stack.length) {
+            OperationPhase[] newStack = new OperationPhase[depth * 2];
+            System.arraycopy(stack, 0, newStack, 0, depth);
+            stack = newStack;
+        }
+
+        stack[depth++] = currentPhase;
+        currentPhase = phase;
+    }
+
+    private void exit() {
+        long now = System.nanoTime();
+        phaseNanos[currentPhase.ordinal()] += now - phaseStartedAt;
+        phaseStartedAt = now;
+        currentPhase = depth > 0 ? stack[--depth] : OperationPhase.OTHER;
+    }
+
+    /**
+     * Unbinds the timer from the current thread and notifies the listener of the operation timing.
+     */
+    public void finish() {
+        CURRENT.remove();
+
+        long now = System.nanoTime();
+        phaseNanos[currentPhase.ordinal()] += now - phaseStartedAt;
+
+        listener.operationCompleted(new OperationTimingEvent(type, query, now - startedAt, phaseNanos));
+    }
+}
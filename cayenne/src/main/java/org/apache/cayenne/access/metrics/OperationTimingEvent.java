@@ -0,0 +1,94 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.access.metrics;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+import org.apache.cayenne.query.Query;
+
+/**
+ * A timing breakdown of a single DataDomain operation by {@link OperationPhase}. All times are in nanoseconds.
+ *
+ * @since 5.0
+ */
+public class OperationTimingEvent {
+
+    /**
+     * A type of the timed operation.
+     */
+    public enum Type {
+        QUERY, COMMIT
+    }
+
+    private static final OperationPhase[] PHASES = OperationPhase.values();
+
+    private final Type type;
+    private final Query query;
+    private final long totalNanos;
+    private final long[] phaseNanos;
+
+    public OperationTimingEvent(Type type, Query query, long totalNanos, long[] phaseNanos) {
+        this.type = type;
+        this.query = query;
+        this.totalNanos = totalNanos;
+        this.phaseNanos = phaseNanos;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * Returns the query that was run by a {@link Type#QUERY} operation, or null for commits.
+     */
+    public Query getQuery() {
+        return query;
+    }
+
+    public long getTotalNanos() {
+        return totalNanos;
+    }
+
+    /**
+     * Returns the time spent in a given phase of the operation, excluding any nested phases.
+     */
+    public long getNanos(OperationPhase phase) {
+        return phaseNanos[phase.ordinal()];
+    }
+
+    /**
+     * Returns times of all the phases that took any time, in the order of phase declaration.
+     */
+    public Map<OperationPhase, Long> getPhaseNanos() {
+        Map<OperationPhase, Long> map = new EnumMap<>(OperationPhase.class);
+        for (OperationPhase phase : PHASES) {
+            long nanos = phaseNanos[phase.ordinal()];
+            if (nanos > 0) {
+                map.put(phase, nanos);
+            }
+        }
+        return map;
+    }
+
+    @Override
+    public String toString() {
+        return "OperationTimingEvent{" + type + ", totalNanos=" + totalNanos + ", " + getPhaseNanos() + "}";
+    }
+}
@@ -0,0 +1,36 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.access.metrics;
+
+/**
+ * A listener notified of a timing breakdown of each completed DataDomain operation. Operations are only timed when at
+ * least one listener is registered.
+ *
+ * @see org.apache.cayenne.configuration.runtime.CoreModuleExtender#addOperationTimingListener(OperationTimingListener)
+ * @since 5.0
+ */
+@FunctionalInterface
+public interface OperationTimingListener {
+
+    /**
+     * Invoked on the thread that executed the operation, after the operation is completed, whether successfully or
+     * not.
+     */
+    void operationCompleted(OperationTimingEvent event);
+}
@@ -0,0 +1,158 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.access.metrics;
+
+import org.apache.cayenne.access.translator.ParameterBinding;
+
+/**
+ * Describes a single execution of an SQL statement (or a batch of statements) by a DataNode. All times are in
+ * nanoseconds.
+ *
+ * @since 5.0
+ */
+public class QueryExecutionEvent {
+
+    /**
+     * A kind of SQL action that executed the statement.
+     */
+    public enum Type {
+        SELECT, BATCH, SQL_TEMPLATE
+    }
+
+    private final Type type;
+    private final String dataNodeName;
+    private final String sql;
+    private final ParameterBinding[] bindings;
+    private final int batchSize;
+    private final int rows;
+    private final long statementNanos;
+    private final long fetchNanos;
+    private final long connectionWaitNanos;
+    private volatile String sqlShape;
+
+    public QueryExecutionEvent(
+            Type type,
+            String dataNodeName,
+            String sql,
+            ParameterBinding[] bindings,
+            int batchSize,
+            int rows,
+            long statementNanos,
+            long fetchNanos,
+            long connectionWaitNanos) {
+
+        this.type = type;
+        this.dataNodeName = dataNodeName;
+        this.sql = sql;
+        this.bindings = bindings;
+        this.batchSize = batchSize;
+        this.rows = rows;
+        this.statementNanos = statementNanos;
+        this.fetchNanos = fetchNanos;
+        this.connectionWaitNanos = connectionWaitNanos;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public String getDataNodeName() {
+        return dataNodeName;
+    }
+
+    /**
+     * Returns SQL of the statement as it was sent to the database.
+     */
+    public String getSql() {
+        return sql;
+    }
+
+    /**
+     * Returns SQL with all the literals and parameter lists replaced with placeholders, so that executions of the
+     * same query with different parameters have the same "shape".
+     *
+     * @see SQLShapeNormalizer
+     */
+    public String getSqlShape() {
+        String shape = this.sqlShape;
+        if (shape == null) {
+            this.sqlShape = shape = SQLShapeNormalizer.normalize(sql);
+        }
+        return shape;
+    }
+
+    /**
+     * Returns statement parameters. Batches of more than one row return null, as their parameters are different for
+     * each row.
+     */
+    public ParameterBinding[] getBindings() {
+        return bindings;
+    }
+
+    /**
+     * Returns the number of parameter sets executed with the statement. This is 1 for anything but batches.
+     */
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * Returns the number of rows fetched by a select, or a total update count of an update. May be negative if the
+     * driver did not report the update count.
+     */
+    public int getRows() {
+        return rows;
+    }
+
+    /**
+     * Returns the time spent preparing and executing the statement.
+     */
+    public long getStatementNanos() {
+        return statementNanos;
+    }
+
+    /**
+     * Returns the time spent reading and converting the result rows. For iterated selects this includes the time the
+     * caller spent processing each row, as rows are read on demand.
+     */
+    public long getFetchNanos() {
+        return fetchNanos;
+    }
+
+    /**
+     * Returns the time spent waiting for a connection from the DataSource. Reported for the first statement run over
+     * a given connection only, and is zero for all others.
+     */
+    public long getConnectionWaitNanos() {
+        return connectionWaitNanos;
+    }
+
+    /**
+     * Returns the total query time, excluding connection wait.
+     */
+    public long getTotalNanos() {
+        return statementNanos + fetchNanos;
+    }
+
+    @Override
+    public String toString() {
+        return "QueryExecutionEvent{" + type + " on '" + dataNodeName + "', rows=" + rows
+                + ", totalNanos=" + getTotalNanos() + ": " + sql + "}";
+    }
+}
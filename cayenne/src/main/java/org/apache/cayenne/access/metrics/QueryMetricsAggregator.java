@@ -0,0 +1,237 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.access.metrics;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.cayenne.access.translator.ParameterBinding;
+
+/**
+ * A built-in {@link QueryMetricsListener} that keeps query statistics in memory. Statistics are aggregated per SQL
+ * shape (see {@link SQLShapeNormalizer}), with latency percentiles provided by a {@link LatencyHistogram}. To keep the
+ * memory bounded, at most "maxShapes" shapes are tracked. When a new shape is seen after the limit is reached, the
+ * shape with the smallest total execution time is evicted, so that a flood of cheap distinct queries doesn't push
+ * out the rare but expensive ones. Additionally, queries running longer than a "slow query" threshold are recorded
+ * individually together with their parameters, with up to "slowQueryLogSize" latest slow queries kept.
+ * <p>
+ * To use the aggregator, register it with
+ * {@link org.apache.cayenne.configuration.runtime.CoreModuleExtender#addQueryMetricsListener(QueryMetricsListener)}
+ * and query it from the application code or expose it via a monitoring framework.
+ *
+ * @since 5.0
+ */
+public class QueryMetricsAggregator implements QueryMetricsListener {
+
+    public static final int DEFAULT_MAX_SHAPES = 200;
+    public static final int DEFAULT_SLOW_QUERY_LOG_SIZE = 100;
+
+    private final int maxShapes;
+    private final Map<String, QueryShapeStats> shapes;
+
+    // the same shapes in the order of their creation, used to break eviction ties in favor of the newer shapes
+    private final LinkedHashMap<String, QueryShapeStats> shapesByAge;
+    private final long slowQueryThresholdNanos;
+    private final int slowQueryLogSize;
+    private final Deque<SlowQuery> slowQueries;
+
+    /**
+     * Creates an aggregator with default limits and the slow query log disabled.
+     */
+    public QueryMetricsAggregator() {
+        this(DEFAULT_MAX_SHAPES, 0, DEFAULT_SLOW_QUERY_LOG_SIZE);
+    }
+
+    /**
+     * @param maxShapes            max number of distinct SQL shapes to track
+     * @param slowQueryThresholdMs queries taking this many milliseconds or longer are logged as slow. Zero or
+     *                             negative value disables the slow query log.
+     * @param slowQueryLogSize     max number of latest slow queries to keep
+     */
+    public QueryMetricsAggregator(int maxShapes, long slowQueryThresholdMs, int slowQueryLogSize) {
+
+        if (maxShapes <= 0) {
+            throw new IllegalArgumentException("'maxShapes' must be positive: " + maxShapes);
+        }
+
+        this.maxShapes = maxShapes;
+        this.shapes = new ConcurrentHashMap<>();
+        this.shapesByAge = new LinkedHashMap<>();
+        this.slowQueryThresholdNanos = slowQueryThresholdMs > 0 ? slowQueryThresholdMs * 1_000_000L : 0L;
+        this.slowQueryLogSize = slowQueryLogSize;
+        this.slowQueries = new ArrayDeque<>();
+    }
+
+    @Override
+    public void queryExecuted(QueryExecutionEvent event) {
+        String shape = event.getSqlShape();
+
+        QueryShapeStats stats = shapes.get(shape);
+        if (stats != null) {
+            stats.record(event);
+        } else {
+            addShape(shape, event);
+        }
+
+        if (slowQueryThresholdNanos > 0 && event.getTotalNanos() >= slowQueryThresholdNanos) {
+            logSlowQuery(event);
+        }
+    }
+
+    // records the first execution of a shape under the lock, as otherwise a concurrent eviction may pick a new shape
+    // with no executions recorded yet as the cheapest one
+    private void addShape(String shape, QueryExecutionEvent event) {
+        synchronized (shapesByAge) {
+            QueryShapeStats stats = shapes.get(shape);
+            if (stats == null) {
+                if (shapesByAge.size() >= maxShapes) {
+                    evictCheapestShape();
+                }
+
+                stats = new QueryShapeStats(shape);
+                shapesByAge.put(shape, stats);
+                shapes.put(shape, stats);
+            }
+
+            stats.record(event);
+        }
+    }
+
+    // must be called while holding "shapesByAge" lock
+    private void evictCheapestShape() {
+        QueryShapeStats cheapest = null;
+        long cheapestNanos = Long.MAX_VALUE;
+
+        for (QueryShapeStats stats : shapesByAge.values()) {
+            long nanos = stats.getTotalNanos();
+            if (nanos < cheapestNanos) {
+                cheapest = stats;
+                cheapestNanos = nanos;
+            }
+        }
+
+        if (cheapest != null) {
+            shapesByAge.remove(cheapest.getShape());
+            shapes.remove(cheapest.getShape());
+        }
+    }
+
+    protected void logSlowQuery(QueryExecutionEvent event) {
+        if (slowQueryLogSize <= 0) {
+            return;
+        }
+
+        SlowQuery slowQuery = new SlowQuery(
+                System.currentTimeMillis(),
+                event.getDataNodeName(),
+                event.getSql(),
+                bindingsAsStrings(event.getBindings()),
+                event.getRows(),
+                event.getStatementNanos(),
+                event.getFetchNanos(),
+                event.getConnectionWaitNanos());
+
+        synchronized (slowQueries) {
+            slowQueries.addLast(slowQuery);
+            while (slowQueries.size() > slowQueryLogSize) {
+                slowQueries.removeFirst();
+            }
+        }
+    }
+
+    // bindings are converted to Strings right away, as their objects may be reused by the caller
+    private static List<String> bindingsAsStrings(ParameterBinding[] bindings) {
+        if (bindings == null || bindings.length == 0) {
+            return Collections.emptyList();
+        }
+
+        List<String> strings = new ArrayList<>(bindings.length);
+        for (ParameterBinding b : bindings) {
+            if (b.isExcluded()) {
+                continue;
+            }
+
+            Object value = b.getValue();
+            strings.add(b.getExtendedType() != null && value != null
+                    ? b.getExtendedType().toString(value)
+                    : String.valueOf(value));
+        }
+
+        return strings;
+    }
+
+    /**
+     * Returns stats of a given SQL shape, or null if the shape is not tracked.
+     */
+    public QueryShapeStats getShapeStats(String shape) {
+        return shapes.get(shape);
+    }
+
+    /**
+     * Returns stats of all the tracked SQL shapes in no particular order.
+     */
+    public List<QueryShapeStats> getShapeStats() {
+        return new ArrayList<>(shapes.values());
+    }
+
+    /**
+     * Returns up to "n" SQL shapes with the largest total execution time, sorted in descending order of that time.
+     */
+    public List<QueryShapeStats> getTopShapes(int n) {
+        List<QueryShapeStats> all = getShapeStats();
+        all.sort(Comparator.comparingLong(QueryShapeStats::getTotalNanos).reversed());
+        return all.size() > n ? new ArrayList<>(all.subList(0, n)) : all;
+    }
+
+    /**
+     * Returns the latest slow queries, the oldest first.
+     */
+    public List<SlowQuery> getSlowQueries() {
+        synchronized (slowQueries) {
+            return new ArrayList<>(slowQueries);
+        }
+    }
+
+    /**
+     * Returns slow query threshold in milliseconds, or zero if the slow query log is disabled.
+     */
+    public long getSlowQueryThresholdMs() {
+        return slowQueryThresholdNanos / 1_000_000L;
+    }
+
+    /**
+     * Discards all collected statistics and slow queries.
+     */
+    public void reset() {
+        synchronized (shapesByAge) {
+            shapesByAge.clear();
+            shapes.clear();
+        }
+        synchronized (slowQueries) {
+            slowQueries.clear();
+        }
+    }
+}
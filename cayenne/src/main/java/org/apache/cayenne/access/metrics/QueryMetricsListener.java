@@ -0,0 +1,38 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.access.metrics;
+
+/**
+ * A listener notified of each SQL statement executed by a {@link org.apache.cayenne.access.DataNode}, receiving
+ * structured timing information about it. Unlike {@link org.apache.cayenne.log.JdbcEventLogger}, it is not concerned
+ * with formatting and is intended for collecting metrics. When no listeners are registered, SQL actions skip the
+ * metrics collection entirely.
+ * <p>
+ * Listeners are invoked synchronously on the thread that executed the statement, so implementations must be
+ * thread-safe and fast, and must not throw.
+ *
+ * @see org.apache.cayenne.configuration.runtime.CoreModuleExtender#addQueryMetricsListener(QueryMetricsListener)
+ * @see QueryMetricsAggregator
+ * @since 5.0
+ */
+@FunctionalInterface
+public interface QueryMetricsListener {
+
+    void queryExecuted(QueryExecutionEvent event);
+}
@@ -0,0 +1,110 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.access.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Aggregated execution statistics of all queries with the same SQL shape.
+ *
+ * @see QueryMetricsAggregator
+ * @since 5.0
+ */
+public class QueryShapeStats {
+
+    private final String shape;
+    private final LatencyHistogram latency;
+    private final LongAdder rows;
+    private final LongAdder statementNanos;
+    private final LongAdder fetchNanos;
+    private final LongAdder connectionWaitNanos;
+
+    public QueryShapeStats(String shape) {
+        this.shape = shape;
+        this.latency = new LatencyHistogram();
+        this.rows = new LongAdder();
+        this.statementNanos = new LongAdder();
+        this.fetchNanos = new LongAdder();
+        this.connectionWaitNanos = new LongAdder();
+    }
+
+    void record(QueryExecutionEvent event) {
+        latency.record(event.getTotalNanos());
+        statementNanos.add(event.getStatementNanos());
+        fetchNanos.add(event.getFetchNanos());
+        connectionWaitNanos.add(event.getConnectionWaitNanos());
+
+        if (event.getRows() > 0) {
+            rows.add(event.getRows());
+        }
+    }
+
+    public String getShape() {
+        return shape;
+    }
+
+    /**
+     * Returns a histogram of total query times in nanoseconds.
+     */
+    public LatencyHistogram getLatency() {
+        return latency;
+    }
+
+    public long getCount() {
+        return latency.getCount();
+    }
+
+    public long getTotalNanos() {
+        return latency.getSum();
+    }
+
+    public long getMaxNanos() {
+        return latency.getMax();
+    }
+
+    public long getPercentileNanos(double percentile) {
+        return latency.getValueAtPercentile(percentile);
+    }
+
+    public long getRows() {
+        return rows.sum();
+    }
+
+    public long getStatementNanos() {
+        return statementNanos.sum();
+    }
+
+    public long getFetchNanos() {
+        return fetchNanos.sum();
+    }
+
+    public long getConnectionWaitNanos() {
+        return connectionWaitNanos.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "QueryShapeStats{count=" + getCount()
+                + ", totalNanos=" + getTotalNanos()
+                + ", p50=" + getPercentileNanos(50.)
+                + ", p99=" + getPercentileNanos(99.)
+                + ", max=" + getMaxNanos()
+                + ": " + shape + "}";
+    }
+}
@@ -0,0 +1,179 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.access.metrics;
+
+/**
+ * Reduces SQL to its "shape", so that statements differing only in literal values or in the number of parameters in
+ * a list are recognized as the same query. The following transformations are applied:
+ * <ul>
+ * <li>string and numeric literals are replaced with "?"</li>
+ * <li>lists consisting only of parameters, like "IN (?, ?, ?)", are collapsed to "(?)"</li>
+ * <li>comments are removed, and whitespace sequences are replaced with a single space</li>
+ * </ul>
+ * Quoted identifiers are preserved as is.
+ *
+ * @since 5.0
+ */
+public final class SQLShapeNormalizer {
+
+    private SQLShapeNormalizer() {
+    }
+
+    public static String normalize(String sql) {
+        if (sql == null) {
+            return null;
+        }
+
+        int len = sql.length();
+        StringBuilder out = new StringBuilder(len);
+        boolean pendingSpace = false;
+
+        for (int i = 0; i < len; ) {
+            char c = sql.charAt(i);
+
+            if (Character.isWhitespace(c)) {
+                pendingSpace = true;
+                i++;
+                continue;
+            }
+
+            if (c == '-' && i + 1 < len && sql.charAt(i + 1) == '-') {
+                int end = sql.indexOf('\n', i);
+                i = end < 0 ? len : end + 1;
+                pendingSpace = true;
+                continue;
+            }
+
+            if (c == '/' && i + 1 < len && sql.charAt(i + 1) == '*') {
+                int end = sql.indexOf("*/", i + 2);
+                i = end < 0 ? len : end + 2;
+                pendingSpace = true;
+                continue;
+            }
+
+            if (pendingSpace) {
+                if (out.length() > 0) {
+                    out.append(' ');
+                }
+                pendingSpace = false;
+            }
+
+            switch (c) {
+                case '\'':
+                    i = skipStringLiteral(sql, i);
+                    out.append('?');
+                    break;
+                case '"':
+                case '`':
+                    i = copyQuoted(sql, i, c, out);
+                    break;
+                case '[':
+                    i = copyQuoted(sql, i, ']', out);
+                    break;
+                case ')':
+                    collapseParameterList(out);
+                    out.append(c);
+                    i++;
+                    break;
+                default:
+                    if (Character.isDigit(c) && !isIdentifierEnd(out)) {
+                        i = skipNumber(sql, i);
+                        out.append('?');
+                    } else {
+                        out.append(c);
+                        i++;
+                    }
+            }
+        }
+
+        return out.toString();
+    }
+
+    // returns the position after the closing quote, handling escaped ('') quotes
+    private static int skipStringLiteral(String sql, int start) {
+        int len = sql.length();
+        int i = start + 1;
+        while (i < len) {
+            if (sql.charAt(i) == '\'') {
+                if (i + 1 < len && sql.charAt(i + 1) == '\'') {
+                    i += 2;
+                    continue;
+                }
+                return i + 1;
+            }
+            i++;
+        }
+        return len;
+    }
+
+    private static int copyQuoted(String sql, int start, char closingQuote, StringBuilder out) {
+        int end = sql.indexOf(closingQuote, start + 1);
+        int next = end < 0 ? sql.length() : end + 1;
+        out.append(sql, start, next);
+        return next;
+    }
+
+    private static int skipNumber(String sql, int start) {
+        int len = sql.length();
+        int i = start;
+        while (i < len) {
+            char c = sql.charAt(i);
+            if (Character.isDigit(c) || c == '.') {
+                i++;
+            } else if ((c == 'e' || c == 'E') && i + 1 < len
+                    && (Character.isDigit(sql.charAt(i + 1)) || sql.charAt(i + 1) == '-' || sql.charAt(i + 1) == '+')) {
+                i += 2;
+            } else {
+                break;
+            }
+        }
+        return i;
+    }
+
+    // digits that continue an identifier, like in "t0" or "COLUMN_1", are not literals
+    private static boolean isIdentifierEnd(StringBuilder out) {
+        if (out.length() == 0) {
+            return false;
+        }
+
+        char last = out.charAt(out.length() - 1);
+        return Character.isLetterOrDigit(last) || last == '_' || last == '$';
+    }
+
+    // if the buffer ends with "(?, ?, ..., ?", truncates it to "(?"
+    private static void collapseParameterList(StringBuilder out) {
+        int params = 0;
+        int i = out.length() - 1;
+        for (; i >= 0; i--) {
+            char c = out.charAt(i);
+            if (c == '?') {
+                params++;
+            } else if (c == '(') {
+                break;
+            } else if (c != ',' && c != ' ') {
+                return;
+            }
+        }
+
+        if (i >= 0 && params > 1) {
+            out.setLength(i + 1);
+            out.append('?');
+        }
+    }
+}
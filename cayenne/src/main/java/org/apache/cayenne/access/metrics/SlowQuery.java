@@ -0,0 +1,99 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.access.metrics;
+
+import java.util.List;
+
+/**
+ * A record of a query that took longer than the slow query threshold of the {@link QueryMetricsAggregator}. Unlike
+ * aggregated stats, it contains the actual SQL and parameter values.
+ *
+ * @since 5.0
+ */
+public class SlowQuery {
+
+    private final long timestamp;
+    private final String dataNodeName;
+    private final String sql;
+    private final List<String> bindings;
+    private final int rows;
+    private final long statementNanos;
+    private final long fetchNanos;
+    private final long connectionWaitNanos;
+
+    public SlowQuery(long timestamp, String dataNodeName, String sql, List<String> bindings, int rows,
+                     long statementNanos, long fetchNanos, long connectionWaitNanos) {
+        this.timestamp = timestamp;
+        this.dataNodeName = dataNodeName;
+        this.sql = sql;
+        this.bindings = bindings;
+        this.rows = rows;
+        this.statementNanos = statementNanos;
+        this.fetchNanos = fetchNanos;
+        this.connectionWaitNanos = connectionWaitNanos;
+    }
+
+    /**
+     * Returns the time when the query finished, in milliseconds since the epoch.
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public String getDataNodeName() {
+        return dataNodeName;
+    }
+
+    public String getSql() {
+        return sql;
+    }
+
+    /**
+     * Returns String representations of the query parameters in the order of their appearance in SQL. Empty for
+     * batches.
+     */
+    public List<String> getBindings() {
+        return bindings;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public long getStatementNanos() {
+        return statementNanos;
+    }
+
+    public long getFetchNanos() {
+        return fetchNanos;
+    }
+
+    public long getConnectionWaitNanos() {
+        return connectionWaitNanos;
+    }
+
+    public long getTotalNanos() {
+        return statementNanos + fetchNanos;
+    }
+
+    @Override
+    public String toString() {
+        return "SlowQuery{totalNanos=" + getTotalNanos() + ", rows=" + rows + ": " + sql + " " + bindings + "}";
+    }
+}
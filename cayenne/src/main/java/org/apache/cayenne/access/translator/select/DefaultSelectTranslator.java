@@ -24,7 +24,10 @@ import java.util.Map;
 import java.util.Objects;
 
 import org.apache.cayenne.access.jdbc.ColumnDescriptor;
+import org.apache.cayenne.access.metrics.OperationPhase;
+import org.apache.cayenne.access.metrics.OperationTimer;
 import org.apache.cayenne.access.translator.DbAttributeBinding;
+import org.apache.cayenne.cache.DbEntityTracker;
 import org.apache.cayenne.dba.DbAdapter;
 import org.apache.cayenne.map.EntityResolver;
 import org.apache.cayenne.map.ObjAttribute;
@@ -87,8 +90,15 @@ public class DefaultSelectTranslator implements SelectTranslator {
     }
 
     void translate() {
-        for(TranslationStage stage : TRANSLATION_STAGES) {
-            stage.perform(context);
+        try (OperationTimer.PhaseScope ignored = OperationTimer.phase(OperationPhase.TRANSLATION)) {
+            for (TranslationStage stage : TRANSLATION_STAGES) {
+                stage.perform(context);
+            }
+        }
+
+        // let the query cache know which tables the query reads from
+        if (DbEntityTracker.isTrackingReads()) {
+            context.getTableTree().visit(node -> DbEntityTracker.read(node.getEntity()));
         }
     }
 
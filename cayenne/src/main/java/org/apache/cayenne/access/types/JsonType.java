@@ -33,10 +33,21 @@ public class JsonType implements ExtendedType<Json> {
 
     private final CharType delegate;
     private final boolean useRealType;
+    private final boolean canonicalize;
 
     public JsonType(CharType delegate, boolean useRealType) {
+        this(delegate, useRealType, false);
+    }
+
+    /**
+     * @param canonicalize if true, canonical form of each value is calculated when the value is read, so that
+     *                     subsequent comparisons of the value (e.g. on commit) do not need to parse it.
+     * @since 5.0
+     */
+    public JsonType(CharType delegate, boolean useRealType, boolean canonicalize) {
         this.delegate = delegate;
         this.useRealType = useRealType;
+        this.canonicalize = canonicalize;
     }
 
     @Override
@@ -53,13 +64,21 @@ public class JsonType implements ExtendedType<Json> {
     @Override
     public Json materializeObject(ResultSet rs, int index, int type) throws Exception {
         String value = delegate.materializeObject(rs, index, useRealType ? type : Types.OTHER);
-        return value != null ? new Json(value) : null;
+        return value != null ? createJson(value) : null;
     }
 
     @Override
     public Json materializeObject(CallableStatement rs, int index, int type) throws Exception {
         String value = delegate.materializeObject(rs, index, useRealType ? type : Types.OTHER);
-        return value != null ? new Json(value) : null;
+        return value != null ? createJson(value) : null;
+    }
+
+    private Json createJson(String value) {
+        Json json = new Json(value);
+        if (canonicalize) {
+            json.getCanonicalJson();
+        }
+        return json;
     }
 
     @Override
@@ -0,0 +1,187 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.access.types;
+
+import java.io.FilterInputStream;
+import java.io.FilterReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.sql.Blob;
+import java.sql.CallableStatement;
+import java.sql.Clob;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Types;
+
+import org.apache.cayenne.value.LobStream;
+
+/**
+ * Handles {@link LobStream} values. BLOB and CLOB columns are read as JDBC locators, so their content is not
+ * transferred until the LobStream is opened. Other binary and character columns can't be reliably read after the
+ * cursor moves to the next row, so their content is read in memory. LobStreams are written via
+ * {@link PreparedStatement#setBinaryStream(int, InputStream, long)} and
+ * {@link PreparedStatement#setCharacterStream(int, Reader, long)}.
+ *
+ * @since 5.0
+ */
+public class LobStreamType implements ExtendedType<LobStream> {
+
+    @Override
+    public String getClassName() {
+        return LobStream.class.getName();
+    }
+
+    @Override
+    public LobStream materializeObject(ResultSet rs, int index, int type) throws Exception {
+        switch (type) {
+            case Types.BLOB:
+                return fromBlob(rs.getBlob(index));
+            case Types.CLOB:
+                return fromClob(rs.getClob(index));
+            case Types.NCLOB:
+                return fromClob(rs.getNClob(index));
+            default:
+                return isCharacter(type) ? fromString(rs.getString(index)) : fromBytes(rs.getBytes(index));
+        }
+    }
+
+    @Override
+    public LobStream materializeObject(CallableStatement cs, int index, int type) throws Exception {
+        switch (type) {
+            case Types.BLOB:
+                return fromBlob(cs.getBlob(index));
+            case Types.CLOB:
+                return fromClob(cs.getClob(index));
+            case Types.NCLOB:
+                return fromClob(cs.getNClob(index));
+            default:
+                return isCharacter(type) ? fromString(cs.getString(index)) : fromBytes(cs.getBytes(index));
+        }
+    }
+
+    @Override
+    public void setJdbcObject(PreparedStatement statement, LobStream value, int pos, int type, int scale)
+            throws Exception {
+
+        if (value == null) {
+            statement.setNull(pos, type);
+        } else if (value.isCharacter()) {
+            Reader reader = new AutoCloseReader(value.openReader());
+            if (value.getLength() >= 0) {
+                statement.setCharacterStream(pos, reader, value.getLength());
+            } else {
+                statement.setCharacterStream(pos, reader);
+            }
+        } else {
+            InputStream in = new AutoCloseInputStream(value.openStream());
+            if (value.getLength() >= 0) {
+                statement.setBinaryStream(pos, in, value.getLength());
+            } else {
+                statement.setBinaryStream(pos, in);
+            }
+        }
+    }
+
+    @Override
+    public String toString(LobStream value) {
+        return value == null ? "NULL" : value.toString();
+    }
+
+    protected boolean isCharacter(int type) {
+        switch (type) {
+            case Types.CHAR:
+            case Types.VARCHAR:
+            case Types.LONGVARCHAR:
+            case Types.NCHAR:
+            case Types.NVARCHAR:
+            case Types.LONGNVARCHAR:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    protected LobStream fromBlob(Blob blob) {
+        return blob != null ? LobStream.binary(blob::getBinaryStream, -1) : null;
+    }
+
+    protected LobStream fromClob(Clob clob) {
+        return clob != null ? LobStream.character(clob::getCharacterStream, -1) : null;
+    }
+
+    protected LobStream fromBytes(byte[] bytes) {
+        return bytes != null ? LobStream.of(bytes) : null;
+    }
+
+    protected LobStream fromString(String string) {
+        return string != null ? LobStream.of(string) : null;
+    }
+
+    // JDBC drivers consume bound streams, but never close them, so close them as soon as they are fully read
+    private static class AutoCloseInputStream extends FilterInputStream {
+
+        AutoCloseInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b < 0) {
+                close();
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int read = super.read(b, off, len);
+            if (read < 0) {
+                close();
+            }
+            return read;
+        }
+    }
+
+    private static class AutoCloseReader extends FilterReader {
+
+        AutoCloseReader(Reader in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int c = super.read();
+            if (c < 0) {
+                close();
+            }
+            return c;
+        }
+
+        @Override
+        public int read(char[] cbuf, int off, int len) throws IOException {
+            int read = super.read(cbuf, off, len);
+            if (read < 0) {
+                close();
+            }
+            return read;
+        }
+    }
+}
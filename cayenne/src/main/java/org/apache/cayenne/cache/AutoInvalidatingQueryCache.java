@@ -0,0 +1,248 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.cache;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.cayenne.di.Inject;
+import org.apache.cayenne.map.DbEntity;
+import org.apache.cayenne.query.QueryMetadata;
+
+/**
+ * A {@link QueryCache} decorator that removes cached query results when the tables they were read from are
+ * modified. Each cache entry created via {@link #get(QueryMetadata, QueryCacheEntryFactory)} records the DbEntities
+ * its query has read, as collected by the {@link DbEntityTracker} from the translated SQL. On commit,
+ * {@link #invalidate(Collection)} is called with the DbEntities modified by the commit, and all the entries
+ * depending on those DbEntities are removed via a reverse index. So caching can be enabled without maintaining
+ * cache groups by hand.
+ * <p>
+ * Entries that are stored with {@link #put(QueryMetadata, List)} directly (e.g. by the "*_CACHE_REFRESH" cache
+ * strategies), as well as the results of queries that are not translated by Cayenne (like SQLTemplate), depend
+ * on the root DbEntity of the query only. Changes made bypassing ObjectContext commits (e.g. by SQLExec or
+ * BulkLoader) are not tracked and still require cache groups or explicit invalidation.
+ * <p>
+ * The reverse index holds a bounded number of most recently created entries. When a key is evicted from the index,
+ * its entry is removed from the underlying cache as well, so that it can't become stale.
+ *
+ * @see org.apache.cayenne.configuration.runtime.CoreModuleExtender#queryCacheAutoInvalidation()
+ * @since 5.0
+ */
+public class AutoInvalidatingQueryCache implements QueryCache {
+
+    public static final int DEFAULT_MAX_TRACKED_ENTRIES = 10000;
+
+    private static final String[] NO_ENTITIES = new String[0];
+
+    protected final QueryCache delegate;
+
+    private final int maxTrackedEntries;
+
+    // in the order of creation, guarded by itself
+    private final LinkedHashMap<String, String[]> entitiesByKey;
+    private final ConcurrentMap<String, Set<String>> keysByEntity;
+    private final AtomicLong invalidations;
+
+    public AutoInvalidatingQueryCache(@Inject QueryCache delegate) {
+        this(delegate, DEFAULT_MAX_TRACKED_ENTRIES);
+    }
+
+    public AutoInvalidatingQueryCache(QueryCache delegate, int maxTrackedEntries) {
+        this.delegate = delegate;
+        this.keysByEntity = new ConcurrentHashMap<>();
+        this.invalidations = new AtomicLong();
+        this.maxTrackedEntries = maxTrackedEntries;
+        this.entitiesByKey = new LinkedHashMap<>();
+    }
+
+    /**
+     * Removes all cached entries that depend on any of the DbEntities with the specified names.
+     */
+    public void invalidate(Collection<String> dbEntityNames) {
+        if (dbEntityNames.isEmpty()) {
+            return;
+        }
+
+        invalidations.incrementAndGet();
+        for (String name : dbEntityNames) {
+            Set<String> keys = keysByEntity.remove(name);
+            if (keys != null) {
+                for (String key : keys) {
+                    remove(key);
+                }
+            }
+        }
+    }
+
+    @Override
+    @SuppressWarnings("rawtypes")
+    public List get(QueryMetadata metadata) {
+        return delegate.get(metadata);
+    }
+
+    @Override
+    @SuppressWarnings("rawtypes")
+    public List get(QueryMetadata metadata, QueryCacheEntryFactory factory) {
+        String key = metadata.getCacheKey();
+        if (key == null) {
+            return delegate.get(metadata, factory);
+        }
+
+        long invalidationsBefore = invalidations.get();
+        boolean[] created = new boolean[1];
+        List result = delegate.get(metadata, () -> {
+            Set<String> dbEntityNames = new HashSet<>();
+            List list = DbEntityTracker.trackReads(dbEntityNames, factory::createObject);
+            index(key, metadata, dbEntityNames);
+            created[0] = true;
+            return list;
+        });
+
+        // something was committed between running the query and storing its result, that may be already outdated.
+        // The check is done after the result is stored, as an invalidation that runs before that can't remove it.
+        if (created[0] && invalidations.get() != invalidationsBefore) {
+            remove(key);
+        }
+
+        return result;
+    }
+
+    @Override
+    @SuppressWarnings("rawtypes")
+    public void put(QueryMetadata metadata, List results) {
+        String key = metadata.getCacheKey();
+        if (key != null) {
+            index(key, metadata, new HashSet<>());
+        }
+        delegate.put(metadata, results);
+    }
+
+    @Override
+    public void remove(String key) {
+        if (key == null) {
+            return;
+        }
+
+        String[] entities;
+        synchronized (entitiesByKey) {
+            entities = entitiesByKey.remove(key);
+        }
+
+        if (entities != null) {
+            unindex(key, entities);
+        }
+        delegate.remove(key);
+    }
+
+    @Override
+    public void removeGroup(String groupKey) {
+        delegate.removeGroup(groupKey);
+    }
+
+    @Override
+    public void removeGroup(String groupKey, Class<?> keyType, Class<?> valueType) {
+        delegate.removeGroup(groupKey, keyType, valueType);
+    }
+
+    @Override
+    @Deprecated
+    public void clear() {
+        synchronized (entitiesByKey) {
+            entitiesByKey.clear();
+        }
+        keysByEntity.clear();
+        delegate.clear();
+    }
+
+    /**
+     * Returns the number of cache entries tracked by this cache.
+     */
+    public int getTrackedEntriesCount() {
+        synchronized (entitiesByKey) {
+            return entitiesByKey.size();
+        }
+    }
+
+    private void index(String key, QueryMetadata metadata, Set<String> dbEntityNames) {
+        if (dbEntityNames.isEmpty()) {
+            DbEntity root = metadata.getDbEntity();
+            if (root == null) {
+                return;
+            }
+
+            dbEntityNames.add(root.getName());
+        }
+
+        for (String name : dbEntityNames) {
+            keysByEntity.compute(name, (n, keys) -> {
+                if (keys == null) {
+                    keys = ConcurrentHashMap.newKeySet();
+                }
+                keys.add(key);
+                return keys;
+            });
+        }
+
+        String[] oldEntities;
+        Map.Entry<String, String[]> evicted = null;
+        synchronized (entitiesByKey) {
+            oldEntities = entitiesByKey.put(key, dbEntityNames.toArray(NO_ENTITIES));
+            if (entitiesByKey.size() > maxTrackedEntries) {
+                Iterator<Map.Entry<String, String[]>> it = entitiesByKey.entrySet().iterator();
+                evicted = it.next();
+                it.remove();
+            }
+        }
+
+        if (oldEntities != null) {
+            for (String name : oldEntities) {
+                if (!dbEntityNames.contains(name)) {
+                    unindex(key, name);
+                }
+            }
+        }
+
+        // an entry that is no longer tracked can't be invalidated, so it must be dropped from the cache
+        if (evicted != null) {
+            unindex(evicted.getKey(), evicted.getValue());
+            delegate.remove(evicted.getKey());
+        }
+    }
+
+    private void unindex(String key, String[] dbEntityNames) {
+        for (String name : dbEntityNames) {
+            unindex(key, name);
+        }
+    }
+
+    private void unindex(String key, String dbEntityName) {
+        keysByEntity.computeIfPresent(dbEntityName, (n, keys) -> {
+            keys.remove(key);
+            return keys.isEmpty() ? null : keys;
+        });
+    }
+}
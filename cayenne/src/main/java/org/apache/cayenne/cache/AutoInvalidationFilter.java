@@ -0,0 +1,115 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.cache;
+
+import java.sql.Connection;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.apache.cayenne.DataChannel;
+import org.apache.cayenne.DataChannelSyncFilter;
+import org.apache.cayenne.DataChannelSyncFilterChain;
+import org.apache.cayenne.ObjectContext;
+import org.apache.cayenne.di.Inject;
+import org.apache.cayenne.di.Provider;
+import org.apache.cayenne.graph.GraphDiff;
+import org.apache.cayenne.tx.BaseTransaction;
+import org.apache.cayenne.tx.Transaction;
+import org.apache.cayenne.tx.TransactionListener;
+
+/**
+ * A sync filter that collects the DbEntities modified by each commit and invalidates the dependent entries of the
+ * {@link AutoInvalidatingQueryCache}. The entries are removed after the changes become visible to other transactions.
+ * Usually the filter is outside of the commit transaction, so this happens as soon as the commit returns. But when
+ * the commit joins an outer transaction of the current thread (e.g. the one started by
+ * {@link org.apache.cayenne.tx.TransactionManager#performInTransaction(org.apache.cayenne.tx.TransactionalOperation)}
+ * or propagated via {@link org.apache.cayenne.tx.TransactionContext}), the invalidation is deferred until that
+ * transaction is committed or rolled back.
+ *
+ * @see org.apache.cayenne.configuration.runtime.CoreModuleExtender#queryCacheAutoInvalidation()
+ * @since 5.0
+ */
+public class AutoInvalidationFilter implements DataChannelSyncFilter {
+
+    private final Provider<QueryCache> cacheProvider;
+
+    public AutoInvalidationFilter(@Inject Provider<QueryCache> cacheProvider) {
+        this.cacheProvider = cacheProvider;
+    }
+
+    @Override
+    public GraphDiff onSync(ObjectContext originatingContext, GraphDiff changes, int syncType,
+                            DataChannelSyncFilterChain filterChain) {
+
+        if (syncType == DataChannel.ROLLBACK_CASCADE_SYNC) {
+            return filterChain.onSync(originatingContext, changes, syncType);
+        }
+
+        Set<String> modified = new HashSet<>();
+        GraphDiff result = DbEntityTracker.trackWrites(modified,
+                () -> filterChain.onSync(originatingContext, changes, syncType));
+
+        if (!modified.isEmpty()) {
+            Transaction transaction = BaseTransaction.getThreadTransaction();
+            if (transaction != null) {
+                transaction.addListener(new InvalidatingListener(modified));
+            } else {
+                // no exceptions, the changes are committed...
+                invalidate(modified);
+            }
+        }
+
+        return result;
+    }
+
+    void invalidate(Set<String> modified) {
+        QueryCache cache = cacheProvider.get();
+        if (cache instanceof AutoInvalidatingQueryCache) {
+            ((AutoInvalidatingQueryCache) cache).invalidate(modified);
+        }
+    }
+
+    private class InvalidatingListener implements TransactionListener {
+
+        private final Set<String> modified;
+
+        InvalidatingListener(Set<String> modified) {
+            this.modified = modified;
+        }
+
+        @Override
+        public void didCommit(Transaction tx) {
+            invalidate(modified);
+        }
+
+        // the entries cached within the transaction may contain its uncommitted changes
+        @Override
+        public void willRollback(Transaction tx) {
+            invalidate(modified);
+        }
+
+        @Override
+        public void willCommit(Transaction tx) {
+        }
+
+        @Override
+        public void willAddConnection(Transaction tx, String connectionName, Connection connection) {
+        }
+    }
+}
@@ -0,0 +1,106 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.cache;
+
+import java.util.Set;
+import java.util.function.Supplier;
+
+import org.apache.cayenne.map.DbEntity;
+
+/**
+ * Collects the names of DbEntities read or modified by the operations running in the current thread. Used by
+ * {@link AutoInvalidatingQueryCache} to find the tables each cached query depends on, and the tables modified by
+ * each commit. Tracking scopes can be nested, in which case the entities recorded in the inner scope are also added
+ * to the outer scope of the same kind.
+ *
+ * @since 5.0
+ */
+public final class DbEntityTracker {
+
+    private static final ThreadLocal<Set<String>> READS = new ThreadLocal<>();
+    private static final ThreadLocal<Set<String>> WRITES = new ThreadLocal<>();
+
+    private DbEntityTracker() {
+    }
+
+    /**
+     * Runs the operation, collecting the names of the DbEntities it reads in the provided set.
+     */
+    public static <T> T trackReads(Set<String> dbEntityNames, Supplier<T> operation) {
+        return track(READS, dbEntityNames, operation);
+    }
+
+    /**
+     * Runs the operation, collecting the names of the DbEntities it modifies in the provided set.
+     */
+    public static <T> T trackWrites(Set<String> dbEntityNames, Supplier<T> operation) {
+        return track(WRITES, dbEntityNames, operation);
+    }
+
+    /**
+     * Returns true if the DbEntities read by the current thread are tracked. Allows the callers to skip collecting
+     * the entities when nobody is interested in them.
+     */
+    public static boolean isTrackingReads() {
+        return READS.get() != null;
+    }
+
+    /**
+     * Returns true if the DbEntities modified by the current thread are tracked.
+     */
+    public static boolean isTrackingWrites() {
+        return WRITES.get() != null;
+    }
+
+    /**
+     * Records a read from a DbEntity by the current thread. Does nothing if reads are not tracked.
+     */
+    public static void read(DbEntity entity) {
+        record(READS, entity);
+    }
+
+    /**
+     * Records a modification of a DbEntity by the current thread. Does nothing if writes are not tracked.
+     */
+    public static void written(DbEntity entity) {
+        record(WRITES, entity);
+    }
+
+    private static <T> T track(ThreadLocal<Set<String>> current, Set<String> dbEntityNames, Supplier<T> operation) {
+        Set<String> outer = current.get();
+        current.set(dbEntityNames);
+        try {
+            return operation.get();
+        } finally {
+            if (outer != null) {
+                outer.addAll(dbEntityNames);
+                current.set(outer);
+            } else {
+                current.remove();
+            }
+        }
+    }
+
+    private static void record(ThreadLocal<Set<String>> current, DbEntity entity) {
+        Set<String> names = current.get();
+        if (names != null && entity != null) {
+            names.add(entity.getName());
+        }
+    }
+}
@@ -194,10 +194,19 @@ public interface Constants {
 
     /**
      * A String property that defines how ObjectContexts should retain cached
-     * committed objects. Possible values are "weak", "soft", "hard".
+     * committed objects. Possible values are "weak", "soft", "hard" and "bounded".
      */
     String OBJECT_RETAIN_STRATEGY_PROPERTY = "cayenne.object_retain_strategy";
 
+    /**
+     * An integer property that defines how many committed objects an ObjectContext should keep hard references to,
+     * when {@link #OBJECT_RETAIN_STRATEGY_PROPERTY} is "bounded". The least recently used objects beyond that number
+     * are only retained weakly. The default is 10000.
+     *
+     * @since 5.0
+     */
+    String OBJECT_RETAIN_BOUNDED_SIZE_PROPERTY = "cayenne.object_retain_strategy.bounded_size";
+
     /**
      * @deprecated since 5.0, use {@link #CONTEXTS_SYNC_PROPERTY}
      */
@@ -231,6 +240,25 @@ public interface Constants {
     @Deprecated(since = "5.0", forRemoval = true)
     String SERVER_MAX_ID_QUALIFIER_SIZE_PROPERTY = MAX_ID_QUALIFIER_SIZE_PROPERTY;
 
+    /**
+     * An integer property that defines how many objects are read ahead and resolved together by an iterator of a
+     * query with DISJOINT_BY_ID prefetches, so that a single prefetch query is run per chunk instead of a query per
+     * object. Zero or a negative value disables chunking. Default is 100.
+     *
+     * @since 5.0
+     */
+    String ITERATOR_PREFETCH_CHUNK_SIZE_PROPERTY = "cayenne.iterator.prefetch_chunk_size";
+
+    /**
+     * A boolean property that makes nested DataContexts whose parent is committed directly to a DataDomain commit
+     * straight to the DataDomain on {@code commitChanges()}, instead of replaying their changes in the parent first.
+     * The parent copies of the committed objects are invalidated. Only applies when the parent has no uncommitted
+     * changes of its own. Default is false.
+     *
+     * @since 5.0
+     */
+    String NESTED_CONTEXT_DIRECT_COMMIT_PROPERTY = "cayenne.context.nested_direct_commit";
+
     /**
      * Defines if database uses case-insensitive collation
      */
@@ -254,4 +282,110 @@ public interface Constants {
      */
     String SNAPSHOT_CACHE_SIZE_PROPERTY = "cayenne.DataRowStore.snapshot.size";
 
+    /**
+     * A boolean property that enables targeted delivery of snapshot events. When "true", the snapshot cache keeps an
+     * index of ObjectStores by ObjectId, and sends each ObjectStore only the part of the event that affects the
+     * objects it holds, instead of broadcasting every event to every ObjectStore. Default is "false".
+     *
+     * @see org.apache.cayenne.configuration.runtime.CoreModuleExtender#targetedSnapshotEvents()
+     * @since 5.0
+     */
+    String SNAPSHOT_EVENT_TARGETED_DELIVERY_PROPERTY = "cayenne.DataRowStore.targeted_delivery";
+
+    /**
+     * A comma-separated list of ObjEntity names of the "reference data" entities, whose snapshots are kept in the
+     * snapshot cache regardless of its max size. Such entities are resolved by id and via to-one relationships
+     * without going to the database, once their snapshots are fetched.
+     *
+     * @see org.apache.cayenne.configuration.runtime.CoreModuleExtender#cacheEntities(String...)
+     * @since 5.0
+     */
+    String ENTITY_CACHE_PROPERTY = "cayenne.DataRowStore.entity_cache";
+
+    /**
+     * Max number of parsed expressions cached by {@link org.apache.cayenne.exp.ExpressionFactory#exp(String, Object...)}.
+     * Unlike most other properties, this is a JVM system property, as the cache is shared by all runtimes. Zero
+     * disables the cache. Default is 1000.
+     *
+     * @see org.apache.cayenne.exp.ExpressionFactory#getParsedExpressionCache()
+     * @since 5.0
+     */
+    String PARSED_EXPRESSION_CACHE_SIZE_PROPERTY = "cayenne.exp.parsed_cache.size";
+
+    /**
+     * A DI key for a map of read replica DataNode names to the names of their primary DataNodes.
+     *
+     * @see org.apache.cayenne.configuration.runtime.CoreModuleExtender#addReadReplica(String, String)
+     * @since 5.0
+     */
+    String READ_REPLICAS_MAP = "cayenne.read_replicas";
+
+    /**
+     * A String property that defines how read-only queries are spread between read replicas of a DataNode. Possible
+     * values are "round_robin" (default) and "least_outstanding".
+     *
+     * @since 5.0
+     */
+    String READ_REPLICAS_BALANCING_PROPERTY = "cayenne.read_replicas.balancing";
+
+    /**
+     * A long property that defines for how many milliseconds after a commit an ObjectContext should keep reading
+     * from the primary DataNodes instead of the replicas, so that it would see its own changes. A value less than or
+     * equal to zero (the default) disables this feature.
+     *
+     * @since 5.0
+     */
+    String READ_REPLICAS_PIN_AFTER_COMMIT_PROPERTY = "cayenne.read_replicas.pin_after_commit";
+
+    /**
+     * A DI key for a map of {@link org.apache.cayenne.access.ShardKeyResolver ShardKeyResolvers} of horizontally
+     * sharded entities, keyed by ObjEntity name.
+     *
+     * @see org.apache.cayenne.configuration.runtime.CoreModuleExtender#addShardKeyResolver(String,
+     * org.apache.cayenne.access.ShardKeyResolver)
+     * @since 5.0
+     */
+    String SHARD_KEY_RESOLVERS_MAP = "cayenne.shard_key_resolvers";
+
+    /**
+     * A DI key for the {@link java.util.concurrent.Executor} running the operations of
+     * {@link org.apache.cayenne.AsyncObjectContext}.
+     *
+     * @see org.apache.cayenne.configuration.runtime.CoreModuleExtender#asyncExecutor(java.util.concurrent.Executor)
+     * @since 5.0
+     */
+    String ASYNC_EXECUTOR = "cayenne.async_executor";
+
+    /**
+     * Network transport of the event bridge configured via
+     * {@link org.apache.cayenne.configuration.runtime.CoreModuleExtender#tcpEventBridge(String, String...)} or
+     * {@link org.apache.cayenne.configuration.runtime.CoreModuleExtender#udpEventBridge(String, String...)}. Possible
+     * values are "tcp" (default) and "udp".
+     *
+     * @since 5.0
+     */
+    String EVENT_BRIDGE_TRANSPORT_PROPERTY = "cayenne.event_bridge.transport";
+
+    /**
+     * A "host:port" address the event bridge transport listens on for the events from the other JVMs.
+     *
+     * @since 5.0
+     */
+    String EVENT_BRIDGE_ADDRESS_PROPERTY = "cayenne.event_bridge.address";
+
+    /**
+     * A comma-separated list of "host:port" addresses of the other JVMs, where the event bridge sends local events.
+     *
+     * @since 5.0
+     */
+    String EVENT_BRIDGE_PEERS_PROPERTY = "cayenne.event_bridge.peers";
+
+    /**
+     * For how many milliseconds {@link org.apache.cayenne.event.TransportEventBridge} collects local events before
+     * sending them as a single message. Default is 20.
+     *
+     * @since 5.0
+     */
+    String EVENT_BRIDGE_BATCH_WINDOW_PROPERTY = "cayenne.event_bridge.batch_window";
+
 }
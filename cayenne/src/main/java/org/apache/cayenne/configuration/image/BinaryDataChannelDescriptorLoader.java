@@ -0,0 +1,109 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.configuration.image;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+
+import org.apache.cayenne.ConfigurationException;
+import org.apache.cayenne.configuration.ConfigurationTree;
+import org.apache.cayenne.configuration.DataChannelDescriptor;
+import org.apache.cayenne.configuration.DataNodeDescriptor;
+import org.apache.cayenne.configuration.xml.XMLDataChannelDescriptorLoader;
+import org.apache.cayenne.map.DataMap;
+import org.apache.cayenne.resource.Resource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A descriptor loader that reads a precompiled {@link ProjectImage} stored next to the project XML file, if there is
+ * one, and it is up-to-date with the XML. Otherwise falls back to parsing the XML. This loader is not used by
+ * default, and can be enabled via {@link org.apache.cayenne.configuration.runtime.CoreModuleExtender#useProjectImages()}.
+ * Note that {@link org.apache.cayenne.configuration.xml.DataChannelMetaData} is not populated for the projects loaded
+ * from an image, so the tools relying on it must use the XML loader.
+ *
+ * @since 5.0
+ */
+public class BinaryDataChannelDescriptorLoader extends XMLDataChannelDescriptorLoader {
+
+    private static final Logger logger = LoggerFactory.getLogger(BinaryDataChannelDescriptorLoader.class);
+
+    @Override
+    public ConfigurationTree<DataChannelDescriptor> load(Resource configurationResource) throws ConfigurationException {
+
+        if (configurationResource == null) {
+            throw new NullPointerException("Null configurationResource");
+        }
+
+        DataChannelDescriptor descriptor = loadImage(configurationResource);
+        return descriptor != null
+                ? new ConfigurationTree<>(descriptor, null)
+                : super.load(configurationResource);
+    }
+
+    /**
+     * Returns a descriptor read from the image, or null if there's no usable image for the configuration resource.
+     */
+    protected DataChannelDescriptor loadImage(Resource configurationResource) {
+        URL configurationURL = configurationResource.getURL();
+        Resource imageResource = configurationResource
+                .getRelativeResource(ProjectImage.imageLocation(configurationURL.getPath()));
+        URL imageURL = imageResource.getURL();
+        if (imageURL == null) {
+            return null;
+        }
+
+        ProjectImage image;
+        try (InputStream in = imageURL.openStream()) {
+            image = ProjectImage.read(in, configurationResource);
+        } catch (IOException e) {
+            // no image, or missing or unreadable XML that the XML loader will report
+            return null;
+        } catch (ConfigurationException e) {
+            logger.warn("Ignoring invalid project image " + imageURL, e);
+            return null;
+        }
+
+        if (image.getDescriptor() == null) {
+            if (!image.getCayenneVersion().equals(ProjectImage.currentCayenneVersion())) {
+                logger.info("Ignoring project image " + imageURL + " created by Cayenne " + image.getCayenneVersion());
+            } else {
+                logger.info("Ignoring stale project image " + imageURL);
+            }
+            return null;
+        }
+
+        logger.info("Loading binary project image from " + imageURL);
+
+        DataChannelDescriptor descriptor = image.getDescriptor();
+        descriptor.setConfigurationSource(configurationResource);
+        descriptor.setName(nameMapper.configurationNodeName(DataChannelDescriptor.class, configurationResource));
+
+        for (DataMap dataMap : descriptor.getDataMaps()) {
+            dataMap.setConfigurationSource(configurationResource.getRelativeResource(dataMap.getLocation()));
+        }
+
+        for (DataNodeDescriptor node : descriptor.getNodeDescriptors()) {
+            node.setConfigurationSource(configurationResource);
+        }
+
+        return descriptor;
+    }
+}
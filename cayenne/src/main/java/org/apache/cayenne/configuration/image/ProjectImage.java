@@ -0,0 +1,222 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.configuration.image;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InvalidClassException;
+import java.io.ObjectInputFilter;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.cayenne.CayenneRuntimeException;
+import org.apache.cayenne.ConfigurationException;
+import org.apache.cayenne.configuration.DataChannelDescriptor;
+import org.apache.cayenne.map.DataMap;
+import org.apache.cayenne.resource.Resource;
+import org.apache.cayenne.util.LocalizedStringsHandler;
+
+/**
+ * Reads and writes a binary image of a fully loaded {@link DataChannelDescriptor} with all its DataMaps. An image
+ * is created at build time from the project XML files, and is used at runtime instead of parsing the XML. Each image
+ * stores a checksum of the XML files it was created from, and is ignored when the XML files change, or when it was
+ * created by a different version of Cayenne.
+ * <p>
+ * Image contents are deserialized with Java serialization, so images must come from a trusted source, such as the
+ * application's own classpath. As a precaution, the contents are only deserialized after the checksum is verified,
+ * and only Cayenne mapping classes and JDK value and collection classes are allowed in the image.
+ *
+ * @since 5.0
+ */
+public class ProjectImage {
+
+    static final int MAGIC = 0xCA1E1A6E;
+    static final int FORMAT_VERSION = 1;
+
+    static final String IMAGE_EXTENSION = ".image";
+
+    // the classes that a project descriptor may consist of. Primitive arrays are always allowed by the filter
+    static final ObjectInputFilter FILTER = ObjectInputFilter.Config.createFilter(
+            "org.apache.cayenne.**;java.lang.*;java.util.*;java.util.concurrent.*;java.util.concurrent.atomic.*;"
+                    + "java.math.*;java.time.*;java.sql.Date;java.sql.Time;java.sql.Timestamp;!*");
+
+    private final DataChannelDescriptor descriptor;
+    private final String cayenneVersion;
+    private final String checksum;
+    private final List<String> dataMapLocations;
+
+    private ProjectImage(DataChannelDescriptor descriptor, String cayenneVersion, String checksum, List<String> dataMapLocations) {
+        this.descriptor = descriptor;
+        this.cayenneVersion = cayenneVersion;
+        this.checksum = checksum;
+        this.dataMapLocations = dataMapLocations;
+    }
+
+    /**
+     * Returns a location of the image file relative to the project XML file, e.g. "cayenne-project.image" for
+     * "cayenne-project.xml".
+     */
+    public static String imageLocation(String projectLocation) {
+        int slash = projectLocation.lastIndexOf('/');
+        String name = slash >= 0 ? projectLocation.substring(slash + 1) : projectLocation;
+        return name.endsWith(".xml")
+                ? name.substring(0, name.length() - ".xml".length()) + IMAGE_EXTENSION
+                : name + IMAGE_EXTENSION;
+    }
+
+    /**
+     * Writes an image of the descriptor loaded from XML. Configuration sources of the descriptor and its DataMaps must
+     * be set, as they are used to calculate the checksum.
+     */
+    public static void write(DataChannelDescriptor descriptor, OutputStream out) throws IOException {
+        List<String> locations = new ArrayList<>(descriptor.getDataMaps().size());
+        for (DataMap map : descriptor.getDataMaps()) {
+            locations.add(map.getLocation());
+        }
+
+        String checksum = checksum(descriptor.getConfigurationSource(), locations);
+
+        DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out));
+        data.writeInt(MAGIC);
+        data.writeInt(FORMAT_VERSION);
+        data.writeUTF(currentCayenneVersion());
+        data.writeUTF(checksum);
+        data.writeInt(locations.size());
+        for (String location : locations) {
+            data.writeUTF(location);
+        }
+
+        ObjectOutputStream objects = new ObjectOutputStream(data);
+        objects.writeObject(descriptor);
+        objects.flush();
+    }
+
+    /**
+     * Reads the image header, and then the descriptor, if the image was created by the current Cayenne version from
+     * the current contents of the XML files. Throws an exception if the stream is not a project image of the
+     * supported format, or if it contains classes other than Cayenne mapping classes and JDK value and collection
+     * classes.
+     */
+    static ProjectImage read(InputStream in, Resource configurationResource) throws IOException {
+        DataInputStream data = new DataInputStream(new BufferedInputStream(in));
+
+        if (data.readInt() != MAGIC) {
+            throw new ConfigurationException("Not a Cayenne project image");
+        }
+
+        int formatVersion = data.readInt();
+        if (formatVersion != FORMAT_VERSION) {
+            throw new ConfigurationException("Unsupported project image format version: %s", formatVersion);
+        }
+
+        String cayenneVersion = data.readUTF();
+        String checksum = data.readUTF();
+        int count = data.readInt();
+        List<String> locations = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            locations.add(data.readUTF());
+        }
+
+        // don't even try to deserialize classes from another version or a stale image
+        if (!cayenneVersion.equals(currentCayenneVersion())
+                || !checksum.equals(checksum(configurationResource, locations))) {
+            return new ProjectImage(null, cayenneVersion, checksum, locations);
+        }
+
+        try {
+            ObjectInputStream objects = new ObjectInputStream(data);
+            objects.setObjectInputFilter(FILTER);
+            DataChannelDescriptor descriptor = (DataChannelDescriptor) objects.readObject();
+            return new ProjectImage(descriptor, cayenneVersion, checksum, locations);
+        } catch (ClassNotFoundException | ClassCastException | InvalidClassException e) {
+            throw new ConfigurationException("Invalid project image", e);
+        }
+    }
+
+    /**
+     * Calculates a checksum of the project XML and the DataMap XML files at the given locations.
+     */
+    static String checksum(Resource configurationResource, List<String> dataMapLocations) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new CayenneRuntimeException("SHA-256 is not supported", e);
+        }
+
+        update(digest, "", configurationResource);
+        for (String location : dataMapLocations) {
+            update(digest, location, configurationResource.getRelativeResource(location));
+        }
+
+        StringBuilder hex = new StringBuilder();
+        for (byte b : digest.digest()) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+
+    private static void update(MessageDigest digest, String location, Resource resource) throws IOException {
+        digest.update(location.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+
+        byte[] buffer = new byte[8192];
+        try (InputStream in = resource.getURL().openStream()) {
+            int read;
+            while ((read = in.read(buffer)) >= 0) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        digest.update((byte) 0);
+    }
+
+    static String currentCayenneVersion() {
+        return LocalizedStringsHandler.getString("cayenne.version");
+    }
+
+    /**
+     * Returns the descriptor, or null if the image was created by a different Cayenne version, or from a different
+     * version of the XML files.
+     */
+    DataChannelDescriptor getDescriptor() {
+        return descriptor;
+    }
+
+    String getCayenneVersion() {
+        return cayenneVersion;
+    }
+
+    String getChecksum() {
+        return checksum;
+    }
+
+    List<String> getDataMapLocations() {
+        return dataMapLocations;
+    }
+}
@@ -25,7 +25,11 @@ import org.apache.cayenne.access.DataDomain;
 import org.apache.cayenne.access.DataRowStoreFactory;
 import org.apache.cayenne.access.DefaultDataRowStoreFactory;
 import org.apache.cayenne.access.DefaultObjectMapRetainStrategy;
+import org.apache.cayenne.access.DefaultReadReplicaRouter;
+import org.apache.cayenne.access.DefaultShardRouter;
 import org.apache.cayenne.access.ObjectMapRetainStrategy;
+import org.apache.cayenne.access.ReadReplicaRouter;
+import org.apache.cayenne.access.ShardRouter;
 import org.apache.cayenne.access.dbsync.DefaultSchemaUpdateStrategyFactory;
 import org.apache.cayenne.access.dbsync.SchemaUpdateStrategyFactory;
 import org.apache.cayenne.access.flush.DataDomainFlushActionFactory;
@@ -130,6 +134,7 @@ import org.xml.sax.XMLReader;
 
 import java.util.Calendar;
 import java.util.GregorianCalendar;
+import java.util.concurrent.Executor;
 
 /**
  * A DI module containing all Cayenne runtime configuration.
@@ -396,6 +401,7 @@ public class CoreModule implements Module {
                 .addDefaultExtendedType(new CalendarType<>(Calendar.class))
                 .addDefaultExtendedType(new GeoJsonType())
                 .addDefaultExtendedType(new WktType())
+                .addDefaultExtendedType(new LobStreamType())
 
                 .addExtendedTypeFactory(new InternalUnsupportedTypeFactory())
 
@@ -432,6 +438,9 @@ public class CoreModule implements Module {
         binder.bind(ObjectContextFactory.class).to(DataContextFactory.class);
         binder.bind(TransactionFactory.class).to(DefaultTransactionFactory.class);
 
+        // an executor of AsyncObjectContext operations
+        binder.bind(Key.get(Executor.class, Constants.ASYNC_EXECUTOR)).to(DefaultAsyncExecutor.class);
+
         // a service to load project XML descriptors
         binder.bind(DataChannelDescriptorLoader.class).to(XMLDataChannelDescriptorLoader.class);
         binder.bind(DataChannelDescriptorMerger.class).to(DefaultDataChannelDescriptorMerger.class);
@@ -481,6 +490,8 @@ public class CoreModule implements Module {
         binder.bind(XMLReader.class).toProviderInstance(new XMLReaderProvider(false)).withoutScope();
 
         binder.bind(DataDomainFlushActionFactory.class).to(DefaultDataDomainFlushActionFactory.class);
+        binder.bind(ReadReplicaRouter.class).to(DefaultReadReplicaRouter.class);
+        binder.bind(ShardRouter.class).to(DefaultShardRouter.class);
         binder.bind(DbRowOpSorter.class).to(DefaultDbRowOpSorter.class);
     }
 }
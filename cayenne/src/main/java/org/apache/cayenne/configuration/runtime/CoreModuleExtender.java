@@ -21,17 +21,34 @@ package org.apache.cayenne.configuration.runtime;
 
 import org.apache.cayenne.DataChannelQueryFilter;
 import org.apache.cayenne.DataChannelSyncFilter;
+import org.apache.cayenne.access.ShardKeyResolver;
+import org.apache.cayenne.access.metrics.OperationTimingListener;
+import org.apache.cayenne.access.metrics.QueryMetricsAggregator;
+import org.apache.cayenne.access.metrics.QueryMetricsListener;
 import org.apache.cayenne.access.types.ExtendedType;
 import org.apache.cayenne.access.types.ExtendedTypeFactory;
 import org.apache.cayenne.access.types.ValueObjectType;
+import org.apache.cayenne.cache.AutoInvalidatingQueryCache;
+import org.apache.cayenne.cache.AutoInvalidationFilter;
+import org.apache.cayenne.cache.QueryCache;
 import org.apache.cayenne.configuration.Constants;
+import org.apache.cayenne.configuration.DataChannelDescriptorLoader;
+import org.apache.cayenne.configuration.image.BinaryDataChannelDescriptorLoader;
 import org.apache.cayenne.dba.DbAdapter;
 import org.apache.cayenne.dba.PkGenerator;
 import org.apache.cayenne.di.Binder;
+import org.apache.cayenne.di.Key;
 import org.apache.cayenne.di.ListBuilder;
 import org.apache.cayenne.di.MapBuilder;
+import org.apache.cayenne.event.EventBridge;
+import org.apache.cayenne.event.EventTransport;
+import org.apache.cayenne.event.SocketEventTransportProvider;
+import org.apache.cayenne.event.TransportEventBridge;
+import org.apache.cayenne.event.TransportEventBridgeProvider;
 import org.apache.cayenne.tx.TransactionFilter;
 
+import java.util.concurrent.Executor;
+
 /**
  * A builder of extensions for {@link CoreModule}.
  *
@@ -53,6 +70,10 @@ public class CoreModuleExtender {
     private ListBuilder<ExtendedType> userExtendedTypes;
     private ListBuilder<ExtendedTypeFactory> extendedTypeFactories;
     private ListBuilder<ValueObjectType> valueObjectTypes;
+    private MapBuilder<String> readReplicas;
+    private MapBuilder<ShardKeyResolver> shardKeyResolvers;
+    private ListBuilder<QueryMetricsListener> queryMetricsListeners;
+    private ListBuilder<OperationTimingListener> operationTimingListeners;
 
     protected CoreModuleExtender(Binder binder) {
         this.binder = binder;
@@ -70,6 +91,10 @@ public class CoreModuleExtender {
         contributeUserExtendedTypes();
         contributeExtendedTypeFactories();
         contributeValueObjectTypes();
+        contributeReadReplicas();
+        contributeShardKeyResolvers();
+        contributeQueryMetricsListeners();
+        contributeOperationTimingListeners();
         return this;
     }
 
@@ -97,6 +122,18 @@ public class CoreModuleExtender {
         return this;
     }
 
+    /**
+     * Enables loading of the projects from precompiled binary images (see the "cimage" goal of the Cayenne Maven
+     * plugin), when an image is found next to the project XML file, and is up-to-date with the XML.
+     *
+     * @see BinaryDataChannelDescriptorLoader
+     * @since 5.0
+     */
+    public CoreModuleExtender useProjectImages() {
+        binder.bind(DataChannelDescriptorLoader.class).to(BinaryDataChannelDescriptorLoader.class);
+        return this;
+    }
+
     /**
      * Sets max size of snapshot cache.
      *
@@ -107,6 +144,214 @@ public class CoreModuleExtender {
         return this;
     }
 
+    /**
+     * Enables targeted delivery of snapshot events, so that each DataContext is notified only about the changes to the
+     * objects it holds. Contexts that hold none of the changed objects receive no events at all.
+     *
+     * @since 5.0
+     */
+    public CoreModuleExtender targetedSnapshotEvents() {
+        contributeProperties().put(Constants.SNAPSHOT_EVENT_TARGETED_DELIVERY_PROPERTY, "true");
+        return this;
+    }
+
+    /**
+     * Pins snapshots of the "reference data" entities in the snapshot cache, so that they are not evicted when the
+     * cache reaches its max size. Objects of such entities are resolved by id (via
+     * {@link org.apache.cayenne.query.SelectById} with the shared cache strategy) and as targets of to-one
+     * relationships without going to the database. Replaces entity names set by the previous
+     * call to this method.
+     *
+     * @param entityNames names of the cached ObjEntities
+     * @since 5.0
+     */
+    public CoreModuleExtender cacheEntities(String... entityNames) {
+        contributeProperties().put(Constants.ENTITY_CACHE_PROPERTY, String.join(",", entityNames));
+        return this;
+    }
+
+    /**
+     * Synchronizes the snapshot cache with the caches of other JVMs over TCP. Snapshot changes are sent to each peer
+     * over a persistent connection. Requires the shared snapshot cache (the default). Also enables synchronization of
+     * ObjectContexts, as the events are delivered via the {@link org.apache.cayenne.event.EventManager}.
+     * <p>
+     * Received snapshots are served to the queries without checking the database, so the peers must be trusted.
+     * Connections are only accepted from the hosts of the configured peers, but the messages are neither
+     * authenticated nor encrypted. Only use this bridge on a private network, and don't expose the bind address
+     * to the other hosts.
+     *
+     * @param bindAddress a "host:port" address to listen on for the events from the peers
+     * @param peers       "host:port" addresses of the peers
+     * @see TransportEventBridge
+     * @since 5.0
+     */
+    public CoreModuleExtender tcpEventBridge(String bindAddress, String... peers) {
+        return socketEventBridge("tcp", bindAddress, peers);
+    }
+
+    /**
+     * Synchronizes the snapshot cache with the caches of other JVMs over UDP. Each batch of snapshot changes is sent
+     * to each peer as a single datagram. Delivery is not guaranteed, so this is only suitable for reliable local
+     * networks. Requires the shared snapshot cache (the default). Also enables synchronization of ObjectContexts, as
+     * the events are delivered via the {@link org.apache.cayenne.event.EventManager}.
+     * <p>
+     * Received snapshots are served to the queries without checking the database, so the peers must be trusted.
+     * Datagrams are only accepted from the hosts of the configured peers, but the source address of a datagram is
+     * easily spoofed, and the messages are neither authenticated nor encrypted. Only use this bridge on a private
+     * network, and don't expose the bind address to the other hosts.
+     *
+     * @param bindAddress a "host:port" address to listen on for the events from the peers
+     * @param peers       "host:port" addresses of the peers
+     * @see TransportEventBridge
+     * @since 5.0
+     */
+    public CoreModuleExtender udpEventBridge(String bindAddress, String... peers) {
+        return socketEventBridge("udp", bindAddress, peers);
+    }
+
+    /**
+     * Synchronizes the snapshot cache with the caches of other JVMs over a custom transport. Also enables
+     * synchronization of ObjectContexts, as the events are delivered via the
+     * {@link org.apache.cayenne.event.EventManager}.
+     *
+     * @see TransportEventBridge
+     * @since 5.0
+     */
+    public CoreModuleExtender eventBridgeTransport(Class<? extends EventTransport> transportType) {
+        binder.bind(EventTransport.class).to(transportType).withoutScope();
+        return transportEventBridge();
+    }
+
+    /**
+     * Sets for how many milliseconds the event bridge collects local snapshot changes before sending them to the
+     * other JVMs.
+     *
+     * @since 5.0
+     */
+    public CoreModuleExtender eventBridgeBatchWindow(long ms) {
+        contributeProperties().put(Constants.EVENT_BRIDGE_BATCH_WINDOW_PROPERTY, Long.toString(ms));
+        return this;
+    }
+
+    private CoreModuleExtender socketEventBridge(String transport, String bindAddress, String... peers) {
+        binder.bind(EventTransport.class).toProvider(SocketEventTransportProvider.class).withoutScope();
+        contributeProperties().put(Constants.EVENT_BRIDGE_TRANSPORT_PROPERTY, transport);
+        contributeProperties().put(Constants.EVENT_BRIDGE_ADDRESS_PROPERTY, bindAddress);
+        contributeProperties().put(Constants.EVENT_BRIDGE_PEERS_PROPERTY, String.join(",", peers));
+        return transportEventBridge();
+    }
+
+    private CoreModuleExtender transportEventBridge() {
+        binder.bind(EventBridge.class).toProvider(TransportEventBridgeProvider.class);
+        return syncContexts();
+    }
+
+    /**
+     * Configures ObjectContexts to keep hard references to at most "size" most recently used committed objects,
+     * retaining the rest weakly.
+     *
+     * @param size max number of hard-referenced objects per context
+     */
+    public CoreModuleExtender boundedObjectRetainStrategy(int size) {
+        contributeProperties().put(Constants.OBJECT_RETAIN_STRATEGY_PROPERTY, "bounded");
+        contributeProperties().put(Constants.OBJECT_RETAIN_BOUNDED_SIZE_PROPERTY, Integer.toString(size));
+        return this;
+    }
+
+    /**
+     * Registers a DataNode as a read replica of another DataNode. Read-only queries executed outside of a transaction
+     * will be spread between the replicas of their primary DataNode. The replica DataNode must not be linked to any
+     * DataMaps.
+     *
+     * @param primaryNodeName the name of a DataNode that replicates its data to the replica
+     * @param replicaNodeName the name of a replica DataNode
+     */
+    public CoreModuleExtender addReadReplica(String primaryNodeName, String replicaNodeName) {
+        contributeReadReplicas().put(replicaNodeName, primaryNodeName);
+        return this;
+    }
+
+    /**
+     * Configures how read-only queries are spread between replicas of a DataNode.
+     *
+     * @param leastOutstanding if true, a replica with the least number of running queries is picked, otherwise
+     *                         replicas are picked in the round-robin order
+     * @param pinAfterCommitMs for how many milliseconds after a commit a context should read from the primary
+     *                         DataNodes. Zero disables pinning
+     */
+    public CoreModuleExtender readReplicaBalancing(boolean leastOutstanding, long pinAfterCommitMs) {
+        contributeProperties().put(Constants.READ_REPLICAS_BALANCING_PROPERTY,
+                leastOutstanding ? "least_outstanding" : "round_robin");
+        contributeProperties().put(Constants.READ_REPLICAS_PIN_AFTER_COMMIT_PROPERTY, Long.toString(pinAfterCommitMs));
+        return this;
+    }
+
+    /**
+     * Makes an entity horizontally sharded, i.e. stored on multiple DataNodes, with each row stored on the DataNode
+     * selected by the resolver. Shard DataNodes should not be linked to any DataMaps. The resolver also applies to the
+     * subentities of the entity.
+     *
+     * @param entityName the name of the sharded ObjEntity
+     * @param resolver   a resolver that defines the shard key and the shards of the entity
+     */
+    public CoreModuleExtender addShardKeyResolver(String entityName, ShardKeyResolver resolver) {
+        contributeShardKeyResolvers().put(entityName, resolver);
+        return this;
+    }
+
+    /**
+     * Adds a listener notified of each SQL statement executed by the DataNodes, e.g. a {@link QueryMetricsAggregator}.
+     * DataNodes do not collect query metrics unless at least one such listener is registered.
+     *
+     * @since 5.0
+     */
+    public CoreModuleExtender addQueryMetricsListener(QueryMetricsListener listener) {
+        contributeQueryMetricsListeners().add(listener);
+        return this;
+    }
+
+    /**
+     * Adds a listener notified of each SQL statement executed by the DataNodes.
+     *
+     * @since 5.0
+     */
+    public CoreModuleExtender addQueryMetricsListener(Class<? extends QueryMetricsListener> listenerType) {
+        contributeQueryMetricsListeners().add(listenerType);
+        return this;
+    }
+
+    /**
+     * Adds a listener notified of the timing breakdown of each query and commit processed by the DataDomain. Queries
+     * and commits are not timed unless at least one such listener is registered.
+     *
+     * @since 5.0
+     */
+    public CoreModuleExtender addOperationTimingListener(OperationTimingListener listener) {
+        contributeOperationTimingListeners().add(listener);
+        return this;
+    }
+
+    /**
+     * Adds a listener notified of the timing breakdown of each query and commit processed by the DataDomain.
+     *
+     * @since 5.0
+     */
+    public CoreModuleExtender addOperationTimingListener(Class<? extends OperationTimingListener> listenerType) {
+        contributeOperationTimingListeners().add(listenerType);
+        return this;
+    }
+
+    /**
+     * Sets a custom executor of {@link org.apache.cayenne.AsyncObjectContext} operations, replacing the default one
+     * that uses virtual threads where available. The caller is responsible for shutting the executor down.
+     *
+     * @since 5.0
+     */
+    public CoreModuleExtender asyncExecutor(Executor executor) {
+        binder.bind(Key.get(Executor.class, Constants.ASYNC_EXECUTOR)).toInstance(executor);
+        return this;
+    }
+
     /**
      * Adds a custom project location.
      */
@@ -147,6 +392,20 @@ public class CoreModuleExtender {
         return this;
     }
 
+    /**
+     * Enables automatic invalidation of the query cache. Each cached query result records the tables it was read
+     * from, and is removed from the cache when a commit modifies any of those tables, so that there's no need to
+     * maintain cache groups by hand.
+     *
+     * @see AutoInvalidatingQueryCache
+     * @since 5.0
+     */
+    public CoreModuleExtender queryCacheAutoInvalidation() {
+        binder.decorate(QueryCache.class).after(AutoInvalidatingQueryCache.class);
+        addSyncFilter(AutoInvalidationFilter.class, false);
+        return this;
+    }
+
     /**
      * Adds a custom sync filter.
      */
@@ -365,6 +624,34 @@ public class CoreModuleExtender {
         return valueObjectTypes;
     }
 
+    private MapBuilder<String> contributeReadReplicas() {
+        if (readReplicas == null) {
+            readReplicas = binder.bindMap(String.class, Constants.READ_REPLICAS_MAP);
+        }
+        return readReplicas;
+    }
+
+    private MapBuilder<ShardKeyResolver> contributeShardKeyResolvers() {
+        if (shardKeyResolvers == null) {
+            shardKeyResolvers = binder.bindMap(ShardKeyResolver.class, Constants.SHARD_KEY_RESOLVERS_MAP);
+        }
+        return shardKeyResolvers;
+    }
+
+    private ListBuilder<QueryMetricsListener> contributeQueryMetricsListeners() {
+        if (queryMetricsListeners == null) {
+            queryMetricsListeners = binder.bindList(QueryMetricsListener.class);
+        }
+        return queryMetricsListeners;
+    }
+
+    private ListBuilder<OperationTimingListener> contributeOperationTimingListeners() {
+        if (operationTimingListeners == null) {
+            operationTimingListeners = binder.bindList(OperationTimingListener.class);
+        }
+        return operationTimingListeners;
+    }
+
     private MapBuilder<PkGenerator> contributePkGenerators() {
         if (pkGenerators == null) {
             pkGenerators = binder.bindMap(PkGenerator.class);
@@ -100,6 +100,7 @@ public class DataContextFactory implements ObjectContextFactory {
 
         context.setValidatingObjectsOnCommit(parent.isValidatingObjectsOnCommit());
         context.setUsingSharedSnapshotCache(parent.isUsingSharedSnapshotCache());
+        context.setCommittingDirectlyToDomain(dataDomain.isNestedContextDirectCommit());
         context.setQueryCache(new NestedQueryCache(queryCache));
         context.setTransactionFactory(transactionFactory);
 
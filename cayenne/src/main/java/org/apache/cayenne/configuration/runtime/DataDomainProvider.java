@@ -25,6 +25,9 @@ import org.apache.cayenne.DataChannelSyncFilter;
 import org.apache.cayenne.access.DataDomain;
 import org.apache.cayenne.access.DataNode;
 import org.apache.cayenne.access.DataRowStoreFactory;
+import org.apache.cayenne.access.ReadReplicaRouter;
+import org.apache.cayenne.access.metrics.OperationTimingListener;
+import org.apache.cayenne.access.ShardRouter;
 import org.apache.cayenne.access.types.ValueObjectTypeRegistry;
 import org.apache.cayenne.cache.NestedQueryCache;
 import org.apache.cayenne.cache.QueryCache;
@@ -86,6 +89,12 @@ public class DataDomainProvider implements Provider<DataDomain> {
 	@Inject(Constants.DOMAIN_LISTENERS_LIST)
 	protected List<Object> listeners;
 
+	/**
+	 * @since 5.0
+	 */
+	@Inject
+	protected List<OperationTimingListener> operationTimingListeners;
+
 	@Inject(Constants.PROJECT_LOCATIONS_LIST)
 	protected List<String> locations;
 
@@ -127,6 +136,11 @@ public class DataDomainProvider implements Provider<DataDomain> {
 		DataDomain dataDomain = createDataDomain(descriptor.getName());
 
 		dataDomain.setMaxIdQualifierSize(runtimeProperties.getInt(Constants.MAX_ID_QUALIFIER_SIZE_PROPERTY, -1));
+		dataDomain.setIteratorPrefetchChunkSize(runtimeProperties.getInt(
+				Constants.ITERATOR_PREFETCH_CHUNK_SIZE_PROPERTY,
+				DataDomain.DEFAULT_ITERATOR_PREFETCH_CHUNK_SIZE));
+		dataDomain.setNestedContextDirectCommit(runtimeProperties.getBoolean(
+				Constants.NESTED_CONTEXT_DIRECT_COMMIT_PROPERTY, false));
 
 		dataDomain.setQueryCache(new NestedQueryCache(queryCache));
 		dataDomain.setEntitySorter(injector.getInstance(EntitySorter.class));
@@ -168,6 +182,9 @@ public class DataDomainProvider implements Provider<DataDomain> {
 			dataDomain.setDefaultNode(defaultNode);
 		}
 
+		dataDomain.setReadReplicaRouter(injector.getInstance(ReadReplicaRouter.class));
+		dataDomain.setShardRouter(injector.getInstance(ShardRouter.class));
+
 		for (DataChannelQueryFilter filter : queryFilters) {
 			dataDomain.addQueryFilter(filter);
 		}
@@ -180,9 +197,33 @@ public class DataDomainProvider implements Provider<DataDomain> {
 			dataDomain.addListener(listener);
 		}
 
+		dataDomain.setOperationTimingListener(createOperationTimingListener());
+
 		return dataDomain;
 	}
 
+	/**
+	 * Combines configured operation timing listeners into a single listener. Returns null if there are none, so that
+	 * the DataDomain would not time its operations at all.
+	 *
+	 * @since 5.0
+	 */
+	protected OperationTimingListener createOperationTimingListener() {
+		switch (operationTimingListeners.size()) {
+			case 0:
+				return null;
+			case 1:
+				return operationTimingListeners.get(0);
+			default:
+				OperationTimingListener[] listeners = operationTimingListeners.toArray(new OperationTimingListener[0]);
+				return event -> {
+					for (OperationTimingListener listener : listeners) {
+						listener.operationCompleted(event);
+					}
+				};
+		}
+	}
+
 	/**
 	 * @since 4.0
      */
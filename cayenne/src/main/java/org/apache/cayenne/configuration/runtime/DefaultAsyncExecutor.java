@@ -0,0 +1,96 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.configuration.runtime;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.cayenne.di.BeforeScopeEnd;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A default executor of {@link org.apache.cayenne.AsyncObjectContext} operations. On JVMs that support virtual
+ * threads (Java 21 and newer), each task runs in its own virtual thread. On older JVMs it falls back to a cached pool
+ * of daemon platform threads. The executor is shut down together with the Cayenne runtime.
+ *
+ * @since 5.0
+ */
+public class DefaultAsyncExecutor implements Executor {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(DefaultAsyncExecutor.class);
+
+    private final ExecutorService executor;
+    private final boolean virtualThreads;
+
+    public DefaultAsyncExecutor() {
+        ExecutorService virtualThreadExecutor = createVirtualThreadExecutor();
+        this.virtualThreads = virtualThreadExecutor != null;
+        this.executor = virtualThreads ? virtualThreadExecutor : Executors.newCachedThreadPool(new DaemonThreadFactory());
+    }
+
+    // the code is compiled for Java 11, so virtual threads can only be accessed reflectively
+    private static ExecutorService createVirtualThreadExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (NoSuchMethodException e) {
+            return null;
+        } catch (Exception e) {
+            LOGGER.info("Virtual threads are unavailable, falling back to platform threads", e);
+            return null;
+        }
+    }
+
+    /**
+     * Returns true if the tasks are executed in virtual threads.
+     */
+    public boolean isVirtualThreads() {
+        return virtualThreads;
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        executor.execute(command);
+    }
+
+    /**
+     * Stops accepting new tasks. Tasks already submitted are allowed to complete.
+     */
+    @BeforeScopeEnd
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private static class DaemonThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, "cayenne-async-" + counter.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
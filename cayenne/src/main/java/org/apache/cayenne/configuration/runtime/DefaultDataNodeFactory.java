@@ -22,6 +22,7 @@ import org.apache.cayenne.access.DataNode;
 import org.apache.cayenne.access.dbsync.SchemaUpdateStrategyFactory;
 import org.apache.cayenne.access.jdbc.SQLTemplateProcessor;
 import org.apache.cayenne.access.jdbc.reader.RowReaderFactory;
+import org.apache.cayenne.access.metrics.QueryMetricsListener;
 import org.apache.cayenne.access.translator.batch.BatchTranslatorFactory;
 import org.apache.cayenne.access.translator.select.SelectTranslatorFactory;
 import org.apache.cayenne.configuration.DataNodeDescriptor;
@@ -30,6 +31,7 @@ import org.apache.cayenne.di.Inject;
 import org.apache.cayenne.log.JdbcEventLogger;
 
 import javax.sql.DataSource;
+import java.util.List;
 
 /**
  * @since 4.0
@@ -63,6 +65,12 @@ public class DefaultDataNodeFactory implements DataNodeFactory {
     @Inject
     protected SQLTemplateProcessor sqlTemplateProcessor;
 
+    /**
+     * @since 5.0
+     */
+    @Inject
+    protected List<QueryMetricsListener> queryMetricsListeners;
+
     @Override
     public DataNode createDataNode(DataNodeDescriptor nodeDescriptor) throws Exception {
 
@@ -73,6 +81,7 @@ public class DefaultDataNodeFactory implements DataNodeFactory {
         dataNode.setBatchTranslatorFactory(batchTranslatorFactory);
         dataNode.setSelectTranslatorFactory(selectTranslatorFactory);
         dataNode.setSqlTemplateProcessor(sqlTemplateProcessor);
+        dataNode.setQueryMetricsListener(createQueryMetricsListener());
 
         DataSource dataSource = dataSourceFactory.getDataSource(nodeDescriptor);
 
@@ -86,4 +95,26 @@ public class DefaultDataNodeFactory implements DataNodeFactory {
         return dataNode;
     }
 
+    /**
+     * Combines configured query metrics listeners into a single listener. Returns null if there are none, so that
+     * the DataNode would not collect metrics at all.
+     *
+     * @since 5.0
+     */
+    protected QueryMetricsListener createQueryMetricsListener() {
+        switch (queryMetricsListeners.size()) {
+            case 0:
+                return null;
+            case 1:
+                return queryMetricsListeners.get(0);
+            default:
+                QueryMetricsListener[] listeners = queryMetricsListeners.toArray(new QueryMetricsListener[0]);
+                return event -> {
+                    for (QueryMetricsListener listener : listeners) {
+                        listener.queryExecuted(event);
+                    }
+                };
+        }
+    }
+
 }
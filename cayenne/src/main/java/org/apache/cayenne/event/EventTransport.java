@@ -0,0 +1,56 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.event;
+
+import java.util.function.Consumer;
+
+/**
+ * A pluggable network transport of a {@link TransportEventBridge}. Sends opaque binary messages to all the peers
+ * of this JVM, and passes the messages received from the peers to a callback.
+ *
+ * @see TcpEventTransport
+ * @see UdpEventTransport
+ * @since 5.0
+ */
+public interface EventTransport {
+
+    /**
+     * Opens the transport. Messages received from the peers are passed to the "receiver", which may be called from
+     * the transport threads.
+     */
+    void start(Consumer<byte[]> receiver) throws Exception;
+
+    /**
+     * Stops receiving messages and releases the transport resources.
+     */
+    void stop() throws Exception;
+
+    /**
+     * Sends a message to all the peers. Must not block for long, as all the messages of a bridge are sent from a
+     * single thread. Implementations should drop the messages that can not be delivered in a timely manner.
+     */
+    void send(byte[] message) throws Exception;
+
+    /**
+     * Returns the max size in bytes of a message that can be sent over this transport.
+     */
+    default int getMaxMessageSize() {
+        return Integer.MAX_VALUE;
+    }
+}
@@ -0,0 +1,450 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.event;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.cayenne.CayenneRuntimeException;
+import org.apache.cayenne.DataRow;
+import org.apache.cayenne.ObjectId;
+import org.apache.cayenne.access.event.SnapshotEvent;
+
+/**
+ * Encodes SnapshotEvents to a compact binary form sent by {@link TransportEventBridge}. A message carries the id
+ * of the sending bridge, the subject of the event, the ids of the changed objects and the diffs of the modified
+ * objects. Entity and column names are written once per message and referenced by index afterwards. Only the common
+ * JDBC value types are supported, as deserializing arbitrary Java objects received from the network is unsafe.
+ *
+ * @since 5.0
+ */
+final class SnapshotEventCodec {
+
+    static final short MAGIC = (short) 0xCAE5;
+    static final byte VERSION = 1;
+
+    private static final byte NULL = 0;
+    private static final byte STRING = 1;
+    private static final byte INTEGER = 2;
+    private static final byte LONG = 3;
+    private static final byte SHORT = 4;
+    private static final byte BYTE = 5;
+    private static final byte BOOLEAN = 6;
+    private static final byte DOUBLE = 7;
+    private static final byte FLOAT = 8;
+    private static final byte CHARACTER = 9;
+    private static final byte BIG_DECIMAL = 10;
+    private static final byte BIG_INTEGER = 11;
+    private static final byte BYTES = 12;
+    private static final byte DATE = 13;
+    private static final byte SQL_DATE = 14;
+    private static final byte SQL_TIME = 15;
+    private static final byte SQL_TIMESTAMP = 16;
+    private static final byte LOCAL_DATE = 17;
+    private static final byte LOCAL_TIME = 18;
+    private static final byte LOCAL_DATE_TIME = 19;
+
+    private SnapshotEventCodec() {
+    }
+
+    static byte[] encode(String senderId, String externalSubject, String subjectName, SnapshotEvent event) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            new Writer(out).write(senderId, externalSubject, subjectName, event);
+        } catch (IOException e) {
+            throw new CayenneRuntimeException("Error encoding snapshot event", e);
+        }
+
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Decodes a message, returning an event with the given source.
+     */
+    static Message decode(byte[] message, Object source) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(message))) {
+            return new Reader(in).read(source);
+        } catch (IOException e) {
+            throw new CayenneRuntimeException("Error decoding snapshot event", e);
+        }
+    }
+
+    static final class Message {
+
+        final String senderId;
+        final String externalSubject;
+        final String subjectName;
+        final SnapshotEvent event;
+
+        Message(String senderId, String externalSubject, String subjectName, SnapshotEvent event) {
+            this.senderId = senderId;
+            this.externalSubject = externalSubject;
+            this.subjectName = subjectName;
+            this.event = event;
+        }
+    }
+
+    private static final class Writer {
+
+        private final DataOutputStream out;
+        private final Map<String, Integer> names;
+
+        Writer(DataOutputStream out) {
+            this.out = out;
+            this.names = new HashMap<>();
+        }
+
+        void write(String senderId, String externalSubject, String subjectName, SnapshotEvent event)
+                throws IOException {
+            out.writeShort(MAGIC);
+            out.writeByte(VERSION);
+            writeString(senderId);
+            writeString(externalSubject);
+            writeString(subjectName);
+
+            List<Map.Entry<ObjectId, DataRow>> diffs = new ArrayList<>(event.getModifiedDiffs().size());
+            for (Map.Entry<ObjectId, DataRow> e : event.getModifiedDiffs().entrySet()) {
+                if (!e.getKey().isTemporary()) {
+                    diffs.add(e);
+                }
+            }
+
+            writeVarInt(diffs.size());
+            for (Map.Entry<ObjectId, DataRow> e : diffs) {
+                writeId(e.getKey());
+                writeValues(e.getValue());
+            }
+
+            writeIds(event.getDeletedIds());
+            writeIds(event.getInvalidatedIds());
+            writeIds(event.getIndirectlyModifiedIds());
+        }
+
+        private void writeIds(Collection<ObjectId> ids) throws IOException {
+            List<ObjectId> permanentIds = new ArrayList<>(ids.size());
+            for (ObjectId id : ids) {
+                if (!id.isTemporary()) {
+                    permanentIds.add(id);
+                }
+            }
+
+            writeVarInt(permanentIds.size());
+            for (ObjectId id : permanentIds) {
+                writeId(id);
+            }
+        }
+
+        private void writeId(ObjectId id) throws IOException {
+            writeName(id.getEntityName());
+            writeValues(id.getIdSnapshot());
+        }
+
+        private void writeValues(Map<String, ?> values) throws IOException {
+            writeVarInt(values.size());
+            for (Map.Entry<String, ?> e : values.entrySet()) {
+                writeName(e.getKey());
+                writeValue(e.getValue());
+            }
+        }
+
+        // names are repeated in every id and diff, so each one is written once and referenced by index afterwards
+        private void writeName(String name) throws IOException {
+            Integer index = names.get(name);
+            if (index != null) {
+                writeVarInt(index + 1);
+            } else {
+                names.put(name, names.size());
+                writeVarInt(0);
+                writeString(name);
+            }
+        }
+
+        private void writeValue(Object value) throws IOException {
+            if (value == null) {
+                out.writeByte(NULL);
+            } else if (value instanceof String) {
+                out.writeByte(STRING);
+                writeString((String) value);
+            } else if (value instanceof Integer) {
+                out.writeByte(INTEGER);
+                out.writeInt((Integer) value);
+            } else if (value instanceof Long) {
+                out.writeByte(LONG);
+                out.writeLong((Long) value);
+            } else if (value instanceof Short) {
+                out.writeByte(SHORT);
+                out.writeShort((Short) value);
+            } else if (value instanceof Byte) {
+                out.writeByte(BYTE);
+                out.writeByte((Byte) value);
+            } else if (value instanceof Boolean) {
+                out.writeByte(BOOLEAN);
+                out.writeBoolean((Boolean) value);
+            } else if (value instanceof Double) {
+                out.writeByte(DOUBLE);
+                out.writeDouble((Double) value);
+            } else if (value instanceof Float) {
+                out.writeByte(FLOAT);
+                out.writeFloat((Float) value);
+            } else if (value instanceof Character) {
+                out.writeByte(CHARACTER);
+                out.writeChar((Character) value);
+            } else if (value instanceof BigDecimal) {
+                BigDecimal decimal = (BigDecimal) value;
+                out.writeByte(BIG_DECIMAL);
+                out.writeInt(decimal.scale());
+                writeBytes(decimal.unscaledValue().toByteArray());
+            } else if (value instanceof BigInteger) {
+                out.writeByte(BIG_INTEGER);
+                writeBytes(((BigInteger) value).toByteArray());
+            } else if (value instanceof byte[]) {
+                out.writeByte(BYTES);
+                writeBytes((byte[]) value);
+            } else if (value instanceof java.sql.Timestamp) {
+                java.sql.Timestamp timestamp = (java.sql.Timestamp) value;
+                out.writeByte(SQL_TIMESTAMP);
+                out.writeLong(timestamp.getTime());
+                out.writeInt(timestamp.getNanos());
+            } else if (value instanceof java.sql.Date) {
+                out.writeByte(SQL_DATE);
+                out.writeLong(((java.sql.Date) value).getTime());
+            } else if (value instanceof java.sql.Time) {
+                out.writeByte(SQL_TIME);
+                out.writeLong(((java.sql.Time) value).getTime());
+            } else if (value instanceof java.util.Date) {
+                out.writeByte(DATE);
+                out.writeLong(((java.util.Date) value).getTime());
+            } else if (value instanceof LocalDate) {
+                out.writeByte(LOCAL_DATE);
+                out.writeLong(((LocalDate) value).toEpochDay());
+            } else if (value instanceof LocalTime) {
+                out.writeByte(LOCAL_TIME);
+                out.writeLong(((LocalTime) value).toNanoOfDay());
+            } else if (value instanceof LocalDateTime) {
+                LocalDateTime dateTime = (LocalDateTime) value;
+                out.writeByte(LOCAL_DATE_TIME);
+                out.writeLong(dateTime.toLocalDate().toEpochDay());
+                out.writeLong(dateTime.toLocalTime().toNanoOfDay());
+            } else {
+                throw new CayenneRuntimeException("Unsupported snapshot value type: %s", value.getClass().getName());
+            }
+        }
+
+        private void writeString(String string) throws IOException {
+            writeBytes(string.getBytes(StandardCharsets.UTF_8));
+        }
+
+        private void writeBytes(byte[] bytes) throws IOException {
+            writeVarInt(bytes.length);
+            out.write(bytes);
+        }
+
+        private void writeVarInt(int value) throws IOException {
+            while ((value & ~0x7F) != 0) {
+                out.writeByte((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            out.writeByte(value);
+        }
+    }
+
+    private static final class Reader {
+
+        private final DataInputStream in;
+        private final List<String> names;
+
+        Reader(DataInputStream in) {
+            this.in = in;
+            this.names = new ArrayList<>();
+        }
+
+        Message read(Object source) throws IOException {
+            if (in.readShort() != MAGIC) {
+                throw new IOException("Not a snapshot event message");
+            }
+
+            byte version = in.readByte();
+            if (version != VERSION) {
+                throw new IOException("Unsupported snapshot event message version: " + version);
+            }
+
+            String senderId = readString();
+            String externalSubject = readString();
+            String subjectName = readString();
+
+            int diffsCount = readCount();
+            Map<ObjectId, DataRow> diffs = new HashMap<>((int) Math.ceil(diffsCount / 0.75));
+            for (int i = 0; i < diffsCount; i++) {
+                ObjectId id = readId();
+                Map<String, Object> values = readValues();
+                diffs.put(id, new DataRow(values));
+            }
+
+            Collection<ObjectId> deletedIds = readIds();
+            Collection<ObjectId> invalidatedIds = readIds();
+            Collection<ObjectId> indirectlyModifiedIds = readIds();
+
+            SnapshotEvent event = new SnapshotEvent(
+                    source,
+                    source,
+                    diffs,
+                    deletedIds,
+                    invalidatedIds,
+                    indirectlyModifiedIds);
+            return new Message(senderId, externalSubject, subjectName, event);
+        }
+
+        private Collection<ObjectId> readIds() throws IOException {
+            int count = readCount();
+            List<ObjectId> ids = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                ids.add(readId());
+            }
+            return ids;
+        }
+
+        private ObjectId readId() throws IOException {
+            String entityName = readName();
+            return ObjectId.of(entityName, readValues());
+        }
+
+        private Map<String, Object> readValues() throws IOException {
+            int count = readCount();
+            Map<String, Object> values = new LinkedHashMap<>((int) Math.ceil(count / 0.75));
+            for (int i = 0; i < count; i++) {
+                String name = readName();
+                values.put(name, readValue());
+            }
+            return values;
+        }
+
+        private String readName() throws IOException {
+            int index = readVarInt();
+            if (index == 0) {
+                String name = readString();
+                names.add(name);
+                return name;
+            }
+
+            if (index > names.size()) {
+                throw new IOException("Invalid name reference: " + index);
+            }
+            return names.get(index - 1);
+        }
+
+        private Object readValue() throws IOException {
+            byte type = in.readByte();
+            switch (type) {
+                case NULL:
+                    return null;
+                case STRING:
+                    return readString();
+                case INTEGER:
+                    return in.readInt();
+                case LONG:
+                    return in.readLong();
+                case SHORT:
+                    return in.readShort();
+                case BYTE:
+                    return in.readByte();
+                case BOOLEAN:
+                    return in.readBoolean();
+                case DOUBLE:
+                    return in.readDouble();
+                case FLOAT:
+                    return in.readFloat();
+                case CHARACTER:
+                    return in.readChar();
+                case BIG_DECIMAL:
+                    int scale = in.readInt();
+                    return new BigDecimal(new BigInteger(readBytes()), scale);
+                case BIG_INTEGER:
+                    return new BigInteger(readBytes());
+                case BYTES:
+                    return readBytes();
+                case DATE:
+                    return new java.util.Date(in.readLong());
+                case SQL_DATE:
+                    return new java.sql.Date(in.readLong());
+                case SQL_TIME:
+                    return new java.sql.Time(in.readLong());
+                case SQL_TIMESTAMP:
+                    java.sql.Timestamp timestamp = new java.sql.Timestamp(in.readLong());
+                    timestamp.setNanos(in.readInt());
+                    return timestamp;
+                case LOCAL_DATE:
+                    return LocalDate.ofEpochDay(in.readLong());
+                case LOCAL_TIME:
+                    return LocalTime.ofNanoOfDay(in.readLong());
+                case LOCAL_DATE_TIME:
+                    LocalDate date = LocalDate.ofEpochDay(in.readLong());
+                    return LocalDateTime.of(date, LocalTime.ofNanoOfDay(in.readLong()));
+                default:
+                    throw new IOException("Unknown snapshot value type: " + type);
+            }
+        }
+
+        private String readString() throws IOException {
+            return new String(readBytes(), StandardCharsets.UTF_8);
+        }
+
+        private byte[] readBytes() throws IOException {
+            byte[] bytes = new byte[readCount()];
+            in.readFully(bytes);
+            return bytes;
+        }
+
+        // a count can't exceed the number of remaining bytes, which protects against allocating huge arrays for a
+        // corrupted message
+        private int readCount() throws IOException {
+            int count = readVarInt();
+            if (count < 0 || count > in.available()) {
+                throw new IOException("Invalid count: " + count);
+            }
+            return count;
+        }
+
+        private int readVarInt() throws IOException {
+            int value = 0;
+            for (int shift = 0; shift < 32; shift += 7) {
+                byte b = in.readByte();
+                value |= (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IOException("Malformed var int");
+        }
+    }
+}
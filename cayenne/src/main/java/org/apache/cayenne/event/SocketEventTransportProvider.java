@@ -0,0 +1,96 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.event;
+
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.cayenne.ConfigurationException;
+import org.apache.cayenne.configuration.Constants;
+import org.apache.cayenne.configuration.RuntimeProperties;
+import org.apache.cayenne.di.Inject;
+import org.apache.cayenne.di.Provider;
+
+/**
+ * Creates a {@link TcpEventTransport} or a {@link UdpEventTransport} configured via runtime properties.
+ *
+ * @see Constants#EVENT_BRIDGE_TRANSPORT_PROPERTY
+ * @see Constants#EVENT_BRIDGE_ADDRESS_PROPERTY
+ * @see Constants#EVENT_BRIDGE_PEERS_PROPERTY
+ * @since 5.0
+ */
+public class SocketEventTransportProvider implements Provider<EventTransport> {
+
+    private final RuntimeProperties properties;
+
+    public SocketEventTransportProvider(@Inject RuntimeProperties properties) {
+        this.properties = properties;
+    }
+
+    @Override
+    public EventTransport get() throws ConfigurationException {
+        String address = properties.get(Constants.EVENT_BRIDGE_ADDRESS_PROPERTY);
+        if (address == null) {
+            throw new ConfigurationException("'%s' property is not set", Constants.EVENT_BRIDGE_ADDRESS_PROPERTY);
+        }
+
+        InetSocketAddress bindAddress = parseAddress(address);
+        List<InetSocketAddress> peers = new ArrayList<>();
+        String peersList = properties.get(Constants.EVENT_BRIDGE_PEERS_PROPERTY);
+        if (peersList != null) {
+            for (String peer : peersList.split(",")) {
+                if (!peer.isBlank()) {
+                    peers.add(parseAddress(peer.trim()));
+                }
+            }
+        }
+
+        String transport = properties.get(Constants.EVENT_BRIDGE_TRANSPORT_PROPERTY);
+        if (transport == null || "tcp".equalsIgnoreCase(transport)) {
+            return new TcpEventTransport(bindAddress, peers);
+        } else if ("udp".equalsIgnoreCase(transport)) {
+            return new UdpEventTransport(bindAddress, peers);
+        } else {
+            throw new ConfigurationException("Unsupported event transport: '%s'", transport);
+        }
+    }
+
+    // parses "host:port" or "[ipv6]:port"
+    static InetSocketAddress parseAddress(String address) {
+        int colon = address.lastIndexOf(':');
+        if (colon <= 0 || colon == address.length() - 1) {
+            throw new ConfigurationException("Invalid address, expected 'host:port': '%s'", address);
+        }
+
+        String host = address.substring(0, colon);
+        if (host.startsWith("[") && host.endsWith("]")) {
+            host = host.substring(1, host.length() - 1);
+        }
+
+        int port;
+        try {
+            port = Integer.parseInt(address.substring(colon + 1));
+        } catch (NumberFormatException e) {
+            throw new ConfigurationException("Invalid port in address '%s'", address);
+        }
+
+        return new InetSocketAddress(host, port);
+    }
+}
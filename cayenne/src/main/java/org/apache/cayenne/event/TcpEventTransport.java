@@ -0,0 +1,329 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.event;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * An {@link EventTransport} that listens for incoming TCP connections on a local address, and sends length-prefixed
+ * messages over a persistent connection to each peer. Connections are opened on the first message, and reopened when
+ * a peer restarts. Only connections from the hosts of the configured peers are accepted.
+ * <p>
+ * Each peer has its own send queue and sender thread, so a slow or hung peer doesn't delay the delivery to other
+ * peers. When the queue of a peer is full, the queued messages are dropped, and the connection to the peer is
+ * closed. Delivery is best effort: messages to the peers that are down are dropped too.
+ *
+ * @since 5.0
+ */
+public class TcpEventTransport implements EventTransport {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TcpEventTransport.class);
+
+    public static final int MAX_MESSAGE_SIZE = 16 * 1024 * 1024;
+    public static final int DEFAULT_SEND_QUEUE_CAPACITY = 1024;
+    public static final int DEFAULT_MAX_INBOUND_CONNECTIONS = 64;
+
+    static final int CONNECT_TIMEOUT_MS = 1000;
+
+    private final InetSocketAddress bindAddress;
+    private final Collection<InetSocketAddress> peers;
+    private final int sendQueueCapacity;
+    private final int maxInboundConnections;
+    private final Set<Socket> inbound;
+    private final Map<InetSocketAddress, PeerSender> outbound;
+
+    private volatile ServerSocket serverSocket;
+
+    /**
+     * Creates a transport listening on the "bindAddress" and sending messages to the "peers". Port 0 in the bind
+     * address picks an ephemeral port, that can be later obtained via {@link #getLocalAddress()}.
+     */
+    public TcpEventTransport(InetSocketAddress bindAddress, Collection<InetSocketAddress> peers) {
+        this(bindAddress, peers, DEFAULT_SEND_QUEUE_CAPACITY, DEFAULT_MAX_INBOUND_CONNECTIONS);
+    }
+
+    /**
+     * Creates a transport listening on the "bindAddress" and sending messages to the "peers", with the given max
+     * number of the messages queued for each peer and the max number of the connections accepted from the peers.
+     */
+    public TcpEventTransport(
+            InetSocketAddress bindAddress,
+            Collection<InetSocketAddress> peers,
+            int sendQueueCapacity,
+            int maxInboundConnections) {
+        this.bindAddress = bindAddress;
+        this.peers = new CopyOnWriteArrayList<>(peers);
+        this.sendQueueCapacity = sendQueueCapacity;
+        this.maxInboundConnections = maxInboundConnections;
+        this.inbound = ConcurrentHashMap.newKeySet();
+        this.outbound = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Adds a peer that will receive messages sent by this transport, and whose connections will be accepted.
+     */
+    public void addPeer(InetSocketAddress peer) {
+        peers.add(peer);
+    }
+
+    /**
+     * Returns the address this transport listens on.
+     */
+    public InetSocketAddress getLocalAddress() {
+        ServerSocket socket = this.serverSocket;
+        return socket != null ? (InetSocketAddress) socket.getLocalSocketAddress() : bindAddress;
+    }
+
+    @Override
+    public int getMaxMessageSize() {
+        return MAX_MESSAGE_SIZE;
+    }
+
+    @Override
+    public void start(Consumer<byte[]> receiver) throws IOException {
+        ServerSocket socket = new ServerSocket();
+        socket.setReuseAddress(true);
+        socket.bind(bindAddress);
+        this.serverSocket = socket;
+
+        Thread acceptor = new Thread(() -> accept(socket, receiver), "cayenne-event-tcp-" + socket.getLocalPort());
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    @Override
+    public void stop() {
+        ServerSocket socket = this.serverSocket;
+        if (socket != null) {
+            closeQuietly(socket);
+            this.serverSocket = null;
+        }
+
+        for (Socket s : inbound) {
+            closeQuietly(s);
+        }
+        inbound.clear();
+
+        for (PeerSender sender : outbound.values()) {
+            sender.stop();
+        }
+        outbound.clear();
+    }
+
+    /**
+     * Queues the message for sending to each peer. Doesn't block.
+     */
+    @Override
+    public void send(byte[] message) {
+        if (message.length > MAX_MESSAGE_SIZE) {
+            throw new IllegalArgumentException("Message is too large: " + message.length);
+        }
+
+        byte[] frame = ByteBuffer.allocate(4 + message.length).putInt(message.length).put(message).array();
+        for (InetSocketAddress peer : peers) {
+            outbound.computeIfAbsent(peer, PeerSender::new).offer(frame);
+        }
+    }
+
+    boolean isPeer(InetAddress address) {
+        for (InetSocketAddress peer : peers) {
+            if (address.equals(peer.getAddress())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void accept(ServerSocket serverSocket, Consumer<byte[]> receiver) {
+        while (!serverSocket.isClosed()) {
+            Socket socket;
+            try {
+                socket = serverSocket.accept();
+            } catch (IOException e) {
+                if (!serverSocket.isClosed()) {
+                    LOGGER.warn("Error accepting event connection", e);
+                }
+                continue;
+            }
+
+            if (!isPeer(socket.getInetAddress())) {
+                LOGGER.warn("Rejecting event connection from {}, that is not a configured peer",
+                        socket.getRemoteSocketAddress());
+                closeQuietly(socket);
+                continue;
+            }
+
+            if (inbound.size() >= maxInboundConnections) {
+                LOGGER.warn("Rejecting event connection from {}, too many connections",
+                        socket.getRemoteSocketAddress());
+                closeQuietly(socket);
+                continue;
+            }
+
+            inbound.add(socket);
+            Thread reader = new Thread(
+                    () -> read(socket, receiver),
+                    "cayenne-event-tcp-" + serverSocket.getLocalPort() + "-" + socket.getPort());
+            reader.setDaemon(true);
+            reader.start();
+        }
+    }
+
+    private void read(Socket socket, Consumer<byte[]> receiver) {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()))) {
+            while (true) {
+                int length = in.readInt();
+                if (length < 0 || length > MAX_MESSAGE_SIZE) {
+                    throw new IOException("Invalid event message length: " + length);
+                }
+
+                byte[] message = new byte[length];
+                in.readFully(message);
+
+                try {
+                    receiver.accept(message);
+                } catch (RuntimeException e) {
+                    LOGGER.warn("Error processing event message", e);
+                }
+            }
+        } catch (EOFException e) {
+            // peer closed the connection
+        } catch (IOException e) {
+            if (!socket.isClosed()) {
+                LOGGER.info("Event connection from {} is broken: {}", socket.getRemoteSocketAddress(), e.getMessage());
+            }
+        } finally {
+            inbound.remove(socket);
+            closeQuietly(socket);
+        }
+    }
+
+    private static void closeQuietly(AutoCloseable closeable) {
+        try {
+            closeable.close();
+        } catch (Exception e) {
+            // ignore
+        }
+    }
+
+    // a queue of messages to a single peer, and a thread writing them to the peer connection
+    private class PeerSender implements Runnable {
+
+        private final InetSocketAddress peer;
+        private final BlockingQueue<byte[]> queue;
+        private final Thread thread;
+
+        private volatile Socket socket;
+        private volatile boolean stopped;
+
+        PeerSender(InetSocketAddress peer) {
+            this.peer = peer;
+            this.queue = new ArrayBlockingQueue<>(sendQueueCapacity);
+            this.thread = new Thread(this, "cayenne-event-tcp-sender-" + peer);
+            this.thread.setDaemon(true);
+            this.thread.start();
+        }
+
+        void offer(byte[] frame) {
+            if (!queue.offer(frame)) {
+                LOGGER.warn("Event queue of {} is full, dropping the queued events and reconnecting", peer);
+
+                // closing the socket unblocks the sender thread, if it is stuck writing to a peer that doesn't read
+                queue.clear();
+                closeSocket();
+                queue.offer(frame);
+            }
+        }
+
+        void stop() {
+            stopped = true;
+            thread.interrupt();
+            closeSocket();
+        }
+
+        @Override
+        public void run() {
+            while (!stopped) {
+                byte[] frame;
+                try {
+                    frame = queue.take();
+                } catch (InterruptedException e) {
+                    break;
+                }
+
+                try {
+                    write(frame);
+                } catch (IOException e) {
+
+                    // the peer may have restarted since the last message, so reconnect once
+                    closeSocket();
+                    try {
+                        write(frame);
+                    } catch (IOException e1) {
+                        closeSocket();
+                        if (!stopped) {
+                            LOGGER.warn("Error sending event message to {}: {}", peer, e1.getMessage());
+                        }
+                    }
+                }
+            }
+
+            closeSocket();
+        }
+
+        private void write(byte[] frame) throws IOException {
+            Socket socket = this.socket;
+            if (socket == null) {
+                socket = new Socket();
+                socket.setTcpNoDelay(true);
+                socket.connect(peer, CONNECT_TIMEOUT_MS);
+                this.socket = socket;
+            }
+
+            socket.getOutputStream().write(frame);
+        }
+
+        private void closeSocket() {
+            Socket socket = this.socket;
+            if (socket != null) {
+                this.socket = null;
+                closeQuietly(socket);
+            }
+        }
+    }
+}
@@ -0,0 +1,305 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.event;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.cayenne.CayenneRuntimeException;
+import org.apache.cayenne.DataRow;
+import org.apache.cayenne.ObjectId;
+import org.apache.cayenne.access.event.SnapshotEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * An EventBridge that synchronizes snapshot caches of multiple JVMs over a pluggable {@link EventTransport}.
+ * Local SnapshotEvents are collected for a short "batch window" and merged together, so that a burst of commits is
+ * sent as a single message. Messages carry just the ids of the changed objects and the diffs of the modified
+ * snapshots. A message that exceeds the transport max size is split, and a diff that can't be sent (e.g. because
+ * it is too large, or contains values of unsupported types) is replaced with the invalidation of the object, so
+ * that the receivers refetch it. Received events are posted to the local EventManager, where they are picked by
+ * {@link org.apache.cayenne.access.DataRowStore#processRemoteEvent(SnapshotEvent)}.
+ * <p>
+ * Events other than SnapshotEvents are not sent by this bridge.
+ *
+ * @since 5.0
+ */
+public class TransportEventBridge extends EventBridge {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TransportEventBridge.class);
+
+    public static final long DEFAULT_BATCH_WINDOW_MS = 20;
+
+    /**
+     * The number of the changed objects in the pending events, that triggers a flush before the end of the batch
+     * window.
+     */
+    public static final int MAX_BATCH_SIZE = 10000;
+
+    protected final EventTransport transport;
+    protected final long batchWindowMs;
+    protected final String nodeId;
+
+    // guarded by "this"
+    private Map<EventSubject, Batch> pending;
+    private ScheduledExecutorService scheduler;
+    private boolean flushScheduled;
+    private boolean immediateFlushScheduled;
+
+    public TransportEventBridge(
+            EventSubject localSubject,
+            String externalSubject,
+            EventTransport transport,
+            long batchWindowMs) {
+        this(Collections.singleton(localSubject), externalSubject, transport, batchWindowMs);
+    }
+
+    public TransportEventBridge(
+            Collection<EventSubject> localSubjects,
+            String externalSubject,
+            EventTransport transport,
+            long batchWindowMs) {
+        super(localSubjects, externalSubject);
+        this.transport = transport;
+        this.batchWindowMs = Math.max(0, batchWindowMs);
+        this.nodeId = UUID.randomUUID().toString();
+        this.pending = new HashMap<>();
+    }
+
+    public EventTransport getTransport() {
+        return transport;
+    }
+
+    public long getBatchWindowMs() {
+        return batchWindowMs;
+    }
+
+    @Override
+    protected void startupExternal() throws Exception {
+        synchronized (this) {
+            this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "cayenne-event-bridge");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+
+        transport.start(this::onMessage);
+    }
+
+    @Override
+    protected void shutdownExternal() throws Exception {
+        ScheduledExecutorService scheduler;
+        synchronized (this) {
+            scheduler = this.scheduler;
+            this.scheduler = null;
+        }
+
+        if (scheduler != null) {
+            // a pending flush is still executed after the shutdown, so the events collected so far are not lost
+            scheduler.shutdown();
+            scheduler.awaitTermination(batchWindowMs + 1000, TimeUnit.MILLISECONDS);
+        }
+
+        transport.stop();
+    }
+
+    @Override
+    protected void sendExternalEvent(CayenneEvent localEvent) {
+        if (!(localEvent instanceof SnapshotEvent)) {
+            LOGGER.debug("Ignoring non-snapshot event: {}", localEvent);
+            return;
+        }
+
+        synchronized (this) {
+            if (scheduler == null) {
+                return;
+            }
+
+            Batch batch = pending.computeIfAbsent(localEvent.getSubject(), s -> new Batch());
+            batch.add((SnapshotEvent) localEvent);
+
+            if (!flushScheduled) {
+                flushScheduled = true;
+                scheduler.schedule(this::flush, batchWindowMs, TimeUnit.MILLISECONDS);
+            } else if (!immediateFlushScheduled && batch.size() >= MAX_BATCH_SIZE) {
+
+                // don't let a burst of commits accumulate in memory until the end of the window
+                immediateFlushScheduled = true;
+                scheduler.execute(this::flush);
+            }
+        }
+    }
+
+    /**
+     * Sends all the pending events over the transport.
+     */
+    protected void flush() {
+        Map<EventSubject, Batch> batches;
+        synchronized (this) {
+            batches = pending;
+            pending = new HashMap<>();
+            flushScheduled = false;
+            immediateFlushScheduled = false;
+        }
+
+        for (Map.Entry<EventSubject, Batch> e : batches.entrySet()) {
+            send(e.getKey().getSubjectName(), e.getValue());
+        }
+    }
+
+    private void send(String subjectName, Batch batch) {
+        byte[] message;
+        try {
+            message = SnapshotEventCodec.encode(nodeId, externalSubject, subjectName, batch.toEvent(this));
+        } catch (CayenneRuntimeException e) {
+            if (!batch.modifiedDiffs.isEmpty()) {
+                LOGGER.debug("Can't encode snapshot diffs, sending invalidation instead: {}", e.getMessage());
+                send(subjectName, batch.invalidating());
+            } else {
+                LOGGER.warn("Can't encode snapshot event, dropping it", e);
+            }
+            return;
+        }
+
+        if (message.length > transport.getMaxMessageSize()) {
+            if (batch.size() > 1) {
+                for (Batch part : batch.split()) {
+                    send(subjectName, part);
+                }
+            } else if (!batch.modifiedDiffs.isEmpty()) {
+                send(subjectName, batch.invalidating());
+            } else {
+                LOGGER.warn("Snapshot event of {} bytes is too large for the transport, dropping it", message.length);
+            }
+            return;
+        }
+
+        try {
+            transport.send(message);
+        } catch (Exception e) {
+            LOGGER.warn("Error sending snapshot event", e);
+        }
+    }
+
+    private void onMessage(byte[] bytes) {
+        if (!isRunning()) {
+            return;
+        }
+
+        SnapshotEventCodec.Message message;
+        try {
+            message = SnapshotEventCodec.decode(bytes, getExternalEventSource());
+        } catch (CayenneRuntimeException e) {
+            LOGGER.warn("Ignoring malformed event message", e);
+            return;
+        }
+
+        // ignore own messages (e.g. looped back by a multicast transport) and messages of other bridges
+        if (nodeId.equals(message.senderId) || !externalSubject.equals(message.externalSubject)) {
+            return;
+        }
+
+        for (EventSubject subject : localSubjects) {
+            if (subject.getSubjectName().equals(message.subjectName)) {
+                message.event.setSubject(subject);
+                onExternalEvent(message.event);
+                return;
+            }
+        }
+    }
+
+    /**
+     * A set of the SnapshotEvents merged together. The merged event has the same effect on the receiver as the
+     * original events applied in order, as the diffs of the same object are combined, and the deleted and
+     * invalidated ids take precedence over the diffs.
+     */
+    private static final class Batch {
+
+        final Map<ObjectId, DataRow> modifiedDiffs = new LinkedHashMap<>();
+        final Collection<ObjectId> deletedIds = new LinkedHashSet<>();
+        final Collection<ObjectId> invalidatedIds = new LinkedHashSet<>();
+        final Collection<ObjectId> indirectlyModifiedIds = new LinkedHashSet<>();
+
+        void add(SnapshotEvent event) {
+            for (Map.Entry<ObjectId, DataRow> e : event.getModifiedDiffs().entrySet()) {
+                modifiedDiffs.merge(e.getKey(), e.getValue(), (d1, d2) -> {
+                    DataRow merged = new DataRow(d1);
+                    merged.putAll(d2);
+                    return merged;
+                });
+            }
+
+            deletedIds.addAll(event.getDeletedIds());
+            invalidatedIds.addAll(event.getInvalidatedIds());
+            indirectlyModifiedIds.addAll(event.getIndirectlyModifiedIds());
+        }
+
+        int size() {
+            return modifiedDiffs.size() + deletedIds.size() + invalidatedIds.size() + indirectlyModifiedIds.size();
+        }
+
+        SnapshotEvent toEvent(Object source) {
+            return new SnapshotEvent(source, source, modifiedDiffs, deletedIds, invalidatedIds, indirectlyModifiedIds);
+        }
+
+        Batch invalidating() {
+            Batch batch = new Batch();
+            batch.deletedIds.addAll(deletedIds);
+            batch.invalidatedIds.addAll(invalidatedIds);
+            batch.invalidatedIds.addAll(modifiedDiffs.keySet());
+            batch.indirectlyModifiedIds.addAll(indirectlyModifiedIds);
+            return batch;
+        }
+
+        Batch[] split() {
+            Batch first = new Batch();
+            Batch second = new Batch();
+            int half = size() / 2;
+            int i = 0;
+
+            for (Map.Entry<ObjectId, DataRow> e : modifiedDiffs.entrySet()) {
+                (i++ < half ? first : second).modifiedDiffs.put(e.getKey(), e.getValue());
+            }
+
+            for (ObjectId id : deletedIds) {
+                (i++ < half ? first : second).deletedIds.add(id);
+            }
+
+            for (ObjectId id : invalidatedIds) {
+                (i++ < half ? first : second).invalidatedIds.add(id);
+            }
+
+            for (ObjectId id : indirectlyModifiedIds) {
+                (i++ < half ? first : second).indirectlyModifiedIds.add(id);
+            }
+
+            return new Batch[]{first, second};
+        }
+    }
+}
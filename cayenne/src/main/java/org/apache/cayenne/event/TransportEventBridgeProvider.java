@@ -0,0 +1,68 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.event;
+
+import org.apache.cayenne.access.DataDomain;
+import org.apache.cayenne.access.DataRowStore;
+import org.apache.cayenne.configuration.Constants;
+import org.apache.cayenne.configuration.RuntimeProperties;
+import org.apache.cayenne.di.DIRuntimeException;
+import org.apache.cayenne.di.Inject;
+import org.apache.cayenne.di.Provider;
+
+/**
+ * Creates a {@link TransportEventBridge} for the snapshot cache of the DataDomain, using an {@link EventTransport}
+ * bound in DI.
+ *
+ * @see org.apache.cayenne.configuration.runtime.CoreModuleExtender#tcpEventBridge(String, String...)
+ * @see org.apache.cayenne.configuration.runtime.CoreModuleExtender#udpEventBridge(String, String...)
+ * @since 5.0
+ */
+public class TransportEventBridgeProvider implements Provider<EventBridge> {
+
+    private final Provider<DataDomain> dataDomainProvider;
+    private final Provider<EventTransport> transportProvider;
+    private final RuntimeProperties properties;
+
+    public TransportEventBridgeProvider(
+            @Inject Provider<DataDomain> dataDomainProvider,
+            @Inject Provider<EventTransport> transportProvider,
+            @Inject RuntimeProperties properties) {
+        this.dataDomainProvider = dataDomainProvider;
+        this.transportProvider = transportProvider;
+        this.properties = properties;
+    }
+
+    @Override
+    public EventBridge get() throws DIRuntimeException {
+
+        // must match the subject of the DataRowStore. Can't take it from the store itself, as the bridge is created
+        // while the store is being created
+        EventSubject subject = EventSubject.getSubject(DataRowStore.class, dataDomainProvider.get().getName());
+        long batchWindowMs = properties.getLong(
+                Constants.EVENT_BRIDGE_BATCH_WINDOW_PROPERTY,
+                TransportEventBridge.DEFAULT_BATCH_WINDOW_MS);
+
+        return new TransportEventBridge(
+                subject,
+                EventBridge.convertToExternalSubject(subject),
+                transportProvider.get(),
+                batchWindowMs);
+    }
+}
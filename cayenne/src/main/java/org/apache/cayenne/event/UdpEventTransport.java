@@ -0,0 +1,154 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.event;
+
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * An {@link EventTransport} that sends each message as a single UDP datagram to each peer. Has the lowest overhead,
+ * but the messages are limited to 65507 bytes, and may be lost or reordered by the network. Only the datagrams
+ * sent from the hosts of the configured peers are accepted.
+ *
+ * @since 5.0
+ */
+public class UdpEventTransport implements EventTransport {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(UdpEventTransport.class);
+
+    public static final int MAX_MESSAGE_SIZE = 65507;
+
+    private final InetSocketAddress bindAddress;
+    private final Collection<InetSocketAddress> peers;
+
+    private volatile DatagramSocket socket;
+
+    /**
+     * Creates a transport listening on the "bindAddress" and sending messages to the "peers". Port 0 in the bind
+     * address picks an ephemeral port, that can be later obtained via {@link #getLocalAddress()}.
+     */
+    public UdpEventTransport(InetSocketAddress bindAddress, Collection<InetSocketAddress> peers) {
+        this.bindAddress = bindAddress;
+        this.peers = new CopyOnWriteArrayList<>(peers);
+    }
+
+    /**
+     * Adds a peer that will receive messages sent by this transport, and whose messages will be accepted.
+     */
+    public void addPeer(InetSocketAddress peer) {
+        peers.add(peer);
+    }
+
+    /**
+     * Returns the address this transport listens on.
+     */
+    public InetSocketAddress getLocalAddress() {
+        DatagramSocket socket = this.socket;
+        return socket != null ? (InetSocketAddress) socket.getLocalSocketAddress() : bindAddress;
+    }
+
+    @Override
+    public int getMaxMessageSize() {
+        return MAX_MESSAGE_SIZE;
+    }
+
+    @Override
+    public void start(Consumer<byte[]> receiver) throws IOException {
+        DatagramSocket socket = new DatagramSocket(bindAddress);
+        this.socket = socket;
+
+        Thread reader = new Thread(() -> read(socket, receiver), "cayenne-event-udp-" + socket.getLocalPort());
+        reader.setDaemon(true);
+        reader.start();
+    }
+
+    @Override
+    public void stop() {
+        DatagramSocket socket = this.socket;
+        if (socket != null) {
+            socket.close();
+            this.socket = null;
+        }
+    }
+
+    @Override
+    public void send(byte[] message) {
+        DatagramSocket socket = this.socket;
+        if (socket == null) {
+            throw new IllegalStateException("Transport is not started");
+        }
+
+        if (message.length > MAX_MESSAGE_SIZE) {
+            throw new IllegalArgumentException("Message is too large: " + message.length);
+        }
+
+        for (InetSocketAddress peer : peers) {
+            try {
+                socket.send(new DatagramPacket(message, message.length, peer));
+            } catch (IOException e) {
+                LOGGER.warn("Error sending event message to {}: {}", peer, e.getMessage());
+            }
+        }
+    }
+
+    boolean isPeer(InetAddress address) {
+        for (InetSocketAddress peer : peers) {
+            if (address.equals(peer.getAddress())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void read(DatagramSocket socket, Consumer<byte[]> receiver) {
+        byte[] buffer = new byte[MAX_MESSAGE_SIZE];
+        while (!socket.isClosed()) {
+            DatagramPacket packet = new DatagramPacket(buffer, buffer.length);
+            try {
+                socket.receive(packet);
+            } catch (IOException e) {
+                if (!socket.isClosed()) {
+                    LOGGER.warn("Error receiving event message", e);
+                }
+                continue;
+            }
+
+            if (!isPeer(packet.getAddress())) {
+                LOGGER.warn("Dropping event message from {}, that is not a configured peer", packet.getSocketAddress());
+                continue;
+            }
+
+            try {
+                receiver.accept(Arrays.copyOfRange(buffer, packet.getOffset(), packet.getOffset() + packet.getLength()));
+            } catch (RuntimeException e) {
+                LOGGER.warn("Error processing event message", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,47 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.exp;
+
+import java.util.function.Predicate;
+
+import org.apache.cayenne.util.ConversionUtil;
+
+/**
+ * An {@link Expression} prepared for repeated in-memory evaluation. Produces the same results as
+ * {@link Expression#evaluate(Object)} and {@link Expression#match(Object)}, but resolves paths, constants and operators
+ * once, instead of re-interpreting the expression tree for every object. Compiled expressions are thread-safe.
+ *
+ * @see Expression#compile()
+ * @since 5.0
+ */
+public interface CompiledExpression extends Predicate<Object> {
+
+    /**
+     * Calculates expression value with object as a context for path expressions.
+     */
+    Object evaluate(Object o);
+
+    /**
+     * Calculates expression boolean value with object as a context for path expressions.
+     */
+    @Override
+    default boolean test(Object o) {
+        return ConversionUtil.toBoolean(evaluate(o));
+    }
+}
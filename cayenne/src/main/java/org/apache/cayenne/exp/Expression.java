@@ -27,10 +27,12 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.function.Function;
+import java.util.function.Predicate;
 
 import org.apache.cayenne.CayenneRuntimeException;
 import org.apache.cayenne.configuration.ConfigurationNodeVisitor;
 import org.apache.cayenne.exp.parser.ASTScalar;
+import org.apache.cayenne.exp.parser.ExpressionCompiler;
 import org.apache.cayenne.util.ConversionUtil;
 import org.apache.cayenne.util.HashCodeBuilder;
 import org.apache.cayenne.util.Util;
@@ -524,14 +526,36 @@ public abstract class Expression implements Serializable, XMLSerializable {
 		return ConversionUtil.toBoolean(evaluate(o));
 	}
 
+	/**
+	 * Returns a compiled form of this expression, optimized for repeated in-memory evaluation. Compiled expression is
+	 * a snapshot of this expression, that is not affected by the later changes of the expression. Compilation is more
+	 * expensive than a single evaluation, so the result should be reused to evaluate multiple objects.
+	 *
+	 * @since 5.0
+	 */
+	public CompiledExpression compile() {
+		return ExpressionCompiler.compile(this);
+	}
+
+	/**
+	 * Returns a Predicate matching objects the same way as {@link #match(Object)} does.
+	 *
+	 * @since 5.0
+	 */
+	@SuppressWarnings("unchecked")
+	public <T> Predicate<T> toPredicate() {
+		return (Predicate<T>) compile();
+	}
+
 	/**
 	 * Returns the first object in the list that matches the expression.
 	 * 
 	 * @since 3.1
 	 */
 	public <T> T first(List<T> objects) {
+		CompiledExpression compiled = compile();
 		for (T o : objects) {
-			if (match(o)) {
+			if (compiled.test(o)) {
 				return o;
 			}
 		}
@@ -558,8 +582,9 @@ public abstract class Expression implements Serializable, XMLSerializable {
 	 * @since 1.1
 	 */
 	public <T> Collection<?> filter(Collection<T> source, Collection<T> target) {
+		CompiledExpression compiled = compile();
 		for (T o : source) {
-			if (match(o)) {
+			if (compiled.test(o)) {
 				target.add(o);
 			}
 		}
@@ -20,6 +20,7 @@
 package org.apache.cayenne.exp;
 
 import org.apache.cayenne.Persistent;
+import org.apache.cayenne.configuration.Constants;
 import org.apache.cayenne.exp.parser.ASTAdd;
 import org.apache.cayenne.exp.parser.ASTAll;
 import org.apache.cayenne.exp.parser.ASTAnd;
@@ -70,6 +71,7 @@ import org.apache.cayenne.exp.parser.ASTWhen;
 import org.apache.cayenne.exp.parser.ExpressionParser;
 import org.apache.cayenne.exp.parser.ExpressionParserTokenManager;
 import org.apache.cayenne.exp.parser.JavaCharStream;
+import org.apache.cayenne.exp.parser.ParsedExpressionCache;
 import org.apache.cayenne.exp.parser.SimpleNode;
 import org.apache.cayenne.exp.path.CayennePath;
 import org.apache.cayenne.map.Entity;
@@ -105,6 +107,16 @@ public class ExpressionFactory {
 
 	private static final int PARSE_BUFFER_MAX_SIZE = 4096;
 
+	/**
+	 * Default size of the parsed expression cache.
+	 *
+	 * @since 5.0
+	 */
+	public static final int PARSED_EXPRESSION_CACHE_SIZE_DEFAULT = 1000;
+
+	private static final ParsedExpressionCache parsedExpressionCache = new ParsedExpressionCache(
+			Integer.getInteger(Constants.PARSED_EXPRESSION_CACHE_SIZE_PROPERTY, PARSED_EXPRESSION_CACHE_SIZE_DEFAULT));
+
 	static {
 		// make sure all types are small integers, then we can use them as indexes in lookup array
 		int[] allTypes = new int[] { Expression.AND, Expression.OR, Expression.NOT, Expression.EQUAL_TO,
@@ -1427,11 +1439,18 @@ public class ExpressionFactory {
 	 * <p>
 	 * Binding of parameters by name (as opposed to binding by position) can be
 	 * achieved by chaining this call with {@link Expression#params(Map)}.
+	 * <p>
+	 * Parsed expressions are cached by expression string, so repeated calls with the same string only copy the cached
+	 * expression. See {@link #getParsedExpressionCache()}.
 	 * 
 	 * @since 4.0
 	 */
 	public static Expression exp(String expressionString, Object... parameters) {
-		Expression e = fromString(expressionString);
+		if (expressionString == null) {
+			throw new NullPointerException("Null expression string.");
+		}
+
+		Expression e = parsedExpressionCache.get(expressionString, ExpressionFactory::fromString);
 
 		if (parameters != null && parameters.length > 0) {
 			// apply parameters in-place... it is wasteful to clone the
@@ -1442,6 +1461,17 @@ public class ExpressionFactory {
 		return e;
 	}
 
+	/**
+	 * Returns a shared cache of parsed expressions used by {@link #exp(String, Object...)}. Can be used to check cache
+	 * statistics or to change its size. Initial size is taken from the
+	 * {@link Constants#PARSED_EXPRESSION_CACHE_SIZE_PROPERTY} system property.
+	 *
+	 * @since 5.0
+	 */
+	public static ParsedExpressionCache getParsedExpressionCache() {
+		return parsedExpressionCache;
+	}
+
 	/**
 	 * Wrap value into ASTScalar
 	 * @since 4.0
@@ -74,6 +74,11 @@ abstract class Evaluator {
         boolean eq(Object lhs, Object rhs) {
             return rhs != null && delegate.eq(lhs, rhs);
         }
+
+        @Override
+        Object prepareCompareRhs(Object rhs) {
+            return rhs != null ? delegate.prepareCompareRhs(rhs) : null;
+        }
     }
 
     static {
@@ -155,6 +160,11 @@ abstract class Evaluator {
                 return ((BigDecimal) lhs).compareTo(ConversionUtil.toBigDecimal(rhs));
             }
 
+            @Override
+            Object prepareCompareRhs(Object rhs) {
+                return ConversionUtil.toBigDecimal(rhs);
+            }
+
             @Override
             boolean eq(Object lhs, Object rhs) {
                 // BigDecimals must be compared using compareTo (see CAY-280 and BigDecimal.equals JavaDoc)
@@ -284,6 +294,11 @@ abstract class Evaluator {
                 return ((Comparable) lhs).compareTo(ConversionUtil.toComparable(rhs));
             }
 
+            @Override
+            Object prepareCompareRhs(Object rhs) {
+                return ConversionUtil.toComparable(rhs);
+            }
+
             @Override
             boolean eq(Object lhs, Object rhs) {
                 return lhs.equals(rhs);
@@ -356,4 +371,15 @@ abstract class Evaluator {
      * {@link Comparable#compareTo(Object)}.
      */
     abstract Integer compare(Object lhs, Object rhs);
+
+    /**
+     * Converts the "rhs" argument of {@link #compare(Object, Object)} upfront, so that a constant can be compared with
+     * many "lhs" values of the type handled by this evaluator without converting it every time. The result can be
+     * passed to "compare" in place of the original value.
+     *
+     * @since 5.0
+     */
+    Object prepareCompareRhs(Object rhs) {
+        return rhs;
+    }
 }
@@ -0,0 +1,570 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.exp.parser;
+
+import java.util.Collection;
+import java.util.Map;
+
+import org.apache.cayenne.Cayenne;
+import org.apache.cayenne.ObjectContext;
+import org.apache.cayenne.ObjectId;
+import org.apache.cayenne.Persistent;
+import org.apache.cayenne.PersistentObject;
+import org.apache.cayenne.exp.CompiledExpression;
+import org.apache.cayenne.exp.Expression;
+import org.apache.cayenne.exp.ExpressionException;
+import org.apache.cayenne.exp.path.CayennePath;
+import org.apache.cayenne.exp.path.CayennePathSegment;
+import org.apache.cayenne.map.EntityResolver;
+import org.apache.cayenne.reflect.AttributeProperty;
+import org.apache.cayenne.reflect.ClassDescriptor;
+import org.apache.cayenne.reflect.PropertyDescriptor;
+import org.apache.cayenne.util.ConversionUtil;
+import org.apache.cayenne.util.Util;
+
+/**
+ * Compiles expressions into {@link CompiledExpression} form. Logical operators, comparisons and object paths are
+ * turned into a tree of closures, with constants and enums resolved upfront and object properties read via
+ * {@link ClassDescriptor} accessors. Nodes that have no compiled form (functions, subqueries, DB paths, etc.) are
+ * evaluated by the interpreter, so the result is always the same as that of {@link Expression#evaluate(Object)}.
+ *
+ * @since 5.0
+ */
+public final class ExpressionCompiler {
+
+    // only ConditionNodes relying on the standard child evaluation can be compiled
+    private static final ClassValue<Boolean> STANDARD_CONDITIONS = new ClassValue<Boolean>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            for (Class<?> c = type; c != ConditionNode.class; c = c.getSuperclass()) {
+                try {
+                    c.getDeclaredMethod("evaluateNode", Object.class);
+                    return false;
+                } catch (NoSuchMethodException e) {
+                    // keep looking
+                }
+            }
+            return true;
+        }
+    };
+
+    private ExpressionCompiler() {
+    }
+
+    public static CompiledExpression compile(Expression expression) {
+        if (!(expression instanceof SimpleNode)) {
+            return expression::evaluate;
+        }
+
+        // compile a copy, so that the compiled form doesn't change with the original expression
+        SimpleNode root = (SimpleNode) expression.deepCopy();
+        return new Compiled(root, compileNode(root));
+    }
+
+    static Eval compileNode(SimpleNode node) {
+        if (node == null) {
+            return o -> null;
+        }
+
+        Class<?> type = node.getClass();
+        if (type == ASTScalar.class) {
+            Object value = ((ASTScalar) node).getValue();
+            return o -> value;
+        } else if (type == ASTEnum.class) {
+            return compileConstant(node);
+        } else if (type == ASTObjPath.class) {
+            return compilePath((ASTObjPath) node);
+        } else if (type == ASTAnd.class) {
+            return compileAnd(node);
+        } else if (type == ASTOr.class) {
+            return compileOr(node);
+        } else if (type == ASTNot.class) {
+            return compileNot(node);
+        } else if (node instanceof ConditionNode && STANDARD_CONDITIONS.get(type)) {
+            return compileCondition((ConditionNode) node);
+        }
+
+        return node::evaluate;
+    }
+
+    private static Eval[] compileChildren(SimpleNode node) {
+        int len = node.jjtGetNumChildren();
+        Eval[] children = new Eval[len];
+        for (int i = 0; i < len; i++) {
+            children[i] = compileNode((SimpleNode) node.jjtGetChild(i));
+        }
+        return children;
+    }
+
+    private static Eval compileConstant(SimpleNode node) {
+        Object value;
+        try {
+            value = node.evaluateNode(null);
+        } catch (Exception e) {
+            // let the interpreter report the error if the expression is ever evaluated
+            return node::evaluate;
+        }
+        return o -> value;
+    }
+
+    private static Eval compileAnd(SimpleNode node) {
+        Eval[] children = compileChildren(node);
+        if (children.length == 0) {
+            return o -> Boolean.FALSE;
+        }
+
+        // three-valued logic, same as ASTAnd
+        return o -> {
+            boolean unknown = false;
+            for (Eval child : children) {
+                Object value = child.evaluate(o);
+                if (value == null) {
+                    unknown = true;
+                } else if (!ConversionUtil.toBoolean(value)) {
+                    return Boolean.FALSE;
+                }
+            }
+            return unknown ? null : Boolean.TRUE;
+        };
+    }
+
+    private static Eval compileOr(SimpleNode node) {
+        Eval[] children = compileChildren(node);
+        if (children.length == 0) {
+            return o -> Boolean.FALSE;
+        }
+
+        // three-valued logic, same as ASTOr
+        return o -> {
+            boolean unknown = false;
+            for (Eval child : children) {
+                Object value = child.evaluate(o);
+                if (value == null) {
+                    unknown = true;
+                } else if (ConversionUtil.toBoolean(value)) {
+                    return Boolean.TRUE;
+                }
+            }
+            return unknown ? null : Boolean.FALSE;
+        };
+    }
+
+    private static Eval compileNot(SimpleNode node) {
+        if (node.jjtGetNumChildren() == 0) {
+            return o -> Boolean.FALSE;
+        }
+
+        Eval child = compileNode((SimpleNode) node.jjtGetChild(0));
+        return o -> {
+            Object value = child.evaluate(o);
+            if (value == null) {
+                return null;
+            }
+            return ConversionUtil.toBoolean(value) ? Boolean.FALSE : Boolean.TRUE;
+        };
+    }
+
+    private static Eval compileCondition(ConditionNode node) {
+        int requiredLen = node.getRequiredChildrenCount();
+        if (node.jjtGetNumChildren() != requiredLen) {
+            return o -> Boolean.FALSE;
+        }
+
+        if (requiredLen == 0) {
+            return o -> node.evaluateSubNode(null, null);
+        }
+
+        if (requiredLen == 2) {
+            Eval comparison = compileConstantComparison(node);
+            if (comparison != null) {
+                return comparison;
+            }
+        }
+
+        Eval[] children = compileChildren(node);
+
+        // same as ConditionNode.evaluateNode()
+        return o -> {
+            Object[] evaluatedChildren = new Object[children.length];
+            for (int i = 0; i < children.length; i++) {
+                evaluatedChildren[i] = children[i].evaluate(o);
+            }
+
+            Object firstChild = evaluatedChildren[0];
+            if (firstChild instanceof Map) {
+                firstChild = ((Map<?, ?>) firstChild).values();
+            }
+
+            if (firstChild instanceof Collection) {
+                for (Object c : (Collection<?>) firstChild) {
+                    if (node.evaluateSubNode(c, evaluatedChildren) == Boolean.TRUE) {
+                        return Boolean.TRUE;
+                    }
+                }
+                return Boolean.FALSE;
+            }
+
+            return node.evaluateSubNode(firstChild, evaluatedChildren);
+        };
+    }
+
+    /**
+     * Compiles a binary comparison with a constant right-hand side. Such comparisons are evaluated without allocating
+     * the array of child values, and the constant is converted once per type of the compared values.
+     */
+    private static Eval compileConstantComparison(ConditionNode node) {
+        SimpleNode rhsNode = (SimpleNode) node.jjtGetChild(1);
+        Class<?> type = node.getClass();
+
+        ConditionTest test;
+        if (type == ASTIn.class) {
+            if (rhsNode == null || rhsNode.getClass() != ASTList.class) {
+                return null;
+            }
+
+            test = inTest(((ASTList) rhsNode).values);
+        } else {
+            Object rhs;
+            if (rhsNode == null) {
+                rhs = null;
+            } else if (rhsNode.getClass() == ASTScalar.class) {
+                rhs = ((ASTScalar) rhsNode).getValue();
+            } else if (rhsNode.getClass() == ASTEnum.class) {
+                try {
+                    rhs = rhsNode.evaluateNode(null);
+                } catch (Exception e) {
+                    return null;
+                }
+            } else {
+                return null;
+            }
+
+            // "in" semantics of a collection operand is left to the interpreter
+            if (rhs instanceof Collection) {
+                return null;
+            }
+
+            ConstantOperand operand = new ConstantOperand(rhs);
+            if (type == ASTEqual.class) {
+                test = v -> operand.eq(v) ? Boolean.TRUE : Boolean.FALSE;
+            } else if (type == ASTNotEqual.class) {
+                test = v -> operand.eq(v) ? Boolean.FALSE : Boolean.TRUE;
+            } else if (type == ASTLess.class) {
+                test = v -> {
+                    Integer c = operand.compare(v);
+                    return c == null ? null : c < 0 ? Boolean.TRUE : Boolean.FALSE;
+                };
+            } else if (type == ASTLessOrEqual.class) {
+                test = v -> {
+                    Integer c = operand.compare(v);
+                    return c == null ? null : c <= 0 ? Boolean.TRUE : Boolean.FALSE;
+                };
+            } else if (type == ASTGreater.class) {
+                test = v -> {
+                    Integer c = operand.compare(v);
+                    return c == null ? null : c > 0 ? Boolean.TRUE : Boolean.FALSE;
+                };
+            } else if (type == ASTGreaterOrEqual.class) {
+                test = v -> {
+                    Integer c = operand.compare(v);
+                    return c == null ? null : c >= 0 ? Boolean.TRUE : Boolean.FALSE;
+                };
+            } else {
+                return null;
+            }
+        }
+
+        Eval lhs = compileNode((SimpleNode) node.jjtGetChild(0));
+
+        // same as ConditionNode.evaluateNode()
+        return o -> {
+            Object value = lhs.evaluate(o);
+            if (value instanceof Map) {
+                value = ((Map<?, ?>) value).values();
+            }
+
+            if (value instanceof Collection) {
+                for (Object c : (Collection<?>) value) {
+                    if (test.test(c) == Boolean.TRUE) {
+                        return Boolean.TRUE;
+                    }
+                }
+                return Boolean.FALSE;
+            }
+
+            return test.test(value);
+        };
+    }
+
+    // same as ASTIn.evaluateSubNode()
+    private static ConditionTest inTest(Object[] values) {
+        if (values == null) {
+            return v -> Boolean.FALSE;
+        }
+
+        // null elements never match
+        int len = 0;
+        Object[] nonNullValues = new Object[values.length];
+        for (Object value : values) {
+            if (value != null) {
+                nonNullValues[len++] = value;
+            }
+        }
+
+        ConstantOperand[] operands = new ConstantOperand[len];
+        for (int i = 0; i < len; i++) {
+            operands[i] = new ConstantOperand(nonNullValues[i]);
+        }
+
+        return v -> {
+            if (v == null) {
+                return Boolean.FALSE;
+            }
+
+            for (ConstantOperand operand : operands) {
+                if (operand.eq(v)) {
+                    return Boolean.TRUE;
+                }
+            }
+            return Boolean.FALSE;
+        };
+    }
+
+    private static Eval compilePath(ASTObjPath node) {
+        CayennePath path = node.getPath();
+        if (path == null || path.isEmpty() || !node.getPathAliases().isEmpty()) {
+            return node::evaluate;
+        }
+
+        for (CayennePathSegment segment : path) {
+            if (segment.isOuterJoin()) {
+                return node::evaluate;
+            }
+        }
+
+        return new PathReader(node, path);
+    }
+
+    /**
+     * A compiled expression node.
+     */
+    @FunctionalInterface
+    interface Eval {
+        Object evaluate(Object o) throws Exception;
+    }
+
+    /**
+     * A binary condition applied to a single value of the left-hand side.
+     */
+    @FunctionalInterface
+    interface ConditionTest {
+        Boolean test(Object value) throws Exception;
+    }
+
+    /**
+     * A constant right-hand side of a comparison, converted for the type of the last compared value.
+     */
+    static final class ConstantOperand {
+
+        private final Object value;
+
+        // benign race, the conversion is immutable
+        private Conversion conversion;
+
+        ConstantOperand(Object value) {
+            this.value = value;
+        }
+
+        // same as ASTEqual.evaluateImpl(), for a non-collection operand
+        boolean eq(Object lhs) {
+            if (lhs == null) {
+                return value == null;
+            }
+
+            return conversion(lhs).evaluator.eq(lhs, value);
+        }
+
+        Integer compare(Object lhs) {
+            if (lhs == null || value == null) {
+                return null;
+            }
+
+            Conversion conversion = conversion(lhs);
+            return conversion.evaluator.compare(lhs, conversion.compareValue());
+        }
+
+        private Conversion conversion(Object lhs) {
+            Conversion conversion = this.conversion;
+            if (conversion == null || conversion.type != lhs.getClass()) {
+                conversion = new Conversion(lhs.getClass(), Evaluator.evaluator(lhs), value);
+                this.conversion = conversion;
+            }
+            return conversion;
+        }
+    }
+
+    static final class Conversion {
+
+        final Class<?> type;
+        final Evaluator evaluator;
+        private final Object value;
+
+        // converted lazily, as the conversion may fail for the operands that are never compared
+        private volatile Object compareValue;
+        private volatile boolean converted;
+
+        Conversion(Class<?> type, Evaluator evaluator, Object value) {
+            this.type = type;
+            this.evaluator = evaluator;
+            this.value = value;
+        }
+
+        Object compareValue() {
+            if (!converted) {
+                compareValue = evaluator.prepareCompareRhs(value);
+                converted = true;
+            }
+            return compareValue;
+        }
+    }
+
+    static final class Compiled implements CompiledExpression {
+
+        private final SimpleNode expression;
+        private final Eval eval;
+
+        Compiled(SimpleNode expression, Eval eval) {
+            this.expression = expression;
+            this.eval = eval;
+        }
+
+        @Override
+        public Object evaluate(Object o) {
+            // same exception processing as in SimpleNode.evaluate()
+            try {
+                return eval.evaluate(o);
+            } catch (Throwable th) {
+                String string = expression.toString();
+                throw new ExpressionException("Error evaluating expression '%s'",
+                        string, Util.unwindException(th), string);
+            }
+        }
+
+        @Override
+        public String toString() {
+            return expression.toString();
+        }
+    }
+
+    /**
+     * Reads an object path, resolving each segment of persistent objects via their ClassDescriptor. Results are
+     * identical to {@link ASTObjPath} evaluation, so objects, which properties can't be resolved this way, are passed
+     * to the interpreter.
+     */
+    static final class PathReader implements Eval {
+
+        private final ASTObjPath node;
+        private final CayennePath path;
+        private final String[] names;
+        private final SegmentCache[] caches;
+
+        PathReader(ASTObjPath node, CayennePath path) {
+            this.node = node;
+            this.path = path;
+            this.names = new String[path.length()];
+            this.caches = new SegmentCache[names.length];
+
+            int i = 0;
+            for (CayennePathSegment segment : path) {
+                names[i++] = segment.value();
+            }
+        }
+
+        @Override
+        public Object evaluate(Object o) throws Exception {
+            if (!(o instanceof Persistent)) {
+                return node.evaluateNode(o);
+            }
+
+            Object current = o;
+            for (int i = 0; i < names.length; i++) {
+                if (!(current instanceof PersistentObject)) {
+                    return current instanceof Persistent
+                            ? ((Persistent) current).readNestedProperty(path.tail(i))
+                            : Cayenne.readNestedProperty(current, path.tail(i));
+                }
+
+                PersistentObject object = (PersistentObject) current;
+                PropertyDescriptor property = attribute(i, object);
+                if (property == null) {
+                    // relationships, or properties not known to the mapping
+                    current = object.readProperty(names[i]);
+                    if (current == null) {
+                        return object.readNestedProperty(path.tail(i));
+                    }
+                } else {
+                    // resolve HOLLOW objects, same as "readProperty" does
+                    object.getObjectContext().prepareForAccess(object, names[i], false);
+                    current = property.readProperty(object);
+                    if (current == null) {
+                        return null;
+                    }
+                }
+            }
+
+            return current;
+        }
+
+        private PropertyDescriptor attribute(int i, PersistentObject object) {
+            ObjectContext context = object.getObjectContext();
+            ObjectId id = object.getObjectId();
+            if (context == null || id == null) {
+                return null;
+            }
+
+            EntityResolver resolver = context.getEntityResolver();
+            String entityName = id.getEntityName();
+
+            SegmentCache cache = caches[i];
+            if (cache == null || cache.resolver != resolver || !cache.entityName.equals(entityName)) {
+                ClassDescriptor descriptor = resolver.getClassDescriptor(entityName);
+                PropertyDescriptor property = descriptor != null ? descriptor.getProperty(names[i]) : null;
+                cache = new SegmentCache(resolver, entityName, property instanceof AttributeProperty ? property : null);
+
+                // benign race, the cache is immutable
+                caches[i] = cache;
+            }
+
+            return cache.attribute;
+        }
+    }
+
+    static final class SegmentCache {
+
+        final EntityResolver resolver;
+        final String entityName;
+        final PropertyDescriptor attribute;
+
+        SegmentCache(EntityResolver resolver, String entityName, PropertyDescriptor attribute) {
+            this.resolver = resolver;
+            this.entityName = entityName;
+            this.attribute = attribute;
+        }
+    }
+}
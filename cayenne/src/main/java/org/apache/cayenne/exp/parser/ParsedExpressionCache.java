@@ -0,0 +1,161 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.exp.parser;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+import org.apache.cayenne.exp.Expression;
+import org.apache.cayenne.util.concurrentlinkedhashmap.ConcurrentLinkedHashMap;
+
+/**
+ * A bounded LRU cache of parsed expressions, keyed by expression string. Cached expressions serve as immutable
+ * templates that are never returned to the callers. Instead each lookup returns a fresh copy of the template, so the
+ * caller is free to bind parameters or otherwise modify the returned expression.
+ *
+ * @see org.apache.cayenne.exp.ExpressionFactory#exp(String, Object...)
+ * @since 5.0
+ */
+public class ParsedExpressionCache {
+
+    private final ConcurrentLinkedHashMap<String, SimpleNode> templates;
+    private final LongAdder hits;
+    private final LongAdder misses;
+    private volatile int maxSize;
+
+    /**
+     * Creates a cache of a given size. Zero size disables caching.
+     */
+    public ParsedExpressionCache(int maxSize) {
+        if (maxSize < 0) {
+            throw new IllegalArgumentException("Parsed expression cache size must not be negative: " + maxSize);
+        }
+
+        this.maxSize = maxSize;
+        this.hits = new LongAdder();
+        this.misses = new LongAdder();
+        this.templates = new ConcurrentLinkedHashMap.Builder<String, SimpleNode>()
+                .maximumWeightedCapacity(Math.max(maxSize, 1))
+                .build();
+    }
+
+    /**
+     * Returns a copy of a cached expression for the expression string, parsing and caching it with the provided
+     * parser on cache miss.
+     */
+    public Expression get(String expressionString, Function<String, Expression> parser) {
+        if (maxSize == 0) {
+            return parser.apply(expressionString);
+        }
+
+        SimpleNode template = templates.get(expressionString);
+        if (template != null) {
+            hits.increment();
+            return copy(template);
+        }
+
+        misses.increment();
+        Expression parsed = parser.apply(expressionString);
+        if (!(parsed instanceof SimpleNode)) {
+            return parsed;
+        }
+
+        // cache a private copy, as the parsed expression is returned to the caller
+        templates.put(expressionString, copy((SimpleNode) parsed));
+        return parsed;
+    }
+
+    /**
+     * Returns the max number of expressions stored in the cache.
+     */
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Changes the max number of expressions stored in the cache, evicting the least recently used expressions if
+     * needed. Zero size disables caching.
+     */
+    public void setMaxSize(int maxSize) {
+        if (maxSize < 0) {
+            throw new IllegalArgumentException("Parsed expression cache size must not be negative: " + maxSize);
+        }
+
+        this.maxSize = maxSize;
+        if (maxSize == 0) {
+            templates.clear();
+        } else {
+            templates.setCapacity(maxSize);
+        }
+    }
+
+    /**
+     * Returns the number of expressions currently in the cache.
+     */
+    public int size() {
+        return templates.size();
+    }
+
+    /**
+     * Returns the number of lookups that found a parsed expression in the cache.
+     */
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * Returns the number of lookups that required parsing an expression.
+     */
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    /**
+     * Removes all cached expressions and resets hit statistics.
+     */
+    public void clear() {
+        templates.clear();
+        hits.reset();
+        misses.reset();
+    }
+
+    // unlike Expression.deepCopy(), preserves the structure of the expression exactly as parsed. E.g. "deepCopy()"
+    // replaces empty IN lists with "false" and null scalars with null children
+    static SimpleNode copy(SimpleNode node) {
+        SimpleNode copy = (SimpleNode) node.shallowCopy();
+
+        if (node instanceof ASTList) {
+            // list values are stored outside of children
+            copy.setOperand(0, node.getOperand(0));
+            return copy;
+        }
+
+        int len = node.jjtGetNumChildren();
+        for (int i = 0; i < len; i++) {
+            Node child = node.jjtGetChild(i);
+            Node childCopy = child instanceof SimpleNode ? copy((SimpleNode) child) : child;
+            copy.jjtAddChild(childCopy, i);
+            if (childCopy != null) {
+                childCopy.jjtSetParent(copy);
+            }
+        }
+
+        return copy;
+    }
+}
@@ -49,6 +49,7 @@ import org.apache.cayenne.reflect.ClassDescriptorMap;
 import org.apache.cayenne.reflect.FaultFactory;
 import org.apache.cayenne.reflect.LifecycleCallbackRegistry;
 import org.apache.cayenne.reflect.SingletonFaultFactory;
+import org.apache.cayenne.reflect.generic.PersistentClassAccessorsRegistry;
 import org.apache.cayenne.reflect.generic.PersistentObjectDescriptorFactory;
 import org.apache.cayenne.reflect.generic.ValueComparisonStrategyFactory;
 import org.apache.cayenne.reflect.valueholder.ValueHolderDescriptorFactory;
@@ -507,7 +508,8 @@ public class EntityResolver implements MappingNamespace, Serializable {
 
                     // add factories in reverse of the desired chain order
                     classDescriptorMap.addFactory(new ValueHolderDescriptorFactory(classDescriptorMap));
-                    classDescriptorMap.addFactory(new PersistentObjectDescriptorFactory(classDescriptorMap, faultFactory, valueComparisonStrategyFactory));
+                    classDescriptorMap.addFactory(new PersistentObjectDescriptorFactory(classDescriptorMap, faultFactory,
+                            valueComparisonStrategyFactory, new PersistentClassAccessorsRegistry()));
 
                     // since ClassDescriptorMap is not synchronized, we need to prefill it with entity proxies here.
                     for (DataMap map : maps) {
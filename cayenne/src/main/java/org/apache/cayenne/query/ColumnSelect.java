@@ -33,6 +33,7 @@ import org.apache.cayenne.exp.property.NumericProperty;
 import org.apache.cayenne.exp.property.Property;
 import org.apache.cayenne.exp.property.PropertyFactory;
 import org.apache.cayenne.map.EntityResolver;
+import org.apache.cayenne.reflect.ConstructorMapper;
 
 /**
  * <p>A helper builder for queries selecting individual properties based on the root object.</p>
@@ -292,4 +293,26 @@ public class ColumnSelect<T> extends FluentSelect<T, ColumnSelect<T>> {
         getBaseMetaData().setResultMapper(mapper);
         return castSelf();
     }
+
+    /**
+     * Maps result of this query to objects of a given class, passing selected column values to the class constructor
+     * in the order of the columns. The class must have a single public constructor with the number of parameters
+     * matching the number of columns, e.g. it can be an immutable DTO or a record.
+     * <br/>
+     * When all the columns are scalar, result objects are created directly when reading the JDBC rows, without
+     * intermediate Object[] arrays.
+     * <br/>
+     * <b>Note:</b> this method could be combined with {@link #map(Function)}, result will be mapped by all functions
+     * in the call order.
+     * @param type class of the result objects
+     * @return this query with changed result type
+     * @param <E> new result type
+     *
+     * @see ConstructorMapper
+     * @since 5.0
+     */
+    public <E> ColumnSelect<E> mapConstructor(Class<E> type) {
+        getBaseMetaData().setRowMapper(new ConstructorMapper<>(type));
+        return castSelf();
+    }
 }
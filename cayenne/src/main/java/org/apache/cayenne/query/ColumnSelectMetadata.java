@@ -46,6 +46,7 @@ class ColumnSelectMetadata extends ObjectSelectMetadata {
 	private boolean isSingleResultSetMapping;
 	private boolean suppressingDistinct;
 	private Function<?, ?> resultMapper;
+	private Function<Object[], ?> rowMapper;
 
 	boolean resolve(Object root, EntityResolver resolver, ColumnSelect<?> query) {
 
@@ -149,4 +150,24 @@ class ColumnSelectMetadata extends ObjectSelectMetadata {
 	public Function<?, ?> getResultMapper() {
 		return resultMapper;
 	}
+
+	/**
+	 * @since 5.0
+	 */
+	void setRowMapper(Function<Object[], ?> rowMapper) {
+		if(this.rowMapper != null || this.resultMapper != null) {
+			// values are already converted by the previous mappers, so mapping rows in the reader is not possible
+			setResultMapper(rowMapper);
+		} else {
+			this.rowMapper = rowMapper;
+		}
+	}
+
+	/**
+	 * @since 5.0
+	 */
+	@Override
+	public Function<Object[], ?> getRowMapper() {
+		return rowMapper;
+	}
 }
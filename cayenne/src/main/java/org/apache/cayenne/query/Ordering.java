@@ -30,6 +30,7 @@ import java.util.List;
 
 import org.apache.cayenne.configuration.ConfigurationNodeVisitor;
 import org.apache.cayenne.configuration.EmptyConfigurationNodeVisitor;
+import org.apache.cayenne.exp.CompiledExpression;
 import org.apache.cayenne.exp.Expression;
 import org.apache.cayenne.exp.ExpressionException;
 import org.apache.cayenne.exp.parser.ASTDbPath;
@@ -64,16 +65,32 @@ public class Ordering implements Comparator<Object>, Serializable, XMLSerializab
 	 * @param objects elements to sort
 	 * @param orderings list of Orderings to be applied
 	 */
-	@SuppressWarnings("unchecked")
 	public static void orderList(List<?> objects, List<? extends Ordering> orderings) {
 		if(objects == null || orderings == null || orderings.isEmpty()) {
 			return;
 		}
-		Comparator<Object> comparator = orderings.get(0);
-		for(int i=1; i<orderings.size(); i++) {
-			comparator = comparator.thenComparing(orderings.get(i));
+		objects.sort(comparator(orderings));
+	}
+
+	/**
+	 * Returns a Comparator that applies a List of Orderings in their iteration order. Sort spec of each Ordering is
+	 * evaluated in its compiled form, that is created together with the comparator, so the later changes of the sort
+	 * specs don't affect the comparator.
+	 *
+	 * @param orderings a list of Orderings
+	 * @see Expression#compile()
+	 * @since 5.0
+	 */
+	public static Comparator<Object> comparator(List<? extends Ordering> orderings) {
+		if(orderings.isEmpty()) {
+			return (o1, o2) -> 0;
 		}
-		objects.sort(comparator);
+		Comparator<Object> comparator = null;
+		for(Ordering ordering : orderings) {
+			Comparator<Object> next = ordering.compiledComparator();
+			comparator = comparator != null ? comparator.thenComparing(next) : next;
+		}
+		return comparator;
 	}
 
 	/**
@@ -392,31 +409,17 @@ public class Ordering implements Comparator<Object>, Serializable, XMLSerializab
 	 */
 	@Override
 	public int compare(Object o1, Object o2) {
-		Expression exp = getSortSpec();
-		Object value1 = null;
-		Object value2 = null;
-		try {
-			value1 = exp.evaluate(o1);
-		} catch (ExpressionException e) {
-			if (pathExceptionSuppressed && e.getCause() instanceof org.apache.cayenne.reflect.UnresolvablePathException) {
-				// do nothing, we expect this
-			} else {
-				// re-throw
-				throw e;
-			}
-		}
+		CompiledExpression exp = getSortSpec()::evaluate;
+		return compareValues(evaluate(exp, o1), evaluate(exp, o2));
+	}
 
-		try {
-			value2 = exp.evaluate(o2);
-		} catch (ExpressionException e) {
-			if (pathExceptionSuppressed && e.getCause() instanceof org.apache.cayenne.reflect.UnresolvablePathException) {
-				// do nothing, we expect this
-			} else {
-				// rethrow
-				throw e;
-			}
-		}
+	// a comparator evaluating the compiled sort spec, that is compiled once for all the compared objects
+	private Comparator<Object> compiledComparator() {
+		CompiledExpression exp = getSortSpec().compile();
+		return (o1, o2) -> compareValues(evaluate(exp, o1), evaluate(exp, o2));
+	}
 
+	private int compareValues(Object value1, Object value2) {
 		if (value1 == null && value2 == null) {
 			return 0;
 		} else if (value1 == null) {
@@ -437,6 +440,20 @@ public class Ordering implements Comparator<Object>, Serializable, XMLSerializab
 		return (isAscending()) ? compareResult : -compareResult;
 	}
 
+	private Object evaluate(CompiledExpression exp, Object o) {
+		try {
+			return exp.evaluate(o);
+		} catch (ExpressionException e) {
+			if (pathExceptionSuppressed && e.getCause() instanceof org.apache.cayenne.reflect.UnresolvablePathException) {
+				// do nothing, we expect this
+				return null;
+			} else {
+				// re-throw
+				throw e;
+			}
+		}
+	}
+
 	/**
 	 * Encodes itself as a query ordering.
 	 * 
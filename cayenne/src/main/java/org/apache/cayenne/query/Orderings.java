@@ -22,6 +22,7 @@ package org.apache.cayenne.query;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Comparator;
 import java.util.List;
 
 /**
@@ -111,4 +112,13 @@ public class Orderings extends ArrayList<Ordering> {
 	 public <T> void orderList(List<T> list) {
 	 	Ordering.orderList(list, this);
 	 }
+
+	 /**
+	 * Returns a Comparator applying these Orderings, that can be reused for in-memory sorting.
+	 *
+	 * @since 5.0
+	 */
+	 public Comparator<Object> comparator() {
+	 	return Ordering.comparator(this);
+	 }
 }
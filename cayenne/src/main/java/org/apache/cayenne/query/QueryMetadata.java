@@ -264,4 +264,15 @@ public interface QueryMetadata {
     default Function<?, ?> getResultMapper() {
         return null;
     }
+
+    /**
+     * Returns a mapper of raw column values to a result object, that is applied by the row reader directly, before
+     * the {@link #getResultMapper() result mapper}. Row reader may pass the same array for each row, so the mapper
+     * must not keep a reference to it.
+     *
+     * @since 5.0
+     */
+    default Function<Object[], ?> getRowMapper() {
+        return null;
+    }
 }
@@ -33,6 +33,7 @@ import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.function.Function;
@@ -582,6 +583,26 @@ public class SelectById<T> extends IndirectQuery implements Select<T> {
 		return query;
 	}
 
+	/**
+	 * Returns ObjectIds of the objects matched by this query, or null if they can't be determined without running
+	 * the query.
+	 *
+	 * @since 5.0
+	 */
+	public Collection<ObjectId> getObjectIds(EntityResolver resolver) {
+		ObjEntity entity = root.resolve(resolver);
+		Collection<Map<String, ?>> idSnapshots = idSpec.getIdSnapshots(entity);
+		if(idSnapshots == null) {
+			return null;
+		}
+
+		List<ObjectId> ids = new ArrayList<>(idSnapshots.size());
+		for(Map<String, ?> idSnapshot : idSnapshots) {
+			ids.add(ObjectId.of(entity.getName(), idSnapshot));
+		}
+		return ids;
+	}
+
 	private static String resolveSinglePkName(ObjEntity entity) {
 		Collection<String> pkAttributes = entity.getPrimaryKeyNames();
 		if(pkAttributes.size() == 1) {
@@ -636,6 +657,13 @@ public class SelectById<T> extends IndirectQuery implements Select<T> {
 
 	protected interface IdSpec extends Serializable{
 		Expression getQualifier(ObjEntity entity);
+
+		/**
+		 * @since 5.0
+		 */
+		default Collection<Map<String, ?>> getIdSnapshots(ObjEntity entity) {
+			return null;
+		}
 	}
 
 	protected static class SingleScalarIdSpec implements IdSpec {
@@ -650,6 +678,11 @@ public class SelectById<T> extends IndirectQuery implements Select<T> {
 		public Expression getQualifier(ObjEntity entity) {
 			return matchDbExp(resolveSinglePkName(entity), id);
 		}
+
+		@Override
+		public Collection<Map<String, ?>> getIdSnapshots(ObjEntity entity) {
+			return Collections.singletonList(Collections.singletonMap(resolveSinglePkName(entity), id));
+		}
 	}
 
 	protected static class MultiScalarIdSpec implements IdSpec {
@@ -668,6 +701,12 @@ public class SelectById<T> extends IndirectQuery implements Select<T> {
 		public Expression getQualifier(ObjEntity entity) {
 			return inDbExp(resolveSinglePkName(entity), ids);
 		}
+
+		@Override
+		public Collection<Map<String, ?>> getIdSnapshots(ObjEntity entity) {
+			String pkName = resolveSinglePkName(entity);
+			return foldArguments(id -> Collections.singletonMap(pkName, id), ids);
+		}
 	}
 
 	protected static class SingleMapIdSpec implements IdSpec {
@@ -682,6 +721,11 @@ public class SelectById<T> extends IndirectQuery implements Select<T> {
 		public Expression getQualifier(ObjEntity entity) {
 			return matchAllDbExp(id, Expression.EQUAL_TO);
 		}
+
+		@Override
+		public Collection<Map<String, ?>> getIdSnapshots(ObjEntity entity) {
+			return Collections.singletonList(id);
+		}
 	}
 
 	protected static class MultiMapIdSpec implements IdSpec {
@@ -727,6 +771,11 @@ public class SelectById<T> extends IndirectQuery implements Select<T> {
 
 			return or(expressions);
 		}
+
+		@Override
+		public Collection<Map<String, ?>> getIdSnapshots(ObjEntity entity) {
+			return ids;
+		}
 	}
 
 	private static class ByEntityTypeResolver implements QueryRoot {
@@ -18,6 +18,9 @@
  ****************************************************************/
 package org.apache.cayenne.reflect;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 
@@ -25,7 +28,7 @@ import org.apache.cayenne.CayenneRuntimeException;
 import org.apache.cayenne.util.Util;
 
 /**
- * Defines a generic callback operation executed via reflection on a persistent object.
+ * Defines a generic callback operation executed via a method handle on a persistent object.
  * Note that the method must be declared in the class itself. Callback will not look up
  * the class hierarchy.
  * 
@@ -34,6 +37,7 @@ import org.apache.cayenne.util.Util;
 class CallbackOnEntity extends AbstractCallback {
 
     private final Method callbackMethod;
+    private final MethodHandle callbackHandle;
 
     CallbackOnEntity(Class<?> objectClass, String methodName) throws IllegalArgumentException {
         this(findMethod(objectClass, methodName));
@@ -51,13 +55,14 @@ class CallbackOnEntity extends AbstractCallback {
         if (!Util.isAccessible(callbackMethod)) {
             callbackMethod.setAccessible(true);
         }
+        this.callbackHandle = toHandle(method, null);
     }
 
     @Override
     public void performCallback(Object entity) {
         try {
-            callbackMethod.invoke(entity, (Object[]) null);
-        } catch (Exception e) {
+            callbackHandle.invokeExact(entity);
+        } catch (Throwable e) {
             throw new CayenneRuntimeException("Error invoking entity callback method "
                     + callbackMethod.getName(), e);
         }
@@ -71,6 +76,20 @@ class CallbackOnEntity extends AbstractCallback {
                 + callbackMethod.getName();
     }
 
+    // creates a handle of the (Object)void type, that can be called via "invokeExact" without creating argument
+    // arrays. For the listener methods, the handle is bound to the listener instance.
+    static MethodHandle toHandle(Method method, Object listener) throws IllegalArgumentException {
+        try {
+            MethodHandle handle = MethodHandles.lookup().unreflect(method);
+            if (listener != null) {
+                handle = handle.bindTo(listener);
+            }
+            return handle.asType(MethodType.methodType(void.class, Object.class));
+        } catch (IllegalAccessException e) {
+            throw new IllegalArgumentException("Callback method '" + method.getName() + "' is not accessible", e);
+        }
+    }
+
     static private boolean validateMethod(Method method) {
         int modifiers = method.getModifiers();
         // must be non-static, void, with no args
@@ -18,6 +18,7 @@
  ****************************************************************/
 package org.apache.cayenne.reflect;
 
+import java.lang.invoke.MethodHandle;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 
@@ -25,7 +26,7 @@ import org.apache.cayenne.CayenneRuntimeException;
 import org.apache.cayenne.util.Util;
 
 /**
- * Defines a generic callback operation executed via reflection on an arbitrary listener
+ * Defines a generic callback operation executed via a method handle on an arbitrary listener
  * object. Note that the method must be declared in the class itself. Callback will not
  * look up the class hierarchy.
  * 
@@ -35,6 +36,7 @@ class CallbackOnListener extends AbstractCallback {
 
     private Method callbackMethod;
     private Object listener;
+    private MethodHandle callbackHandle;
 
     CallbackOnListener(Object listener, String methodName)
             throws IllegalArgumentException {
@@ -50,6 +52,7 @@ class CallbackOnListener extends AbstractCallback {
 
         this.callbackMethod = findMethod(listener.getClass(), methodName, entityType);
         this.listener = listener;
+        this.callbackHandle = CallbackOnEntity.toHandle(callbackMethod, listener);
     }
 
     CallbackOnListener(Object listener, Method method, Class<?> entityType)
@@ -66,14 +69,15 @@ class CallbackOnListener extends AbstractCallback {
 
         this.callbackMethod = method;
         this.listener = listener;
+        this.callbackHandle = CallbackOnEntity.toHandle(callbackMethod, listener);
     }
 
     @Override
     public void performCallback(Object entity) {
         try {
-            callbackMethod.invoke(listener, entity);
+            callbackHandle.invokeExact(entity);
         }
-        catch (Exception e) {
+        catch (Throwable e) {
             throw new CayenneRuntimeException(
                     "Error invoking entity listener callback method "
                             + callbackMethod.getName(),
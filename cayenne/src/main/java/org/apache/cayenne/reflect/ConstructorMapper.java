@@ -0,0 +1,115 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.reflect;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.util.function.Function;
+
+import org.apache.cayenne.CayenneRuntimeException;
+
+/**
+ * Mapper of Object[] to a class with a constructor that takes all the values as arguments, in the array order.
+ * Such a class can be an immutable DTO or a record. Target class must have exactly one public constructor with the
+ * number of parameters equal to the length of the processed array. The constructor is bound once per array length,
+ * and is invoked via a {@link MethodHandle}, so no reflection happens per processed row.
+ * <br/>
+ * Unlike {@link PojoMapper}, this mapper doesn't keep a reference to the array passed to it, so a caller may reuse
+ * the same array to process multiple rows.
+ *
+ * @param <T> type of object to produce
+ * @see org.apache.cayenne.query.ColumnSelect#mapConstructor(Class)
+ * @since 5.0
+ */
+public class ConstructorMapper<T> implements Function<Object[], T> {
+
+    private static final MethodHandles.Lookup lookup = MethodHandles.lookup();
+
+    private final Class<T> type;
+    private volatile Binding binding;
+
+    public ConstructorMapper(Class<T> type) {
+        this.type = type;
+    }
+
+    public Class<T> getType() {
+        return type;
+    }
+
+    @Override
+    public T apply(Object[] data) {
+        Binding binding = bind(data.length);
+        try {
+            @SuppressWarnings("unchecked")
+            T object = (T) binding.constructor.invokeExact(data);
+            return object;
+        } catch (Throwable ex) {
+            throw new CayenneRuntimeException("Unable to instantiate %s.", ex, type.getName());
+        }
+    }
+
+    private Binding bind(int width) {
+        Binding binding = this.binding;
+        if (binding == null || binding.width != width) {
+            // a mapper is normally used with a single query, so this happens once
+            binding = new Binding(width, findConstructor(width));
+            this.binding = binding;
+        }
+        return binding;
+    }
+
+    private MethodHandle findConstructor(int width) {
+        Constructor<?> match = null;
+        for (Constructor<?> constructor : type.getConstructors()) {
+            if (constructor.getParameterCount() == width) {
+                if (match != null) {
+                    throw new CayenneRuntimeException("More than one public constructor of '%s' takes %d arguments."
+                            , type.getName(), width);
+                }
+                match = constructor;
+            }
+        }
+
+        if (match == null) {
+            throw new CayenneRuntimeException("No public constructor of '%s' takes %d arguments."
+                    , type.getName(), width);
+        }
+
+        try {
+            return lookup.unreflectConstructor(match)
+                    .asSpreader(Object[].class, width)
+                    .asType(MethodType.methodType(Object.class, Object[].class));
+        } catch (IllegalAccessException ex) {
+            throw new CayenneRuntimeException("Constructor of '%s' is inaccessible.", ex, type.getName());
+        }
+    }
+
+    private static class Binding {
+
+        final int width;
+        final MethodHandle constructor;
+
+        Binding(int width, MethodHandle constructor) {
+            this.width = width;
+            this.constructor = constructor;
+        }
+    }
+}
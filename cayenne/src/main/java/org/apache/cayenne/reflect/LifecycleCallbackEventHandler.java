@@ -25,7 +25,10 @@ import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * A runtime callback processor for a single kind of lifecycle events.
@@ -34,12 +37,19 @@ import java.util.Map;
  */
 class LifecycleCallbackEventHandler {
 
+    private static final AbstractCallback[] NO_CALLBACKS = new AbstractCallback[0];
+
     private Map<String, Collection<AbstractCallback>> listeners;
     private Collection<AbstractCallback> defaultListeners;
 
+    // all callbacks applicable to a given class in the invocation order, i.e. default callbacks first, followed by
+    // the callbacks of the class hierarchy starting from the most generic superclass
+    private ConcurrentMap<Class<?>, AbstractCallback[]> callbacksByClass;
+
     LifecycleCallbackEventHandler() {
         this.listeners = new HashMap<>();
         this.defaultListeners = new ArrayList<>();
+        this.callbacksByClass = new ConcurrentHashMap<>();
     }
 
     boolean isEmpty() {
@@ -52,6 +62,7 @@ class LifecycleCallbackEventHandler {
     void clear() {
         listeners.clear();
         defaultListeners.clear();
+        callbacksByClass.clear();
     }
     
     int defaultListenersSize() {
@@ -76,6 +87,7 @@ class LifecycleCallbackEventHandler {
      */
     private void addDefaultCallback(AbstractCallback callback) {
         defaultListeners.add(callback);
+        callbacksByClass.clear();
     }
 
     /**
@@ -122,6 +134,7 @@ class LifecycleCallbackEventHandler {
         Collection<AbstractCallback> entityListeners = listeners
                 .computeIfAbsent(entityClass.getName(), k -> new ArrayList<>(3));
         entityListeners.add(callback);
+        callbacksByClass.clear();
     }
 
     /**
@@ -134,47 +147,71 @@ class LifecycleCallbackEventHandler {
             return;
         }
 
-        // default listeners are invoked first
-        if (!defaultListeners.isEmpty()) {
-            for (AbstractCallback listener : defaultListeners) {
-                listener.performCallback(object);
-            }
+        for (AbstractCallback callback : getCallbacks(object.getClass())) {
+            callback.performCallback(object);
         }
-
-        // apply per-entity listeners
-        performCallbacks(object, object.getClass());
     }
 
     /**
      * Invokes callbacks for a collection of entity objects.
      */
     void performCallbacks(Collection<?> objects) {
+        if (isEmpty()) {
+            return;
+        }
+
+        // collections are usually made of objects of the same class, so reuse callbacks of the previous object
+        Class<?> lastClass = null;
+        AbstractCallback[] callbacks = NO_CALLBACKS;
+
         for (Object object : objects) {
-            performCallbacks((Persistent) object);
+            if (object == null) {
+                continue;
+            }
+
+            if (object.getClass() != lastClass) {
+                lastClass = object.getClass();
+                callbacks = getCallbacks(lastClass);
+            }
+
+            for (AbstractCallback callback : callbacks) {
+                callback.performCallback(object);
+            }
+        }
+    }
+
+    /**
+     * Returns callbacks applicable to the objects of a given class in the order they should be invoked. Returns an
+     * empty array if the class has no callbacks.
+     */
+    AbstractCallback[] getCallbacks(Class<?> objectClass) {
+        AbstractCallback[] callbacks = callbacksByClass.get(objectClass);
+        if (callbacks == null) {
+            List<AbstractCallback> list = new ArrayList<>(defaultListeners);
+            collectCallbacks(objectClass, list);
+            callbacks = list.isEmpty() ? NO_CALLBACKS : list.toArray(NO_CALLBACKS);
+            callbacksByClass.put(objectClass, callbacks);
         }
+
+        return callbacks;
     }
 
     /**
-     * Invokes callbacks for the class hierarchy, starting from the most generic
+     * Collects callbacks for the class hierarchy, starting from the most generic
      * superclass.
      */
-    private void performCallbacks(Persistent object, Class<?> callbackEntityClass) {
+    private void collectCallbacks(Class<?> callbackEntityClass, List<AbstractCallback> callbacks) {
 
         if (callbackEntityClass == null || Object.class.equals(callbackEntityClass)) {
             return;
         }
 
-        // recursively perform super callbacks first
-        performCallbacks(object, callbackEntityClass.getSuperclass());
-
-        // perform callbacks on provided class
-        String key = callbackEntityClass.getName();
-        Collection<AbstractCallback> entityListeners = listeners.get(key);
+        // recursively collect super callbacks first
+        collectCallbacks(callbackEntityClass.getSuperclass(), callbacks);
 
+        Collection<AbstractCallback> entityListeners = listeners.get(callbackEntityClass.getName());
         if (entityListeners != null) {
-            for (final AbstractCallback listener : entityListeners) {
-                listener.performCallback(object);
-            }
+            callbacks.addAll(entityListeners);
         }
     }
 
@@ -74,7 +74,7 @@ public abstract class PersistentDescriptorFactory implements ClassDescriptorFact
         descriptor.setEntity(entity);
         descriptor.setSuperclassDescriptor(superDescriptor);
         descriptor.setObjectClass(entityClass);
-        descriptor.setPersistenceStateAccessor(new BeanAccessor(entityClass, "persistenceState", Integer.TYPE));
+        descriptor.setPersistenceStateAccessor(createPersistenceStateAccessor(entityClass));
 
         // only include this entity attributes and skip superclasses...
         for (ObjAttribute attribute : descriptor.getEntity().getDeclaredAttributes()) {
@@ -352,6 +352,15 @@ public abstract class PersistentDescriptorFactory implements ClassDescriptorFact
         });
     }
 
+    /**
+     * Creates an accessor for the "persistenceState" property of the entity class.
+     *
+     * @since 5.0
+     */
+    protected Accessor createPersistenceStateAccessor(Class<?> entityClass) {
+        return new BeanAccessor(entityClass, "persistenceState", Integer.TYPE);
+    }
+
     /**
      * Creates an accessor for the property.
      */
@@ -0,0 +1,51 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.reflect.generic;
+
+/**
+ * Direct access to the declared properties of a {@link org.apache.cayenne.Persistent} class, indexed by ordinal.
+ * Implementations are generated by cgen together with the entity classes, and are registered as
+ * {@link java.util.ServiceLoader} providers in "META-INF/services". When present, they are used by
+ * {@link PersistentObjectDescriptorFactory} instead of the name-based {@code readPropertyDirectly(String)} and
+ * {@code writePropertyDirectly(String, Object)} lookups, and allow to build class descriptors without reflection.
+ *
+ * @since 5.0
+ */
+public interface PersistentClassAccessors {
+
+    /**
+     * Returns a fully qualified name of the entity class whose properties are accessed.
+     */
+    String getClassName();
+
+    /**
+     * Returns the names of the properties declared in the entity class. Property index in the array is its ordinal.
+     */
+    String[] getPropertyNames();
+
+    /**
+     * Returns a value of the property with a given ordinal without disturbing the object fault status.
+     */
+    Object readPropertyDirectly(Object object, int ordinal);
+
+    /**
+     * Sets a value of the property with a given ordinal without disturbing the object fault status.
+     */
+    void writePropertyDirectly(Object object, int ordinal, Object value);
+}
@@ -0,0 +1,138 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.reflect.generic;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A registry of {@link PersistentClassAccessors} discovered with {@link ServiceLoader}. Providers are looked up in
+ * the class loader of each entity class, and are loaded once per class loader.
+ *
+ * @since 5.0
+ */
+public class PersistentClassAccessorsRegistry {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PersistentClassAccessorsRegistry.class);
+
+    private final Map<ClassLoader, Map<String, PersistentClassAccessors>> accessorsByLoader;
+    private final Map<String, PersistentClassAccessors> explicitAccessors;
+
+    public PersistentClassAccessorsRegistry() {
+        this.accessorsByLoader = new ConcurrentHashMap<>();
+        this.explicitAccessors = new HashMap<>();
+    }
+
+    /**
+     * Creates a registry with a fixed set of accessors, that doesn't use {@link ServiceLoader}.
+     */
+    public PersistentClassAccessorsRegistry(Collection<? extends PersistentClassAccessors> accessors) {
+        this.accessorsByLoader = null;
+        this.explicitAccessors = index(accessors.iterator());
+    }
+
+    /**
+     * Returns accessors for a given entity class or null if no accessors were generated for this class. Accessors
+     * are also ignored if any subclass of the class they were generated with overrides
+     * {@code readPropertyDirectly(String)} or {@code writePropertyDirectly(String, Object)}, as they would bypass the
+     * overridden methods.
+     */
+    public PersistentClassAccessors getAccessors(Class<?> objectClass) {
+        PersistentClassAccessors accessors;
+        if (accessorsByLoader == null) {
+            accessors = explicitAccessors.get(objectClass.getName());
+        } else {
+            ClassLoader loader = objectClass.getClassLoader();
+            if (loader == null) {
+                return null;
+            }
+
+            accessors = accessorsByLoader.computeIfAbsent(loader, this::load).get(objectClass.getName());
+        }
+
+        if (accessors != null && overridesDirectAccess(objectClass, accessors)) {
+            LOGGER.debug("Class {} overrides direct property access, ignoring its generated accessors",
+                    objectClass.getName());
+            return null;
+        }
+
+        return accessors;
+    }
+
+    // generated accessors are nested in the generated class, so any class between it and the entity class is
+    // a user class
+    private static boolean overridesDirectAccess(Class<?> objectClass, PersistentClassAccessors accessors) {
+        Class<?> generatedClass = accessors.getClass().getEnclosingClass();
+        if (generatedClass == null || !generatedClass.isAssignableFrom(objectClass)) {
+            return false;
+        }
+
+        for (Class<?> c = objectClass; c != generatedClass; c = c.getSuperclass()) {
+            if (declaresMethod(c, "readPropertyDirectly", String.class)
+                    || declaresMethod(c, "writePropertyDirectly", String.class, Object.class)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private static boolean declaresMethod(Class<?> type, String name, Class<?>... parameterTypes) {
+        try {
+            type.getDeclaredMethod(name, parameterTypes);
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    private Map<String, PersistentClassAccessors> load(ClassLoader loader) {
+        return index(ServiceLoader.load(PersistentClassAccessors.class, loader).iterator());
+    }
+
+    private static Map<String, PersistentClassAccessors> index(Iterator<? extends PersistentClassAccessors> it) {
+        Map<String, PersistentClassAccessors> index = new HashMap<>();
+
+        while (true) {
+            PersistentClassAccessors accessors;
+            try {
+                if (!it.hasNext()) {
+                    break;
+                }
+                accessors = it.next();
+            } catch (ServiceConfigurationError e) {
+                // likely a stale entry left after an entity was removed from the model, reflection will be used
+                LOGGER.warn("Skipping invalid PersistentClassAccessors provider", e);
+                continue;
+            }
+
+            index.put(accessors.getClassName(), accessors);
+        }
+
+        return index;
+    }
+}
@@ -0,0 +1,85 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.reflect.generic;
+
+import org.apache.cayenne.Persistent;
+import org.apache.cayenne.reflect.Accessor;
+import org.apache.cayenne.reflect.PropertyException;
+
+/**
+ * An accessor that reads and writes a property via generated {@link PersistentClassAccessors}. Generated accessors
+ * are not serializable, so a deserialized copy of this accessor falls back to the name-based Persistent API.
+ *
+ * @since 5.0
+ */
+class PersistentClassOrdinalAccessor implements Accessor {
+
+    private final String propertyName;
+    private final int ordinal;
+    private final transient PersistentClassAccessors accessors;
+
+    PersistentClassOrdinalAccessor(String propertyName, int ordinal, PersistentClassAccessors accessors) {
+        this.propertyName = propertyName;
+        this.ordinal = ordinal;
+        this.accessors = accessors;
+    }
+
+    /**
+     * Returns an accessor for a given property, or null if the accessors don't know about this property.
+     */
+    static PersistentClassOrdinalAccessor forProperty(PersistentClassAccessors accessors, String propertyName) {
+        String[] names = accessors.getPropertyNames();
+        for (int i = 0; i < names.length; i++) {
+            if (propertyName.equals(names[i])) {
+                return new PersistentClassOrdinalAccessor(propertyName, i, accessors);
+            }
+        }
+
+        return null;
+    }
+
+    @Override
+    public String getName() {
+        return propertyName;
+    }
+
+    @Override
+    public Object getValue(Object object) throws PropertyException {
+        try {
+            return accessors != null
+                    ? accessors.readPropertyDirectly(object, ordinal)
+                    : ((Persistent) object).readPropertyDirectly(propertyName);
+        } catch (Throwable th) {
+            throw new PropertyException("Error reading Persistent property: " + propertyName, this, object, th);
+        }
+    }
+
+    @Override
+    public void setValue(Object object, Object newValue) throws PropertyException {
+        try {
+            if (accessors != null) {
+                accessors.writePropertyDirectly(object, ordinal, newValue);
+            } else {
+                ((Persistent) object).writePropertyDirectly(propertyName, newValue);
+            }
+        } catch (Throwable th) {
+            throw new PropertyException("Error writing Persistent property: " + propertyName, this, object, th);
+        }
+    }
+}
@@ -21,6 +21,7 @@ package org.apache.cayenne.reflect.generic;
 import java.io.Serializable;
 
 import org.apache.cayenne.Persistent;
+import org.apache.cayenne.reflect.Accessor;
 import org.apache.cayenne.reflect.PropertyDescriptor;
 import org.apache.cayenne.reflect.PropertyException;
 import org.apache.cayenne.reflect.PropertyVisitor;
@@ -32,6 +33,13 @@ import org.apache.cayenne.reflect.PropertyVisitor;
  */
 abstract class PersistentObjectBaseProperty implements PropertyDescriptor, Serializable {
 
+    /**
+     * An optional accessor for direct reads and writes, bypassing name-based Persistent methods.
+     *
+     * @since 5.0
+     */
+    protected Accessor directAccessor;
+
     public abstract String getName();
 
     public abstract void injectValueHolder(Object object) throws PropertyException;
@@ -66,6 +74,10 @@ abstract class PersistentObjectBaseProperty implements PropertyDescriptor, Seria
     }
 
     public Object readPropertyDirectly(Object object) throws PropertyException {
+        if (directAccessor != null) {
+            return directAccessor.getValue(object);
+        }
+
         try {
             return toPersistent(object).readPropertyDirectly(getName());
         }
@@ -80,6 +92,11 @@ abstract class PersistentObjectBaseProperty implements PropertyDescriptor, Seria
 
     public void writePropertyDirectly(Object object, Object oldValue, Object newValue)
             throws PropertyException {
+        if (directAccessor != null) {
+            directAccessor.setValue(object, newValue);
+            return;
+        }
+
         try {
             toPersistent(object).writePropertyDirectly(getName(), newValue);
         }
@@ -92,6 +109,13 @@ abstract class PersistentObjectBaseProperty implements PropertyDescriptor, Seria
         }
     }
 
+    /**
+     * @since 5.0
+     */
+    void setDirectAccessor(Accessor directAccessor) {
+        this.directAccessor = directAccessor;
+    }
+
     protected final Persistent toPersistent(Object object) throws PropertyException {
         try {
             return (Persistent) object;
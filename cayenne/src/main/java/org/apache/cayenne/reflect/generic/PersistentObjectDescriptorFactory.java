@@ -42,12 +42,31 @@ public class PersistentObjectDescriptorFactory extends PersistentDescriptorFacto
 
     protected ValueComparisonStrategyFactory valueComparisonStrategyFactory;
 
+    /**
+     * @since 5.0
+     */
+    protected PersistentClassAccessorsRegistry accessorsRegistry;
+
     public PersistentObjectDescriptorFactory(ClassDescriptorMap descriptorMap,
                                              FaultFactory faultFactory,
                                              ValueComparisonStrategyFactory valueComparisonStrategyFactory) {
+        this(descriptorMap, faultFactory, valueComparisonStrategyFactory, null);
+    }
+
+    /**
+     * Creates a factory that uses generated accessors from the registry for the classes that have them, and falls
+     * back to the name-based Persistent API for all others.
+     *
+     * @since 5.0
+     */
+    public PersistentObjectDescriptorFactory(ClassDescriptorMap descriptorMap,
+                                             FaultFactory faultFactory,
+                                             ValueComparisonStrategyFactory valueComparisonStrategyFactory,
+                                             PersistentClassAccessorsRegistry accessorsRegistry) {
         super(descriptorMap);
         this.faultFactory = faultFactory;
         this.valueComparisonStrategyFactory = valueComparisonStrategyFactory;
+        this.accessorsRegistry = accessorsRegistry;
     }
 
     @Override
@@ -65,6 +84,7 @@ public class PersistentObjectDescriptorFactory extends PersistentDescriptorFacto
             ObjAttribute attribute) {
         PersistentObjectAttributeProperty property
                 = new PersistentObjectAttributeProperty(attribute, valueComparisonStrategyFactory.getStrategy(attribute));
+        property.setDirectAccessor(createGeneratedAccessor(descriptor, attribute.getName()));
         descriptor.addDeclaredProperty(property);
     }
 
@@ -75,7 +95,7 @@ public class PersistentObjectDescriptorFactory extends PersistentDescriptorFacto
 
         ClassDescriptor targetDescriptor = descriptorMap.getDescriptor(relationship
                 .getTargetEntityName());
-        descriptor.addDeclaredProperty(new PersistentObjectToManyProperty(
+        addRelationshipProperty(descriptor, new PersistentObjectToManyProperty(
                 relationship,
                 targetDescriptor,
                 faultFactory.getListFault()));
@@ -89,7 +109,7 @@ public class PersistentObjectDescriptorFactory extends PersistentDescriptorFacto
                 .getTargetEntityName());
 
         Accessor mapKeyAccessor = createMapKeyAccessor(relationship, targetDescriptor);
-        descriptor.addDeclaredProperty(new PersistentObjectToManyMapProperty(
+        addRelationshipProperty(descriptor, new PersistentObjectToManyMapProperty(
                 relationship,
                 targetDescriptor,
                 faultFactory.getMapFault(mapKeyAccessor),
@@ -102,7 +122,7 @@ public class PersistentObjectDescriptorFactory extends PersistentDescriptorFacto
             ObjRelationship relationship) {
         ClassDescriptor targetDescriptor = descriptorMap.getDescriptor(relationship
                 .getTargetEntityName());
-        descriptor.addDeclaredProperty(new PersistentObjectToManyProperty(
+        addRelationshipProperty(descriptor, new PersistentObjectToManyProperty(
                 relationship,
                 targetDescriptor,
                 faultFactory.getSetFault()));
@@ -114,7 +134,7 @@ public class PersistentObjectDescriptorFactory extends PersistentDescriptorFacto
             ObjRelationship relationship) {
         ClassDescriptor targetDescriptor = descriptorMap.getDescriptor(relationship
                 .getTargetEntityName());
-        descriptor.addDeclaredProperty(new PersistentObjectToManyProperty(
+        addRelationshipProperty(descriptor, new PersistentObjectToManyProperty(
                 relationship,
                 targetDescriptor,
                 faultFactory.getCollectionFault()));
@@ -127,17 +147,69 @@ public class PersistentObjectDescriptorFactory extends PersistentDescriptorFacto
 
         ClassDescriptor targetDescriptor = descriptorMap.getDescriptor(relationship
                 .getTargetEntityName());
-        descriptor.addDeclaredProperty(new PersistentObjectToOneProperty(
+        addRelationshipProperty(descriptor, new PersistentObjectToOneProperty(
                 relationship,
                 targetDescriptor,
                 faultFactory.getToOneFault()));
     }
 
+    private void addRelationshipProperty(PersistentDescriptor descriptor, PersistentObjectBaseProperty property) {
+        property.setDirectAccessor(createGeneratedAccessor(descriptor, property.getName()));
+        descriptor.addDeclaredProperty(property);
+    }
+
     @Override
     protected Accessor createAccessor(
             PersistentDescriptor descriptor,
             String propertyName,
             Class<?> propertyType) throws PropertyException {
-        return new PersistentObjectAccessor(propertyName);
+        Accessor generated = createGeneratedAccessor(descriptor, propertyName);
+        return generated != null ? generated : new PersistentObjectAccessor(propertyName);
+    }
+
+    /**
+     * @since 5.0
+     */
+    @Override
+    protected Accessor createPersistenceStateAccessor(Class<?> entityClass) {
+        // classes with generated accessors are known to follow the Persistent contract, so can skip bean reflection
+        return accessorsRegistry != null && accessorsRegistry.getAccessors(entityClass) != null
+                ? PersistenceStateAccessor.INSTANCE
+                : super.createPersistenceStateAccessor(entityClass);
+    }
+
+    /**
+     * Returns an accessor for the property based on the generated {@link PersistentClassAccessors}, or null if there
+     * are no generated accessors for the property.
+     *
+     * @since 5.0
+     */
+    protected Accessor createGeneratedAccessor(PersistentDescriptor descriptor, String propertyName) {
+        if (accessorsRegistry == null) {
+            return null;
+        }
+
+        PersistentClassAccessors accessors = accessorsRegistry.getAccessors(descriptor.getObjectClass());
+        return accessors != null ? PersistentClassOrdinalAccessor.forProperty(accessors, propertyName) : null;
+    }
+
+    private static class PersistenceStateAccessor implements Accessor {
+
+        static final Accessor INSTANCE = new PersistenceStateAccessor();
+
+        @Override
+        public String getName() {
+            return "persistenceState";
+        }
+
+        @Override
+        public Object getValue(Object object) throws PropertyException {
+            return ((Persistent) object).getPersistenceState();
+        }
+
+        @Override
+        public void setValue(Object object, Object newValue) throws PropertyException {
+            ((Persistent) object).setPersistenceState((Integer) newValue);
+        }
     }
 }
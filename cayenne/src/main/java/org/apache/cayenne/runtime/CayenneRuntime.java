@@ -18,15 +18,20 @@
  ****************************************************************/
 package org.apache.cayenne.runtime;
 
+import org.apache.cayenne.AsyncObjectContext;
 import org.apache.cayenne.DataChannel;
 import org.apache.cayenne.ObjectContext;
+import org.apache.cayenne.access.BulkLoader;
 import org.apache.cayenne.access.DataDomain;
 import org.apache.cayenne.access.DataNode;
+import org.apache.cayenne.configuration.Constants;
 import org.apache.cayenne.configuration.ObjectContextFactory;
 import org.apache.cayenne.di.BeforeScopeEnd;
 import org.apache.cayenne.di.DIBootstrap;
 import org.apache.cayenne.di.Injector;
+import org.apache.cayenne.di.Key;
 import org.apache.cayenne.di.Module;
+import org.apache.cayenne.map.DbEntity;
 import org.apache.cayenne.tx.TransactionDescriptor;
 import org.apache.cayenne.tx.TransactionListener;
 import org.apache.cayenne.tx.TransactionManager;
@@ -35,6 +40,7 @@ import org.apache.cayenne.tx.TransactionalOperation;
 import javax.sql.DataSource;
 import java.util.Collection;
 import java.util.Objects;
+import java.util.concurrent.Executor;
 
 /**
  * Object representing Cayenne stack. Serves as an entry point to Cayenne for user applications and a factory of ObjectContexts.
@@ -313,4 +319,33 @@ public class CayenneRuntime {
         return injector.getInstance(ObjectContextFactory.class).createContext(parentChannel);
     }
 
+    /**
+     * Returns a new ObjectContext wrapped in an asynchronous facade, that runs context operations on the runtime
+     * async executor.
+     *
+     * @see org.apache.cayenne.configuration.runtime.CoreModuleExtender#asyncExecutor(Executor)
+     * @since 5.0
+     */
+    public AsyncObjectContext newAsyncContext() {
+        return new AsyncObjectContext(newContext(), injector.getInstance(Key.get(Executor.class, Constants.ASYNC_EXECUTOR)));
+    }
+
+    /**
+     * Returns a loader that inserts large amounts of rows into a given table directly via its DataNode, bypassing
+     * ObjectContext, object graph and snapshot cache.
+     *
+     * @param dbEntityName name of the DbEntity to insert rows into
+     * @since 5.0
+     */
+    public BulkLoader bulkLoader(String dbEntityName) {
+        DataDomain domain = getDataDomain();
+        DbEntity entity = domain.getEntityResolver().getDbEntity(dbEntityName);
+        if (entity == null) {
+            throw new IllegalArgumentException("Unknown DbEntity name: " + dbEntityName);
+        }
+
+        DataNode node = domain.lookupDataNode(entity.getDataMap());
+        return new BulkLoader(node, entity, injector.getInstance(TransactionManager.class));
+    }
+
 }
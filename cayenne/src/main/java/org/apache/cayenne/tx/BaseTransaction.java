@@ -22,11 +22,14 @@ package org.apache.cayenne.tx;
 import javax.sql.DataSource;
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.LinkedHashSet;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
 
 import org.apache.cayenne.CayenneRuntimeException;
 
@@ -56,6 +59,12 @@ public abstract class BaseTransaction implements Transaction {
     protected int defaultIsolationLevel = -1;
     protected TransactionDescriptor descriptor;
 
+    // non-null if the transaction is shared between threads, a lock per connection name
+    private volatile Map<String, ReentrantLock> sharedLocks;
+
+    // connections switched to read-only mode, that must be switched back before they are closed
+    private Collection<Connection> readOnlyConnections;
+
     static String decodeStatus(int status) {
         switch (status) {
             case STATUS_ACTIVE:
@@ -110,8 +119,9 @@ public abstract class BaseTransaction implements Transaction {
         return status == STATUS_MARKED_ROLLEDBACK;
     }
 
+    // synchronized, as the listeners may be added from multiple threads sharing the transaction
     @Override
-    public void addListener(TransactionListener listener) {
+    public synchronized void addListener(TransactionListener listener) {
         if (listeners == null) {
             listeners = new LinkedHashSet<>();
         }
@@ -156,6 +166,12 @@ public abstract class BaseTransaction implements Transaction {
         status = BaseTransaction.STATUS_COMMITTED;
 
         close();
+
+        if (listeners != null) {
+            for (TransactionListener listener : listeners) {
+                listener.didCommit(this);
+            }
+        }
     }
 
     protected abstract void processCommit();
@@ -201,6 +217,33 @@ public abstract class BaseTransaction implements Transaction {
     @Override
     public Connection getOrCreateConnection(String connectionName, DataSource dataSource) throws SQLException {
 
+        Map<String, ReentrantLock> locks = this.sharedLocks;
+        if (locks == null) {
+            // wrap transaction-attached connections in a decorator that prevents them from being closed by callers, as
+            // transaction should take care of them on commit or rollback.
+            return new TransactionConnectionDecorator(attachConnection(connectionName, dataSource));
+        }
+
+        // a shared transaction gives out each of its connections to one thread at a time. The lock is released when
+        // the caller closes the connection.
+        ReentrantLock lock = locks.computeIfAbsent(connectionName, n -> new ReentrantLock());
+        lock.lock();
+        try {
+            Connection c;
+
+            // connections of different names may be attached by multiple threads at once
+            synchronized (this) {
+                c = attachConnection(connectionName, dataSource);
+            }
+
+            return new SharedConnectionDecorator(c, lock);
+        } catch (Exception e) {
+            lock.unlock();
+            throw e;
+        }
+    }
+
+    private Connection attachConnection(String connectionName, DataSource dataSource) throws SQLException {
         Connection c = getExistingConnection(connectionName);
 
         if (c == null || c.isClosed()) {
@@ -209,12 +252,63 @@ public abstract class BaseTransaction implements Transaction {
             } else {
                 c = dataSource.getConnection();
             }
+
+            // a transaction started by a task of a read-only TransactionContext must not write anything
+            TransactionContext context = TransactionContext.getThreadContext();
+            if (context != null && context.isReadOnly()) {
+                c.setReadOnly(true);
+
+                if (readOnlyConnections == null) {
+                    readOnlyConnections = new ArrayList<>(2);
+                }
+                readOnlyConnections.add(c);
+            }
+
             addConnection(connectionName, c);
         }
 
-        // wrap transaction-attached connections in a decorator that prevents them from being closed by callers, as
-        // transaction should take care of them on commit or rollback.
-        return new TransactionConnectionDecorator(c);
+        return c;
+    }
+
+    /**
+     * Makes this transaction safe to be used from multiple threads, as is needed when it is propagated to other
+     * threads via {@link TransactionContext}. After this call, each connection obtained from the transaction is
+     * owned by a single thread until the connection is closed.
+     *
+     * @since 5.0
+     */
+    void share() {
+        if (sharedLocks == null) {
+            synchronized (this) {
+                if (sharedLocks == null) {
+                    sharedLocks = new ConcurrentHashMap<>();
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns a connection that stays usable by the current thread until it is closed, regardless of whether the
+     * original connection is closed earlier. This is needed for the connections of the transactions shared between
+     * threads, that are owned by one thread at a time, and are released to other threads on close. Used by the
+     * result iterators that keep reading from the connection after the query returns. Such connections must be
+     * closed by the same thread that retained them. Other connections are returned unchanged.
+     *
+     * @since 5.0
+     */
+    public static Connection retainConnection(Connection connection) {
+        return connection instanceof SharedConnectionDecorator
+                ? ((SharedConnectionDecorator) connection).retain()
+                : connection;
+    }
+
+    /**
+     * Returns true if this transaction can be used from multiple threads.
+     *
+     * @since 5.0
+     */
+    public boolean isShared() {
+        return sharedLocks != null;
     }
 
     protected Connection getExistingConnection(String name) {
@@ -283,6 +377,18 @@ public abstract class BaseTransaction implements Transaction {
      * Closes all connections associated with transaction.
      */
     protected void close() {
+        if (readOnlyConnections != null) {
+            // reset "read-only" flag before returning the connections to the pool
+            for (Connection c : readOnlyConnections) {
+                try {
+                    c.setReadOnly(false);
+                } catch (SQLException ignore) {
+                    // the connection is being closed anyway...
+                }
+            }
+            readOnlyConnections = null;
+        }
+
         if (connections == null || connections.isEmpty()) {
             return;
         }
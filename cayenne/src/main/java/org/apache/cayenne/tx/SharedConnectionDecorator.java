@@ -0,0 +1,78 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.tx;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * A wrapper of a JDBC connection attached to a transaction shared between threads. The calling thread holds the
+ * lock of the connection while the wrapper is open, and "close" releases the lock instead of closing the connection.
+ * The lock is reentrant, so the thread can open more wrappers of the same connection, e.g. to keep reading a
+ * ResultSet after the wrapper used to run the query is closed.
+ *
+ * @since 5.0
+ */
+class SharedConnectionDecorator extends TransactionConnectionDecorator {
+
+    private Lock lock;
+
+    SharedConnectionDecorator(Connection connection, Lock lock) {
+        super(connection);
+        this.lock = lock;
+    }
+
+    /**
+     * Returns another wrapper of the same connection, that keeps the lock held by the current thread until it is
+     * closed.
+     */
+    SharedConnectionDecorator retain() {
+        if (lock == null) {
+            throw new IllegalStateException("Connection is closed");
+        }
+
+        lock.lock();
+        return new SharedConnectionDecorator(connection, lock);
+    }
+
+    @Override
+    public void close() throws SQLException {
+        release();
+    }
+
+    @Override
+    public void abort(Executor executor) throws SQLException {
+        release();
+    }
+
+    @Override
+    public boolean isClosed() throws SQLException {
+        return lock == null || super.isClosed();
+    }
+
+    // connections are used by one thread, so there's no need to synchronize
+    private void release() {
+        if (lock != null) {
+            lock.unlock();
+            lock = null;
+        }
+    }
+}
@@ -0,0 +1,185 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.tx;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+/**
+ * A handle that carries the transaction of one thread over to the tasks running in other threads, e.g. to run
+ * parallel queries within a single logical transaction. Transactions are bound to the threads via thread-locals and
+ * are not visible to the threads started by executors, so the handle must be captured in the originating thread and
+ * passed to the tasks explicitly:
+ *
+ * <pre>
+ * runtime.performInTransaction(() -&gt; {
+ *     TransactionContext tx = TransactionContext.capture();
+ *     CompletableFuture&lt;List&lt;Artist&gt;&gt; artists = CompletableFuture.supplyAsync(
+ *             tx.wrap(() -&gt; ObjectSelect.query(Artist.class).select(runtime.newContext())), executor);
+ *     ...
+ *     return artists.join();
+ * });
+ * </pre>
+ * <p>
+ * The tasks may either join the transaction or run in a read-only mode. Joining tasks use the transaction
+ * connections, so they see the uncommitted changes and their own changes are committed or rolled back together
+ * with the transaction. As a JDBC connection can not be used by multiple threads at once, a joined transaction
+ * gives out its connections to one thread at a time, each thread owning a connection until it closes it. So the
+ * queries of the joined tasks are serialized, while the rest of their work runs in parallel. Read-only tasks don't
+ * participate in the transaction at all. Their queries run in parallel on the separate connections marked as
+ * read-only, seeing only the committed data. This includes the transactions started by the tasks themselves, e.g. the
+ * ones wrapping the ObjectContext queries.
+ * <p>
+ * The originating thread must wait for the tasks to finish before the transaction ends.
+ *
+ * @since 5.0
+ */
+public final class TransactionContext {
+
+    private static final ThreadLocal<TransactionContext> CURRENT_CONTEXT = new ThreadLocal<>();
+
+    private final Transaction transaction;
+    private final boolean readOnly;
+
+    private TransactionContext(Transaction transaction, boolean readOnly) {
+        this.transaction = transaction;
+        this.readOnly = readOnly;
+    }
+
+    /**
+     * Captures the transaction of the current thread, so that it can be joined by the tasks running in other threads.
+     * If there's no current transaction, the tasks run without a transaction.
+     */
+    public static TransactionContext capture() {
+        Transaction transaction = BaseTransaction.getThreadTransaction();
+        if (transaction instanceof BaseTransaction) {
+            ((BaseTransaction) transaction).share();
+        }
+
+        return new TransactionContext(transaction, false);
+    }
+
+    /**
+     * Returns a handle for the read-only tasks, that don't participate in any transaction and read committed data
+     * over their own connections.
+     */
+    public static TransactionContext readOnlyContext() {
+        return new TransactionContext(null, true);
+    }
+
+    /**
+     * Returns a TransactionContext bound to the current thread, or null if the thread is not running a task of any
+     * TransactionContext.
+     */
+    public static TransactionContext getThreadContext() {
+        return CURRENT_CONTEXT.get();
+    }
+
+    /**
+     * Returns the transaction joined by the tasks, or null if the tasks run without a transaction.
+     */
+    public Transaction getTransaction() {
+        return transaction;
+    }
+
+    public boolean isReadOnly() {
+        return readOnly;
+    }
+
+    /**
+     * Returns a connection for a DataNode running a query in the current thread. It is either a connection of the
+     * joined transaction or a new read-only connection.
+     *
+     * @param connectionName a symbolic name of the connection within the transaction.
+     * @param dataSource     DataSource that provides new connections.
+     */
+    public Connection getConnection(String connectionName, DataSource dataSource) throws SQLException {
+        if (transaction != null) {
+            return transaction.getOrCreateConnection(connectionName, dataSource);
+        }
+
+        Connection connection = dataSource.getConnection();
+        if (readOnly) {
+            connection.setReadOnly(true);
+            return new ReadOnlyConnectionDecorator(connection);
+        }
+
+        return connection;
+    }
+
+    /**
+     * Runs an operation in the current thread with this context bound to the thread, restoring the previous thread
+     * state after the operation.
+     */
+    public <T> T perform(TransactionalOperation<T> op) {
+        Transaction previousTransaction = BaseTransaction.getThreadTransaction();
+        TransactionContext previousContext = CURRENT_CONTEXT.get();
+
+        BaseTransaction.bindThreadTransaction(transaction);
+        CURRENT_CONTEXT.set(this);
+        try {
+            return op.perform();
+        } finally {
+            BaseTransaction.bindThreadTransaction(previousTransaction);
+            CURRENT_CONTEXT.set(previousContext);
+        }
+    }
+
+    /**
+     * Wraps a task, so that it is run within this context in whatever thread it is executed.
+     */
+    public Runnable wrap(Runnable task) {
+        return () -> perform(() -> {
+            task.run();
+            return null;
+        });
+    }
+
+    /**
+     * Wraps a task, so that it is run within this context in whatever thread it is executed.
+     */
+    public <T> Supplier<T> wrap(Supplier<T> task) {
+        return () -> perform(task::get);
+    }
+
+    // resets "read-only" flag of a connection before returning it to the pool
+    private static class ReadOnlyConnectionDecorator extends TransactionConnectionDecorator {
+
+        ReadOnlyConnectionDecorator(Connection connection) {
+            super(connection);
+        }
+
+        @Override
+        public void close() throws SQLException {
+            try {
+                connection.setReadOnly(false);
+            } finally {
+                connection.close();
+            }
+        }
+
+        @Override
+        public void abort(Executor executor) throws SQLException {
+            connection.abort(executor);
+        }
+    }
+}
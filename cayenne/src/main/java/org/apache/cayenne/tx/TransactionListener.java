@@ -49,4 +49,15 @@ public interface TransactionListener {
     default Connection decorateConnection(Transaction tx, Connection connection){
         return connection;
     }
+
+    /**
+     * Called after the transaction is committed and its connections are released, when the changes made in the
+     * transaction are visible to other transactions. The default implementation does nothing.
+     *
+     * @param tx committed transaction
+     *
+     * @since 5.0
+     */
+    default void didCommit(Transaction tx) {
+    }
 }
@@ -29,12 +29,14 @@ import java.util.AbstractMap;
 import java.util.AbstractSet;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.ConcurrentModificationException;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Map that transparently stores values as references and resolves them as needed.
@@ -45,6 +47,12 @@ import java.util.Set;
  * <p>
  * This map doesn't guarantee that value will be there even right after put(), as GC can remove it at any time.
  * <p>
+ * This map doesn't support null keys.
+ * <p>
+ * Reads are safe to perform concurrently with each other and with a single writer. Concurrent writes still
+ * require external synchronization. This allows ObjectStore to read its object map without locking. Iteration over
+ * the entry set fails fast on modification, same as for HashMap.
+ * <p>
  * This implementation supports proper serialization.
  * <p>
  *
@@ -61,7 +69,8 @@ abstract class ReferenceMap<K, V, R extends Reference<V>> extends AbstractMap<K,
 
     /*
      * Implementation notes:
-     *  - internally data stored in HashMap thus this class and all implementations are not thread safe;
+     *  - internally data stored in ConcurrentHashMap, so that readers never see a corrupted map, though this class
+     *  and all implementations are not thread safe for compound operations;
      *  - to track references that were cleared ReferenceQueue is used;
      *  - this map is abstract, all that required for the concrete implementation is
      *  to define newReference(Object) method;
@@ -73,7 +82,7 @@ abstract class ReferenceMap<K, V, R extends Reference<V>> extends AbstractMap<K,
     /**
      * This is a main data storage used for most operations
      */
-    protected transient HashMap<K, R> map;
+    protected transient ConcurrentHashMap<K, R> map;
 
     protected transient ReferenceQueue<V> referenceQueue;
 
@@ -82,13 +91,19 @@ abstract class ReferenceMap<K, V, R extends Reference<V>> extends AbstractMap<K,
      */
     protected transient Set<Entry<K, V>> entrySet;
 
+    /**
+     * A count of structural modifications, used by the entry iterators to fail fast, same as in HashMap. The internal
+     * map itself never fails concurrent iterators.
+     */
+    protected transient int modCount;
+
     public ReferenceMap() {
-        map = new HashMap<>();
+        map = new ConcurrentHashMap<>();
         referenceQueue = new ReferenceQueue<>();
     }
 
     public ReferenceMap(int initialCapacity) {
-        map = new HashMap<>(initialCapacity);
+        map = new ConcurrentHashMap<>(initialCapacity);
         referenceQueue = new ReferenceQueue<>();
     }
 
@@ -111,6 +126,10 @@ abstract class ReferenceMap<K, V, R extends Reference<V>> extends AbstractMap<K,
 
     @Override
     public boolean containsKey(Object key) {
+        if(key == null) {
+            // internal map doesn't support null keys
+            return false;
+        }
         checkReferenceQueue();
         return map.containsKey(key);
     }
@@ -135,6 +154,9 @@ abstract class ReferenceMap<K, V, R extends Reference<V>> extends AbstractMap<K,
 
     @Override
     public V get(Object key) {
+        if(key == null) {
+            return null;
+        }
         checkReferenceQueue();
         R ref = map.get(key);
         if(ref == null) {
@@ -145,6 +167,9 @@ abstract class ReferenceMap<K, V, R extends Reference<V>> extends AbstractMap<K,
 
     @Override
     public V put(K key, V value) {
+        if(key == null) {
+            throw new NullPointerException("ReferenceMap can't contain null keys");
+        }
         if(value == null) {
             throw new NullPointerException("ReferenceMap can't contain null values");
         }
@@ -152,6 +177,7 @@ abstract class ReferenceMap<K, V, R extends Reference<V>> extends AbstractMap<K,
         R refValue = newReference(value);
         R oldValue = map.put(key, refValue);
         if(oldValue == null) {
+            modCount++;
             return null;
         }
         return oldValue.get();
@@ -159,11 +185,15 @@ abstract class ReferenceMap<K, V, R extends Reference<V>> extends AbstractMap<K,
 
     @Override
     public V remove(Object key) {
+        if(key == null) {
+            return null;
+        }
         checkReferenceQueue();
         R oldValue = map.remove(key);
         if(oldValue == null) {
             return null;
         }
+        modCount++;
         return oldValue.get();
     }
 
@@ -171,16 +201,22 @@ abstract class ReferenceMap<K, V, R extends Reference<V>> extends AbstractMap<K,
     public void putAll(Map<? extends K, ? extends V> m) {
         checkReferenceQueue();
         for(Map.Entry<? extends K, ? extends V> entry : m.entrySet()) {
+            if(entry.getKey() == null) {
+                throw new NullPointerException("ReferenceMap can't contain null keys");
+            }
             if(entry.getValue() == null) {
                 throw new NullPointerException("ReferenceMap can't contain null values");
             }
             R value = newReference(entry.getValue());
-            map.put(entry.getKey(), value);
+            if(map.put(entry.getKey(), value) == null) {
+                modCount++;
+            }
         }
     }
 
     @Override
     public void clear() {
+        modCount++;
         map.clear();
         resetReferenceQueue();
     }
@@ -238,16 +274,12 @@ abstract class ReferenceMap<K, V, R extends Reference<V>> extends AbstractMap<K,
             return;
         }
 
-        Collection<K> keysToRemove = new ArrayList<>(valuesToRemove.size());
+        // conditional removal, as this can be called by a reader concurrently with a writer replacing the value
         for(Map.Entry<K, R> entry : map.entrySet()) {
-            if(valuesToRemove.contains(entry.getValue())) {
-                keysToRemove.add(entry.getKey());
+            if(valuesToRemove.contains(entry.getValue()) && map.remove(entry.getKey(), entry.getValue())) {
+                modCount++;
             }
         }
-
-        for(K keyToRemove : keysToRemove) {
-            map.remove(keyToRemove);
-        }
     }
 
     private void resetReferenceQueue() {
@@ -282,7 +314,7 @@ abstract class ReferenceMap<K, V, R extends Reference<V>> extends AbstractMap<K,
     private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
         @SuppressWarnings("unchecked")
         Map<K, V> replacement = (Map<K, V>) in.readObject();
-        map = new HashMap<>(replacement.size());
+        map = new ConcurrentHashMap<>(replacement.size());
         referenceQueue = new ReferenceQueue<>();
         putAll(replacement);
     }
@@ -313,7 +345,10 @@ abstract class ReferenceMap<K, V, R extends Reference<V>> extends AbstractMap<K,
 
         Entry<K, V> next;
 
+        int expectedModCount;
+
         ReferenceEntryIterator() {
+            expectedModCount = modCount;
             internalIterator = map.entrySet().iterator();
             tryAdvance();
         }
@@ -325,6 +360,9 @@ abstract class ReferenceMap<K, V, R extends Reference<V>> extends AbstractMap<K,
 
         @Override
         public Entry<K, V> next() {
+            if(modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
             if(!hasNext()) {
                 throw new NoSuchElementException();
             }
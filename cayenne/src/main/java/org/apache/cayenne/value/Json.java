@@ -20,13 +20,15 @@
 package org.apache.cayenne.value;
 
 import java.io.Serializable;
-import java.util.Objects;
 
 import org.apache.cayenne.value.json.JsonUtils;
 import org.apache.cayenne.value.json.MalformedJsonException;
 
 /**
- * A Cayenne-supported values object that holds Json string.
+ * A Cayenne-supported values object that holds Json string. Json values are compared semantically, ignoring
+ * whitespace and object keys order. To make repeated comparisons (e.g. in commit diffs) cheap, a canonical form of the
+ * document is calculated once on the first call to {@link #equals(Object)} or {@link #hashCode()} and is cached. Values
+ * that can't be parsed (e.g. read from a DB column holding malformed JSON) are compared as plain strings.
  *
  * @since 4.2
  */
@@ -35,6 +37,10 @@ public class Json implements Serializable {
     private static final long serialVersionUID = 7594825997288498022L;
     private final String json;
 
+    // lazily calculated, as many values are never compared
+    private transient volatile String canonicalJson;
+    private transient volatile boolean malformed;
+
     /**
      *
      * @param json json string representation
@@ -51,17 +57,58 @@ public class Json implements Serializable {
         return json;
     }
 
+    /**
+     * Returns a canonical form of this JSON document, with no whitespace and with object keys sorted.
+     *
+     * @see JsonUtils#canonicalize(String)
+     * @since 5.0
+     */
+    public String getCanonicalJson() {
+        String canonical = canonicalJson;
+        if (canonical == null) {
+            // benign race, the result is always the same
+            canonicalJson = canonical = JsonUtils.canonicalize(json);
+        }
+        return canonical;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         Json other = (Json) o;
-        return JsonUtils.compare(json, other.json);
+        if (json.equals(other.json)) {
+            return true;
+        }
+
+        String canonical = canonicalJsonOrNull();
+        String otherCanonical = other.canonicalJsonOrNull();
+        if (canonical == null || otherCanonical == null) {
+            return false;
+        }
+
+        // String caches its hash, so this check is O(1) after the first call
+        return canonical.hashCode() == otherCanonical.hashCode() && canonical.equals(otherCanonical);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(json);
+        String canonical = canonicalJsonOrNull();
+        return canonical != null ? canonical.hashCode() : json.hashCode();
+    }
+
+    // returns null for malformed documents, so that equals() and hashCode() never throw
+    private String canonicalJsonOrNull() {
+        if (malformed) {
+            return null;
+        }
+
+        try {
+            return getCanonicalJson();
+        } catch (RuntimeException e) {
+            malformed = true;
+            return null;
+        }
     }
 
     @Override
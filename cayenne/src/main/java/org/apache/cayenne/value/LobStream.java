@@ -0,0 +1,202 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.value;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.apache.cayenne.CayenneRuntimeException;
+
+/**
+ * A Cayenne-supported value object that is a handle to the content of a binary or character large object (BLOB or
+ * CLOB). Unlike <code>byte[]</code> or <code>String</code> attributes, the content of a LobStream is not read into
+ * memory when a row is fetched. Instead, it is streamed from the database when {@link #openStream()} or
+ * {@link #openReader()} is called.
+ * <p>
+ * LobStreams read from the database are backed by JDBC LOB locators, that can be read while the ResultSet is open
+ * (e.g. within a {@link org.apache.cayenne.ResultIterator}), and depending on the driver, until the end of the
+ * transaction. When a LobStream is a property of a persistent object, and its locator is no longer valid, the content
+ * is re-fetched on demand by the object id.
+ * <p>
+ * LobStreams created by the user via static factory methods are used to write large objects. Their content is bound
+ * to the statement as a stream, so it doesn't need to be in memory either. LobStreams are equal if they read their
+ * content via the same opener, so that a copy with a fallback is equal to the original.
+ *
+ * @since 5.0
+ */
+public class LobStream {
+
+    private final boolean character;
+    private final long length;
+    private final Opener opener;
+    private final Opener fallback;
+
+    /**
+     * Creates a binary LobStream with content provided by a given opener. Opener is called each time the content is
+     * read, and must return a new InputStream.
+     *
+     * @param length content length in bytes or -1 if unknown
+     */
+    public static LobStream binary(Opener opener, long length) {
+        return new LobStream(false, length, opener, null);
+    }
+
+    /**
+     * Creates a character LobStream with content provided by a given opener. Opener is called each time the content
+     * is read, and must return a new Reader.
+     *
+     * @param length content length in characters or -1 if unknown
+     */
+    public static LobStream character(Opener opener, long length) {
+        return new LobStream(true, length, opener, null);
+    }
+
+    public static LobStream of(byte[] bytes) {
+        return binary(() -> new ByteArrayInputStream(bytes), bytes.length);
+    }
+
+    public static LobStream of(String string) {
+        return character(() -> new StringReader(string), string.length());
+    }
+
+    /**
+     * Creates a binary LobStream with the content of a file.
+     */
+    public static LobStream of(Path file) {
+        try {
+            return binary(() -> Files.newInputStream(file), Files.size(file));
+        } catch (Exception e) {
+            throw new CayenneRuntimeException("Error reading file '%s'", e, file);
+        }
+    }
+
+    /**
+     * Creates a character LobStream with the content of a file in a given encoding.
+     */
+    public static LobStream of(Path file, Charset charset) {
+        return character(() -> Files.newBufferedReader(file, charset), -1);
+    }
+
+    protected LobStream(boolean character, long length, Opener opener, Opener fallback) {
+        this.character = character;
+        this.length = length;
+        this.opener = opener;
+        this.fallback = fallback;
+    }
+
+    /**
+     * Returns a copy of this LobStream that calls a given opener if the content can not be read via the opener of
+     * this LobStream.
+     */
+    public LobStream withFallback(Opener fallback) {
+        return new LobStream(character, length, opener, fallback);
+    }
+
+    /**
+     * Returns true if this is a character LOB, that should be read with {@link #openReader()}.
+     */
+    public boolean isCharacter() {
+        return character;
+    }
+
+    /**
+     * Returns the length of the content in bytes or characters, or -1 if it is not known.
+     */
+    public long getLength() {
+        return length;
+    }
+
+    /**
+     * Opens a new stream to read the content of a binary LOB. The caller is responsible for closing the stream.
+     */
+    public InputStream openStream() {
+        if (character) {
+            throw new CayenneRuntimeException("Character LOB must be read via 'openReader()'");
+        }
+        return (InputStream) open();
+    }
+
+    /**
+     * Opens a new reader to read the content of a character LOB. The caller is responsible for closing the reader.
+     */
+    public Reader openReader() {
+        if (!character) {
+            throw new CayenneRuntimeException("Binary LOB must be read via 'openStream()'");
+        }
+        return (Reader) open();
+    }
+
+    private Closeable open() {
+        try {
+            return opener.open();
+        } catch (Exception e) {
+            if (fallback == null) {
+                throw new CayenneRuntimeException("Error opening LOB stream", e);
+            }
+        }
+
+        try {
+            return fallback.open();
+        } catch (CayenneRuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new CayenneRuntimeException("Error opening LOB stream", e);
+        }
+    }
+
+    // the content itself is not compared, as reading it may be expensive or even impossible
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+
+        if (!(o instanceof LobStream)) {
+            return false;
+        }
+
+        LobStream lob = (LobStream) o;
+        return character == lob.character && length == lob.length && opener == lob.opener;
+    }
+
+    @Override
+    public int hashCode() {
+        return System.identityHashCode(opener);
+    }
+
+    @Override
+    public String toString() {
+        return character ? "<clob stream>" : "<blob stream>";
+    }
+
+    /**
+     * Opens the content of a LobStream. Returns an InputStream for binary and a Reader for character LOBs.
+     */
+    @FunctionalInterface
+    public interface Opener {
+
+        Closeable open() throws Exception;
+    }
+}
@@ -19,6 +19,9 @@
 
 package org.apache.cayenne.value.json;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 
 /**
@@ -58,6 +61,66 @@ public final class JsonUtils {
         return Objects.equals(object1, object2);
     }
 
+    /**
+     * <p>
+     * Converts JSON document to a canonical form, i.e. a compact string with no whitespace between tokens and with
+     * object keys sorted. Two documents are canonically equal if and only if {@link #compare(String, String)}
+     * returns true for them, so the canonical form can be used as a cheap substitute for comparison and hashing.
+     * </p>
+     * <b>NOTE</b> as with {@link #compare(String, String)}, numbers are kept as is, without parsing.
+     *
+     * @param json valid JSON document
+     * @return canonical JSON
+     * @since 5.0
+     */
+    public static String canonicalize(String json) {
+        Object object = new JsonReader(json).process();
+        StringBuilder builder = new StringBuilder(json.length());
+        appendCanonical(builder, object);
+        return builder.toString();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void appendCanonical(StringBuilder builder, Object object) {
+        if (object instanceof Map) {
+            Map<JsonTokenizer.JsonToken, Object> map = (Map<JsonTokenizer.JsonToken, Object>) object;
+            List<JsonTokenizer.JsonToken> keys = new ArrayList<>(map.keySet());
+            keys.sort(null);
+
+            builder.append('{');
+            for (int i = 0; i < keys.size(); i++) {
+                if (i > 0) {
+                    builder.append(',');
+                }
+                appendCanonical(builder, keys.get(i));
+                builder.append(':');
+                appendCanonical(builder, map.get(keys.get(i)));
+            }
+            builder.append('}');
+        } else if (object instanceof List) {
+            List<Object> list = (List<Object>) object;
+
+            builder.append('[');
+            for (int i = 0; i < list.size(); i++) {
+                if (i > 0) {
+                    builder.append(',');
+                }
+                appendCanonical(builder, list.get(i));
+            }
+            builder.append(']');
+        } else if (object instanceof JsonTokenizer.JsonToken) {
+            JsonTokenizer.JsonToken token = (JsonTokenizer.JsonToken) object;
+            boolean string = token.type == JsonTokenizer.TokenType.STRING;
+            if (string) {
+                builder.append('"');
+            }
+            builder.append(token.getData(), token.from, token.length());
+            if (string) {
+                builder.append('"');
+            }
+        }
+    }
+
     private JsonUtils() {
     }
 
@@ -0,0 +1,182 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.cayenne.access.DataContext;
+import org.apache.cayenne.di.Inject;
+import org.apache.cayenne.query.ObjectSelect;
+import org.apache.cayenne.runtime.CayenneRuntime;
+import org.apache.cayenne.test.jdbc.DBHelper;
+import org.apache.cayenne.test.jdbc.TableHelper;
+import org.apache.cayenne.testdo.testmap.Artist;
+import org.apache.cayenne.tx.BaseTransaction;
+import org.apache.cayenne.tx.Transaction;
+import org.apache.cayenne.unit.di.runtime.CayenneProjects;
+import org.apache.cayenne.unit.di.runtime.RuntimeCase;
+import org.apache.cayenne.unit.di.runtime.UseCayenneRuntime;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+@UseCayenneRuntime(CayenneProjects.TESTMAP_PROJECT)
+public class AsyncObjectContextIT extends RuntimeCase {
+
+    @Inject
+    private CayenneRuntime runtime;
+
+    @Inject
+    private DBHelper dbHelper;
+
+    private TableHelper tArtist;
+
+    @Before
+    public void before() {
+        tArtist = new TableHelper(dbHelper, "ARTIST");
+        tArtist.setColumns("ARTIST_ID", "ARTIST_NAME");
+    }
+
+    @Test
+    public void testSelectAsync() throws Exception {
+        tArtist.insert(36001, "a1");
+        tArtist.insert(36002, "a2");
+
+        AsyncObjectContext async = runtime.newAsyncContext();
+        List<Artist> artists = async
+                .selectAsync(ObjectSelect.query(Artist.class).orderBy(Artist.ARTIST_NAME.asc()))
+                .get(10, TimeUnit.SECONDS);
+
+        assertEquals(2, artists.size());
+        assertEquals("a1", artists.get(0).getArtistName());
+        assertSame(async.getContext(), artists.get(0).getObjectContext());
+
+        Artist a2 = async
+                .selectOneAsync(ObjectSelect.query(Artist.class, Artist.ARTIST_NAME.eq("a2")))
+                .get(10, TimeUnit.SECONDS);
+        assertSame(artists.get(1), a2);
+    }
+
+    @Test
+    public void testCommitChangesAsync() throws Exception {
+        AsyncObjectContext async = runtime.newAsyncContext();
+
+        Artist artist = async.getContext().newObject(Artist.class);
+        artist.setArtistName("a1");
+        async.commitChangesAsync().get(10, TimeUnit.SECONDS);
+
+        assertEquals(PersistenceState.COMMITTED, artist.getPersistenceState());
+        assertEquals(1, tArtist.getRowCount());
+    }
+
+    @Test
+    public void testIterateAsync() throws Exception {
+        tArtist.insert(36001, "a1");
+        tArtist.insert(36002, "a2");
+        tArtist.insert(36003, "a3");
+
+        List<String> names = new ArrayList<>();
+        runtime.newAsyncContext()
+                .iterateAsync(ObjectSelect.query(Artist.class).orderBy(Artist.ARTIST_NAME.asc()),
+                        a -> names.add(a.getArtistName()))
+                .get(10, TimeUnit.SECONDS);
+
+        assertEquals(List.of("a1", "a2", "a3"), names);
+    }
+
+    @Test
+    public void testOperationsAreSerialized() throws Exception {
+        AsyncObjectContext async = runtime.newAsyncContext();
+        CountDownLatch release = new CountDownLatch(1);
+        List<Integer> order = new ArrayList<>();
+
+        CompletableFuture<Object> first = async.callAsync(c -> {
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+            order.add(1);
+            return null;
+        });
+        CompletableFuture<Object> second = async.callAsync(c -> {
+            order.add(2);
+            return null;
+        });
+
+        release.countDown();
+        CompletableFuture.allOf(first, second).get(10, TimeUnit.SECONDS);
+        assertEquals(List.of(1, 2), order);
+    }
+
+    @Test
+    public void testFailureDoesNotBlockNextOperation() throws Exception {
+        AsyncObjectContext async = runtime.newAsyncContext();
+
+        CompletableFuture<Object> failed = async.callAsync(c -> {
+            throw new CayenneRuntimeException("test failure");
+        });
+        CompletableFuture<Integer> next = async.callAsync(c -> 1);
+
+        try {
+            failed.join();
+            fail("Exception expected");
+        } catch (CompletionException e) {
+            // the cause is the original exception, not a wrapper
+            assertTrue(e.getCause() instanceof CayenneRuntimeException);
+        }
+
+        assertEquals(Integer.valueOf(1), next.get(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testThreadStateCarriedOver() throws Exception {
+        AsyncObjectContext async = runtime.newAsyncContext();
+        Thread caller = Thread.currentThread();
+
+        Object[] state = runtime.performInTransaction(() -> {
+            Transaction tx = BaseTransaction.getThreadTransaction();
+            Object[] workerState = async.callAsync(c -> new Object[]{
+                    Thread.currentThread(),
+                    BaseTransaction.getThreadTransaction(),
+                    DataContext.getThreadObjectContext()
+            }).join();
+            assertSame(tx, workerState[1]);
+            return workerState;
+        });
+
+        assertNotNull(state[0]);
+        assertTrue(state[0] != caller);
+        assertSame(async.getContext(), state[2]);
+
+        // outside of transaction, no transaction is bound
+        assertNull(async.callAsync(c -> BaseTransaction.getThreadTransaction()).get(10, TimeUnit.SECONDS));
+    }
+}
@@ -0,0 +1,136 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.access;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.cayenne.GenericPersistentObject;
+import org.apache.cayenne.ObjectId;
+import org.apache.cayenne.PersistenceState;
+import org.apache.cayenne.Persistent;
+import org.apache.cayenne.configuration.Constants;
+import org.apache.cayenne.configuration.DefaultRuntimeProperties;
+import org.apache.cayenne.util.Util;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class BoundedObjectMapTest {
+
+    private static Persistent object(int state) {
+        Persistent object = mock(Persistent.class);
+        when(object.getPersistenceState()).thenReturn(state);
+        return object;
+    }
+
+    private static ObjectId id(int pk) {
+        return ObjectId.of("E1", "ID", pk);
+    }
+
+    @Test
+    public void testEvictLeastRecentlyUsed() {
+        LongAdder counter = new LongAdder();
+        BoundedObjectMap map = new BoundedObjectMap(2, counter);
+
+        Persistent o1 = object(PersistenceState.COMMITTED);
+        Persistent o2 = object(PersistenceState.COMMITTED);
+        Persistent o3 = object(PersistenceState.HOLLOW);
+
+        map.put(id(1), o1);
+        map.put(id(2), o2);
+
+        // touch o1, so that o2 becomes the eldest
+        assertSame(o1, map.get(id(1)));
+        map.put(id(3), o3);
+
+        assertEquals(2, map.getRetainedSize());
+        assertEquals(1, map.getEvictedCount());
+        assertEquals(1, counter.sum());
+
+        // evicted objects are still accessible while referenced elsewhere
+        assertEquals(3, map.size());
+        assertSame(o2, map.get(id(2)));
+        assertEquals(2, map.getEvictedCount());
+    }
+
+    @Test
+    public void testDoNotCountUncommitted() {
+        BoundedObjectMap map = new BoundedObjectMap(1);
+
+        Persistent o1 = object(PersistenceState.NEW);
+        Persistent o2 = object(PersistenceState.MODIFIED);
+
+        map.put(id(1), o1);
+        map.put(id(2), o2);
+
+        assertEquals(1, map.getRetainedSize());
+        assertEquals(0, map.getEvictedCount());
+        assertSame(o1, map.get(id(1)));
+    }
+
+    @Test
+    public void testRemove() {
+        BoundedObjectMap map = new BoundedObjectMap(2);
+        map.put(id(1), object(PersistenceState.COMMITTED));
+        map.put(id(2), object(PersistenceState.COMMITTED));
+
+        map.remove(id(1));
+        assertEquals(1, map.getRetainedSize());
+        assertEquals(1, map.size());
+
+        map.clear();
+        assertEquals(0, map.getRetainedSize());
+        assertTrue(map.isEmpty());
+    }
+
+    @Test
+    public void testSerialization() throws Exception {
+        BoundedObjectMap map = new BoundedObjectMap(5);
+        map.put("k1", new GenericPersistentObject());
+
+        BoundedObjectMap clone = Util.cloneViaSerialization(map);
+        assertEquals(5, clone.getMaxSize());
+        assertEquals(1, clone.getRetainedSize());
+        assertEquals(1, clone.size());
+    }
+
+    @Test
+    public void testRetainStrategy() {
+        Map<String, String> properties = Map.of(
+                Constants.OBJECT_RETAIN_STRATEGY_PROPERTY, "bounded",
+                Constants.OBJECT_RETAIN_BOUNDED_SIZE_PROPERTY, "1");
+        DefaultObjectMapRetainStrategy strategy = new DefaultObjectMapRetainStrategy(new DefaultRuntimeProperties(properties));
+
+        Map<Object, Persistent> map = strategy.createObjectMap();
+        assertTrue(map instanceof BoundedObjectMap);
+        assertEquals(1, ((BoundedObjectMap) map).getMaxSize());
+
+        map.put(id(1), object(PersistenceState.COMMITTED));
+        map.put(id(2), object(PersistenceState.COMMITTED));
+        strategy.createObjectMap().putAll(Collections.singletonMap(id(3), object(PersistenceState.COMMITTED)));
+
+        assertEquals(1, strategy.getEvictedObjectsCount());
+    }
+}
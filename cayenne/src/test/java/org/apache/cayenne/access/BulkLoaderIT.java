@@ -0,0 +1,160 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.access;
+
+import java.sql.Types;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import org.apache.cayenne.CayenneRuntimeException;
+import org.apache.cayenne.DataRow;
+import org.apache.cayenne.di.Inject;
+import org.apache.cayenne.query.ObjectSelect;
+import org.apache.cayenne.runtime.CayenneRuntime;
+import org.apache.cayenne.test.jdbc.DBHelper;
+import org.apache.cayenne.test.jdbc.TableHelper;
+import org.apache.cayenne.testdo.testmap.Artist;
+import org.apache.cayenne.unit.di.runtime.CayenneProjects;
+import org.apache.cayenne.unit.di.runtime.RuntimeCase;
+import org.apache.cayenne.unit.di.runtime.UseCayenneRuntime;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+@UseCayenneRuntime(CayenneProjects.TESTMAP_PROJECT)
+public class BulkLoaderIT extends RuntimeCase {
+
+    @Inject
+    private CayenneRuntime runtime;
+
+    @Inject
+    private DataContext context;
+
+    @Inject
+    private DBHelper dbHelper;
+
+    private TableHelper tArtist;
+
+    @Before
+    public void before() {
+        tArtist = new TableHelper(dbHelper, "ARTIST")
+                .setColumns("ARTIST_ID", "ARTIST_NAME")
+                .setColumnTypes(Types.BIGINT, Types.VARCHAR);
+    }
+
+    @Test
+    public void testLoad_DataRows() throws Exception {
+        Stream<DataRow> rows = IntStream.range(0, 25).mapToObj(i -> {
+            DataRow row = new DataRow(2);
+            row.put("ARTIST_NAME", "a" + i);
+            return row;
+        });
+
+        long count = runtime.bulkLoader("ARTIST").batchSize(10).load(rows);
+        assertEquals(25, count);
+        assertEquals(25, tArtist.getRowCount());
+
+        // PKs are generated
+        Set<Object> ids = new HashSet<>();
+        for (Object[] row : tArtist.selectAll()) {
+            ids.add(row[0]);
+        }
+        assertEquals(25, ids.size());
+
+        List<Artist> artists = ObjectSelect.query(Artist.class)
+                .orderBy(Artist.ARTIST_NAME.asc())
+                .select(context);
+        assertEquals("a0", artists.get(0).getArtistName());
+    }
+
+    @Test
+    public void testLoad_ExplicitPk() throws Exception {
+        long count = runtime.bulkLoader("ARTIST").load(Stream.of(
+                Map.of("ARTIST_ID", 101L, "ARTIST_NAME", "x"),
+                Map.of("ARTIST_ID", 102L, "ARTIST_NAME", "y")));
+
+        assertEquals(2, count);
+        assertEquals("x", ObjectSelect.query(Artist.class)
+                .where(Artist.ARTIST_ID_PK_PROPERTY.eq(101L))
+                .selectOne(context)
+                .getArtistName());
+    }
+
+    @Test
+    public void testLoadArrays() throws Exception {
+        Stream<Object[]> rows = IntStream.range(0, 7).mapToObj(i -> new Object[]{"b" + i});
+
+        long count = runtime.bulkLoader("ARTIST")
+                .columns("ARTIST_NAME")
+                .batchSize(3)
+                .loadArrays(rows);
+
+        assertEquals(7, count);
+        assertEquals(7, tArtist.getRowCount());
+    }
+
+    @Test
+    public void testLoad_Rollback() throws Exception {
+        // ARTIST_NAME is mandatory
+        Stream<DataRow> rows = IntStream.range(0, 10).mapToObj(i -> {
+            DataRow row = new DataRow(2);
+            row.put("ARTIST_NAME", i == 7 ? null : "a" + i);
+            return row;
+        });
+
+        try {
+            runtime.bulkLoader("ARTIST").batchSize(2).load(rows);
+            fail("Bulk load with invalid rows must fail");
+        } catch (CayenneRuntimeException e) {
+            // expected
+        }
+
+        assertEquals(0, tArtist.getRowCount());
+    }
+
+    @Test
+    public void testLoad_BatchesPerTransaction() throws Exception {
+        Stream<DataRow> rows = IntStream.range(0, 10).mapToObj(i -> {
+            DataRow row = new DataRow(2);
+            row.put("ARTIST_NAME", i == 7 ? null : "a" + i);
+            return row;
+        });
+
+        try {
+            runtime.bulkLoader("ARTIST").batchSize(2).batchesPerTransaction(2).load(rows);
+            fail("Bulk load with invalid rows must fail");
+        } catch (CayenneRuntimeException e) {
+            // expected
+        }
+
+        // the first transaction with 4 rows is committed, the failed second one is rolled back
+        assertEquals(4, tArtist.getRowCount());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownEntity() {
+        runtime.bulkLoader("NO_SUCH_TABLE");
+    }
+}
@@ -0,0 +1,202 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.access;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.cayenne.configuration.Constants;
+import org.apache.cayenne.configuration.DefaultRuntimeProperties;
+import org.apache.cayenne.di.Inject;
+import org.apache.cayenne.event.DefaultEventManager;
+import org.apache.cayenne.query.ObjectSelect;
+import org.apache.cayenne.query.QueryCacheStrategy;
+import org.apache.cayenne.query.SelectById;
+import org.apache.cayenne.runtime.CayenneRuntime;
+import org.apache.cayenne.test.jdbc.DBHelper;
+import org.apache.cayenne.test.jdbc.TableHelper;
+import org.apache.cayenne.testdo.testmap.Artist;
+import org.apache.cayenne.testdo.testmap.Painting;
+import org.apache.cayenne.unit.di.runtime.CayenneProjects;
+import org.apache.cayenne.unit.di.runtime.RuntimeCase;
+import org.apache.cayenne.unit.di.runtime.UseCayenneRuntime;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@UseCayenneRuntime(CayenneProjects.TESTMAP_PROJECT)
+public class DataContextEntityCacheIT extends RuntimeCase {
+
+    @Inject
+    private CayenneRuntime runtime;
+
+    @Inject
+    private DBHelper dbHelper;
+
+    private DefaultEventManager eventManager;
+    private DataRowStore cache;
+    private TableHelper tArtist;
+
+    @Before
+    public void before() throws Exception {
+        eventManager = new DefaultEventManager();
+
+        // the LRU part of the cache can hold a single snapshot only
+        Map<String, String> properties = new HashMap<>();
+        properties.put(Constants.SNAPSHOT_CACHE_SIZE_PROPERTY, "1");
+        properties.put(Constants.ENTITY_CACHE_PROPERTY, "Artist");
+        cache = new DataRowStore("entityCacheTest", new DefaultRuntimeProperties(properties), eventManager);
+
+        // query cache is shared by the tests
+        runtime.getDataDomain().getQueryCache().clear();
+
+        tArtist = new TableHelper(dbHelper, "ARTIST");
+        tArtist.setColumns("ARTIST_ID", "ARTIST_NAME");
+        tArtist.insert(1, "artist1");
+        tArtist.insert(2, "artist2");
+        tArtist.insert(3, "artist3");
+
+        TableHelper tPainting = new TableHelper(dbHelper, "PAINTING");
+        tPainting.setColumns("PAINTING_ID", "ARTIST_ID", "PAINTING_TITLE");
+        tPainting.insert(1, 1, "painting1");
+    }
+
+    @After
+    public void after() {
+        if (eventManager != null) {
+            eventManager.shutdown();
+        }
+    }
+
+    @Test
+    public void testIsEntityCached() {
+        assertTrue(cache.isEntityCached("Artist"));
+        assertFalse(cache.isEntityCached("Painting"));
+    }
+
+    @Test
+    public void testSelectById() throws Exception {
+        List<Artist> artists = ObjectSelect.query(Artist.class).select(newContext());
+        assertEquals(3, artists.size());
+
+        // changes made behind Cayenne back are not seen by the cached entity queries
+        tArtist.update().set("ARTIST_NAME", "changed").execute();
+
+        Artist a1 = SelectById.query(Artist.class, 1L).sharedCache().selectOne(newContext());
+        assertNotNull(a1);
+        assertEquals("artist1", a1.getArtistName());
+
+        List<Artist> a23 = SelectById.query(Artist.class, 3L, 2L).sharedCache().select(newContext());
+        assertEquals(2, a23.size());
+        assertEquals("artist3", a23.get(0).getArtistName());
+        assertEquals("artist2", a23.get(1).getArtistName());
+
+        // a regular query still goes to the DB
+        assertEquals("changed", ObjectSelect.query(Artist.class)
+                .where(Artist.ARTIST_NAME.eq("changed"))
+                .select(newContext()).get(0).getArtistName());
+    }
+
+    @Test
+    public void testSelectById_NoSharedCache() throws Exception {
+        ObjectSelect.query(Artist.class).select(newContext());
+        tArtist.update().set("ARTIST_NAME", "changed").execute();
+
+        // queries that don't read from the shared cache must see the changes made in the DB
+        assertEquals("changed", SelectById.query(Artist.class, 1L)
+                .selectOne(newContext()).getArtistName());
+        assertEquals("changed", SelectById.query(Artist.class, 1L)
+                .cacheStrategy(QueryCacheStrategy.SHARED_CACHE_REFRESH)
+                .selectOne(newContext()).getArtistName());
+    }
+
+    @Test
+    public void testSelectById_NotCached() throws Exception {
+        SelectById.query(Artist.class, 1L).selectOne(newContext());
+        tArtist.update().set("ARTIST_NAME", "changed").execute();
+
+        // only some of the requested snapshots are cached, so the query must go to the DB
+        List<Artist> artists = SelectById.query(Artist.class, 1L, 2L).sharedCache().select(newContext());
+        assertEquals(2, artists.size());
+        for (Artist a : artists) {
+            assertEquals("changed", a.getArtistName());
+        }
+    }
+
+    @Test
+    public void testToOneFault() throws Exception {
+        ObjectSelect.query(Artist.class).select(newContext());
+        tArtist.update().set("ARTIST_NAME", "changed").execute();
+
+        Painting painting = SelectById.query(Painting.class, 1).selectOne(newContext());
+        assertNotNull(painting);
+        assertEquals("artist1", painting.getToArtist().getArtistName());
+    }
+
+    @Test
+    public void testCommit_UpdatesCache() {
+        ObjectSelect.query(Artist.class).select(newContext());
+
+        DataContext context = newContext();
+        Artist a1 = SelectById.query(Artist.class, 1L).selectOne(context);
+        a1.setArtistName("artist1_updated");
+        context.commitChanges();
+
+        assertEquals("artist1_updated",
+                SelectById.query(Artist.class, 1L).sharedCache().selectOne(newContext()).getArtistName());
+    }
+
+    @Test
+    public void testCommit_DeleteEvicts() throws Exception {
+        ObjectSelect.query(Artist.class).select(newContext());
+
+        DataContext context = newContext();
+        context.deleteObject(SelectById.query(Artist.class, 2L).selectOne(context));
+        context.commitChanges();
+
+        assertEquals(2, tArtist.getRowCount());
+        assertNull(SelectById.query(Artist.class, 2L).sharedCache().selectOne(newContext()));
+    }
+
+    @Test
+    public void testInvalidate_Evicts() throws Exception {
+        Artist a1 = SelectById.query(Artist.class, 1L).selectOne(newContext());
+        tArtist.update().set("ARTIST_NAME", "changed").execute();
+
+        cache.processSnapshotChanges(this,
+                Collections.emptyMap(),
+                Collections.emptyList(),
+                Collections.singletonList(a1.getObjectId()),
+                Collections.emptyList());
+        assertEquals("changed",
+                SelectById.query(Artist.class, 1L).sharedCache().selectOne(newContext()).getArtistName());
+    }
+
+    private DataContext newContext() {
+        return new DataContext(runtime.getDataDomain(), new ObjectStore(cache, new HashMap<>()));
+    }
+}
@@ -0,0 +1,211 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.access;
+
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.StringWriter;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.cayenne.DataRow;
+import org.apache.cayenne.Persistent;
+import org.apache.cayenne.PersistenceState;
+import org.apache.cayenne.ResultIterator;
+import org.apache.cayenne.di.Inject;
+import org.apache.cayenne.query.ObjectSelect;
+import org.apache.cayenne.reflect.ClassDescriptor;
+import org.apache.cayenne.unit.UnitDbAdapter;
+import org.apache.cayenne.unit.di.runtime.CayenneProjects;
+import org.apache.cayenne.unit.di.runtime.RuntimeCase;
+import org.apache.cayenne.unit.di.runtime.UseCayenneRuntime;
+import org.apache.cayenne.value.LobStream;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assume.assumeTrue;
+
+@UseCayenneRuntime(CayenneProjects.LOB_PROJECT)
+public class DataContextLobStreamIT extends RuntimeCase {
+
+    @Inject
+    private DataContext context;
+
+    @Inject
+    private DataContext context2;
+
+    @Inject
+    private UnitDbAdapter accessStackAdapter;
+
+    @Before
+    public void before() {
+        assumeTrue(accessStackAdapter.supportsLobs());
+    }
+
+    @Test
+    public void testBlob() throws Exception {
+        byte[] bytes = bytes(100 * 1024);
+
+        Persistent o = (Persistent) context.newObject("BlobStreamEntity");
+        o.writeProperty("blobCol", LobStream.of(bytes));
+        context.commitChanges();
+
+        List<Persistent> objects = ObjectSelect.query(Persistent.class, "BlobStreamEntity").select(context2);
+        assertEquals(1, objects.size());
+
+        LobStream lob = (LobStream) objects.get(0).readProperty("blobCol");
+        try (InputStream in = lob.openStream()) {
+            assertArrayEquals(bytes, in.readAllBytes());
+        }
+    }
+
+    @Test
+    public void testClob() throws Exception {
+        String string = string(100 * 1024);
+
+        Persistent o = (Persistent) context.newObject("ClobStreamEntity");
+        o.writeProperty("clobCol", LobStream.of(string));
+        context.commitChanges();
+
+        List<Persistent> objects = ObjectSelect.query(Persistent.class, "ClobStreamEntity").select(context2);
+        assertEquals(1, objects.size());
+
+        LobStream lob = (LobStream) objects.get(0).readProperty("clobCol");
+        assertEquals(string, read(lob));
+    }
+
+    @Test
+    public void testNull() {
+        context.newObject("BlobStreamEntity");
+        context.commitChanges();
+
+        List<Persistent> objects = ObjectSelect.query(Persistent.class, "BlobStreamEntity").select(context2);
+        assertEquals(1, objects.size());
+        assertNull(objects.get(0).readProperty("blobCol"));
+    }
+
+    @Test
+    public void testIterator() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            Persistent o = (Persistent) context.newObject("ClobStreamEntity");
+            o.writeProperty("clobCol", LobStream.of(string(10 * 1024 + i)));
+        }
+        context.commitChanges();
+
+        // content is read while the iterator is positioned on the row
+        Set<String> read = new HashSet<>();
+        try (ResultIterator<Persistent> it = ObjectSelect.query(Persistent.class, "ClobStreamEntity")
+                .iterator(context2)) {
+            for (Persistent o : it) {
+                read.add(read((LobStream) o.readProperty("clobCol")));
+            }
+        }
+
+        assertEquals(Set.of(string(10 * 1024), string(10 * 1024 + 1), string(10 * 1024 + 2)), read);
+    }
+
+    @Test
+    public void testUpdate() throws Exception {
+        Persistent o = (Persistent) context.newObject("BlobStreamEntity");
+        o.writeProperty("blobCol", LobStream.of(bytes(10)));
+        context.commitChanges();
+
+        Persistent o2 = ObjectSelect.query(Persistent.class, "BlobStreamEntity").selectOne(context2);
+        o2.writeProperty("blobCol", LobStream.of(bytes(20)));
+        context2.commitChanges();
+
+        Persistent o3 = ObjectSelect.query(Persistent.class, "BlobStreamEntity").selectOne(context);
+        try (InputStream in = ((LobStream) o3.readProperty("blobCol")).openStream()) {
+            assertArrayEquals(bytes(20), in.readAllBytes());
+        }
+    }
+
+    @Test
+    public void testRefetch() throws Exception {
+        byte[] bytes = bytes(1024);
+
+        Persistent o = (Persistent) context.newObject("BlobStreamEntity");
+        o.writeProperty("blobCol", LobStream.of(bytes));
+        context.commitChanges();
+
+        Persistent o2 = ObjectSelect.query(Persistent.class, "BlobStreamEntity").selectOne(context2);
+        try (InputStream in = (InputStream) new LobStreamFetcher(o2, "blobCol").open()) {
+            assertArrayEquals(bytes, in.readAllBytes());
+        }
+    }
+
+    @Test
+    public void testMerge_UnchangedLob() throws Exception {
+        Persistent o = (Persistent) context.newObject("BlobStreamEntity");
+        o.writeProperty("blobCol", LobStream.of(bytes(10)));
+        context.commitChanges();
+
+        Persistent o2 = ObjectSelect.query(Persistent.class, "BlobStreamEntity").selectOne(context2);
+        LobStream lob = (LobStream) o2.readPropertyDirectly("blobCol");
+
+        // a modified object whose LOB was not changed locally
+        context2.getObjectStore().registerDiff(o2.getObjectId(), null);
+        o2.setPersistenceState(PersistenceState.MODIFIED);
+
+        ClassDescriptor descriptor = context2.getEntityResolver().getClassDescriptor("BlobStreamEntity");
+        DataRow snapshot = context2.getObjectStore().getSnapshot(o2.getObjectId());
+
+        // the same snapshot must not replace the value
+        DataRowUtils.mergeObjectWithSnapshot(context2, descriptor, o2, snapshot);
+        assertSame(lob, o2.readPropertyDirectly("blobCol"));
+
+        // a new value from the DB must be merged, as the LOB is still unchanged locally
+        DataRow changed = new DataRow(snapshot);
+        changed.put("BLOB_COL", LobStream.of(bytes(20)));
+        DataRowUtils.mergeObjectWithSnapshot(context2, descriptor, o2, changed);
+
+        try (InputStream in = ((LobStream) o2.readPropertyDirectly("blobCol")).openStream()) {
+            assertArrayEquals(bytes(20), in.readAllBytes());
+        }
+    }
+
+    private static byte[] bytes(int size) {
+        byte[] bytes = new byte[size];
+        for (int i = 0; i < size; i++) {
+            bytes[i] = (byte) (65 + i % 50);
+        }
+        return bytes;
+    }
+
+    private static String string(int size) {
+        StringBuilder buffer = new StringBuilder(size);
+        for (int i = 0; i < size; i++) {
+            buffer.append((char) ('a' + i % 26));
+        }
+        return buffer.toString();
+    }
+
+    private static String read(LobStream lob) throws Exception {
+        StringWriter out = new StringWriter();
+        try (Reader reader = lob.openReader()) {
+            reader.transferTo(out);
+        }
+        return out.toString();
+    }
+}
@@ -0,0 +1,152 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.access;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.cayenne.access.event.SnapshotEvent;
+import org.apache.cayenne.configuration.Constants;
+import org.apache.cayenne.configuration.DefaultRuntimeProperties;
+import org.apache.cayenne.configuration.runtime.CoreModule;
+import org.apache.cayenne.di.Binder;
+import org.apache.cayenne.di.Inject;
+import org.apache.cayenne.di.Module;
+import org.apache.cayenne.event.DefaultEventManager;
+import org.apache.cayenne.query.ObjectSelect;
+import org.apache.cayenne.runtime.CayenneRuntime;
+import org.apache.cayenne.test.jdbc.DBHelper;
+import org.apache.cayenne.test.jdbc.TableHelper;
+import org.apache.cayenne.test.parallel.ParallelTestContainer;
+import org.apache.cayenne.testdo.testmap.Artist;
+import org.apache.cayenne.unit.di.runtime.CayenneProjects;
+import org.apache.cayenne.unit.di.runtime.ExtraModules;
+import org.apache.cayenne.unit.di.runtime.RuntimeCase;
+import org.apache.cayenne.unit.di.runtime.UseCayenneRuntime;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@UseCayenneRuntime(CayenneProjects.TESTMAP_PROJECT)
+@ExtraModules(DataContextTargetedSnapshotEventsIT.SyncContextsModule.class)
+public class DataContextTargetedSnapshotEventsIT extends RuntimeCase {
+
+    @Inject
+    private CayenneRuntime runtime;
+
+    @Inject
+    private DBHelper dbHelper;
+
+    private DefaultEventManager eventManager;
+    private DataRowStore cache;
+
+    @Before
+    public void before() throws Exception {
+        eventManager = new DefaultEventManager();
+
+        Map<String, String> properties = new HashMap<>();
+        properties.put(Constants.SNAPSHOT_EVENT_TARGETED_DELIVERY_PROPERTY, "true");
+        cache = new DataRowStore("targetedCacheTest", new DefaultRuntimeProperties(properties), eventManager);
+
+        TableHelper tArtist = new TableHelper(dbHelper, "ARTIST");
+        tArtist.setColumns("ARTIST_ID", "ARTIST_NAME");
+        tArtist.insert(1, "artist1");
+        tArtist.insert(2, "artist2");
+    }
+
+    @After
+    public void after() {
+        if (eventManager != null) {
+            eventManager.shutdown();
+        }
+    }
+
+    @Test
+    public void testCommit_NotifiesOnlyAffectedContexts() throws Exception {
+        assertTrue(cache.isTargetedDelivery());
+
+        CountingObjectStore s1 = new CountingObjectStore(cache);
+        CountingObjectStore s2 = new CountingObjectStore(cache);
+        CountingObjectStore s3 = new CountingObjectStore(cache);
+        DataContext c1 = new DataContext(runtime.getDataDomain(), s1);
+        DataContext c2 = new DataContext(runtime.getDataDomain(), s2);
+        DataContext c3 = new DataContext(runtime.getDataDomain(), s3);
+
+        Artist a1 = ObjectSelect.query(Artist.class).where(Artist.ARTIST_NAME.eq("artist1")).selectOne(c1);
+        Artist a2 = ObjectSelect.query(Artist.class).where(Artist.ARTIST_NAME.eq("artist1")).selectOne(c2);
+        ObjectSelect.query(Artist.class).where(Artist.ARTIST_NAME.eq("artist2")).selectOne(c3);
+
+        assertEquals(2, cache.getObjectStoreIndex().getStores(a1.getObjectId()).size());
+
+        a1.setArtistName("artist1_updated");
+        c1.commitChanges();
+
+        new ParallelTestContainer() {
+            @Override
+            protected void assertResult() {
+                assertEquals("artist1_updated", a2.getArtistName());
+            }
+        }.runTest(3000);
+
+        assertEquals(0, s1.events.get());
+        assertEquals(1, s2.events.get());
+        assertEquals(0, s3.events.get());
+    }
+
+    @Test
+    public void testUnregister_RemovesFromIndex() {
+        DataContext context = new DataContext(runtime.getDataDomain(), new ObjectStore(cache, new HashMap<>()));
+
+        List<Artist> artists = ObjectSelect.query(Artist.class).select(context);
+        assertEquals(2, artists.size());
+
+        Artist artist = artists.get(0);
+        assertEquals(1, cache.getObjectStoreIndex().getStores(artist.getObjectId()).size());
+
+        context.unregisterObjects(List.of(artist));
+        assertEquals(0, cache.getObjectStoreIndex().getStores(artist.getObjectId()).size());
+    }
+
+    private static class CountingObjectStore extends ObjectStore {
+
+        final AtomicInteger events = new AtomicInteger();
+
+        CountingObjectStore(DataRowStore cache) {
+            super(cache, new HashMap<>());
+        }
+
+        @Override
+        public void snapshotsChanged(SnapshotEvent event) {
+            events.incrementAndGet();
+            super.snapshotsChanged(event);
+        }
+    }
+
+    public static class SyncContextsModule implements Module {
+        @Override
+        public void configure(Binder binder) {
+            CoreModule.extend(binder).syncContexts();
+        }
+    }
+}
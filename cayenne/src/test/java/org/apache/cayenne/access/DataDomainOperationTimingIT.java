@@ -0,0 +1,163 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.access;
+
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.cayenne.access.metrics.OperationPhase;
+import org.apache.cayenne.access.metrics.OperationTimingEvent;
+import org.apache.cayenne.access.metrics.OperationTimingListener;
+import org.apache.cayenne.di.Inject;
+import org.apache.cayenne.query.ObjectSelect;
+import org.apache.cayenne.runtime.CayenneRuntime;
+import org.apache.cayenne.test.jdbc.DBHelper;
+import org.apache.cayenne.test.jdbc.TableHelper;
+import org.apache.cayenne.testdo.testmap.Artist;
+import org.apache.cayenne.unit.di.runtime.CayenneProjects;
+import org.apache.cayenne.unit.di.runtime.RuntimeCase;
+import org.apache.cayenne.unit.di.runtime.UseCayenneRuntime;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+@UseCayenneRuntime(CayenneProjects.TESTMAP_PROJECT)
+public class DataDomainOperationTimingIT extends RuntimeCase {
+
+    @Inject
+    private DataContext context;
+
+    @Inject
+    private CayenneRuntime runtime;
+
+    @Inject
+    private DBHelper dbHelper;
+
+    private DataDomain domain;
+    private RecordingListener listener;
+
+    @Before
+    public void before() throws Exception {
+        TableHelper tArtist = new TableHelper(dbHelper, "ARTIST");
+        tArtist.setColumns("ARTIST_ID", "ARTIST_NAME");
+        tArtist.insert(35001, "artist1");
+        tArtist.insert(35002, "artist2");
+
+        TableHelper tPainting = new TableHelper(dbHelper, "PAINTING");
+        tPainting.setColumns("PAINTING_ID", "ARTIST_ID", "PAINTING_TITLE")
+                .setColumnTypes(Types.INTEGER, Types.BIGINT, Types.VARCHAR);
+        tPainting.insert(35001, 35001, "p1");
+        tPainting.insert(35002, 35001, "p2");
+
+        domain = runtime.getDataDomain();
+        listener = new RecordingListener();
+        domain.setOperationTimingListener(listener);
+    }
+
+    @After
+    public void after() {
+        domain.setOperationTimingListener(null);
+    }
+
+    @Test
+    public void testSelect() {
+        ObjectSelect<Artist> query = ObjectSelect.query(Artist.class);
+        assertEquals(2, query.select(context).size());
+
+        assertEquals(1, listener.events.size());
+        OperationTimingEvent e = listener.events.get(0);
+        assertEquals(OperationTimingEvent.Type.QUERY, e.getType());
+        assertSame(query, e.getQuery());
+
+        assertTrue(e.getNanos(OperationPhase.TRANSLATION) > 0);
+        assertTrue(e.getNanos(OperationPhase.CONNECTION) > 0);
+        assertTrue(e.getNanos(OperationPhase.EXECUTION) > 0);
+        assertTrue(e.getNanos(OperationPhase.ROW_READING) > 0);
+        assertTrue(e.getNanos(OperationPhase.OBJECT_RESOLUTION) > 0);
+        assertTrue(e.getNanos(OperationPhase.SNAPSHOT_CACHE) > 0);
+        assertEquals(0, e.getNanos(OperationPhase.PREFETCH_PROCESSING));
+        assertPhasesAddUp(e);
+    }
+
+    @Test
+    public void testSelect_Prefetch() {
+        List<Artist> artists = ObjectSelect.query(Artist.class)
+                .prefetch(Artist.PAINTING_ARRAY.disjointById())
+                .select(context);
+        assertEquals(2, artists.size());
+
+        // prefetch query is a part of the main query operation
+        assertEquals(1, listener.events.size());
+        OperationTimingEvent e = listener.events.get(0);
+        assertTrue(e.getNanos(OperationPhase.PREFETCH_PROCESSING) > 0);
+        assertPhasesAddUp(e);
+    }
+
+    @Test
+    public void testCommit() {
+        Artist a = context.newObject(Artist.class);
+        a.setArtistName("artist3");
+        listener.events.clear();
+
+        context.commitChanges();
+
+        OperationTimingEvent commit = listener.events.stream()
+                .filter(e -> e.getType() == OperationTimingEvent.Type.COMMIT)
+                .findFirst()
+                .orElseThrow();
+
+        assertNull(commit.getQuery());
+        assertTrue(commit.getNanos(OperationPhase.COMMIT_PREPARATION) > 0);
+        assertTrue(commit.getNanos(OperationPhase.EXECUTION) > 0);
+        assertTrue(commit.getNanos(OperationPhase.COMMIT_POSTPROCESSING) > 0);
+        assertTrue(commit.getNanos(OperationPhase.SNAPSHOT_CACHE) > 0);
+        assertPhasesAddUp(commit);
+    }
+
+    @Test
+    public void testDisabled() {
+        domain.setOperationTimingListener(null);
+        ObjectSelect.query(Artist.class).select(context);
+        assertTrue(listener.events.isEmpty());
+    }
+
+    private static void assertPhasesAddUp(OperationTimingEvent e) {
+        long sum = 0;
+        for (long nanos : e.getPhaseNanos().values()) {
+            sum += nanos;
+        }
+        assertEquals(e.getTotalNanos(), sum);
+    }
+
+    private static class RecordingListener implements OperationTimingListener {
+
+        final List<OperationTimingEvent> events = new ArrayList<>();
+
+        @Override
+        public synchronized void operationCompleted(OperationTimingEvent event) {
+            events.add(event);
+        }
+    }
+}
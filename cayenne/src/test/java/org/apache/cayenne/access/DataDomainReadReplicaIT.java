@@ -0,0 +1,191 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.access;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.cayenne.configuration.Constants;
+import org.apache.cayenne.configuration.DefaultRuntimeProperties;
+import org.apache.cayenne.di.Inject;
+import org.apache.cayenne.query.ObjectSelect;
+import org.apache.cayenne.query.Query;
+import org.apache.cayenne.runtime.CayenneRuntime;
+import org.apache.cayenne.test.jdbc.DBHelper;
+import org.apache.cayenne.test.jdbc.TableHelper;
+import org.apache.cayenne.testdo.testmap.Artist;
+import org.apache.cayenne.unit.di.runtime.CayenneProjects;
+import org.apache.cayenne.unit.di.runtime.RuntimeCase;
+import org.apache.cayenne.unit.di.runtime.UseCayenneRuntime;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+@UseCayenneRuntime(CayenneProjects.TESTMAP_PROJECT)
+public class DataDomainReadReplicaIT extends RuntimeCase {
+
+    @Inject
+    private DataContext context;
+
+    @Inject
+    private CayenneRuntime runtime;
+
+    @Inject
+    private DBHelper dbHelper;
+
+    private DataDomain domain;
+    private DataNode primary;
+    private ReadReplicaRouter defaultRouter;
+    private CountingNode replica1;
+    private CountingNode replica2;
+
+    @Before
+    public void before() throws Exception {
+        TableHelper tArtist = new TableHelper(dbHelper, "ARTIST");
+        tArtist.setColumns("ARTIST_ID", "ARTIST_NAME");
+        tArtist.insert(33001, "artist1");
+        tArtist.insert(33002, "artist2");
+
+        domain = runtime.getDataDomain();
+        primary = domain.lookupDataNode(domain.getEntityResolver().getObjEntity(Artist.class).getDataMap());
+        defaultRouter = domain.getReadReplicaRouter();
+
+        replica1 = new CountingNode("replica1", primary);
+        replica2 = new CountingNode("replica2", primary);
+        domain.addNode(replica1);
+        domain.addNode(replica2);
+    }
+
+    @After
+    public void after() {
+        domain.removeDataNode(replica1.getName());
+        domain.removeDataNode(replica2.getName());
+        domain.setReadReplicaRouter(defaultRouter);
+    }
+
+    @Test
+    public void testSelect_RoundRobin() {
+        domain.setReadReplicaRouter(createRouter(null, null));
+
+        for (int i = 0; i < 4; i++) {
+            assertEquals(2, ObjectSelect.query(Artist.class).select(context).size());
+        }
+
+        assertEquals(2, replica1.queries.get());
+        assertEquals(2, replica2.queries.get());
+    }
+
+    @Test
+    public void testSelect_LeastOutstanding() {
+        DefaultReadReplicaRouter router = createRouter("least_outstanding", null);
+        domain.setReadReplicaRouter(router);
+
+        for (int i = 0; i < 4; i++) {
+            assertEquals(2, ObjectSelect.query(Artist.class).select(context).size());
+        }
+
+        assertEquals(4, replica1.queries.get() + replica2.queries.get());
+        assertEquals(0, router.getOutstandingQueries(replica1));
+        assertEquals(0, router.getOutstandingQueries(replica2));
+    }
+
+    @Test
+    public void testSelect_InTransaction() {
+        domain.setReadReplicaRouter(createRouter(null, null));
+
+        runtime.performInTransaction(() -> ObjectSelect.query(Artist.class).select(context));
+
+        assertEquals(0, replica1.queries.get());
+        assertEquals(0, replica2.queries.get());
+    }
+
+    @Test
+    public void testCommit_GoesToPrimary() {
+        domain.setReadReplicaRouter(createRouter(null, null));
+
+        Artist a = context.newObject(Artist.class);
+        a.setArtistName("artist3");
+        context.commitChanges();
+
+        assertEquals(0, replica1.queries.get());
+        assertEquals(0, replica2.queries.get());
+    }
+
+    @Test
+    public void testSelect_PinnedAfterCommit() {
+        domain.setReadReplicaRouter(createRouter(null, "60000"));
+
+        Artist a = context.newObject(Artist.class);
+        a.setArtistName("artist3");
+        context.commitChanges();
+
+        assertNotNull(ObjectSelect.query(Artist.class).where(Artist.ARTIST_NAME.eq("artist3")).selectOne(context));
+        assertEquals(0, replica1.queries.get());
+        assertEquals(0, replica2.queries.get());
+
+        // a context without recent commits still reads from replicas
+        DataContext otherContext = (DataContext) runtime.newContext();
+        assertEquals(3, ObjectSelect.query(Artist.class).select(otherContext).size());
+        assertEquals(1, replica1.queries.get() + replica2.queries.get());
+    }
+
+    private DefaultReadReplicaRouter createRouter(String balancing, String pinAfterCommit) {
+        Map<String, String> replicas = new HashMap<>();
+        replicas.put(replica1.getName(), primary.getName());
+        replicas.put(replica2.getName(), primary.getName());
+
+        Map<String, String> properties = new HashMap<>();
+        if (balancing != null) {
+            properties.put(Constants.READ_REPLICAS_BALANCING_PROPERTY, balancing);
+        }
+        if (pinAfterCommit != null) {
+            properties.put(Constants.READ_REPLICAS_PIN_AFTER_COMMIT_PROPERTY, pinAfterCommit);
+        }
+
+        return new DefaultReadReplicaRouter(replicas, new DefaultRuntimeProperties(properties));
+    }
+
+    // a "replica" of the primary node sharing its DataSource, that counts queries run through it
+    private static class CountingNode extends DataNode {
+
+        final AtomicInteger queries = new AtomicInteger();
+
+        CountingNode(String name, DataNode primary) {
+            super(name);
+            setDataSource(primary.getDataSource());
+            setAdapter(primary.getAdapter());
+            setJdbcEventLogger(primary.getJdbcEventLogger());
+            setRowReaderFactory(primary.getRowReaderFactory());
+            setBatchTranslatorFactory(primary.getBatchTranslatorFactory());
+            setSelectTranslatorFactory(primary.getSelectTranslatorFactory());
+            setSqlTemplateProcessor(primary.getSqlTemplateProcessor());
+        }
+
+        @Override
+        public void performQueries(Collection<? extends Query> queries, OperationObserver callback) {
+            this.queries.addAndGet(queries.size());
+            super.performQueries(queries, callback);
+        }
+    }
+}
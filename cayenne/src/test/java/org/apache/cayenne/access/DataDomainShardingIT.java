@@ -0,0 +1,244 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.access;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.cayenne.Cayenne;
+import org.apache.cayenne.CayenneRuntimeException;
+import org.apache.cayenne.ResultIterator;
+import org.apache.cayenne.datasource.DataSourceBuilder;
+import org.apache.cayenne.di.Inject;
+import org.apache.cayenne.map.DbEntity;
+import org.apache.cayenne.query.ObjectSelect;
+import org.apache.cayenne.query.Query;
+import org.apache.cayenne.query.SelectById;
+import org.apache.cayenne.runtime.CayenneRuntime;
+import org.apache.cayenne.testdo.testmap.Artist;
+import org.apache.cayenne.unit.HSQLDBUnitDbAdapter;
+import org.apache.cayenne.unit.UnitDbAdapter;
+import org.apache.cayenne.unit.di.runtime.CayenneProjects;
+import org.apache.cayenne.unit.di.runtime.RuntimeCase;
+import org.apache.cayenne.unit.di.runtime.UseCayenneRuntime;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assume.assumeTrue;
+
+@UseCayenneRuntime(CayenneProjects.TESTMAP_PROJECT)
+public class DataDomainShardingIT extends RuntimeCase {
+
+    @Inject
+    private CayenneRuntime runtime;
+
+    @Inject
+    private UnitDbAdapter unitDbAdapter;
+
+    private DataDomain domain;
+    private ShardRouter defaultRouter;
+    private ShardNode shard0;
+    private ShardNode shard1;
+
+    @Before
+    public void before() throws Exception {
+        // shards are separate in-memory databases
+        assumeTrue(unitDbAdapter instanceof HSQLDBUnitDbAdapter);
+
+        domain = runtime.getDataDomain();
+        DataNode primary = domain.lookupDataNode(domain.getEntityResolver().getObjEntity(Artist.class).getDataMap());
+        DbEntity artist = domain.getEntityResolver().getDbEntity("ARTIST");
+
+        shard0 = new ShardNode("shard0", primary, artist);
+        shard1 = new ShardNode("shard1", primary, artist);
+        domain.addNode(shard0);
+        domain.addNode(shard1);
+
+        defaultRouter = domain.getShardRouter();
+        domain.setShardRouter(new DefaultShardRouter(
+                Map.of("Artist", new HashShardKeyResolver("ARTIST_ID", "shard0", "shard1"))));
+    }
+
+    @After
+    public void after() throws Exception {
+        if (domain != null) {
+            domain.setShardRouter(defaultRouter);
+            domain.removeDataNode(shard0.getName());
+            domain.removeDataNode(shard1.getName());
+            shard0.execute("DROP TABLE ARTIST");
+            shard1.execute("DROP TABLE ARTIST");
+        }
+    }
+
+    @Test
+    public void testCommit_InsertsSplitByShardKey() throws Exception {
+        createArtists(6);
+
+        assertEquals(3, shard0.countRows());
+        assertEquals(3, shard1.countRows());
+        assertEquals(6, shard0.countRows() + shard1.countRows());
+    }
+
+    @Test
+    public void testSelect_ScatterGather() throws Exception {
+        createArtists(6);
+        shard0.queries.set(0);
+        shard1.queries.set(0);
+
+        List<Artist> artists = ObjectSelect.query(Artist.class)
+                .orderBy(Artist.ARTIST_NAME.desc())
+                .select(runtime.newContext());
+
+        assertEquals(6, artists.size());
+        for (int i = 0; i < 6; i++) {
+            assertEquals("a" + (6 - i), artists.get(i).getArtistName());
+        }
+
+        assertEquals(1, shard0.queries.get());
+        assertEquals(1, shard1.queries.get());
+    }
+
+    @Test
+    public void testSelect_ScatterGather_OffsetLimit() throws Exception {
+        createArtists(6);
+
+        List<Artist> artists = ObjectSelect.query(Artist.class)
+                .orderBy(Artist.ARTIST_NAME.asc())
+                .offset(1)
+                .limit(3)
+                .select(runtime.newContext());
+
+        assertEquals(3, artists.size());
+        assertEquals("a2", artists.get(0).getArtistName());
+        assertEquals("a3", artists.get(1).getArtistName());
+        assertEquals("a4", artists.get(2).getArtistName());
+    }
+
+    @Test
+    public void testSelect_ByShardKey() throws Exception {
+        List<Artist> created = createArtists(4);
+        long id = Cayenne.longPKForObject(created.get(0));
+        shard0.queries.set(0);
+        shard1.queries.set(0);
+
+        Artist artist = SelectById.query(Artist.class, id).selectOne(runtime.newContext());
+        assertNotNull(artist);
+        assertEquals(created.get(0).getArtistName(), artist.getArtistName());
+        assertEquals(1, shard0.queries.get() + shard1.queries.get());
+
+        List<Artist> none = ObjectSelect.query(Artist.class)
+                .where(Artist.ARTIST_ID_PK_PROPERTY.eq(id))
+                .and(Artist.ARTIST_NAME.eq("no such name"))
+                .select(runtime.newContext());
+        assertEquals(0, none.size());
+        assertEquals(2, shard0.queries.get() + shard1.queries.get());
+    }
+
+    @Test
+    public void testCommit_UpdateDelete() throws Exception {
+        List<Artist> created = createArtists(4);
+        Artist a1 = created.get(0);
+        Artist a2 = created.get(1);
+        ShardNode a2Shard = Cayenne.longPKForObject(a2) % 2 == 0 ? shard0 : shard1;
+
+        a1.setArtistName("a1_updated");
+        a1.getObjectContext().deleteObject(a2);
+        a1.getObjectContext().commitChanges();
+
+        assertEquals(1, a2Shard.countRows());
+
+        Artist fetched = SelectById.query(Artist.class, Cayenne.longPKForObject(a1)).selectOne(runtime.newContext());
+        assertEquals("a1_updated", fetched.getArtistName());
+        assertNull(SelectById.query(Artist.class, Cayenne.longPKForObject(a2)).selectOne(runtime.newContext()));
+    }
+
+    @Test(expected = CayenneRuntimeException.class)
+    public void testIterator_Scatter() throws Exception {
+        createArtists(2);
+
+        try (ResultIterator<Artist> it = ObjectSelect.query(Artist.class).iterator(runtime.newContext())) {
+            it.nextRow();
+        }
+    }
+
+    private List<Artist> createArtists(int count) {
+        DataContext context = (DataContext) runtime.newContext();
+        for (int i = 1; i <= count; i++) {
+            context.newObject(Artist.class).setArtistName("a" + i);
+        }
+        context.commitChanges();
+
+        return ObjectSelect.query(Artist.class).orderBy(Artist.ARTIST_NAME.asc()).select(context);
+    }
+
+    // a shard node with its own in-memory database, that counts queries run through it
+    private static class ShardNode extends DataNode {
+
+        final AtomicInteger queries = new AtomicInteger();
+
+        ShardNode(String name, DataNode primary, DbEntity table) throws SQLException {
+            super(name);
+            setDataSource(DataSourceBuilder
+                    .url("jdbc:hsqldb:mem:" + name + ";sql.regular_names=false")
+                    .driver("org.hsqldb.jdbcDriver")
+                    .userName("sa")
+                    .password("")
+                    .build());
+            setAdapter(primary.getAdapter());
+            setJdbcEventLogger(primary.getJdbcEventLogger());
+            setRowReaderFactory(primary.getRowReaderFactory());
+            setBatchTranslatorFactory(primary.getBatchTranslatorFactory());
+            setSelectTranslatorFactory(primary.getSelectTranslatorFactory());
+            setSqlTemplateProcessor(primary.getSqlTemplateProcessor());
+
+            execute(getAdapter().createTable(table));
+        }
+
+        void execute(String sql) throws SQLException {
+            try (Connection c = getDataSource().getConnection(); Statement st = c.createStatement()) {
+                st.execute(sql);
+            }
+        }
+
+        int countRows() throws SQLException {
+            try (Connection c = getDataSource().getConnection();
+                 Statement st = c.createStatement();
+                 ResultSet rs = st.executeQuery("SELECT COUNT(*) FROM ARTIST")) {
+                rs.next();
+                return rs.getInt(1);
+            }
+        }
+
+        @Override
+        public void performQueries(Collection<? extends Query> queries, OperationObserver callback) {
+            this.queries.addAndGet(queries.size());
+            super.performQueries(queries, callback);
+        }
+    }
+}
@@ -0,0 +1,179 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.access;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.cayenne.DataRow;
+import org.apache.cayenne.ResultIterator;
+import org.apache.cayenne.access.metrics.QueryExecutionEvent;
+import org.apache.cayenne.access.metrics.QueryMetricsAggregator;
+import org.apache.cayenne.access.metrics.QueryMetricsListener;
+import org.apache.cayenne.access.metrics.QueryShapeStats;
+import org.apache.cayenne.di.Inject;
+import org.apache.cayenne.query.ObjectSelect;
+import org.apache.cayenne.query.SQLSelect;
+import org.apache.cayenne.runtime.CayenneRuntime;
+import org.apache.cayenne.test.jdbc.DBHelper;
+import org.apache.cayenne.test.jdbc.TableHelper;
+import org.apache.cayenne.testdo.testmap.Artist;
+import org.apache.cayenne.unit.di.runtime.CayenneProjects;
+import org.apache.cayenne.unit.di.runtime.RuntimeCase;
+import org.apache.cayenne.unit.di.runtime.UseCayenneRuntime;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@UseCayenneRuntime(CayenneProjects.TESTMAP_PROJECT)
+public class DataNodeQueryMetricsIT extends RuntimeCase {
+
+    @Inject
+    private DataContext context;
+
+    @Inject
+    private CayenneRuntime runtime;
+
+    @Inject
+    private DBHelper dbHelper;
+
+    private DataNode node;
+    private RecordingListener listener;
+
+    @Before
+    public void before() throws Exception {
+        TableHelper tArtist = new TableHelper(dbHelper, "ARTIST");
+        tArtist.setColumns("ARTIST_ID", "ARTIST_NAME");
+        tArtist.insert(34001, "artist1");
+        tArtist.insert(34002, "artist2");
+        tArtist.insert(34003, "artist3");
+
+        DataDomain domain = runtime.getDataDomain();
+        node = domain.lookupDataNode(domain.getEntityResolver().getObjEntity(Artist.class).getDataMap());
+        listener = new RecordingListener();
+        node.setQueryMetricsListener(listener);
+    }
+
+    @After
+    public void after() {
+        node.setQueryMetricsListener(null);
+    }
+
+    @Test
+    public void testSelect() {
+        List<Artist> artists = ObjectSelect.query(Artist.class).select(context);
+        assertEquals(3, artists.size());
+
+        assertEquals(1, listener.events.size());
+        QueryExecutionEvent e = listener.events.get(0);
+        assertEquals(QueryExecutionEvent.Type.SELECT, e.getType());
+        assertEquals(node.getName(), e.getDataNodeName());
+        assertEquals(3, e.getRows());
+        assertTrue(e.getStatementNanos() > 0);
+        assertTrue(e.getFetchNanos() > 0);
+        assertTrue(e.getConnectionWaitNanos() > 0);
+        assertTrue(e.getSql().contains("ARTIST"));
+    }
+
+    @Test
+    public void testSelect_ShapeIgnoresParameters() {
+        QueryMetricsAggregator aggregator = new QueryMetricsAggregator();
+        node.setQueryMetricsListener(aggregator);
+
+        ObjectSelect.query(Artist.class).where(Artist.ARTIST_NAME.in("artist1", "artist2")).select(context);
+        ObjectSelect.query(Artist.class).where(Artist.ARTIST_NAME.in("artist1", "artist2", "artist3")).select(context);
+
+        List<QueryShapeStats> shapes = aggregator.getShapeStats();
+        assertEquals(1, shapes.size());
+        assertEquals(2, shapes.get(0).getCount());
+        assertEquals(5, shapes.get(0).getRows());
+    }
+
+    @Test
+    public void testSelect_Iterated() {
+        try (ResultIterator<Artist> it = ObjectSelect.query(Artist.class).iterator(context)) {
+            assertNotNull(it.nextRow());
+            assertNotNull(it.nextRow());
+
+            // reported on close
+            assertTrue(listener.events.isEmpty());
+        }
+
+        assertEquals(1, listener.events.size());
+        assertEquals(2, listener.events.get(0).getRows());
+    }
+
+    @Test
+    public void testCommit() {
+        Artist a1 = context.newObject(Artist.class);
+        a1.setArtistName("a1");
+        Artist a2 = context.newObject(Artist.class);
+        a2.setArtistName("a2");
+        listener.events.clear();
+
+        context.commitChanges();
+
+        QueryExecutionEvent insert = listener.events.stream()
+                .filter(e -> e.getType() == QueryExecutionEvent.Type.BATCH && e.getSql().startsWith("INSERT"))
+                .findFirst()
+                .orElse(null);
+
+        assertNotNull(insert);
+        assertEquals(2, insert.getBatchSize());
+        assertNull(insert.getBindings());
+    }
+
+    @Test
+    public void testSQLTemplate() {
+        List<DataRow> rows = SQLSelect
+                .dataRowQuery("SELECT * FROM ARTIST WHERE ARTIST_NAME <> #bind($name)")
+                .param("name", "artist1")
+                .select(context);
+        assertEquals(2, rows.size());
+
+        assertEquals(1, listener.events.size());
+        QueryExecutionEvent e = listener.events.get(0);
+        assertEquals(QueryExecutionEvent.Type.SQL_TEMPLATE, e.getType());
+        assertEquals(2, e.getRows());
+        assertEquals("SELECT * FROM ARTIST WHERE ARTIST_NAME <> ?", e.getSqlShape());
+        assertEquals("artist1", e.getBindings()[0].getValue());
+    }
+
+    @Test
+    public void testDisabled() {
+        node.setQueryMetricsListener(null);
+        ObjectSelect.query(Artist.class).select(context);
+        assertTrue(listener.events.isEmpty());
+    }
+
+    private static class RecordingListener implements QueryMetricsListener {
+
+        final List<QueryExecutionEvent> events = new ArrayList<>();
+
+        @Override
+        public synchronized void queryExecuted(QueryExecutionEvent event) {
+            events.add(event);
+        }
+    }
+}
@@ -0,0 +1,237 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.access;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.cayenne.Cayenne;
+import org.apache.cayenne.ObjectContext;
+import org.apache.cayenne.PersistenceState;
+import org.apache.cayenne.di.Inject;
+import org.apache.cayenne.query.ObjectSelect;
+import org.apache.cayenne.runtime.CayenneRuntime;
+import org.apache.cayenne.test.jdbc.DBHelper;
+import org.apache.cayenne.test.jdbc.TableHelper;
+import org.apache.cayenne.testdo.testmap.Artist;
+import org.apache.cayenne.testdo.testmap.Painting;
+import org.apache.cayenne.unit.di.runtime.CayenneProjects;
+import org.apache.cayenne.unit.di.runtime.RuntimeCase;
+import org.apache.cayenne.unit.di.runtime.UseCayenneRuntime;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+@UseCayenneRuntime(CayenneProjects.TESTMAP_PROJECT)
+public class NestedDataContextDirectCommitIT extends RuntimeCase {
+
+    @Inject
+    private CayenneRuntime runtime;
+
+    @Inject
+    private DataContext context;
+
+    @Inject
+    private DBHelper dbHelper;
+
+    private TableHelper tArtist;
+    private TableHelper tPainting;
+
+    @Before
+    public void setUp() throws Exception {
+        tArtist = new TableHelper(dbHelper, "ARTIST");
+        tArtist.setColumns("ARTIST_ID", "ARTIST_NAME");
+
+        tPainting = new TableHelper(dbHelper, "PAINTING");
+        tPainting.setColumns("PAINTING_ID", "PAINTING_TITLE", "ARTIST_ID");
+
+        tArtist.insert(33001, "artist1");
+        tArtist.insert(33002, "artist2");
+    }
+
+    private String artistName(int id) throws Exception {
+        for (Object[] row : tArtist.selectAll()) {
+            if (((Number) row[0]).intValue() == id) {
+                // ARTIST_NAME is CHAR on some DBs
+                return row[1].toString().trim();
+            }
+        }
+        return null;
+    }
+
+    private DataContext createChildContext() {
+        DataContext child = (DataContext) runtime.newContext(context);
+        child.setCommittingDirectlyToDomain(true);
+        return child;
+    }
+
+    @Test
+    public void testCommit_New() throws Exception {
+        DataContext child = createChildContext();
+
+        List<Artist> artists = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            Artist a = child.newObject(Artist.class);
+            artists.add(a);
+            a.setArtistName("new" + i);
+
+            Painting p = child.newObject(Painting.class);
+            p.setPaintingTitle("p" + i);
+            p.setToArtist(a);
+        }
+
+        child.commitChanges();
+
+        assertEquals(7, tArtist.getRowCount());
+        assertEquals(5, tPainting.getRowCount());
+
+        // parent didn't see any of the new objects
+        assertEquals(0, context.getObjectStore().registeredObjectsCount());
+
+        for (Artist a : artists) {
+            assertEquals(PersistenceState.COMMITTED, a.getPersistenceState());
+            assertFalse(a.getObjectId().isTemporary());
+        }
+        assertFalse(child.hasChanges());
+    }
+
+    @Test
+    public void testCommit_Modified() throws Exception {
+        Artist parentArtist = Cayenne.objectForPK(context, Artist.class, 33001);
+        assertEquals("artist1", parentArtist.getArtistName());
+
+        DataContext child = createChildContext();
+        Artist childArtist = child.localObject(parentArtist);
+        childArtist.setArtistName("artist1_updated");
+        child.commitChanges();
+
+        assertEquals("artist1_updated", artistName(33001));
+        assertEquals(PersistenceState.COMMITTED, childArtist.getPersistenceState());
+
+        // parent copy is refreshed with the committed snapshot
+        assertEquals(PersistenceState.COMMITTED, parentArtist.getPersistenceState());
+        assertEquals("artist1_updated", parentArtist.getArtistName());
+        assertFalse(context.hasChanges());
+    }
+
+    @Test
+    public void testCommit_PinsParent() throws Exception {
+        DataDomain domain = runtime.getDataDomain();
+        List<ObjectContext> committed = new ArrayList<>();
+        ReadReplicaRouter router = new ReadReplicaRouter() {
+            @Override
+            public DataNode select(DataDomain domain, DataNode primary, ObjectContext context) {
+                return primary;
+            }
+
+            @Override
+            public void release(DataNode node) {
+            }
+
+            @Override
+            public void committed(ObjectContext context) {
+                committed.add(context);
+            }
+        };
+
+        Artist parentArtist = Cayenne.objectForPK(context, Artist.class, 33001);
+
+        ReadReplicaRouter oldRouter = domain.getReadReplicaRouter();
+        domain.setReadReplicaRouter(router);
+        try {
+            DataContext child = createChildContext();
+            child.localObject(parentArtist).setArtistName("artist1_updated");
+            child.commitChanges();
+        } finally {
+            domain.setReadReplicaRouter(oldRouter);
+        }
+
+        // child queries are routed under the parent context, so the parent must be pinned to the primary
+        assertTrue(committed.contains(context));
+    }
+
+    @Test
+    public void testCommit_Deleted() throws Exception {
+        Artist parentArtist = Cayenne.objectForPK(context, Artist.class, 33002);
+
+        DataContext child = createChildContext();
+        child.deleteObject(child.localObject(parentArtist));
+        child.commitChanges();
+
+        assertEquals(1, tArtist.getRowCount());
+        assertEquals(PersistenceState.TRANSIENT, parentArtist.getPersistenceState());
+        assertNull(context.getGraphManager().getNode(parentArtist.getObjectId()));
+        assertFalse(context.hasChanges());
+    }
+
+    @Test
+    public void testCommit_ParentHasChanges() throws Exception {
+        Artist parentArtist1 = Cayenne.objectForPK(context, Artist.class, 33001);
+        Artist parentArtist2 = Cayenne.objectForPK(context, Artist.class, 33002);
+        parentArtist1.setArtistName("artist1_parent");
+
+        DataContext child = createChildContext();
+        child.localObject(parentArtist2).setArtistName("artist2_child");
+        child.commitChanges();
+
+        // changes of both contexts are committed through the parent
+        assertFalse(context.hasChanges());
+        assertEquals(PersistenceState.COMMITTED, parentArtist2.getPersistenceState());
+        assertEquals("artist2_child", parentArtist2.getArtistName());
+
+        Artist fetched1 = ObjectSelect.query(Artist.class)
+                .where(Artist.ARTIST_NAME.eq("artist1_parent"))
+                .selectOne(runtime.newContext());
+        assertEquals(33001, Cayenne.intPKForObject(fetched1));
+    }
+
+    @Test
+    public void testCommitChangesToParent() throws Exception {
+        Artist parentArtist = Cayenne.objectForPK(context, Artist.class, 33001);
+
+        DataContext child = createChildContext();
+        child.localObject(parentArtist).setArtistName("artist1_updated");
+        child.commitChangesToParent();
+
+        // flush to parent is not affected
+        assertTrue(context.hasChanges());
+        assertEquals(PersistenceState.MODIFIED, parentArtist.getPersistenceState());
+        assertEquals("artist1", artistName(33001));
+    }
+
+    @Test
+    public void testNestedContextDirectCommit_DomainDefault() {
+        DataDomain domain = runtime.getDataDomain();
+        assertFalse(((DataContext) runtime.newContext(context)).isCommittingDirectlyToDomain());
+
+        domain.setNestedContextDirectCommit(true);
+        try {
+            DataContext child = (DataContext) runtime.newContext(context);
+            assertTrue(child.isCommittingDirectlyToDomain());
+            assertSame(context, child.getChannel());
+        } finally {
+            domain.setNestedContextDirectCommit(false);
+        }
+    }
+}
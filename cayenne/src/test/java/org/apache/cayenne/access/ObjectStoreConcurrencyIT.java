@@ -0,0 +1,235 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.access;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+import org.apache.cayenne.DataRow;
+import org.apache.cayenne.ObjectId;
+import org.apache.cayenne.PersistenceState;
+import org.apache.cayenne.access.event.SnapshotEvent;
+import org.apache.cayenne.di.Inject;
+import org.apache.cayenne.query.ObjectSelect;
+import org.apache.cayenne.runtime.CayenneRuntime;
+import org.apache.cayenne.testdo.testmap.Artist;
+import org.apache.cayenne.unit.di.runtime.CayenneProjects;
+import org.apache.cayenne.unit.di.runtime.RuntimeCase;
+import org.apache.cayenne.unit.di.runtime.UseCayenneRuntime;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks the consistency of ObjectStore reads performed concurrently with incoming snapshot events, and logs the read
+ * throughput.
+ *
+ * @since 5.0
+ */
+@UseCayenneRuntime(CayenneProjects.TESTMAP_PROJECT)
+public class ObjectStoreConcurrencyIT extends RuntimeCase {
+
+    private static final Logger logger = LoggerFactory.getLogger(ObjectStoreConcurrencyIT.class);
+
+    private static final int READERS = 64;
+    private static final int OBJECTS = 200;
+    private static final int EVENTS = 5000;
+    private static final int BOUNDED_SIZE = 50;
+
+    @Inject
+    private DataContext context;
+
+    @Inject
+    private CayenneRuntime runtime;
+
+    @Test
+    public void testReadsWithSnapshotEvents() throws Exception {
+
+        // keep hard references to the objects, so that they stay in the ObjectStore regardless of the retain strategy
+        List<Artist> artists = createArtists();
+        ObjectStore objectStore = context.getObjectStore();
+
+        runReadersWithEvents(objectStore, artists, id -> {});
+
+        assertEquals(OBJECTS, objectStore.registeredObjectsCount());
+        assertFinalState(artists);
+    }
+
+    @Test
+    public void testReadsWithSnapshotEvents_Bounded() throws Exception {
+        createArtists();
+
+        BoundedObjectMap objectMap = new BoundedObjectMap(BOUNDED_SIZE);
+        DataContext boundedContext = new DataContext(
+                runtime.getDataDomain(),
+                new ObjectStore(runtime.getDataDomain().getSharedSnapshotCache(), objectMap));
+
+        // the bounded map only keeps weak references to the objects beyond its size, so hold on to them here
+        List<Artist> artists = ObjectSelect.query(Artist.class).orderBy(Artist.ARTIST_NAME.asc()).select(boundedContext);
+        assertEquals(OBJECTS, artists.size());
+        ObjectStore objectStore = boundedContext.getObjectStore();
+
+        runReadersWithEvents(objectStore, artists, id -> {
+            int retained = objectMap.getRetainedSize();
+            if (retained > BOUNDED_SIZE) {
+                throw new IllegalStateException("Too many retained objects: " + retained);
+            }
+        });
+
+        assertEquals(OBJECTS, objectStore.registeredObjectsCount());
+        assertTrue(objectMap.getRetainedSize() <= BOUNDED_SIZE);
+        assertTrue(objectMap.getEvictedCount() > 0);
+        assertFinalState(artists);
+    }
+
+    private List<Artist> createArtists() {
+        List<Artist> artists = new ArrayList<>(OBJECTS);
+        for (int i = 0; i < OBJECTS; i++) {
+            Artist a = context.newObject(Artist.class);
+            a.setArtistName(String.format("a%03d", i));
+            artists.add(a);
+        }
+        context.commitChanges();
+        return artists;
+    }
+
+    // even objects only receive diffs, odd objects are invalidated
+    private void assertFinalState(List<Artist> artists) {
+        for (int i = 0; i < OBJECTS; i++) {
+            Artist a = artists.get(i);
+            if (i % 2 == 0) {
+                assertEquals(PersistenceState.COMMITTED, a.getPersistenceState());
+                assertEquals(String.format("a%03d", i), a.readPropertyDirectly(Artist.ARTIST_NAME.getName()));
+            } else {
+                assertEquals(PersistenceState.HOLLOW, a.getPersistenceState());
+            }
+        }
+    }
+
+    private void runReadersWithEvents(ObjectStore objectStore, List<Artist> artists, Consumer<ObjectId> readCheck)
+            throws Exception {
+
+        List<ObjectId> ids = new ArrayList<>(OBJECTS);
+        for (Artist a : artists) {
+            ids.add(a.getObjectId());
+        }
+
+        Set<Object> known = Collections.newSetFromMap(new IdentityHashMap<>());
+        known.addAll(artists);
+
+        DataRowStore cache = objectStore.getDataRowCache();
+        Object poster = new Object();
+
+        AtomicBoolean done = new AtomicBoolean();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService service = Executors.newFixedThreadPool(READERS + 1);
+
+        try {
+            List<Future<Long>> readers = new ArrayList<>(READERS);
+            for (int i = 0; i < READERS; i++) {
+                readers.add(service.submit(() -> {
+                    start.await();
+                    long reads = 0;
+                    do {
+                        for (int j = 0; j < OBJECTS; j++) {
+                            ObjectId id = ids.get(j);
+
+                            // reads must always see the same registered object in one of the expected states
+                            Object node = objectStore.getNode(id);
+                            if (node != artists.get(j)) {
+                                throw new IllegalStateException("Unexpected object for " + id + ": " + node);
+                            }
+
+                            int state = artists.get(j).getPersistenceState();
+                            if (state != PersistenceState.COMMITTED && state != PersistenceState.HOLLOW) {
+                                throw new IllegalStateException("Unexpected state of " + id + ": " + state);
+                            }
+
+                            readCheck.accept(id);
+                            reads++;
+                        }
+
+                        for (Object o : objectStore.objectsInState(PersistenceState.COMMITTED)) {
+                            if (!known.contains(o)) {
+                                throw new IllegalStateException("Unexpected committed object: " + o);
+                            }
+                        }
+                        reads++;
+                    } while (!done.get());
+                    return reads;
+                }));
+            }
+
+            Future<?> events = service.submit(() -> {
+                start.await();
+                try {
+                    for (int i = 0; i < EVENTS; i++) {
+                        ObjectId id = ids.get(i % OBJECTS);
+                        SnapshotEvent event;
+                        if (i % 2 == 0) {
+                            DataRow diff = new DataRow(2);
+                            diff.put("ARTIST_NAME", "a" + i);
+                            event = new SnapshotEvent(cache, poster, Map.of(id, diff),
+                                    Collections.emptyList(), Collections.emptyList(), Collections.emptyList());
+                        } else {
+                            event = new SnapshotEvent(cache, poster, Collections.emptyMap(),
+                                    Collections.emptyList(), Collections.singletonList(id), Collections.emptyList());
+                        }
+                        objectStore.snapshotsChanged(event);
+                    }
+                } finally {
+                    done.set(true);
+                }
+                return null;
+            });
+
+            long t0 = System.nanoTime();
+            start.countDown();
+            events.get(60, TimeUnit.SECONDS);
+
+            // rethrows the first inconsistency seen by a reader
+            long reads = 0;
+            for (Future<Long> reader : readers) {
+                reads += reader.get(10, TimeUnit.SECONDS);
+            }
+
+            long ms = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - t0);
+            logger.info("{} readers performed {} reads while processing {} snapshot events in {} ms",
+                    READERS, reads, EVENTS, ms);
+
+            assertTrue(reads >= READERS * (OBJECTS + 1));
+        } finally {
+            service.shutdownNow();
+        }
+    }
+}
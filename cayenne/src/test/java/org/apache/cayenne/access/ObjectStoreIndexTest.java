@@ -0,0 +1,159 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.access;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.cayenne.DataRow;
+import org.apache.cayenne.ObjectId;
+import org.apache.cayenne.Persistent;
+import org.apache.cayenne.access.event.SnapshotEvent;
+import org.apache.cayenne.configuration.Constants;
+import org.apache.cayenne.configuration.DefaultRuntimeProperties;
+import org.apache.cayenne.event.MockEventManager;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+public class ObjectStoreIndexTest {
+
+    private DataRowStore cache;
+    private ObjectStoreIndex index;
+
+    @Before
+    public void before() {
+        Map<String, String> properties = Collections.singletonMap(Constants.SNAPSHOT_EVENT_TARGETED_DELIVERY_PROPERTY, "true");
+        cache = new DataRowStore("test", new DefaultRuntimeProperties(properties), new MockEventManager());
+        index = cache.getObjectStoreIndex();
+        assertNotNull(index);
+    }
+
+    @Test
+    public void testSnapshotsChanged_SplitsEvent() {
+        ObjectId id1 = ObjectId.of("E1", "ID", 1);
+        ObjectId id2 = ObjectId.of("E1", "ID", 2);
+        ObjectId id3 = ObjectId.of("E1", "ID", 3);
+
+        RecordingObjectStore s1 = new RecordingObjectStore(cache);
+        RecordingObjectStore s2 = new RecordingObjectStore(cache);
+        RecordingObjectStore s3 = new RecordingObjectStore(cache);
+        s1.registerNode(id1, mock(Persistent.class));
+        s1.registerNode(id2, mock(Persistent.class));
+        s2.registerNode(id2, mock(Persistent.class));
+        s3.registerNode(id3, mock(Persistent.class));
+
+        Map<ObjectId, DataRow> diffs = new HashMap<>();
+        diffs.put(id1, new DataRow(1));
+        index.snapshotsChanged(new SnapshotEvent(cache, this, diffs, List.of(id2), null, null));
+
+        assertEquals(1, s1.events.size());
+        assertEquals(Collections.singleton(id1), s1.events.get(0).getModifiedDiffs().keySet());
+        assertEquals(List.of(id2), s1.events.get(0).getDeletedIds());
+        assertSame(cache, s1.events.get(0).getSource());
+
+        assertEquals(1, s2.events.size());
+        assertTrue(s2.events.get(0).getModifiedDiffs().isEmpty());
+        assertEquals(List.of(id2), s2.events.get(0).getDeletedIds());
+
+        assertEquals(0, s3.events.size());
+    }
+
+    @Test
+    public void testSnapshotsChanged_SkipsPoster() {
+        ObjectId id1 = ObjectId.of("E1", "ID", 1);
+
+        RecordingObjectStore s1 = new RecordingObjectStore(cache);
+        s1.registerNode(id1, mock(Persistent.class));
+
+        index.snapshotsChanged(new SnapshotEvent(cache, s1, null, null, List.of(id1), null));
+        assertEquals(0, s1.events.size());
+    }
+
+    @Test
+    public void testIdChanges() {
+        ObjectId tempId = ObjectId.of("E1");
+        ObjectId id = ObjectId.of("E1", "ID", 1);
+
+        ObjectStore store = new ObjectStore(cache, new HashMap<>());
+        Persistent object = mock(Persistent.class);
+        store.registerNode(tempId, object);
+        assertEquals(1, index.getStores(tempId).size());
+
+        store.processIdChange(tempId, id);
+        assertEquals(0, index.getStores(tempId).size());
+        assertEquals(1, index.getStores(id).size());
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    public void testSweep() {
+        ObjectId id1 = ObjectId.of("E1", "ID", 1);
+        ObjectId id2 = ObjectId.of("E1", "ID", 2);
+
+        // objects disappearing from the map without unregistering, e.g. when garbage collected
+        Map<Object, Persistent> objectMap = new HashMap<>();
+        ObjectStore store = new ObjectStore(cache, objectMap);
+        store.registerNode(id1, mock(Persistent.class));
+        store.registerNode(id2, mock(Persistent.class));
+        objectMap.remove(id1);
+        assertEquals(2, index.size());
+
+        index.sweep();
+        assertEquals(1, index.size());
+        assertEquals(1, index.getStores(id2).size());
+    }
+
+    @Test
+    public void testSetDataRowCache() {
+        ObjectId id1 = ObjectId.of("E1", "ID", 1);
+
+        ObjectStore store = new ObjectStore(null, new HashMap<>());
+        store.registerNode(id1, mock(Persistent.class));
+        assertEquals(0, index.size());
+
+        store.setDataRowCache(cache);
+        assertEquals(1, index.getStores(id1).size());
+
+        store.setDataRowCache(null);
+        assertEquals(0, index.size());
+    }
+
+    private static class RecordingObjectStore extends ObjectStore {
+
+        final List<SnapshotEvent> events = new ArrayList<>();
+
+        RecordingObjectStore(DataRowStore cache) {
+            super(cache, new HashMap<>());
+        }
+
+        @Override
+        public void snapshotsChanged(SnapshotEvent event) {
+            events.add(event);
+        }
+    }
+}
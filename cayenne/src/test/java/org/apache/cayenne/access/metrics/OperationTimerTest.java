@@ -0,0 +1,108 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.access.metrics;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.cayenne.query.ObjectSelect;
+import org.apache.cayenne.query.Query;
+import org.junit.After;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class OperationTimerTest {
+
+    @After
+    public void clearThread() {
+        OperationTimer timer = OperationTimer.current();
+        if (timer != null) {
+            timer.finish();
+        }
+    }
+
+    @Test
+    public void testPhase_NoTimer() {
+        assertNull(OperationTimer.current());
+        try (OperationTimer.PhaseScope scope = OperationTimer.phase(OperationPhase.EXECUTION)) {
+            assertNotNull(scope);
+        }
+    }
+
+    @Test
+    public void testStart_NoListener() {
+        assertNull(OperationTimer.start(OperationTimingEvent.Type.QUERY, null, null));
+        assertNull(OperationTimer.current());
+    }
+
+    @Test
+    public void testStart_Nested() {
+        List<OperationTimingEvent> events = new ArrayList<>();
+        OperationTimer timer = OperationTimer.start(OperationTimingEvent.Type.COMMIT, null, events::add);
+
+        assertNotNull(timer);
+        assertSame(timer, OperationTimer.current());
+        assertNull(OperationTimer.start(OperationTimingEvent.Type.QUERY, null, events::add));
+
+        timer.finish();
+        assertNull(OperationTimer.current());
+        assertEquals(1, events.size());
+        assertEquals(OperationTimingEvent.Type.COMMIT, events.get(0).getType());
+    }
+
+    @Test
+    public void testPhases_Exclusive() throws InterruptedException {
+        List<OperationTimingEvent> events = new ArrayList<>();
+        Query query = ObjectSelect.dataRowQuery(Object.class);
+        OperationTimer timer = OperationTimer.start(OperationTimingEvent.Type.QUERY, query, events::add);
+
+        try (OperationTimer.PhaseScope outer = OperationTimer.phase(OperationPhase.EXECUTION)) {
+            Thread.sleep(5);
+            try (OperationTimer.PhaseScope inner = OperationTimer.phase(OperationPhase.TRANSLATION)) {
+                Thread.sleep(10);
+            }
+            Thread.sleep(5);
+        }
+
+        timer.finish();
+
+        OperationTimingEvent event = events.get(0);
+        assertSame(query, event.getQuery());
+
+        long execution = event.getNanos(OperationPhase.EXECUTION);
+        long translation = event.getNanos(OperationPhase.TRANSLATION);
+        assertTrue(translation >= 10_000_000L);
+        assertTrue(execution >= 10_000_000L);
+
+        // nested time must not be counted twice
+        assertTrue(execution + translation <= event.getTotalNanos());
+
+        long sum = 0;
+        for (long nanos : event.getPhaseNanos().values()) {
+            sum += nanos;
+        }
+        assertEquals(event.getTotalNanos(), sum);
+        assertEquals(0, event.getNanos(OperationPhase.ROW_READING));
+    }
+}
@@ -0,0 +1,146 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.access.metrics;
+
+import java.util.List;
+
+import org.apache.cayenne.access.translator.ParameterBinding;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class QueryMetricsAggregatorTest {
+
+    @Test
+    public void testQueryExecuted_AggregatesByShape() {
+        QueryMetricsAggregator aggregator = new QueryMetricsAggregator();
+
+        aggregator.queryExecuted(select("SELECT * FROM A WHERE ID IN (?, ?)", 2, 1_000, 500));
+        aggregator.queryExecuted(select("SELECT * FROM A WHERE ID IN (?, ?, ?)", 3, 2_000, 500));
+        aggregator.queryExecuted(select("SELECT * FROM B WHERE ID = 5", 1, 100, 0));
+
+        assertEquals(2, aggregator.getShapeStats().size());
+
+        QueryShapeStats a = aggregator.getShapeStats("SELECT * FROM A WHERE ID IN (?)");
+        assertNotNull(a);
+        assertEquals(2, a.getCount());
+        assertEquals(5, a.getRows());
+        assertEquals(4_000, a.getTotalNanos());
+        assertEquals(3_000, a.getStatementNanos());
+        assertEquals(1_000, a.getFetchNanos());
+        assertEquals(2_500, a.getMaxNanos());
+
+        assertNotNull(aggregator.getShapeStats("SELECT * FROM B WHERE ID = ?"));
+    }
+
+    @Test
+    public void testGetTopShapes() {
+        QueryMetricsAggregator aggregator = new QueryMetricsAggregator();
+
+        aggregator.queryExecuted(select("SELECT * FROM A", 1, 100, 0));
+        aggregator.queryExecuted(select("SELECT * FROM B", 1, 300, 0));
+        aggregator.queryExecuted(select("SELECT * FROM C", 1, 200, 0));
+        aggregator.queryExecuted(select("SELECT * FROM A", 1, 150, 0));
+
+        List<QueryShapeStats> top = aggregator.getTopShapes(2);
+        assertEquals(2, top.size());
+        assertEquals("SELECT * FROM B", top.get(0).getShape());
+        assertEquals("SELECT * FROM A", top.get(1).getShape());
+
+        assertEquals(3, aggregator.getTopShapes(10).size());
+    }
+
+    @Test
+    public void testMaxShapes() {
+        QueryMetricsAggregator aggregator = new QueryMetricsAggregator(2, 0, 0);
+
+        aggregator.queryExecuted(select("SELECT * FROM A", 1, 100, 0));
+        aggregator.queryExecuted(select("SELECT * FROM B", 1, 100, 0));
+        aggregator.queryExecuted(select("SELECT * FROM C", 1, 100, 0));
+
+        assertEquals(2, aggregator.getShapeStats().size());
+        assertNull(aggregator.getShapeStats("SELECT * FROM A"));
+    }
+
+    @Test
+    public void testMaxShapes_KeepsExpensiveShapes() {
+        QueryMetricsAggregator aggregator = new QueryMetricsAggregator(10, 0, 0);
+
+        aggregator.queryExecuted(select("SELECT * FROM HEAVY", 1, 5_000_000, 0));
+        for (int i = 0; i < 1000; i++) {
+            aggregator.queryExecuted(select("SELECT * FROM T" + i, 1, 1_000, 0));
+        }
+
+        assertEquals(10, aggregator.getShapeStats().size());
+        assertNotNull(aggregator.getShapeStats("SELECT * FROM HEAVY"));
+        assertEquals("SELECT * FROM HEAVY", aggregator.getTopShapes(1).get(0).getShape());
+
+        // the latest shape is tracked, even though it is one of the cheapest
+        assertNotNull(aggregator.getShapeStats("SELECT * FROM T999"));
+    }
+
+    @Test
+    public void testSlowQueries() {
+        QueryMetricsAggregator aggregator = new QueryMetricsAggregator(10, 1, 2);
+
+        ParameterBinding[] bindings = {new ParameterBinding("x", null, -1), new ParameterBinding(5, null, -1)};
+        aggregator.queryExecuted(new QueryExecutionEvent(QueryExecutionEvent.Type.SELECT, "node",
+                "SELECT * FROM A WHERE N = ? AND M = ?", bindings, 1, 1, 2_000_000, 0, 0));
+
+        // fast query
+        aggregator.queryExecuted(select("SELECT * FROM B", 1, 1_000, 0));
+
+        List<SlowQuery> slow = aggregator.getSlowQueries();
+        assertEquals(1, slow.size());
+        assertEquals("SELECT * FROM A WHERE N = ? AND M = ?", slow.get(0).getSql());
+        assertEquals(List.of("x", "5"), slow.get(0).getBindings());
+        assertEquals("node", slow.get(0).getDataNodeName());
+
+        // values must be captured on the spot
+        bindings[0].setValue("y");
+        assertEquals("x", aggregator.getSlowQueries().get(0).getBindings().get(0));
+
+        aggregator.queryExecuted(select("SELECT * FROM C", 1, 1_000_000, 0));
+        aggregator.queryExecuted(select("SELECT * FROM D", 1, 3_000_000, 0));
+
+        slow = aggregator.getSlowQueries();
+        assertEquals(2, slow.size());
+        assertEquals("SELECT * FROM C", slow.get(0).getSql());
+        assertEquals("SELECT * FROM D", slow.get(1).getSql());
+        assertTrue(slow.get(0).getBindings().isEmpty());
+    }
+
+    @Test
+    public void testReset() {
+        QueryMetricsAggregator aggregator = new QueryMetricsAggregator(10, 1, 10);
+        aggregator.queryExecuted(select("SELECT * FROM A", 1, 2_000_000, 0));
+
+        aggregator.reset();
+        assertTrue(aggregator.getShapeStats().isEmpty());
+        assertTrue(aggregator.getSlowQueries().isEmpty());
+    }
+
+    private static QueryExecutionEvent select(String sql, int rows, long statementNanos, long fetchNanos) {
+        return new QueryExecutionEvent(QueryExecutionEvent.Type.SELECT, "node", sql, null, 1, rows, statementNanos,
+                fetchNanos, 0);
+    }
+}
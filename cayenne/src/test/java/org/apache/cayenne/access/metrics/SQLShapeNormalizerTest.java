@@ -0,0 +1,63 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.access.metrics;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class SQLShapeNormalizerTest {
+
+    @Test
+    public void testNormalize_Literals() {
+        assertEquals("SELECT t0.NAME FROM ARTIST t0 WHERE t0.NAME = ? AND t0.ID > ?",
+                SQLShapeNormalizer.normalize("SELECT t0.NAME FROM ARTIST t0 WHERE t0.NAME = 'it''s' AND t0.ID > 12.5"));
+    }
+
+    @Test
+    public void testNormalize_Identifiers() {
+        assertEquals("SELECT \"COLUMN 1\", `x2`, [y 3], COL_4 FROM T5",
+                SQLShapeNormalizer.normalize("SELECT \"COLUMN 1\", `x2`, [y 3], COL_4 FROM T5"));
+    }
+
+    @Test
+    public void testNormalize_InLists() {
+        String expected = "SELECT t0.ID FROM ARTIST t0 WHERE t0.ID IN (?)";
+        assertEquals(expected, SQLShapeNormalizer.normalize("SELECT t0.ID FROM ARTIST t0 WHERE t0.ID IN (?, ?, ?)"));
+        assertEquals(expected, SQLShapeNormalizer.normalize("SELECT t0.ID FROM ARTIST t0 WHERE t0.ID IN (?,?)"));
+        assertEquals(expected, SQLShapeNormalizer.normalize("SELECT t0.ID FROM ARTIST t0 WHERE t0.ID IN (1, 2, 3)"));
+        assertEquals(expected, SQLShapeNormalizer.normalize("SELECT t0.ID FROM ARTIST t0 WHERE t0.ID IN (?)"));
+
+        // not a parameter list
+        assertEquals("SELECT COUNT(t0.ID) FROM ARTIST t0",
+                SQLShapeNormalizer.normalize("SELECT COUNT(t0.ID) FROM ARTIST t0"));
+    }
+
+    @Test
+    public void testNormalize_WhitespaceAndComments() {
+        assertEquals("SELECT * FROM ARTIST WHERE ID = ?",
+                SQLShapeNormalizer.normalize("  SELECT *\n\tFROM ARTIST -- comment\n WHERE /* 1 */ ID = ?  "));
+    }
+
+    @Test
+    public void testNormalize_Null() {
+        assertNull(SQLShapeNormalizer.normalize(null));
+    }
+}
@@ -0,0 +1,166 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.cache;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.cayenne.map.DbEntity;
+import org.apache.cayenne.query.MockQueryMetadata;
+import org.apache.cayenne.query.QueryMetadata;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+public class AutoInvalidatingQueryCacheTest {
+
+    private MapQueryCache delegate;
+    private AutoInvalidatingQueryCache cache;
+
+    @Before
+    public void before() {
+        delegate = new MapQueryCache(100);
+        cache = new AutoInvalidatingQueryCache(delegate, 2);
+    }
+
+    @Test
+    public void testGet_TracksReads() {
+        QueryMetadata md = metadata("k1", null);
+        cache.get(md, () -> {
+            DbEntityTracker.read(new DbEntity("T1"));
+            DbEntityTracker.read(new DbEntity("T2"));
+            return List.of("r");
+        });
+
+        assertNotNull(cache.get(md));
+
+        cache.invalidate(Set.of("T3"));
+        assertNotNull(cache.get(md));
+
+        cache.invalidate(Set.of("T2"));
+        assertNull(cache.get(md));
+        assertEquals(0, cache.getTrackedEntriesCount());
+    }
+
+    @Test
+    public void testPut_DependsOnRoot() {
+        QueryMetadata md = metadata("k1", new DbEntity("T1"));
+        cache.put(md, List.of("r"));
+        assertEquals(1, cache.getTrackedEntriesCount());
+
+        cache.invalidate(Set.of("T1"));
+        assertNull(cache.get(md));
+    }
+
+    @Test
+    public void testGet_InvalidatedWhileRunning() {
+        QueryMetadata md = metadata("k1", null);
+        List<?> result = cache.get(md, () -> {
+            DbEntityTracker.read(new DbEntity("T1"));
+            cache.invalidate(Set.of("T1"));
+            return List.of("r");
+        });
+
+        // the result is returned to the caller, but is not cached
+        assertEquals(List.of("r"), result);
+        assertNull(cache.get(md));
+    }
+
+    @Test
+    @SuppressWarnings("rawtypes")
+    public void testGet_InvalidatedBeforeStored() {
+        delegate = new MapQueryCache(100) {
+            @Override
+            public List get(QueryMetadata metadata, QueryCacheEntryFactory factory) {
+                List result = factory.createObject();
+
+                // a commit that completes after the query has run, but before its result is stored
+                cache.invalidate(Set.of("T1"));
+                put(metadata, result);
+                return result;
+            }
+        };
+        cache = new AutoInvalidatingQueryCache(delegate, 2);
+
+        QueryMetadata md = metadata("k1", null);
+        List<?> result = cache.get(md, () -> {
+            DbEntityTracker.read(new DbEntity("T1"));
+            return List.of("r");
+        });
+
+        assertEquals(List.of("r"), result);
+        assertNull(cache.get(md));
+        assertEquals(0, cache.getTrackedEntriesCount());
+    }
+
+    @Test
+    public void testEviction_RemovesFromDelegate() {
+        QueryMetadata md1 = metadata("k1", new DbEntity("T1"));
+        QueryMetadata md2 = metadata("k2", new DbEntity("T1"));
+        QueryMetadata md3 = metadata("k3", new DbEntity("T1"));
+
+        cache.put(md1, List.of("r1"));
+        cache.put(md2, List.of("r2"));
+        cache.put(md3, List.of("r3"));
+
+        assertEquals(2, cache.getTrackedEntriesCount());
+        assertNull(delegate.get(md1));
+        assertNotNull(delegate.get(md2));
+        assertNotNull(delegate.get(md3));
+    }
+
+    @Test
+    public void testTracking_Nested() {
+        Set<String> outer = new HashSet<>();
+        Set<String> inner = new HashSet<>();
+
+        DbEntityTracker.trackReads(outer, () -> {
+            DbEntityTracker.read(new DbEntity("T1"));
+            return DbEntityTracker.trackReads(inner, () -> {
+                DbEntityTracker.read(new DbEntity("T2"));
+                DbEntityTracker.written(new DbEntity("T3"));
+                return null;
+            });
+        });
+
+        assertEquals(Set.of("T2"), inner);
+        assertEquals(Set.of("T1", "T2"), outer);
+        assertFalse(DbEntityTracker.isTrackingReads());
+    }
+
+    private static QueryMetadata metadata(String key, DbEntity root) {
+        return new MockQueryMetadata() {
+
+            @Override
+            public String getCacheKey() {
+                return key;
+            }
+
+            @Override
+            public DbEntity getDbEntity() {
+                return root;
+            }
+        };
+    }
+}
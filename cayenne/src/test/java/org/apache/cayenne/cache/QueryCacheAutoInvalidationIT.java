@@ -0,0 +1,198 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.cache;
+
+import java.util.List;
+
+import org.apache.cayenne.CayenneRuntimeException;
+import org.apache.cayenne.ObjectContext;
+import org.apache.cayenne.configuration.runtime.CoreModule;
+import org.apache.cayenne.di.Binder;
+import org.apache.cayenne.di.Inject;
+import org.apache.cayenne.di.Module;
+import org.apache.cayenne.query.ObjectSelect;
+import org.apache.cayenne.runtime.CayenneRuntime;
+import org.apache.cayenne.test.jdbc.DBHelper;
+import org.apache.cayenne.test.jdbc.TableHelper;
+import org.apache.cayenne.testdo.testmap.Artist;
+import org.apache.cayenne.testdo.testmap.Gallery;
+import org.apache.cayenne.testdo.testmap.Painting;
+import org.apache.cayenne.unit.di.runtime.CayenneProjects;
+import org.apache.cayenne.unit.di.runtime.ExtraModules;
+import org.apache.cayenne.unit.di.runtime.RuntimeCase;
+import org.apache.cayenne.unit.di.runtime.UseCayenneRuntime;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+@UseCayenneRuntime(CayenneProjects.TESTMAP_PROJECT)
+@ExtraModules(QueryCacheAutoInvalidationIT.AutoInvalidationModule.class)
+public class QueryCacheAutoInvalidationIT extends RuntimeCase {
+
+    @Inject
+    private CayenneRuntime runtime;
+
+    @Inject
+    private DBHelper dbHelper;
+
+    private TableHelper tArtist;
+
+    @Before
+    public void before() throws Exception {
+        tArtist = new TableHelper(dbHelper, "ARTIST");
+        tArtist.setColumns("ARTIST_ID", "ARTIST_NAME");
+        tArtist.insert(1, "artist1");
+        tArtist.insert(2, "artist2");
+
+        TableHelper tPainting = new TableHelper(dbHelper, "PAINTING");
+        tPainting.setColumns("PAINTING_ID", "ARTIST_ID", "PAINTING_TITLE");
+        tPainting.insert(1, 1, "painting1");
+        tPainting.insert(2, 2, "painting2");
+    }
+
+    @Test
+    public void testCacheIsDecorated() {
+        assertTrue(runtime.getInjector().getInstance(QueryCache.class) instanceof AutoInvalidatingQueryCache);
+    }
+
+    @Test
+    public void testSharedCache_InvalidatedByCommit() {
+        ObjectSelect<Artist> query = ObjectSelect.query(Artist.class).sharedCache();
+        assertEquals(2, query.select(runtime.newContext()).size());
+
+        ObjectContext context = runtime.newContext();
+        context.newObject(Artist.class).setArtistName("artist3");
+        context.commitChanges();
+
+        assertEquals(3, query.select(runtime.newContext()).size());
+    }
+
+    @Test
+    public void testSharedCache_NotInvalidatedByUnrelatedCommit() throws Exception {
+        ObjectSelect<Artist> query = ObjectSelect.query(Artist.class).sharedCache();
+        assertEquals(2, query.select(runtime.newContext()).size());
+
+        // changes made behind Cayenne back are not visible while the entry is cached
+        tArtist.insert(3, "artist3");
+
+        ObjectContext context = runtime.newContext();
+        context.newObject(Gallery.class).setGalleryName("gallery1");
+        context.commitChanges();
+
+        assertEquals(2, query.select(runtime.newContext()).size());
+    }
+
+    @Test
+    public void testSharedCache_InvalidatedByJoinedTable() {
+        ObjectSelect<Painting> query = ObjectSelect.query(Painting.class)
+                .where(Painting.TO_ARTIST.dot(Artist.ARTIST_NAME).eq("artist1"))
+                .sharedCache();
+        assertEquals(1, query.select(runtime.newContext()).size());
+
+        ObjectContext context = runtime.newContext();
+        Artist a2 = ObjectSelect.query(Artist.class).where(Artist.ARTIST_NAME.eq("artist2")).selectOne(context);
+        a2.setArtistName("artist1");
+        context.commitChanges();
+
+        List<Painting> paintings = query.select(runtime.newContext());
+        assertEquals(2, paintings.size());
+    }
+
+    @Test
+    public void testSharedCache_InvalidatedByDelete() {
+        ObjectSelect<Painting> query = ObjectSelect.query(Painting.class).sharedCache();
+        assertEquals(2, query.select(runtime.newContext()).size());
+
+        ObjectContext context = runtime.newContext();
+        context.deleteObject(ObjectSelect.query(Painting.class)
+                .where(Painting.PAINTING_TITLE.eq("painting2"))
+                .selectOne(context));
+        context.commitChanges();
+
+        assertEquals(1, query.select(runtime.newContext()).size());
+    }
+
+    @Test
+    public void testLocalCache_InvalidatedByCommit() {
+        ObjectContext context = runtime.newContext();
+        ObjectSelect<Artist> query = ObjectSelect.query(Artist.class).localCache();
+        assertEquals(2, query.select(context).size());
+
+        ObjectContext otherContext = runtime.newContext();
+        otherContext.newObject(Artist.class).setArtistName("artist3");
+        otherContext.commitChanges();
+
+        assertEquals(3, query.select(context).size());
+    }
+
+    @Test
+    public void testSharedCache_InvalidatedByOuterTransactionCommit() {
+        ObjectSelect<Artist> query = ObjectSelect.query(Artist.class).sharedCache();
+        assertEquals(2, query.select(runtime.newContext()).size());
+
+        int inTransaction = runtime.performInTransaction(() -> {
+            ObjectContext context = runtime.newContext();
+            context.newObject(Artist.class).setArtistName("artist3");
+            context.commitChanges();
+            return query.select(runtime.newContext()).size();
+        });
+
+        // the entry is kept until the outer transaction commits, as other transactions could otherwise cache the old
+        // result again before the change becomes visible to them
+        assertEquals(2, inTransaction);
+        assertEquals(3, query.select(runtime.newContext()).size());
+    }
+
+    @Test
+    public void testSharedCache_InvalidatedByOuterTransactionRollback() {
+        ObjectSelect<Artist> query = ObjectSelect.query(Artist.class)
+                .where(Artist.ARTIST_NAME.startsWith("artist"))
+                .sharedCache();
+        int[] inTransaction = new int[1];
+
+        try {
+            runtime.performInTransaction(() -> {
+                ObjectContext context = runtime.newContext();
+                context.newObject(Artist.class).setArtistName("artist3");
+                context.commitChanges();
+
+                // caches a result with the uncommitted artist
+                inTransaction[0] = query.select(runtime.newContext()).size();
+                throw new IllegalStateException("rollback");
+            });
+            fail();
+        } catch (CayenneRuntimeException e) {
+            assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+
+        assertEquals(3, inTransaction[0]);
+        assertEquals(2, query.select(runtime.newContext()).size());
+    }
+
+    public static class AutoInvalidationModule implements Module {
+
+        @Override
+        public void configure(Binder binder) {
+            CoreModule.extend(binder).queryCacheAutoInvalidation();
+        }
+    }
+}
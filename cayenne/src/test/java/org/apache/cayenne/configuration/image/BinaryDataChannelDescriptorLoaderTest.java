@@ -0,0 +1,222 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.configuration.image;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+
+import org.apache.cayenne.configuration.ConfigurationNameMapper;
+import org.apache.cayenne.configuration.DataChannelDescriptor;
+import org.apache.cayenne.configuration.DataMapLoader;
+import org.apache.cayenne.configuration.DefaultConfigurationNameMapper;
+import org.apache.cayenne.configuration.xml.DataChannelMetaData;
+import org.apache.cayenne.configuration.xml.DefaultHandlerFactory;
+import org.apache.cayenne.configuration.xml.HandlerFactory;
+import org.apache.cayenne.configuration.xml.NoopDataChannelMetaData;
+import org.apache.cayenne.configuration.xml.XMLDataChannelDescriptorLoader;
+import org.apache.cayenne.configuration.xml.XMLDataMapLoader;
+import org.apache.cayenne.configuration.xml.XMLReaderProvider;
+import org.apache.cayenne.di.AdhocObjectFactory;
+import org.apache.cayenne.di.ClassLoaderManager;
+import org.apache.cayenne.di.DIBootstrap;
+import org.apache.cayenne.di.Injector;
+import org.apache.cayenne.di.Module;
+import org.apache.cayenne.di.spi.DefaultAdhocObjectFactory;
+import org.apache.cayenne.di.spi.DefaultClassLoaderManager;
+import org.apache.cayenne.map.DataMap;
+import org.apache.cayenne.resource.URLResource;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.xml.sax.XMLReader;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+public class BinaryDataChannelDescriptorLoaderTest {
+
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
+    private Injector injector;
+    private File projectFile;
+    private File mapFile;
+
+    @Before
+    public void setUp() throws Exception {
+        Module testModule = binder -> {
+            binder.bind(ClassLoaderManager.class).to(DefaultClassLoaderManager.class);
+            binder.bind(AdhocObjectFactory.class).to(DefaultAdhocObjectFactory.class);
+            binder.bind(DataMapLoader.class).to(XMLDataMapLoader.class);
+            binder.bind(ConfigurationNameMapper.class).to(DefaultConfigurationNameMapper.class);
+            binder.bind(HandlerFactory.class).to(DefaultHandlerFactory.class);
+            binder.bind(DataChannelMetaData.class).to(NoopDataChannelMetaData.class);
+            binder.bind(XMLReader.class).toProviderInstance(new XMLReaderProvider(false)).withoutScope();
+        };
+
+        this.injector = DIBootstrap.createInjector(testModule);
+
+        projectFile = copy("cayenne-testmap.xml");
+        mapFile = copy("testmap.map.xml");
+    }
+
+    @Test
+    public void testImageLocation() {
+        assertEquals("cayenne-project.image", ProjectImage.imageLocation("cayenne-project.xml"));
+        assertEquals("cayenne-project.image", ProjectImage.imageLocation("/a/b/cayenne-project.xml"));
+        assertEquals("project.image", ProjectImage.imageLocation("project"));
+    }
+
+    @Test
+    public void testLoad_NoImage() throws Exception {
+        DataChannelDescriptor descriptor = binaryLoader().load(new URLResource(projectFile.toURI().toURL())).getRootNode();
+        assertEquals("testmap", descriptor.getName());
+        assertNull(descriptor.getProperties().get("image"));
+    }
+
+    @Test
+    public void testLoad_Image() throws Exception {
+        writeImage();
+
+        DataChannelDescriptor descriptor = binaryLoader().load(new URLResource(projectFile.toURI().toURL())).getRootNode();
+
+        // marker property proves that the descriptor was read from the image
+        assertEquals("true", descriptor.getProperties().get("image"));
+        assertEquals("testmap", descriptor.getName());
+        assertEquals(projectFile.toURI().toURL(), descriptor.getConfigurationSource().getURL());
+
+        assertEquals(1, descriptor.getDataMaps().size());
+        DataMap map = descriptor.getDataMaps().iterator().next();
+        assertEquals(mapFile.toURI().toURL(), map.getConfigurationSource().getURL());
+        assertNotNull(map.getObjEntity("Artist"));
+        assertNotNull(map.getDbEntity("ARTIST"));
+        assertEquals(map.getDbEntity("ARTIST"), map.getObjEntity("Artist").getDbEntity());
+        assertEquals(map.getObjEntity("Painting"),
+                map.getObjEntity("Artist").getRelationship("paintingArray").getTargetEntity());
+    }
+
+    @Test
+    public void testLoad_StaleImage() throws Exception {
+        writeImage();
+        Files.write(mapFile.toPath(), " ".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+
+        DataChannelDescriptor descriptor = binaryLoader().load(new URLResource(projectFile.toURI().toURL())).getRootNode();
+        assertNull(descriptor.getProperties().get("image"));
+        assertNotNull(descriptor.getDataMap("testmap").getObjEntity("Artist"));
+    }
+
+    @Test
+    public void testLoad_InvalidImage() throws Exception {
+        Files.write(tempFolder.getRoot().toPath().resolve("cayenne-testmap.image"),
+                "not an image".getBytes(StandardCharsets.UTF_8));
+
+        DataChannelDescriptor descriptor = binaryLoader().load(new URLResource(projectFile.toURI().toURL())).getRootNode();
+        assertNotNull(descriptor.getDataMap("testmap").getObjEntity("Artist"));
+    }
+
+    @Test
+    public void testLoad_StaleImageNotDeserialized() throws Exception {
+        ReadTracker.read = false;
+        writeRawImage("stale", new ReadTracker());
+
+        DataChannelDescriptor descriptor = binaryLoader().load(new URLResource(projectFile.toURI().toURL())).getRootNode();
+        assertNotNull(descriptor.getDataMap("testmap").getObjEntity("Artist"));
+        assertFalse(ReadTracker.read);
+    }
+
+    @Test
+    public void testLoad_DisallowedClass() throws Exception {
+        String checksum = ProjectImage.checksum(
+                new URLResource(projectFile.toURI().toURL()),
+                Collections.singletonList("testmap.map.xml"));
+        writeRawImage(checksum, new URL("http://example.org/"));
+
+        DataChannelDescriptor descriptor = binaryLoader().load(new URLResource(projectFile.toURI().toURL())).getRootNode();
+        assertNull(descriptor.getProperties().get("image"));
+        assertNotNull(descriptor.getDataMap("testmap").getObjEntity("Artist"));
+    }
+
+    private void writeRawImage(String checksum, Object contents) throws Exception {
+        File imageFile = new File(tempFolder.getRoot(), ProjectImage.imageLocation(projectFile.getName()));
+        try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(imageFile.toPath()))) {
+            out.writeInt(ProjectImage.MAGIC);
+            out.writeInt(ProjectImage.FORMAT_VERSION);
+            out.writeUTF(ProjectImage.currentCayenneVersion());
+            out.writeUTF(checksum);
+            out.writeInt(1);
+            out.writeUTF("testmap.map.xml");
+
+            ObjectOutputStream objects = new ObjectOutputStream(out);
+            objects.writeObject(contents);
+            objects.flush();
+        }
+    }
+
+    private void writeImage() throws Exception {
+        XMLDataChannelDescriptorLoader xmlLoader = new XMLDataChannelDescriptorLoader();
+        injector.injectMembers(xmlLoader);
+
+        DataChannelDescriptor descriptor = xmlLoader.load(new URLResource(projectFile.toURI().toURL())).getRootNode();
+        descriptor.getProperties().put("image", "true");
+
+        File imageFile = new File(tempFolder.getRoot(), ProjectImage.imageLocation(projectFile.getName()));
+        try (OutputStream out = Files.newOutputStream(imageFile.toPath())) {
+            ProjectImage.write(descriptor, out);
+        }
+    }
+
+    private BinaryDataChannelDescriptorLoader binaryLoader() {
+        BinaryDataChannelDescriptorLoader loader = new BinaryDataChannelDescriptorLoader();
+        injector.injectMembers(loader);
+        return loader;
+    }
+
+    private File copy(String resource) throws Exception {
+        File file = new File(tempFolder.getRoot(), resource);
+        try (InputStream in = getClass().getResourceAsStream("/" + resource)) {
+            Files.copy(in, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+        return file;
+    }
+
+    static class ReadTracker implements Serializable {
+
+        static volatile boolean read;
+
+        private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+            in.defaultReadObject();
+            read = true;
+        }
+    }
+}
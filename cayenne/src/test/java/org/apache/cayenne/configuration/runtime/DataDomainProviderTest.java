@@ -26,6 +26,10 @@ import org.apache.cayenne.access.DataDomain;
 import org.apache.cayenne.access.DataNode;
 import org.apache.cayenne.access.DataRowStoreFactory;
 import org.apache.cayenne.access.DefaultDataRowStoreFactory;
+import org.apache.cayenne.access.DefaultReadReplicaRouter;
+import org.apache.cayenne.access.DefaultShardRouter;
+import org.apache.cayenne.access.ReadReplicaRouter;
+import org.apache.cayenne.access.ShardRouter;
 import org.apache.cayenne.access.dbsync.DefaultSchemaUpdateStrategyFactory;
 import org.apache.cayenne.access.dbsync.SchemaUpdateStrategyFactory;
 import org.apache.cayenne.access.dbsync.SkipSchemaUpdateStrategy;
@@ -236,6 +240,8 @@ public class DataDomainProviderTest {
 
             b.bind(EventBridge.class).toProvider(NoopEventBridgeProvider.class);
             b.bind(DataRowStoreFactory.class).to(DefaultDataRowStoreFactory.class);
+            b.bind(ReadReplicaRouter.class).to(DefaultReadReplicaRouter.class);
+            b.bind(ShardRouter.class).to(DefaultShardRouter.class);
 
             b.bind(ValueObjectTypeRegistry.class).to(DefaultValueObjectTypeRegistry.class);
             b.bind(ValueComparisonStrategyFactory.class).to(DefaultValueComparisonStrategyFactory.class);
@@ -0,0 +1,190 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.event;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.cayenne.CayenneRuntimeException;
+import org.apache.cayenne.DataRow;
+import org.apache.cayenne.ObjectId;
+import org.apache.cayenne.access.event.SnapshotEvent;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class SnapshotEventCodecTest {
+
+    @Test
+    public void testRoundTrip() {
+        ObjectId a1 = ObjectId.of("Artist", "ARTIST_ID", 1L);
+        ObjectId a2 = ObjectId.of("Artist", "ARTIST_ID", 2L);
+        ObjectId p1 = ObjectId.of("Painting", "PAINTING_ID", 1);
+        ObjectId compound = ObjectId.of("Compound", Map.of("K1", "x", "K2", 5));
+
+        DataRow diff = new DataRow(2);
+        diff.put("ARTIST_NAME", "b");
+        diff.put("DATE_OF_BIRTH", null);
+
+        Map<ObjectId, DataRow> diffs = new HashMap<>();
+        diffs.put(a1, diff);
+
+        SnapshotEvent event = new SnapshotEvent(this, this, diffs, List.of(a2), List.of(p1), List.of(compound));
+        byte[] message = SnapshotEventCodec.encode("node1", "external", "subject", event);
+
+        Object source = new Object();
+        SnapshotEventCodec.Message decoded = SnapshotEventCodec.decode(message, source);
+        assertEquals("node1", decoded.senderId);
+        assertEquals("external", decoded.externalSubject);
+        assertEquals("subject", decoded.subjectName);
+        assertSame(source, decoded.event.getSource());
+
+        assertEquals(diffs, decoded.event.getModifiedDiffs());
+        assertEquals(List.of(a2), decoded.event.getDeletedIds());
+        assertEquals(List.of(p1), decoded.event.getInvalidatedIds());
+        assertEquals(List.of(compound), decoded.event.getIndirectlyModifiedIds());
+    }
+
+    @Test
+    public void testRoundTrip_ValueTypes() {
+        java.sql.Timestamp timestamp = new java.sql.Timestamp(1_000_000L);
+        timestamp.setNanos(123_456_789);
+
+        DataRow diff = new DataRow(20);
+        diff.put("STRING", "ü-中");
+        diff.put("INTEGER", Integer.MIN_VALUE);
+        diff.put("LONG", Long.MAX_VALUE);
+        diff.put("SHORT", (short) -3);
+        diff.put("BYTE", (byte) 7);
+        diff.put("BOOLEAN", true);
+        diff.put("DOUBLE", 1.5d);
+        diff.put("FLOAT", -2.25f);
+        diff.put("CHARACTER", 'c');
+        diff.put("BIG_DECIMAL", new BigDecimal("-12345678901234567890.0012"));
+        diff.put("BIG_INTEGER", new BigInteger("123456789012345678901234567890"));
+        diff.put("DATE", new java.util.Date(5_000L));
+        diff.put("SQL_DATE", new java.sql.Date(86_400_000L));
+        diff.put("SQL_TIME", new java.sql.Time(3_600_000L));
+        diff.put("SQL_TIMESTAMP", timestamp);
+        diff.put("LOCAL_DATE", LocalDate.of(2020, 2, 29));
+        diff.put("LOCAL_TIME", LocalTime.of(23, 59, 59, 999));
+        diff.put("LOCAL_DATE_TIME", LocalDateTime.of(1999, 12, 31, 1, 2, 3, 4));
+
+        ObjectId id = ObjectId.of("E", "ID", 1);
+        DataRow decoded = roundTrip(Map.of(id, diff)).get(id);
+
+        assertEquals(diff.size(), decoded.size());
+        for (Map.Entry<String, Object> e : diff.entrySet()) {
+            assertEquals(e.getKey(), e.getValue(), decoded.get(e.getKey()));
+            assertEquals(e.getKey(), e.getValue().getClass(), decoded.get(e.getKey()).getClass());
+        }
+    }
+
+    @Test
+    public void testRoundTrip_Bytes() {
+        byte[] bytes = new byte[70_000];
+        Arrays.fill(bytes, (byte) 3);
+
+        DataRow diff = new DataRow(1);
+        diff.put("BYTES", bytes);
+
+        ObjectId id = ObjectId.of("E", "ID", 1);
+        assertArrayEquals(bytes, (byte[]) roundTrip(Map.of(id, diff)).get(id).get("BYTES"));
+    }
+
+    @Test
+    public void testEncode_NamesWrittenOnce() {
+        Map<ObjectId, DataRow> diffs = new HashMap<>();
+        for (int i = 0; i < 100; i++) {
+            DataRow diff = new DataRow(1);
+            diff.put("A_VERY_LONG_COLUMN_NAME", i);
+            diffs.put(ObjectId.of("AVeryLongEntityName", "A_VERY_LONG_ID_COLUMN", i), diff);
+        }
+
+        SnapshotEvent event = new SnapshotEvent(this, this, diffs, List.of(), List.of(), List.of());
+        byte[] message = SnapshotEventCodec.encode("n", "e", "s", event);
+
+        String text = new String(message, StandardCharsets.ISO_8859_1);
+        assertEquals(text.indexOf("AVeryLongEntityName"), text.lastIndexOf("AVeryLongEntityName"));
+        assertEquals(text.indexOf("A_VERY_LONG_COLUMN_NAME"), text.lastIndexOf("A_VERY_LONG_COLUMN_NAME"));
+        assertTrue(message.length < 100 * 20);
+    }
+
+    @Test
+    public void testEncode_SkipsTemporaryIds() {
+        ObjectId permanent = ObjectId.of("E", "ID", 1);
+        SnapshotEvent event = new SnapshotEvent(
+                this,
+                this,
+                Collections.emptyMap(),
+                List.of(ObjectId.of("E"), permanent),
+                List.of(),
+                List.of());
+
+        byte[] message = SnapshotEventCodec.encode("n", "e", "s", event);
+        assertEquals(List.of(permanent), SnapshotEventCodec.decode(message, this).event.getDeletedIds());
+    }
+
+    @Test(expected = CayenneRuntimeException.class)
+    public void testEncode_UnsupportedValue() {
+        DataRow diff = new DataRow(1);
+        diff.put("X", new Object());
+        SnapshotEvent event = new SnapshotEvent(
+                this,
+                this,
+                Map.of(ObjectId.of("E", "ID", 1), diff),
+                List.of(),
+                List.of(),
+                List.of());
+
+        SnapshotEventCodec.encode("n", "e", "s", event);
+    }
+
+    @Test(expected = CayenneRuntimeException.class)
+    public void testDecode_Malformed() {
+        SnapshotEventCodec.decode(new byte[]{1, 2, 3, 4, 5}, this);
+    }
+
+    @Test(expected = CayenneRuntimeException.class)
+    public void testDecode_Truncated() {
+        ObjectId id = ObjectId.of("E", "ID", 1);
+        SnapshotEvent event = new SnapshotEvent(this, this, Map.of(), List.of(id), List.of(), List.of());
+        byte[] message = SnapshotEventCodec.encode("n", "e", "s", event);
+
+        SnapshotEventCodec.decode(Arrays.copyOf(message, message.length - 3), this);
+    }
+
+    private Map<ObjectId, DataRow> roundTrip(Map<ObjectId, DataRow> diffs) {
+        SnapshotEvent event = new SnapshotEvent(this, this, diffs, List.of(), List.of(), List.of());
+        byte[] message = SnapshotEventCodec.encode("n", "e", "s", event);
+        return SnapshotEventCodec.decode(message, this).event.getModifiedDiffs();
+    }
+}
@@ -0,0 +1,193 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.event;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.apache.cayenne.test.parallel.ParallelTestContainer;
+import org.junit.After;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TcpEventTransportTest {
+
+    private final List<AutoCloseable> resources = new ArrayList<>();
+
+    @After
+    public void close() throws Exception {
+        for (AutoCloseable resource : resources) {
+            resource.close();
+        }
+        resources.clear();
+    }
+
+    @Test
+    public void testReceive_RejectsNonPeers() throws Exception {
+        List<byte[]> received = new CopyOnWriteArrayList<>();
+        TcpEventTransport transport = startTransport(
+                List.of(new InetSocketAddress("127.0.0.2", 1)),
+                TcpEventTransport.DEFAULT_MAX_INBOUND_CONNECTIONS,
+                received);
+
+        Socket stranger = connect("127.0.0.1", transport);
+        write(stranger, new byte[]{1});
+        assertClosed(stranger);
+
+        Socket peer = connect("127.0.0.2", transport);
+        write(peer, new byte[]{2});
+
+        awaitMessages(received, 1);
+        assertArrayEquals(new byte[]{2}, received.get(0));
+    }
+
+    @Test
+    public void testReceive_MaxInboundConnections() throws Exception {
+        List<byte[]> received = new CopyOnWriteArrayList<>();
+        TcpEventTransport transport = startTransport(
+                List.of(new InetSocketAddress("127.0.0.1", 1)),
+                1,
+                received);
+
+        Socket first = connect("127.0.0.1", transport);
+        write(first, new byte[]{1});
+        awaitMessages(received, 1);
+
+        Socket second = connect("127.0.0.1", transport);
+        assertClosed(second);
+
+        // the connection slot is released when a peer disconnects
+        first.close();
+        ParallelTestContainer helper = new ParallelTestContainer() {
+
+            @Override
+            protected void assertResult() throws Exception {
+                Socket third = connect("127.0.0.1", transport);
+                write(third, new byte[]{3});
+                assertEquals(2, received.size());
+            }
+        };
+        helper.runTest(5000);
+    }
+
+    @Test(timeout = 30000)
+    public void testSend_HungPeer() throws Exception {
+
+        // accepts connections, but never reads from them
+        ServerSocket hungPeer = new ServerSocket(0, 50, InetAddress.getByName("127.0.0.1"));
+        resources.add(hungPeer);
+
+        List<byte[]> received = new CopyOnWriteArrayList<>();
+        TcpEventTransport goodPeer = startTransport(
+                List.of(new InetSocketAddress("127.0.0.1", 1)),
+                TcpEventTransport.DEFAULT_MAX_INBOUND_CONNECTIONS,
+                received);
+
+        TcpEventTransport sender = new TcpEventTransport(
+                new InetSocketAddress("127.0.0.1", 0),
+                List.of((InetSocketAddress) hungPeer.getLocalSocketAddress(), goodPeer.getLocalAddress()),
+                4,
+                TcpEventTransport.DEFAULT_MAX_INBOUND_CONNECTIONS);
+        sender.start(m -> {});
+        resources.add(sender::stop);
+
+        // enough data to fill up the socket buffers of the hung peer connection. The messages that don't fit in the
+        // queues are dropped, but the last one must still be delivered to the good peer
+        byte[] message = new byte[1024 * 1024];
+        for (int i = 0; i < 64; i++) {
+            sender.send(message);
+        }
+
+        byte[] marker = new byte[]{1, 2, 3};
+        sender.send(marker);
+
+        ParallelTestContainer helper = new ParallelTestContainer() {
+
+            @Override
+            protected void assertResult() {
+                assertTrue(received.stream().anyMatch(m -> Arrays.equals(marker, m)));
+            }
+        };
+        helper.runTest(20000);
+    }
+
+    private TcpEventTransport startTransport(
+            List<InetSocketAddress> peers,
+            int maxInboundConnections,
+            List<byte[]> received) throws Exception {
+
+        TcpEventTransport transport = new TcpEventTransport(
+                new InetSocketAddress("127.0.0.1", 0),
+                peers,
+                TcpEventTransport.DEFAULT_SEND_QUEUE_CAPACITY,
+                maxInboundConnections);
+        transport.start(received::add);
+        resources.add(transport::stop);
+        return transport;
+    }
+
+    private Socket connect(String localHost, TcpEventTransport transport) throws IOException {
+        Socket socket = new Socket();
+        resources.add(socket);
+        socket.setSoTimeout(5000);
+        socket.bind(new InetSocketAddress(localHost, 0));
+        socket.connect(transport.getLocalAddress(), 1000);
+        return socket;
+    }
+
+    private static void write(Socket socket, byte[] message) throws IOException {
+        DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+        out.writeInt(message.length);
+        out.write(message);
+        out.flush();
+    }
+
+    private static void assertClosed(Socket socket) throws IOException {
+        InputStream in = socket.getInputStream();
+        try {
+            assertEquals(-1, in.read());
+        } catch (SocketException e) {
+            // connection reset by the transport is also fine
+        }
+    }
+
+    private static void awaitMessages(List<byte[]> received, int count) throws Exception {
+        ParallelTestContainer helper = new ParallelTestContainer() {
+
+            @Override
+            protected void assertResult() {
+                assertEquals(count, received.size());
+            }
+        };
+        helper.runTest(5000);
+    }
+}
@@ -0,0 +1,154 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.event;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.cayenne.DataRow;
+import org.apache.cayenne.ObjectContext;
+import org.apache.cayenne.ObjectId;
+import org.apache.cayenne.access.DataRowStore;
+import org.apache.cayenne.configuration.runtime.CoreModule;
+import org.apache.cayenne.di.Binder;
+import org.apache.cayenne.di.Inject;
+import org.apache.cayenne.di.Module;
+import org.apache.cayenne.query.SelectById;
+import org.apache.cayenne.runtime.CayenneRuntime;
+import org.apache.cayenne.test.jdbc.DBHelper;
+import org.apache.cayenne.test.jdbc.TableHelper;
+import org.apache.cayenne.test.parallel.ParallelTestContainer;
+import org.apache.cayenne.testdo.testmap.Artist;
+import org.apache.cayenne.unit.di.runtime.CayenneProjects;
+import org.apache.cayenne.unit.di.runtime.ExtraModules;
+import org.apache.cayenne.unit.di.runtime.RuntimeCase;
+import org.apache.cayenne.unit.di.runtime.UseCayenneRuntime;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+@UseCayenneRuntime(CayenneProjects.TESTMAP_PROJECT)
+@ExtraModules(TransportEventBridgeIT.EventBridgeModule.class)
+public class TransportEventBridgeIT extends RuntimeCase {
+
+    static final int PORT1 = freePort();
+    static final int PORT2 = freePort();
+
+    @Inject
+    private CayenneRuntime runtime;
+
+    @Inject
+    private DBHelper dbHelper;
+
+    private CayenneRuntime remoteRuntime;
+    private DataRowStore remoteStore;
+
+    @Before
+    public void before() throws Exception {
+        TableHelper tArtist = new TableHelper(dbHelper, "ARTIST");
+        tArtist.setColumns("ARTIST_ID", "ARTIST_NAME");
+        tArtist.insert(1, "artist1");
+
+        // a runtime without a project, that only shares the snapshot cache with the runtime under test
+        remoteRuntime = CayenneRuntime.builder(runtime.getDataDomain().getName())
+                .addModule(b -> CoreModule.extend(b)
+                        .tcpEventBridge("127.0.0.1:" + PORT2, "127.0.0.1:" + PORT1)
+                        .eventBridgeBatchWindow(5))
+                .build();
+        remoteStore = remoteRuntime.getDataDomain().getSharedSnapshotCache();
+    }
+
+    @After
+    public void after() {
+        remoteRuntime.shutdown();
+    }
+
+    @Test
+    public void testCommit_Update() throws Exception {
+        ObjectContext context = runtime.newContext();
+        Artist artist = SelectById.queryId(Artist.class, 1).selectOne(context);
+        ObjectId id = artist.getObjectId();
+        seedRemoteSnapshot(id);
+
+        artist.setArtistName("artist1_updated");
+        context.commitChanges();
+
+        ParallelTestContainer helper = new ParallelTestContainer() {
+
+            @Override
+            protected void assertResult() {
+                DataRow snapshot = remoteStore.getCachedSnapshot(id);
+                assertNotNull(snapshot);
+                assertEquals("artist1_updated", snapshot.get("ARTIST_NAME"));
+            }
+        };
+        helper.runTest(5000);
+    }
+
+    @Test
+    public void testCommit_Delete() throws Exception {
+        ObjectContext context = runtime.newContext();
+        Artist artist = SelectById.queryId(Artist.class, 1).selectOne(context);
+        ObjectId id = artist.getObjectId();
+        seedRemoteSnapshot(id);
+
+        context.deleteObject(artist);
+        context.commitChanges();
+
+        ParallelTestContainer helper = new ParallelTestContainer() {
+
+            @Override
+            protected void assertResult() {
+                assertNull(remoteStore.getCachedSnapshot(id));
+            }
+        };
+        helper.runTest(5000);
+    }
+
+    // the remote runtime has no DB access, so copy the snapshot fetched by the runtime under test
+    private void seedRemoteSnapshot(ObjectId id) {
+        DataRow snapshot = new DataRow(runtime.getDataDomain().getSharedSnapshotCache().getCachedSnapshot(id));
+        remoteStore.processSnapshotChanges(this, Map.of(id, snapshot), List.of(), List.of(), List.of());
+        assertEquals("artist1", remoteStore.getCachedSnapshot(id).get("ARTIST_NAME"));
+    }
+
+    private static int freePort() {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    public static class EventBridgeModule implements Module {
+
+        @Override
+        public void configure(Binder binder) {
+            CoreModule.extend(binder)
+                    .tcpEventBridge("127.0.0.1:" + PORT1, "127.0.0.1:" + PORT2)
+                    .eventBridgeBatchWindow(5);
+        }
+    }
+}
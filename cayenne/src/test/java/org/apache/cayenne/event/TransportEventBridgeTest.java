@@ -0,0 +1,376 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.event;
+
+import java.io.IOException;
+import java.net.DatagramSocket;
+import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import org.apache.cayenne.DataRow;
+import org.apache.cayenne.ObjectId;
+import org.apache.cayenne.access.DataRowStore;
+import org.apache.cayenne.access.DefaultDataRowStoreFactory;
+import org.apache.cayenne.access.event.SnapshotEvent;
+import org.apache.cayenne.configuration.DefaultRuntimeProperties;
+import org.apache.cayenne.configuration.runtime.CoreModule;
+import org.apache.cayenne.configuration.runtime.CoreModuleExtender;
+import org.apache.cayenne.runtime.CayenneRuntime;
+import org.apache.cayenne.test.parallel.ParallelTestContainer;
+import org.junit.After;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class TransportEventBridgeTest {
+
+    private static final EventSubject SUBJECT = EventSubject.getSubject(TransportEventBridgeTest.class, "test");
+
+    private final List<DefaultEventManager> managers = new ArrayList<>();
+    private final List<CayenneRuntime> runtimes = new ArrayList<>();
+    private final List<DataRowStore> stores = new ArrayList<>();
+
+    @After
+    public void shutdown() {
+        runtimes.forEach(CayenneRuntime::shutdown);
+        runtimes.clear();
+        stores.forEach(DataRowStore::shutdown);
+        stores.clear();
+        managers.forEach(DefaultEventManager::shutdown);
+        managers.clear();
+    }
+
+    @Test
+    public void testSendExternalEvent_Batched() throws Exception {
+        RecordingTransport transport = new RecordingTransport(Integer.MAX_VALUE);
+        TransportEventBridge bridge = startBridge(transport, 200);
+
+        ObjectId a1 = ObjectId.of("Artist", "ARTIST_ID", 1);
+        ObjectId a2 = ObjectId.of("Artist", "ARTIST_ID", 2);
+        bridge.sendExternalEvent(event(Map.of(a1, diff("NAME", "x", "YEAR", 1)), List.of()));
+        bridge.sendExternalEvent(event(Map.of(a1, diff("NAME", "y")), List.of()));
+        bridge.sendExternalEvent(event(Map.of(), List.of(a2)));
+        awaitMessages(transport, 1);
+
+        // the events are sent in order, so if the first batch was split, the marker would be at least the third message
+        ObjectId marker = ObjectId.of("Artist", "ARTIST_ID", 3);
+        bridge.sendExternalEvent(event(Map.of(), List.of(marker)));
+        awaitMessages(transport, 2);
+
+        SnapshotEventCodec.Message message = SnapshotEventCodec.decode(transport.messages.get(0), this);
+        assertEquals(bridge.nodeId, message.senderId);
+        assertEquals(SUBJECT.getSubjectName(), message.subjectName);
+        assertEquals(Map.of(a1, diff("NAME", "y", "YEAR", 1)), message.event.getModifiedDiffs());
+        assertEquals(List.of(a2), message.event.getDeletedIds());
+
+        SnapshotEventCodec.Message markerMessage = SnapshotEventCodec.decode(transport.messages.get(1), this);
+        assertTrue(markerMessage.event.getModifiedDiffs().isEmpty());
+        assertEquals(List.of(marker), markerMessage.event.getDeletedIds());
+    }
+
+    @Test
+    public void testSendExternalEvent_Split() throws Exception {
+        RecordingTransport transport = new RecordingTransport(200);
+        TransportEventBridge bridge = startBridge(transport, 0);
+
+        List<ObjectId> ids = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            ids.add(ObjectId.of("Artist", "ARTIST_ID", i));
+        }
+        bridge.sendExternalEvent(event(Map.of(), ids));
+
+        ParallelTestContainer helper = new ParallelTestContainer() {
+
+            @Override
+            protected void assertResult() {
+                assertEquals(ids.size(), decoded(transport, e -> e.getDeletedIds()).size());
+            }
+        };
+        helper.runTest(5000);
+
+        assertTrue(transport.messages.size() > 1);
+        for (byte[] message : transport.messages) {
+            assertTrue(message.length <= 200);
+        }
+        assertTrue(decoded(transport, e -> e.getDeletedIds()).containsAll(ids));
+    }
+
+    @Test
+    public void testSendExternalEvent_LargeDiffInvalidated() throws Exception {
+        RecordingTransport transport = new RecordingTransport(200);
+        TransportEventBridge bridge = startBridge(transport, 0);
+
+        ObjectId id = ObjectId.of("Artist", "ARTIST_ID", 1);
+        bridge.sendExternalEvent(event(Map.of(id, diff("NAME", "x".repeat(1000))), List.of()));
+
+        awaitMessages(transport, 1);
+        SnapshotEventCodec.Message message = SnapshotEventCodec.decode(transport.messages.get(0), this);
+        assertTrue(message.event.getModifiedDiffs().isEmpty());
+        assertEquals(List.of(id), message.event.getInvalidatedIds());
+    }
+
+    @Test
+    public void testSendExternalEvent_UnsupportedValueInvalidated() throws Exception {
+        RecordingTransport transport = new RecordingTransport(Integer.MAX_VALUE);
+        TransportEventBridge bridge = startBridge(transport, 0);
+
+        ObjectId id = ObjectId.of("Artist", "ARTIST_ID", 1);
+        bridge.sendExternalEvent(event(Map.of(id, diff("NAME", new Object())), List.of()));
+
+        awaitMessages(transport, 1);
+        SnapshotEventCodec.Message message = SnapshotEventCodec.decode(transport.messages.get(0), this);
+        assertTrue(message.event.getModifiedDiffs().isEmpty());
+        assertEquals(List.of(id), message.event.getInvalidatedIds());
+    }
+
+    @Test
+    public void testReceive_IgnoresOwnMessages() throws Exception {
+        RecordingTransport transport = new RecordingTransport(Integer.MAX_VALUE);
+        List<CayenneEvent> received = new ArrayList<>();
+
+        // messages are decoded on the transport thread, so the received events can be checked synchronously
+        TransportEventBridge bridge = new TransportEventBridge(SUBJECT, "external", transport, 0) {
+
+            @Override
+            protected void onExternalEvent(CayenneEvent event) {
+                received.add(event);
+            }
+        };
+        startBridge(bridge);
+
+        ObjectId id = ObjectId.of("Artist", "ARTIST_ID", 1);
+        SnapshotEvent event = event(Map.of(), List.of(id));
+        transport.receiver.accept(SnapshotEventCodec.encode(bridge.nodeId, bridge.getExternalSubject(), SUBJECT.getSubjectName(), event));
+        transport.receiver.accept(SnapshotEventCodec.encode("other", "other_subject", SUBJECT.getSubjectName(), event));
+        transport.receiver.accept(new byte[]{1, 2, 3});
+        transport.receiver.accept(SnapshotEventCodec.encode("other", bridge.getExternalSubject(), SUBJECT.getSubjectName(), event));
+
+        assertEquals(1, received.size());
+        assertEquals(List.of(id), ((SnapshotEvent) received.get(0)).getDeletedIds());
+    }
+
+    @Test
+    public void testReceive_NotSentBack() throws Exception {
+        RecordingTransport transport = new RecordingTransport(Integer.MAX_VALUE);
+        TransportEventBridge bridge = new TransportEventBridge(
+                EventSubject.getSubject(DataRowStore.class, "echo"),
+                "external",
+                transport,
+                0);
+
+        DefaultEventManager manager = new DefaultEventManager();
+        managers.add(manager);
+        DataRowStore store = new DefaultDataRowStoreFactory(
+                () -> bridge,
+                manager,
+                new DefaultRuntimeProperties(Map.of())).createDataRowStore("echo");
+        stores.add(store);
+
+        ObjectId id1 = ObjectId.of("Artist", "ARTIST_ID", 1L);
+        ObjectId id2 = ObjectId.of("Artist", "ARTIST_ID", 2L);
+        store.processSnapshotChanges(
+                this,
+                Map.of(id1, diff("ARTIST_ID", 1L), id2, diff("ARTIST_ID", 2L)),
+                List.of(),
+                List.of(),
+                List.of());
+
+        SnapshotEvent remote = new SnapshotEvent(this, this, Map.of(), List.of(id1), List.of(), List.of());
+        transport.receiver.accept(SnapshotEventCodec.encode(
+                "other",
+                bridge.getExternalSubject(),
+                store.getSnapshotEventSubject().getSubjectName(),
+                remote));
+
+        ParallelTestContainer helper = new ParallelTestContainer() {
+
+            @Override
+            protected void assertResult() {
+                assertNull(store.getCachedSnapshot(id1));
+            }
+        };
+        helper.runTest(5000);
+
+        // local changes are sent in order, so the remote change would be sent before this one if it was sent back
+        store.processSnapshotChanges(this, Map.of(), List.of(id2), List.of(), List.of());
+        awaitMessages(transport, 1);
+
+        SnapshotEventCodec.Message message = SnapshotEventCodec.decode(transport.messages.get(0), this);
+        assertEquals(List.of(id2), message.event.getDeletedIds());
+        assertTrue(message.event.getInvalidatedIds().isEmpty());
+    }
+
+    @Test
+    public void testTcp_TwoRuntimes() throws Exception {
+        int port1 = freeTcpPort();
+        int port2 = freeTcpPort();
+        testTwoRuntimes(
+                e -> e.tcpEventBridge("127.0.0.1:" + port1, "127.0.0.1:" + port2),
+                e -> e.tcpEventBridge("127.0.0.1:" + port2, "127.0.0.1:" + port1));
+    }
+
+    @Test
+    public void testUdp_TwoRuntimes() throws Exception {
+        int port1 = freeUdpPort();
+        int port2 = freeUdpPort();
+        testTwoRuntimes(
+                e -> e.udpEventBridge("127.0.0.1:" + port1, "127.0.0.1:" + port2),
+                e -> e.udpEventBridge("127.0.0.1:" + port2, "127.0.0.1:" + port1));
+    }
+
+    private void testTwoRuntimes(Consumer<CoreModuleExtender> config1, Consumer<CoreModuleExtender> config2)
+            throws Exception {
+
+        DataRowStore store1 = startRuntime(config1).getDataDomain().getSharedSnapshotCache();
+        DataRowStore store2 = startRuntime(config2).getDataDomain().getSharedSnapshotCache();
+
+        ObjectId id1 = ObjectId.of("Artist", "ARTIST_ID", 1L);
+        ObjectId id2 = ObjectId.of("Artist", "ARTIST_ID", 2L);
+
+        // inserting new snapshots doesn't generate any events
+        for (DataRowStore store : List.of(store1, store2)) {
+            store.processSnapshotChanges(
+                    this,
+                    Map.of(id1, diff("ARTIST_ID", 1L, "ARTIST_NAME", "a1"), id2, diff("ARTIST_ID", 2L)),
+                    List.of(),
+                    List.of(),
+                    List.of());
+        }
+
+        DataRow updated = diff("ARTIST_ID", 1L, "ARTIST_NAME", "a1_updated");
+        updated.setReplacesVersion(store1.getCachedSnapshot(id1).getVersion());
+        store1.processSnapshotChanges(this, Map.of(id1, updated), List.of(id2), List.of(), List.of());
+
+        ParallelTestContainer helper = new ParallelTestContainer() {
+
+            @Override
+            protected void assertResult() {
+                DataRow snapshot = store2.getCachedSnapshot(id1);
+                assertNotNull(snapshot);
+                assertEquals("a1_updated", snapshot.get("ARTIST_NAME"));
+                assertNull(store2.getCachedSnapshot(id2));
+            }
+        };
+        helper.runTest(5000);
+    }
+
+    private CayenneRuntime startRuntime(Consumer<CoreModuleExtender> config) {
+        CayenneRuntime runtime = CayenneRuntime.builder()
+                .addModule(b -> config.accept(CoreModule.extend(b).eventBridgeBatchWindow(5)))
+                .build();
+        runtimes.add(runtime);
+        return runtime;
+    }
+
+    private TransportEventBridge startBridge(EventTransport transport, long batchWindowMs) throws Exception {
+        return startBridge(new TransportEventBridge(SUBJECT, "external", transport, batchWindowMs));
+    }
+
+    private TransportEventBridge startBridge(TransportEventBridge bridge) throws Exception {
+        DefaultEventManager manager = new DefaultEventManager();
+        managers.add(manager);
+        bridge.startup(manager, EventBridge.RECEIVE_LOCAL_EXTERNAL);
+        return bridge;
+    }
+
+    private SnapshotEvent event(Map<ObjectId, DataRow> diffs, Collection<ObjectId> deletedIds) {
+        SnapshotEvent event = new SnapshotEvent(this, this, diffs, deletedIds, List.of(), List.of());
+        event.setSubject(SUBJECT);
+        return event;
+    }
+
+    private static DataRow diff(Object... keysAndValues) {
+        DataRow row = new DataRow(keysAndValues.length / 2);
+        for (int i = 0; i < keysAndValues.length; i += 2) {
+            row.put((String) keysAndValues[i], keysAndValues[i + 1]);
+        }
+        return row;
+    }
+
+    private Collection<ObjectId> decoded(RecordingTransport transport, Function<SnapshotEvent, Collection<ObjectId>> ids) {
+        Collection<ObjectId> result = new ArrayList<>();
+        for (byte[] message : transport.messages) {
+            result.addAll(ids.apply(SnapshotEventCodec.decode(message, this).event));
+        }
+        return result;
+    }
+
+    private static void awaitMessages(RecordingTransport transport, int count) throws Exception {
+        ParallelTestContainer helper = new ParallelTestContainer() {
+
+            @Override
+            protected void assertResult() {
+                assertEquals(count, transport.messages.size());
+            }
+        };
+        helper.runTest(5000);
+    }
+
+    private static int freeTcpPort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static int freeUdpPort() throws IOException {
+        try (DatagramSocket socket = new DatagramSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static class RecordingTransport implements EventTransport {
+
+        final List<byte[]> messages = new CopyOnWriteArrayList<>();
+        final int maxMessageSize;
+        volatile Consumer<byte[]> receiver;
+
+        RecordingTransport(int maxMessageSize) {
+            this.maxMessageSize = maxMessageSize;
+        }
+
+        @Override
+        public void start(Consumer<byte[]> receiver) {
+            this.receiver = receiver;
+        }
+
+        @Override
+        public void stop() {
+            this.receiver = null;
+        }
+
+        @Override
+        public void send(byte[] message) {
+            messages.add(message);
+        }
+
+        @Override
+        public int getMaxMessageSize() {
+            return maxMessageSize;
+        }
+    }
+}
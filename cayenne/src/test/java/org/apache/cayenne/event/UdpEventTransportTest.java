@@ -0,0 +1,64 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.event;
+
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.apache.cayenne.test.parallel.ParallelTestContainer;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class UdpEventTransportTest {
+
+    @Test
+    public void testReceive_DropsNonPeers() throws Exception {
+        List<byte[]> received = new CopyOnWriteArrayList<>();
+        UdpEventTransport transport = new UdpEventTransport(
+                new InetSocketAddress("127.0.0.1", 0),
+                List.of(new InetSocketAddress("127.0.0.2", 1)));
+        transport.start(received::add);
+
+        try (DatagramSocket stranger = new DatagramSocket(new InetSocketAddress("127.0.0.1", 0));
+             DatagramSocket peer = new DatagramSocket(new InetSocketAddress("127.0.0.2", 0))) {
+
+            stranger.send(new DatagramPacket(new byte[]{1}, 1, transport.getLocalAddress()));
+            peer.send(new DatagramPacket(new byte[]{2}, 1, transport.getLocalAddress()));
+
+            ParallelTestContainer helper = new ParallelTestContainer() {
+
+                @Override
+                protected void assertResult() {
+                    assertEquals(1, received.size());
+                }
+            };
+            helper.runTest(5000);
+
+            // the datagrams are received in order, so the stranger's datagram would be the first one
+            assertArrayEquals(new byte[]{2}, received.get(0));
+        } finally {
+            transport.stop();
+        }
+    }
+}
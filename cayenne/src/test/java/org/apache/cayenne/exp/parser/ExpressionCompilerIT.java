@@ -0,0 +1,211 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.exp.parser;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.cayenne.ObjectContext;
+import org.apache.cayenne.PersistenceState;
+import org.apache.cayenne.di.Inject;
+import org.apache.cayenne.exp.CompiledExpression;
+import org.apache.cayenne.exp.Expression;
+import org.apache.cayenne.exp.ExpressionFactory;
+import org.apache.cayenne.query.ObjectSelect;
+import org.apache.cayenne.query.Orderings;
+import org.apache.cayenne.runtime.CayenneRuntime;
+import org.apache.cayenne.testdo.testmap.Artist;
+import org.apache.cayenne.testdo.testmap.Painting;
+import org.apache.cayenne.unit.di.runtime.CayenneProjects;
+import org.apache.cayenne.unit.di.runtime.RuntimeCase;
+import org.apache.cayenne.unit.di.runtime.UseCayenneRuntime;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@UseCayenneRuntime(CayenneProjects.TESTMAP_PROJECT)
+public class ExpressionCompilerIT extends RuntimeCase {
+
+    @Inject
+    private ObjectContext context;
+
+    @Inject
+    private CayenneRuntime runtime;
+
+    private List<Painting> paintings;
+
+    @Before
+    public void before() {
+        paintings = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            Artist artist = context.newObject(Artist.class);
+            artist.setArtistName("artist" + i);
+            for (int j = 0; j < 3; j++) {
+                Painting painting = context.newObject(Painting.class);
+                painting.setPaintingTitle("p" + i + j);
+                painting.setEstimatedPrice(j == 0 ? null : new BigDecimal(i * 100 + j * 10));
+                painting.setToArtist(artist);
+                paintings.add(painting);
+            }
+        }
+
+        Painting noArtist = context.newObject(Painting.class);
+        noArtist.setPaintingTitle("p_no_artist");
+        paintings.add(noArtist);
+
+        context.commitChanges();
+    }
+
+    @Test
+    public void testSameResultsAsInterpreter() {
+        String[] expressions = {
+                "paintingTitle = 'p11'",
+                "paintingTitle like 'p1%' or estimatedPrice > 200",
+                "estimatedPrice >= 110 and estimatedPrice < 320",
+                "estimatedPrice = null",
+                "not (estimatedPrice between 100 and 300)",
+                "toArtist.artistName in ('artist1', 'artist3')",
+                "toArtist.artistName likeIgnoreCase 'ARTIST2'",
+                "toArtist.paintingArray.paintingTitle = 'p20'",
+                "toArtist = null",
+                "upper(paintingTitle) = 'P01'",
+                "estimatedPrice = 110",
+                "estimatedPrice != 110",
+                "estimatedPrice <= 110.0",
+                "estimatedPrice > 110.5",
+                "paintingTitle < 'p2'",
+                "estimatedPrice in (110, 220)",
+                "paintingTitle in ('p00', 'p11')",
+                "toArtist.paintingArray.estimatedPrice > 300",
+                "estimatedPrice != null"
+        };
+
+        List<Expression> list = new ArrayList<>();
+        for (String string : expressions) {
+            list.add(ExpressionFactory.exp(string));
+        }
+        list.add(Painting.PAINTING_TITLE.in("p00", null));
+
+        for (Expression exp : list) {
+            CompiledExpression compiled = exp.compile();
+            for (Painting p : paintings) {
+                assertEquals(exp + " for " + p.getPaintingTitle(), exp.evaluate(p), compiled.evaluate(p));
+            }
+        }
+    }
+
+    @Test
+    public void testFilterObjects() {
+        Expression exp = Painting.TO_ARTIST.dot(Artist.ARTIST_NAME).eq("artist1")
+                .andExp(Painting.ESTIMATED_PRICE.isNotNull());
+
+        List<Painting> filtered = exp.filterObjects(paintings);
+        assertEquals(2, filtered.size());
+        assertEquals("p11", filtered.get(0).getPaintingTitle());
+        assertEquals("p12", filtered.get(1).getPaintingTitle());
+    }
+
+    @Test
+    public void testHollowObjects() {
+        ObjectContext newContext = runtime.newContext();
+        List<Painting> hollow = new ArrayList<>();
+        for (Painting p : paintings) {
+            hollow.add(newContext.localObject(p));
+        }
+        assertEquals(PersistenceState.HOLLOW, hollow.get(0).getPersistenceState());
+
+        Expression exp = Painting.PAINTING_TITLE.like("p2%");
+        assertEquals(3, exp.filterObjects(hollow).size());
+        assertEquals(PersistenceState.COMMITTED, hollow.get(0).getPersistenceState());
+    }
+
+    @Test
+    public void testModifiedExpression() {
+        Expression exp = ExpressionFactory.exp("paintingTitle = 'p00'");
+        assertEquals(1, exp.filterObjects(paintings).size());
+
+        exp.setOperand(1, "p_no_artist");
+        assertEquals(1, exp.filterObjects(paintings).size());
+        assertEquals("p_no_artist", exp.first(paintings).getPaintingTitle());
+
+        Expression path = (Expression) exp.getOperand(0);
+        path.setOperand(0, "toArtist.artistName");
+        exp.setOperand(1, "artist3");
+        assertEquals(3, exp.filterObjects(paintings).size());
+    }
+
+    @Test
+    public void testSharedSubExpression() {
+        Expression shared = ExpressionFactory.exp("paintingTitle = 'p00'");
+        Expression and = shared.andExp(Painting.ESTIMATED_PRICE.isNull());
+        Expression or = shared.orExp(Painting.PAINTING_TITLE.eq("p_no_artist"));
+        assertEquals(1, and.filterObjects(paintings).size());
+        assertEquals(2, or.filterObjects(paintings).size());
+
+        // the shared node has only one parent, yet both parents must see the change
+        shared.setOperand(1, "p10");
+        assertEquals("p10", and.first(paintings).getPaintingTitle());
+        assertEquals("p10", or.first(paintings).getPaintingTitle());
+        assertTrue(and.compile().test(paintings.get(3)));
+        assertTrue(or.compile().test(paintings.get(3)));
+        assertFalse(and.compile().test(paintings.get(0)));
+        assertFalse(or.compile().test(paintings.get(0)));
+    }
+
+    @Test
+    public void testCompiledSnapshot() {
+        Expression exp = ExpressionFactory.exp("paintingTitle = 'p00'");
+        CompiledExpression compiled = exp.compile();
+
+        exp.setOperand(1, "p10");
+        assertTrue(compiled.test(paintings.get(0)));
+        assertFalse(compiled.test(paintings.get(3)));
+        assertTrue(exp.compile().test(paintings.get(3)));
+    }
+
+    @Test
+    public void testOrderings() {
+        Orderings orderings = new Orderings(
+                Painting.TO_ARTIST.dot(Artist.ARTIST_NAME).desc(),
+                Painting.ESTIMATED_PRICE.ascInsensitive());
+
+        List<Painting> sorted = orderings.orderedList(paintings);
+        assertEquals("p30", sorted.get(1).getPaintingTitle());
+        assertEquals("p31", sorted.get(2).getPaintingTitle());
+        assertEquals("p32", sorted.get(3).getPaintingTitle());
+
+        List<Painting> sortedByComparator = new ArrayList<>(paintings);
+        sortedByComparator.sort(orderings.comparator());
+        assertEquals(sorted, sortedByComparator);
+    }
+
+    @Test
+    public void testFetchedObjects() {
+        List<Artist> artists = ObjectSelect.query(Artist.class).select(runtime.newContext());
+        Expression exp = Artist.PAINTING_ARRAY.dot(Painting.ESTIMATED_PRICE).gt(new BigDecimal(300));
+
+        assertEquals(1, exp.filterObjects(artists).size());
+        assertTrue(exp.match(exp.first(artists)));
+        assertFalse(exp.compile().test(new Artist()));
+    }
+}
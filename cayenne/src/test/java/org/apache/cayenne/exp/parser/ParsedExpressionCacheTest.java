@@ -0,0 +1,140 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.exp.parser;
+
+import java.io.StringReader;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.cayenne.exp.Expression;
+import org.apache.cayenne.exp.ExpressionFactory;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+
+public class ParsedExpressionCacheTest {
+
+    private ParsedExpressionCache cache;
+    private AtomicInteger parsed;
+
+    @Before
+    public void before() {
+        cache = new ParsedExpressionCache(2);
+        parsed = new AtomicInteger();
+    }
+
+    private Expression get(String string) {
+        return cache.get(string, s -> {
+            parsed.incrementAndGet();
+            return parse(s);
+        });
+    }
+
+    private static Expression parse(String string) {
+        try {
+            return new ExpressionParser(new StringReader(string)).expression();
+        } catch (ParseException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Test
+    public void testGet_ReturnsCopies() {
+        Expression e1 = get("a = 1 and b in (1, 2)");
+        Expression e2 = get("a = 1 and b in (1, 2)");
+
+        assertEquals(1, parsed.get());
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+        assertNotSame(e1, e2);
+        assertEquals(e1, e2);
+        assertEquals(e1.toString(), e2.toString());
+
+        e1.setOperand(0, ExpressionFactory.exp("c = 2"));
+        assertEquals("(a = 1) and (b in (1, 2))", get("a = 1 and b in (1, 2)").toString());
+    }
+
+    @Test
+    public void testGet_PreservesStructure() {
+        String[] strings = {
+                "a = null",
+                "a in (1, 'b', 2.5)",
+                "db:A.B like 'x%' or not (c between 1 and 5)",
+                "a = enum:org.apache.cayenne.exp.ExpEnum1.ONE",
+                "upper(a) = $x and b > 2.5",
+                "x.y+.z = 'a'"
+        };
+
+        for (String string : strings) {
+            Expression original = parse(string);
+            Expression copy = ParsedExpressionCache.copy((SimpleNode) original);
+            assertEquals(string, original, copy);
+            assertEquals(string, original.toString(), copy.toString());
+        }
+    }
+
+    @Test
+    public void testGet_PositionalParameters() {
+        cache = ExpressionFactory.getParsedExpressionCache();
+        long hits = cache.getHitCount();
+
+        Expression e1 = ExpressionFactory.exp("cacheTestA = $a and cacheTestB = $b", 1, 2);
+        Expression e2 = ExpressionFactory.exp("cacheTestA = $a and cacheTestB = $b", 3, 4);
+        Expression e3 = ExpressionFactory.exp("cacheTestA = $a and cacheTestB = $b");
+
+        assertEquals(hits + 2, cache.getHitCount());
+        assertEquals("(cacheTestA = 1) and (cacheTestB = 2)", e1.toString());
+        assertEquals("(cacheTestA = 3) and (cacheTestB = 4)", e2.toString());
+        assertEquals("(cacheTestA = $a) and (cacheTestB = $b)", e3.toString());
+    }
+
+    @Test
+    public void testGet_NamedParameters() {
+        Expression template = ExpressionFactory.exp("cacheTestC = $c");
+
+        Expression e1 = ExpressionFactory.exp("cacheTestC = $c").params(Collections.singletonMap("c", "x"));
+        Expression e2 = ExpressionFactory.exp("cacheTestC = $c").params(Collections.singletonMap("c", "y"));
+
+        assertEquals("cacheTestC = \"x\"", e1.toString());
+        assertEquals("cacheTestC = \"y\"", e2.toString());
+        assertEquals("cacheTestC = $c", template.toString());
+        assertEquals("cacheTestC = $c", ExpressionFactory.exp("cacheTestC = $c").toString());
+    }
+
+    @Test
+    public void testMaxSize() {
+        get("a = 1");
+        get("a = 2");
+        get("a = 3");
+        assertEquals(2, cache.size());
+
+        cache.setMaxSize(1);
+        assertEquals(1, cache.size());
+
+        cache.setMaxSize(0);
+        assertEquals(0, cache.size());
+        get("a = 3");
+        get("a = 3");
+        assertEquals(0, cache.size());
+        assertTrue(parsed.get() >= 5);
+    }
+}
@@ -33,6 +33,7 @@ import org.apache.cayenne.Fault;
 import org.apache.cayenne.ObjectContext;
 import org.apache.cayenne.PersistenceState;
 import org.apache.cayenne.ResultBatchIterator;
+import org.apache.cayenne.ResultIterator;
 import org.apache.cayenne.access.DataContext;
 import org.apache.cayenne.di.Inject;
 import org.apache.cayenne.exp.property.NumericProperty;
@@ -1169,6 +1170,82 @@ public class ColumnSelectIT extends RuntimeCase {
         assertEquals(7, testPojo0.pojo.length);
     }
 
+    @Test
+    public void testMapConstructor() {
+        List<TestDto> result = ObjectSelect.query(Artist.class)
+                .columns(Artist.ARTIST_NAME, Artist.DATE_OF_BIRTH, Artist.ARTIST_NAME.trim().length())
+                .where(Artist.ARTIST_NAME.like("artist%"))
+                .orderBy(Artist.ARTIST_ID_PK_PROPERTY.asc())
+                .mapConstructor(TestDto.class)
+                .select(context);
+
+        assertEquals(20, result.size());
+
+        TestDto dto0 = result.get(0);
+        assertEquals("artist1", dto0.name);
+        assertNotNull(dto0.date);
+        assertEquals(7, dto0.length);
+
+        TestDto dto19 = result.get(19);
+        assertEquals("artist20", dto19.name);
+        assertNotNull(dto19.date);
+        assertEquals(8, dto19.length);
+    }
+
+    @Test
+    public void testMapConstructor_SingleColumn() {
+        List<TestNameDto> result = ObjectSelect.columnQuery(Artist.class, Artist.ARTIST_NAME)
+                .orderBy(Artist.ARTIST_ID_PK_PROPERTY.asc())
+                .mapConstructor(TestNameDto.class)
+                .select(context);
+
+        assertEquals(20, result.size());
+        assertEquals("artist1", result.get(0).name);
+    }
+
+    @Test
+    public void testMapConstructor_Map() {
+        List<String> result = ObjectSelect.query(Artist.class)
+                .columns(Artist.ARTIST_NAME, Artist.DATE_OF_BIRTH, Artist.ARTIST_NAME.trim().length())
+                .where(Artist.ARTIST_NAME.like("artist%"))
+                .orderBy(Artist.ARTIST_ID_PK_PROPERTY.asc())
+                .mapConstructor(TestDto.class)
+                .map(dto -> dto.name + ":" + dto.length)
+                .select(context);
+
+        assertEquals(20, result.size());
+        assertEquals("artist1:7", result.get(0));
+    }
+
+    @Test
+    public void testMapConstructor_Entity() {
+        List<TestArtistDto> result = ObjectSelect.query(Artist.class)
+                .columns(Artist.ARTIST_NAME, Artist.SELF)
+                .orderBy(Artist.ARTIST_ID_PK_PROPERTY.asc())
+                .mapConstructor(TestArtistDto.class)
+                .select(context);
+
+        assertEquals(20, result.size());
+        assertEquals("artist1", result.get(0).name);
+        assertEquals("artist1", result.get(0).artist.getArtistName());
+        assertEquals(PersistenceState.COMMITTED, result.get(0).artist.getPersistenceState());
+    }
+
+    @Test
+    public void testMapConstructor_Iterator() {
+        try (ResultIterator<TestDto> it = ObjectSelect.query(Artist.class)
+                .columns(Artist.ARTIST_NAME, Artist.DATE_OF_BIRTH, Artist.ARTIST_NAME.trim().length())
+                .orderBy(Artist.ARTIST_ID_PK_PROPERTY.asc())
+                .mapConstructor(TestDto.class)
+                .iterator(context)) {
+
+            TestDto dto0 = it.nextRow();
+            TestDto dto1 = it.nextRow();
+            assertEquals("artist1", dto0.name);
+            assertEquals("artist2", dto1.name);
+        }
+    }
+
     @Test
     public void testSharedCache() {
         ColumnSelect<Object[]> query = ObjectSelect.query(Artist.class)
@@ -1198,6 +1275,36 @@ public class ColumnSelectIT extends RuntimeCase {
         }
     }
 
+    public static class TestDto {
+        final String name;
+        final Date date;
+        final int length;
+
+        public TestDto(String name, Date date, int length) {
+            this.name = name;
+            this.date = date;
+            this.length = length;
+        }
+    }
+
+    public static class TestNameDto {
+        final String name;
+
+        public TestNameDto(String name) {
+            this.name = name;
+        }
+    }
+
+    public static class TestArtistDto {
+        final String name;
+        final Artist artist;
+
+        public TestArtistDto(String name, Artist artist) {
+            this.name = name;
+            this.artist = artist;
+        }
+    }
+
     static class TestPojo2 {
         TestPojo pojo;
         TestPojo2(TestPojo pojo) {
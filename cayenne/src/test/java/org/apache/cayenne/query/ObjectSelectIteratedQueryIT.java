@@ -23,10 +23,12 @@ import org.apache.cayenne.DataRow;
 import org.apache.cayenne.ResultBatchIterator;
 import org.apache.cayenne.ResultIterator;
 import org.apache.cayenne.access.DataContext;
+import org.apache.cayenne.access.DataDomain;
 import org.apache.cayenne.di.Inject;
 import org.apache.cayenne.test.jdbc.DBHelper;
 import org.apache.cayenne.test.jdbc.TableHelper;
 import org.apache.cayenne.testdo.testmap.Painting;
+import org.apache.cayenne.unit.di.DataChannelInterceptor;
 import org.apache.cayenne.unit.di.runtime.CayenneProjects;
 import org.apache.cayenne.unit.di.runtime.RuntimeCase;
 import org.apache.cayenne.unit.di.runtime.UseCayenneRuntime;
@@ -51,6 +53,9 @@ public class ObjectSelectIteratedQueryIT extends RuntimeCase {
     @Inject
     private DBHelper dbHelper;
 
+    @Inject
+    private DataChannelInterceptor queryInterceptor;
+
     private TableHelper tPainting;
 
     private TableHelper tArtist;
@@ -121,6 +126,86 @@ public class ObjectSelectIteratedQueryIT extends RuntimeCase {
         }
     }
 
+    @Test
+    public void queryPrefetchDisjointByIdWithIterator_Chunked() {
+        DataDomain domain = context.getParentDataDomain();
+        int chunkSize = domain.getIteratorPrefetchChunkSize();
+        domain.setIteratorPrefetchChunkSize(7);
+
+        try {
+            int queries = queryInterceptor.runWithQueryCounter(() -> {
+                try (ResultIterator<Painting> iterator = ObjectSelect
+                        .query(Painting.class)
+                        .prefetch(Painting.TO_ARTIST.disjointById())
+                        .orderBy(Painting.PAINTING_ID_PK_PROPERTY.asc())
+                        .iterator(context)) {
+                    int count = 0;
+                    while (iterator.hasNextRow()) {
+                        count++;
+                        Painting painting = iterator.nextRow();
+                        assertEquals("painting" + count, painting.getPaintingTitle());
+                        assertEquals("Test1", painting.getToArtist().readPropertyDirectly("artistName"));
+                    }
+                    assertEquals(20, count);
+                }
+            });
+
+            // main query + a prefetch query per chunk of 7
+            assertEquals(4, queries);
+        } finally {
+            domain.setIteratorPrefetchChunkSize(chunkSize);
+        }
+    }
+
+    @Test
+    public void queryPrefetchDisjointByIdWithIterator_ChunkingDisabled() {
+        DataDomain domain = context.getParentDataDomain();
+        int chunkSize = domain.getIteratorPrefetchChunkSize();
+        domain.setIteratorPrefetchChunkSize(0);
+
+        try {
+            int queries = queryInterceptor.runWithQueryCounter(() -> {
+                try (ResultIterator<Painting> iterator = ObjectSelect
+                        .query(Painting.class)
+                        .prefetch(Painting.TO_ARTIST.disjointById())
+                        .iterator(context)) {
+                    for (Painting painting : iterator) {
+                        assertEquals("Test1", painting.getToArtist().readPropertyDirectly("artistName"));
+                    }
+                }
+            });
+
+            // main query + a prefetch query per object
+            assertEquals(21, queries);
+        } finally {
+            domain.setIteratorPrefetchChunkSize(chunkSize);
+        }
+    }
+
+    @Test
+    public void queryPrefetchDisjointByIdWithBatchIterator_Chunked() {
+        int queries = queryInterceptor.runWithQueryCounter(() -> {
+            try (ResultBatchIterator<Painting> iterator = ObjectSelect
+                    .query(Painting.class)
+                    .prefetch(Painting.TO_ARTIST.disjointById())
+                    .orderBy(Painting.PAINTING_ID_PK_PROPERTY.asc())
+                    .batchIterator(context, 5)) {
+                int count = 0;
+                for (List<Painting> paintings : iterator) {
+                    for (Painting painting : paintings) {
+                        count++;
+                        assertEquals("painting" + count, painting.getPaintingTitle());
+                        assertEquals("Test1", painting.getToArtist().readPropertyDirectly("artistName"));
+                    }
+                }
+                assertEquals(20, count);
+            }
+        });
+
+        // all 20 objects fit in a single chunk of the default size
+        assertEquals(2, queries);
+    }
+
     @Test(expected = CayenneRuntimeException.class)
     public void queryPrefetchDisjointWithIterator() {
         try (ResultIterator<Painting> iterator = ObjectSelect
@@ -0,0 +1,119 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.reflect;
+
+import org.apache.cayenne.CayenneRuntimeException;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ConstructorMapperTest {
+
+    @Test
+    public void testObjectCreation() {
+        ConstructorMapper<C1> mapper = new ConstructorMapper<>(C1.class);
+
+        Object o = new Object();
+        C1 object = mapper.apply(new Object[]{"123", o, 42});
+        assertEquals("123", object.a);
+        assertSame(o, object.b);
+        assertEquals(42, object.c);
+    }
+
+    @Test
+    public void testReusedArray() {
+        ConstructorMapper<C1> mapper = new ConstructorMapper<>(C1.class);
+
+        Object[] data = {"1", null, 1};
+        C1 o1 = mapper.apply(data);
+        data[0] = "2";
+        data[2] = 2;
+        C1 o2 = mapper.apply(data);
+
+        assertEquals("1", o1.a);
+        assertEquals(1, o1.c);
+        assertEquals("2", o2.a);
+        assertEquals(2, o2.c);
+    }
+
+    @Test
+    public void testConstructorByArgumentCount() {
+        ConstructorMapper<C2> mapper = new ConstructorMapper<>(C2.class);
+
+        assertEquals("a", mapper.apply(new Object[]{"a"}).a);
+        assertEquals("b", mapper.apply(new Object[]{"a", "b"}).a);
+    }
+
+    @Test(expected = CayenneRuntimeException.class)
+    public void testWrongArgumentCount() {
+        new ConstructorMapper<>(C1.class).apply(new Object[]{"123", new Object()});
+    }
+
+    @Test(expected = CayenneRuntimeException.class)
+    public void testWrongArgumentType() {
+        new ConstructorMapper<>(C1.class).apply(new Object[]{"123", new Object(), "42"});
+    }
+
+    @Test(expected = CayenneRuntimeException.class)
+    public void testAmbiguousConstructor() {
+        new ConstructorMapper<>(C3.class).apply(new Object[]{1});
+    }
+
+    @Test(expected = CayenneRuntimeException.class)
+    public void testNonPublicConstructor() {
+        new ConstructorMapper<>(C4.class).apply(new Object[]{1});
+    }
+
+    public static class C1 {
+        final String a;
+        final Object b;
+        final int c;
+
+        public C1(String a, Object b, int c) {
+            this.a = a;
+            this.b = b;
+            this.c = c;
+        }
+    }
+
+    public static class C2 {
+        final String a;
+
+        public C2(String a) {
+            this.a = a;
+        }
+
+        public C2(String ignored, String a) {
+            this.a = a;
+        }
+    }
+
+    public static class C3 {
+        public C3(int a) {
+        }
+
+        public C3(String a) {
+        }
+    }
+
+    public static class C4 {
+        C4(int a) {
+        }
+    }
+}
@@ -116,6 +116,59 @@ public class LifecycleCallbackEventHandlerTest {
         assertEquals("c2Callback", c.callbacks.get(1));
     }
 
+    @Test
+    public void testGetCallbacks_NoCallbacks() {
+
+        LifecycleCallbackEventHandler map = new LifecycleCallbackEventHandler();
+        map.addListener(C2.class, "c2Callback");
+
+        assertEquals(0, map.getCallbacks(C1.class).length);
+        assertEquals(0, map.getCallbacks(C3.class).length);
+        assertEquals(1, map.getCallbacks(C2.class).length);
+    }
+
+    @Test
+    public void testGetCallbacks_ResetOnAdd() {
+
+        LifecycleCallbackEventHandler map = new LifecycleCallbackEventHandler();
+        assertEquals(0, map.getCallbacks(C3.class).length);
+
+        map.addListener(C1.class, "c1Callback");
+        assertEquals(1, map.getCallbacks(C3.class).length);
+
+        map.addDefaultListener(new L1(), "callback");
+        assertEquals(2, map.getCallbacks(C3.class).length);
+
+        map.clear();
+        assertEquals(0, map.getCallbacks(C3.class).length);
+    }
+
+    @Test
+    public void testPerformCallbacks_MixedCollection() {
+
+        LifecycleCallbackEventHandler map = new LifecycleCallbackEventHandler();
+        map.addListener(C2.class, "c2Callback");
+        map.addListener(C1.class, "c1Callback");
+
+        C1 c1 = new C1();
+        C2 c2a = new C2();
+        C2 c2b = new C2();
+        C3 c3 = new C3();
+
+        List<Object> objects = new ArrayList<>();
+        objects.add(c2a);
+        objects.add(c1);
+        objects.add(null);
+        objects.add(c2b);
+        objects.add(c3);
+        map.performCallbacks(objects);
+
+        assertEquals(1, c1.callbacks.size());
+        assertEquals(2, c2a.callbacks.size());
+        assertEquals(2, c2b.callbacks.size());
+        assertEquals(1, c3.callbacks.size());
+    }
+
     static class C1 extends PersistentObject {
 
         protected List callbacks = new ArrayList();
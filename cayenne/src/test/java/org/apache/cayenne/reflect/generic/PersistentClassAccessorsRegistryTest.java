@@ -0,0 +1,117 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.reflect.generic;
+
+import java.util.List;
+
+import org.apache.cayenne.PersistentObject;
+import org.apache.cayenne.reflect.Accessor;
+import org.apache.cayenne.util.Util;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class PersistentClassAccessorsRegistryTest {
+
+    @Test
+    public void testGetAccessors_ServiceLoader() {
+        PersistentClassAccessorsRegistry registry = new PersistentClassAccessorsRegistry();
+
+        assertTrue(registry.getAccessors(TstPersistentObject.class) instanceof TstPersistentObjectAccessors);
+        assertSame(registry.getAccessors(TstPersistentObject.class), registry.getAccessors(TstPersistentObject.class));
+        assertNull(registry.getAccessors(PersistentClassAccessorsRegistryTest.class));
+        assertNull(registry.getAccessors(String.class));
+    }
+
+    @Test
+    public void testGetAccessors_Explicit() {
+        TstPersistentObjectAccessors accessors = new TstPersistentObjectAccessors();
+        PersistentClassAccessorsRegistry registry = new PersistentClassAccessorsRegistry(List.of(accessors));
+
+        assertSame(accessors, registry.getAccessors(TstPersistentObject.class));
+        assertNull(registry.getAccessors(PersistentClassAccessorsRegistryTest.class));
+    }
+
+    @Test
+    public void testGetAccessors_OverriddenDirectAccess() {
+        PersistentClassAccessorsRegistry registry = new PersistentClassAccessorsRegistry(List.of(
+                new TstGenerated.Accessors(TstSubclass.class),
+                new TstGenerated.Accessors(TstOverridingSubclass.class)));
+
+        assertTrue(registry.getAccessors(TstSubclass.class) instanceof TstGenerated.Accessors);
+        assertNull(registry.getAccessors(TstOverridingSubclass.class));
+    }
+
+    @Test
+    public void testOrdinalAccessor() throws Exception {
+        TstPersistentObjectAccessors accessors = new TstPersistentObjectAccessors();
+        assertNull(PersistentClassOrdinalAccessor.forProperty(accessors, "noSuchProperty"));
+
+        Accessor accessor = PersistentClassOrdinalAccessor.forProperty(accessors, "name");
+        TstPersistentObject object = new TstPersistentObject();
+
+        accessor.setValue(object, "n1");
+        assertEquals("n1", object.name);
+        assertEquals("n1", accessor.getValue(object));
+
+        // deserialized accessor uses the Persistent API
+        Accessor deserialized = Util.cloneViaSerialization(accessor);
+        assertEquals("n1", deserialized.getValue(object));
+        deserialized.setValue(object, "n2");
+        assertEquals("n2", object.name);
+    }
+
+    public static class TstGenerated extends PersistentObject {
+
+        protected String name;
+
+        @Override
+        public Object readPropertyDirectly(String propName) {
+            return "name".equals(propName) ? name : super.readPropertyDirectly(propName);
+        }
+
+        public static class Accessors extends TstPersistentObjectAccessors {
+
+            private final Class<?> objectClass;
+
+            Accessors(Class<?> objectClass) {
+                this.objectClass = objectClass;
+            }
+
+            @Override
+            public String getClassName() {
+                return objectClass.getName();
+            }
+        }
+    }
+
+    public static class TstSubclass extends TstGenerated {
+    }
+
+    public static class TstOverridingSubclass extends TstGenerated {
+
+        @Override
+        public Object readPropertyDirectly(String propName) {
+            return "name".equals(propName) ? "overridden" : super.readPropertyDirectly(propName);
+        }
+    }
+}
@@ -18,6 +18,10 @@
  ****************************************************************/
 package org.apache.cayenne.reflect.generic;
 
+import java.util.Date;
+import java.util.List;
+
+import org.apache.cayenne.PersistenceState;
 import org.apache.cayenne.access.types.ValueObjectTypeRegistry;
 import org.apache.cayenne.di.Inject;
 import org.apache.cayenne.map.EntityResolver;
@@ -25,16 +29,21 @@ import org.apache.cayenne.map.ObjEntity;
 import org.apache.cayenne.reflect.ArcProperty;
 import org.apache.cayenne.reflect.AttributeProperty;
 import org.apache.cayenne.reflect.ClassDescriptor;
+import org.apache.cayenne.reflect.ClassDescriptorMap;
 import org.apache.cayenne.reflect.PropertyDescriptor;
 import org.apache.cayenne.reflect.PropertyVisitor;
 import org.apache.cayenne.reflect.SingletonFaultFactory;
 import org.apache.cayenne.reflect.ToManyProperty;
 import org.apache.cayenne.reflect.ToOneProperty;
+import org.apache.cayenne.testdo.testmap.Artist;
 import org.apache.cayenne.unit.di.runtime.CayenneProjects;
 import org.apache.cayenne.unit.di.runtime.RuntimeCase;
 import org.apache.cayenne.unit.di.runtime.UseCayenneRuntime;
 import org.junit.Test;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import static org.mockito.Mockito.mock;
@@ -123,6 +132,39 @@ public class PersistentObjectDescriptorFactoryIT extends RuntimeCase {
 
     }
 
+    @Test
+    public void testGeneratedAccessors() {
+        ArtistAccessors accessors = new ArtistAccessors();
+
+        ClassDescriptorMap descriptorMap = new ClassDescriptorMap(resolver);
+        descriptorMap.addFactory(new PersistentObjectDescriptorFactory(
+                descriptorMap,
+                new SingletonFaultFactory(),
+                new DefaultValueComparisonStrategyFactory(mock(ValueObjectTypeRegistry.class)),
+                new PersistentClassAccessorsRegistry(List.of(accessors))));
+
+        ClassDescriptor descriptor = descriptorMap.getDescriptor("Artist");
+        Artist artist = new Artist();
+        artist.setArtistName("a1");
+
+        PropertyDescriptor artistName = descriptor.getProperty(Artist.ARTIST_NAME.getName());
+        assertEquals("a1", artistName.readPropertyDirectly(artist));
+        artistName.writePropertyDirectly(artist, "a1", "a2");
+        assertEquals("a2", artist.getArtistName());
+        assertNull(descriptor.getProperty(Artist.PAINTING_ARRAY.getName()).readPropertyDirectly(artist));
+        assertEquals(3, accessors.calls);
+
+        // properties unknown to generated accessors are read by name
+        artist.setDateOfBirth(new Date(0));
+        assertEquals(new Date(0), descriptor.getProperty(Artist.DATE_OF_BIRTH.getName()).readPropertyDirectly(artist));
+        assertEquals(3, accessors.calls);
+
+        artist.setPersistenceState(PersistenceState.HOLLOW);
+        assertTrue(descriptor.isFault(artist));
+        artist.setPersistenceState(PersistenceState.COMMITTED);
+        assertFalse(descriptor.isFault(artist));
+    }
+
     static void assertPropertiesAreInOrder(PropertyDescriptor o1,
             PropertyDescriptor o2) {
 
@@ -148,4 +190,34 @@ public class PersistentObjectDescriptorFactoryIT extends RuntimeCase {
             }
         }
     }
+
+    // hand-written equivalent of the generated accessors, that counts calls
+    static class ArtistAccessors implements PersistentClassAccessors {
+
+        private static final String[] PROPERTY_NAMES = {"artistName", "paintingArray"};
+
+        int calls;
+
+        @Override
+        public String getClassName() {
+            return Artist.class.getName();
+        }
+
+        @Override
+        public String[] getPropertyNames() {
+            return PROPERTY_NAMES.clone();
+        }
+
+        @Override
+        public Object readPropertyDirectly(Object object, int ordinal) {
+            calls++;
+            return ((Artist) object).readPropertyDirectly(PROPERTY_NAMES[ordinal]);
+        }
+
+        @Override
+        public void writePropertyDirectly(Object object, int ordinal, Object value) {
+            calls++;
+            ((Artist) object).writePropertyDirectly(PROPERTY_NAMES[ordinal], value);
+        }
+    }
 }
@@ -0,0 +1,56 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.reflect.generic;
+
+/**
+ * Registered in test "META-INF/services", the way cgen registers generated accessors.
+ */
+public class TstPersistentObjectAccessors implements PersistentClassAccessors {
+
+    @Override
+    public String getClassName() {
+        return TstPersistentObject.class.getName();
+    }
+
+    @Override
+    public String[] getPropertyNames() {
+        return new String[]{"name"};
+    }
+
+    @Override
+    public Object readPropertyDirectly(Object object, int ordinal) {
+        switch (ordinal) {
+            case 0:
+                return ((TstPersistentObject) object).name;
+            default:
+                throw new IllegalArgumentException("Invalid property ordinal: " + ordinal);
+        }
+    }
+
+    @Override
+    public void writePropertyDirectly(Object object, int ordinal, Object value) {
+        switch (ordinal) {
+            case 0:
+                ((TstPersistentObject) object).name = (String) value;
+                break;
+            default:
+                throw new IllegalArgumentException("Invalid property ordinal: " + ordinal);
+        }
+    }
+}
@@ -0,0 +1,293 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.tx;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.cayenne.CayenneRuntimeException;
+import org.apache.cayenne.ObjectContext;
+import org.apache.cayenne.ResultIterator;
+import org.apache.cayenne.access.DataNode;
+import org.apache.cayenne.access.util.IteratedSelectObserver;
+import org.apache.cayenne.di.Inject;
+import org.apache.cayenne.query.ObjectSelect;
+import org.apache.cayenne.query.SQLTemplate;
+import org.apache.cayenne.runtime.CayenneRuntime;
+import org.apache.cayenne.testdo.testmap.Artist;
+import org.apache.cayenne.unit.di.runtime.CayenneProjects;
+import org.apache.cayenne.unit.di.runtime.RuntimeCase;
+import org.apache.cayenne.unit.di.runtime.UseCayenneRuntime;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+@UseCayenneRuntime(CayenneProjects.TESTMAP_PROJECT)
+public class TransactionContextIT extends RuntimeCase {
+
+    @Inject
+    private CayenneRuntime runtime;
+
+    private ExecutorService executor;
+
+    @Before
+    public void before() {
+        executor = Executors.newFixedThreadPool(4);
+    }
+
+    @After
+    public void after() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testJoin_SeesUncommittedChanges() {
+        long count = runtime.performInTransaction(() -> {
+            ObjectContext context = runtime.newContext();
+            context.newObject(Artist.class).setArtistName("a1");
+            context.commitChanges();
+
+            TransactionContext tx = TransactionContext.capture();
+            return CompletableFuture.supplyAsync(tx.wrap(() -> {
+                assertSame(tx.getTransaction(), BaseTransaction.getThreadTransaction());
+                return ObjectSelect.query(Artist.class).selectCount(runtime.newContext());
+            }), executor).join();
+        });
+
+        assertEquals(1L, count);
+        assertNull(BaseTransaction.getThreadTransaction());
+    }
+
+    @Test
+    public void testJoin_ChangesRolledBackWithTransaction() {
+        try {
+            runtime.performInTransaction(() -> {
+                TransactionContext tx = TransactionContext.capture();
+                CompletableFuture.runAsync(tx.wrap(() -> {
+                    ObjectContext context = runtime.newContext();
+                    context.newObject(Artist.class).setArtistName("a1");
+                    context.commitChanges();
+                }), executor).join();
+
+                throw new CayenneRuntimeException("rollback");
+            });
+            fail("Exception expected");
+        } catch (CayenneRuntimeException e) {
+            // expected
+        }
+
+        assertEquals(0L, ObjectSelect.query(Artist.class).selectCount(runtime.newContext()));
+    }
+
+    @Test
+    public void testJoin_ParallelTasksShareConnection() {
+        Transaction transaction = runtime.performInTransaction(() -> {
+            ObjectContext context = runtime.newContext();
+            for (int i = 0; i < 10; i++) {
+                context.newObject(Artist.class).setArtistName("a" + i);
+            }
+            context.commitChanges();
+
+            TransactionContext tx = TransactionContext.capture();
+            List<CompletableFuture<Long>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(CompletableFuture.supplyAsync(
+                        tx.wrap(() -> ObjectSelect.query(Artist.class).selectCount(runtime.newContext())),
+                        executor));
+            }
+
+            for (CompletableFuture<Long> result : results) {
+                assertEquals(Long.valueOf(10), result.join());
+            }
+
+            return BaseTransaction.getThreadTransaction();
+        });
+
+        assertTrue(((BaseTransaction) transaction).isShared());
+        assertEquals(1, transaction.getConnections().size());
+    }
+
+    @Test
+    public void testJoin_IteratorKeepsConnection() {
+        runtime.performInTransaction(() -> {
+            ObjectContext context = runtime.newContext();
+            for (int i = 0; i < 10; i++) {
+                context.newObject(Artist.class).setArtistName("a" + i);
+            }
+            context.commitChanges();
+
+            DataNode node = runtime.getDataDomain().getDataNodes().iterator().next();
+            TransactionContext tx = TransactionContext.capture();
+            CountDownLatch iterating = new CountDownLatch(1);
+            AtomicBoolean iteratorOpen = new AtomicBoolean();
+
+            CompletableFuture<Integer> iterated = CompletableFuture.supplyAsync(tx.wrap(() -> {
+                // run the query directly on the node, as the domain would commit the outer transaction when the
+                // iterator is closed
+                SQLTemplate query = new SQLTemplate(Artist.class, "SELECT * FROM ARTIST");
+                query.setFetchingDataRows(true);
+                IteratedSelectObserver observer = new IteratedSelectObserver();
+                node.performQueries(Collections.singletonList(query), observer);
+
+                int rows = 0;
+                try (ResultIterator<?> it = observer.getResultIterator()) {
+                    iteratorOpen.set(true);
+                    it.nextRow();
+                    rows++;
+                    iterating.countDown();
+
+                    // give the other task a chance to run a query on the connection while the ResultSet is open
+                    Thread.sleep(300);
+
+                    while (it.hasNextRow()) {
+                        it.nextRow();
+                        rows++;
+                    }
+                    iteratorOpen.set(false);
+                } catch (InterruptedException e) {
+                    throw new RuntimeException(e);
+                }
+                return rows;
+            }), executor);
+
+            CompletableFuture<Long> counted = CompletableFuture.supplyAsync(tx.wrap(() -> {
+                try {
+                    iterating.await();
+                } catch (InterruptedException e) {
+                    throw new RuntimeException(e);
+                }
+
+                long count = ObjectSelect.query(Artist.class).selectCount(runtime.newContext());
+                assertFalse("Query ran while the connection was used by the iterator", iteratorOpen.get());
+                return count;
+            }), executor);
+
+            assertEquals(Integer.valueOf(10), iterated.join());
+            assertEquals(Long.valueOf(10), counted.join());
+            return null;
+        });
+    }
+
+    @Test
+    public void testReadOnly() {
+        DataNode node = runtime.getDataDomain().getDataNodes().iterator().next();
+        TransactionContext readOnly = TransactionContext.readOnlyContext();
+
+        CompletableFuture.runAsync(readOnly.wrap(() -> {
+            assertNull(BaseTransaction.getThreadTransaction());
+            assertSame(readOnly, TransactionContext.getThreadContext());
+            try (Connection c = node.getDataSource().getConnection()) {
+                assertTrue(c.isReadOnly());
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        }), executor).join();
+    }
+
+    @Test
+    public void testReadOnly_ObjectSelect() throws SQLException {
+        DataNode node = runtime.getDataDomain().getDataNodes().iterator().next();
+        DataSource dataSource = node.getDataSource().unwrap(DataSource.class);
+        List<Boolean> readOnlyFlags = Collections.synchronizedList(new ArrayList<>());
+
+        // record the "read-only" flag of the connections at the time they run the statements
+        node.setDataSource(dataSourceProxy(dataSource, readOnlyFlags));
+        try {
+            TransactionContext readOnly = TransactionContext.readOnlyContext();
+            CompletableFuture.supplyAsync(
+                    readOnly.wrap(() -> ObjectSelect.query(Artist.class).select(runtime.newContext())),
+                    executor).join();
+        } finally {
+            node.setDataSource(dataSource);
+        }
+
+        assertEquals(Collections.singletonList(Boolean.TRUE), readOnlyFlags);
+
+        // the flag must be reset before the connection is returned to the pool
+        try (Connection c = dataSource.getConnection()) {
+            assertFalse(c.isReadOnly());
+        }
+    }
+
+    @Test
+    public void testPerform_RestoresThreadState() {
+        TransactionContext readOnly = TransactionContext.readOnlyContext();
+
+        runtime.performInTransaction(() -> {
+            Transaction transaction = BaseTransaction.getThreadTransaction();
+            readOnly.perform(() -> {
+                assertNull(BaseTransaction.getThreadTransaction());
+                return null;
+            });
+
+            assertSame(transaction, BaseTransaction.getThreadTransaction());
+            assertNull(TransactionContext.getThreadContext());
+            return null;
+        });
+    }
+
+    private static DataSource dataSourceProxy(DataSource dataSource, List<Boolean> readOnlyFlags) {
+        return (DataSource) Proxy.newProxyInstance(
+                DataSource.class.getClassLoader(),
+                new Class<?>[]{DataSource.class},
+                (proxy, method, args) -> {
+                    Object result = invoke(dataSource, method, args);
+                    return result instanceof Connection ? connectionProxy((Connection) result, readOnlyFlags) : result;
+                });
+    }
+
+    private static Connection connectionProxy(Connection connection, List<Boolean> readOnlyFlags) {
+        return (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    if (method.getName().startsWith("prepare") || method.getName().equals("createStatement")) {
+                        readOnlyFlags.add(connection.isReadOnly());
+                    }
+                    return invoke(connection, method, args);
+                });
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
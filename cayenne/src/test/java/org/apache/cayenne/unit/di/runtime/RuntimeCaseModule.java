@@ -22,7 +22,11 @@ import org.apache.cayenne.ObjectContext;
 import org.apache.cayenne.access.DataContext;
 import org.apache.cayenne.access.DataNode;
 import org.apache.cayenne.access.DefaultObjectMapRetainStrategy;
+import org.apache.cayenne.access.DefaultReadReplicaRouter;
+import org.apache.cayenne.access.DefaultShardRouter;
 import org.apache.cayenne.access.ObjectMapRetainStrategy;
+import org.apache.cayenne.access.ReadReplicaRouter;
+import org.apache.cayenne.access.ShardRouter;
 import org.apache.cayenne.access.translator.batch.BatchTranslatorFactory;
 import org.apache.cayenne.access.types.*;
 import org.apache.cayenne.configuration.ConfigurationNameMapper;
@@ -193,6 +197,7 @@ public class RuntimeCaseModule implements Module {
                 .addDefaultExtendedType(new CalendarType<>(GregorianCalendar.class))
                 .addDefaultExtendedType(new CalendarType<>(Calendar.class))
                 .addDefaultExtendedType(new DurationType())
+                .addDefaultExtendedType(new LobStreamType())
 
                 .addExtendedTypeFactory(new InternalUnsupportedTypeFactory())
 
@@ -212,6 +217,8 @@ public class RuntimeCaseModule implements Module {
         binder.bind(JdbcEventLogger.class).to(Slf4jJdbcEventLogger.class);
         binder.bind(RuntimeProperties.class).to(DefaultRuntimeProperties.class);
         binder.bind(ObjectMapRetainStrategy.class).to(DefaultObjectMapRetainStrategy.class);
+        binder.bind(ReadReplicaRouter.class).to(DefaultReadReplicaRouter.class);
+        binder.bind(ShardRouter.class).to(DefaultShardRouter.class);
 
         // singleton objects
         binder.bind(UnitTestLifecycleManager.class).toInstance(new RuntimeCaseLifecycleManager(testScope));
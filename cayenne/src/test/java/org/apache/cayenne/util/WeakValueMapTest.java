@@ -20,10 +20,14 @@
 package org.apache.cayenne.util;
 
 import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.ConcurrentModificationException;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.junit.Test;
 
@@ -255,4 +259,75 @@ public class WeakValueMapTest {
     static class TestSerializable implements Serializable {
         private static final long serialVersionUID = -8726479278547192134L;
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testNullKey() {
+        Map<String, Integer> map = new WeakValueMap<>();
+        map.put("key_1", 123);
+
+        assertFalse(map.containsKey(null));
+        assertNull(map.get(null));
+        assertNull(map.remove(null));
+        assertEquals(1, map.size());
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testPutNullKey() {
+        Map<String, Integer> map = new WeakValueMap<>();
+        map.put(null, 123);
+    }
+
+    @Test
+    public void testConcurrentReads() throws Exception {
+        Map<String, Integer> map = new WeakValueMap<>();
+
+        // values are cached Integers, so they are never collected
+        for(int i = 0; i < 100; i++) {
+            map.put("stable_" + i, i);
+        }
+
+        AtomicBoolean done = new AtomicBoolean();
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        List<Thread> readers = new ArrayList<>();
+        for(int r = 0; r < 4; r++) {
+            Thread reader = new Thread(() -> {
+                try {
+                    while(!done.get()) {
+                        for(int i = 0; i < 100; i++) {
+                            String key = "stable_" + i;
+                            if(!map.containsKey(key) || map.get(key) != i) {
+                                throw new AssertionError("Lost a value of " + key);
+                            }
+                        }
+                    }
+                } catch(Throwable th) {
+                    failure.compareAndSet(null, th);
+                }
+            });
+            reader.start();
+            readers.add(reader);
+        }
+
+        // a single writer growing and shrinking the map, forcing rehashing of the internal storage
+        try {
+            for(int round = 0; round < 20; round++) {
+                for(int i = 0; i < 2000; i++) {
+                    map.put("temp_" + i, i % 100);
+                }
+                for(int i = 0; i < 2000; i++) {
+                    map.remove("temp_" + i);
+                }
+            }
+        } finally {
+            done.set(true);
+            for(Thread reader : readers) {
+                reader.join();
+            }
+        }
+
+        if(failure.get() != null) {
+            throw new AssertionError(failure.get());
+        }
+        assertEquals(100, map.size());
+    }
+}
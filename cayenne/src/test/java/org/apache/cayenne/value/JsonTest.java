@@ -0,0 +1,70 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.value;
+
+import org.apache.cayenne.util.Util;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+public class JsonTest {
+
+    @Test
+    public void testEqualsAndHashCode() {
+        Json j1 = new Json("{\"a\": 1, \"b\": [1, 2]}");
+        Json j2 = new Json("{\"b\":[1,2],\n\"a\":1}");
+        Json j3 = new Json("{\"b\":[2,1],\"a\":1}");
+
+        assertEquals(j1, j2);
+        assertEquals(j1.hashCode(), j2.hashCode());
+        assertNotEquals(j1, j3);
+    }
+
+    @Test
+    public void testEqualsAndHashCode_Malformed() {
+        Json malformed1 = new Json("{\"a\": ");
+        Json malformed2 = new Json("{\"a\": ");
+        Json malformed3 = new Json("{\"a\":");
+        Json valid = new Json("{\"a\": 1}");
+
+        assertEquals(malformed1, malformed2);
+        assertEquals(malformed1.hashCode(), malformed2.hashCode());
+        assertNotEquals(malformed1, malformed3);
+        assertNotEquals(malformed1, valid);
+        assertNotEquals(valid, malformed1);
+    }
+
+    @Test
+    public void testCanonicalJson() {
+        Json json = new Json("{\"b\": 2, \"a\": 1}");
+        assertEquals("{\"a\":1,\"b\":2}", json.getCanonicalJson());
+        assertEquals("{\"b\": 2, \"a\": 1}", json.getRawJson());
+    }
+
+    @Test
+    public void testSerialization() throws Exception {
+        Json json = new Json("{\"b\": 2, \"a\": 1}");
+        json.getCanonicalJson();
+
+        Json clone = Util.cloneViaSerialization(json);
+        assertEquals(json, clone);
+        assertEquals(json.hashCode(), clone.hashCode());
+    }
+}
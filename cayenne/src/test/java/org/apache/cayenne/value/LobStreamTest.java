@@ -0,0 +1,129 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.value;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+
+import org.apache.cayenne.CayenneRuntimeException;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+public class LobStreamTest {
+
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
+    @Test
+    public void testOfBytes() throws Exception {
+        LobStream lob = LobStream.of(new byte[]{1, 2, 3});
+        assertFalse(lob.isCharacter());
+        assertEquals(3, lob.getLength());
+
+        // can be read more than once
+        for (int i = 0; i < 2; i++) {
+            try (InputStream in = lob.openStream()) {
+                assertArrayEquals(new byte[]{1, 2, 3}, in.readAllBytes());
+            }
+        }
+    }
+
+    @Test
+    public void testOfString() throws Exception {
+        LobStream lob = LobStream.of("abc");
+        assertTrue(lob.isCharacter());
+        assertEquals(3, lob.getLength());
+        assertEquals("abc", read(lob));
+    }
+
+    @Test
+    public void testEquals() {
+        LobStream lob = LobStream.of(new byte[]{1, 2, 3});
+        LobStream copy = lob.withFallback(() -> new ByteArrayInputStream(new byte[0]));
+
+        assertEquals(lob, copy);
+        assertEquals(lob.hashCode(), copy.hashCode());
+        assertNotEquals(lob, LobStream.of(new byte[]{1, 2, 3}));
+    }
+
+    @Test
+    public void testOfFile() throws Exception {
+        Path file = tempFolder.newFile().toPath();
+        Files.writeString(file, "xyz");
+
+        LobStream binary = LobStream.of(file);
+        assertEquals(3, binary.getLength());
+        try (InputStream in = binary.openStream()) {
+            assertArrayEquals("xyz".getBytes(StandardCharsets.UTF_8), in.readAllBytes());
+        }
+
+        LobStream character = LobStream.of(file, StandardCharsets.UTF_8);
+        assertEquals(-1, character.getLength());
+        assertEquals("xyz", read(character));
+    }
+
+    @Test(expected = CayenneRuntimeException.class)
+    public void testOpenReader_Binary() {
+        LobStream.of(new byte[0]).openReader();
+    }
+
+    @Test(expected = CayenneRuntimeException.class)
+    public void testOpenStream_Character() {
+        LobStream.of("").openStream();
+    }
+
+    @Test(expected = CayenneRuntimeException.class)
+    public void testOpen_Error() {
+        LobStream.binary(() -> {
+            throw new SQLException("expired");
+        }, -1).openStream();
+    }
+
+    @Test
+    public void testWithFallback() throws Exception {
+        LobStream lob = LobStream.binary(() -> {
+            throw new SQLException("expired");
+        }, -1).withFallback(() -> new ByteArrayInputStream(new byte[]{5}));
+
+        try (InputStream in = lob.openStream()) {
+            assertArrayEquals(new byte[]{5}, in.readAllBytes());
+        }
+    }
+
+    private static String read(LobStream lob) throws Exception {
+        StringWriter out = new StringWriter();
+        try (Reader reader = lob.openReader()) {
+            reader.transferTo(out);
+        }
+        return out.toString();
+    }
+}
@@ -74,6 +74,20 @@ public class JsonUtilsTest {
         public void compare() {
             assertEquals(areEquals, JsonUtils.compare(jsonStringA, jsonStringB));
         }
+
+        @Test
+        public void canonicalize() {
+            assertEquals(areEquals, JsonUtils.canonicalize(jsonStringA).equals(JsonUtils.canonicalize(jsonStringB)));
+        }
+    }
+
+    public static class CanonicalizeTest {
+
+        @Test
+        public void canonicalize() {
+            assertEquals("{\"a\":[1,\"x y\",{\"b\":null,\"c\":true}],\"d\":-1.5e3}",
+                    JsonUtils.canonicalize(" { \"d\" : -1.5e3, \"a\": [1, \"x y\", {\"c\": true, \"b\": null}]}"));
+        }
     }
 
     @RunWith(Parameterized.class)
@@ -36,12 +36,14 @@ import org.apache.cayenne.gen.ClassGenerationActionFactory;
 import org.apache.cayenne.gen.CgenTemplate;
 import org.apache.cayenne.gen.TemplateType;
 import org.apache.cayenne.map.DataMap;
+import org.apache.maven.model.Resource;
 import org.apache.maven.plugin.AbstractMojo;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.MojoFailureException;
 import org.apache.maven.plugins.annotations.LifecyclePhase;
 import org.apache.maven.plugins.annotations.Mojo;
 import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.maven.project.MavenProject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -248,6 +250,39 @@ public class CayenneGeneratorMojo extends AbstractMojo {
     @Parameter
     private String externalToolConfig;
 
+    /**
+     * Optional location of a manifest file that records fingerprints of the generated classes. If set, a class is
+     * regenerated only when its entity, template or generation options change, instead of relying on file
+     * modification times.
+     *
+     * @since 5.0
+     */
+    @Parameter
+    private File manifest;
+
+    /**
+     * Number of threads used to generate classes. Default is <code>1</code>.
+     *
+     * @since 5.0
+     */
+    @Parameter(defaultValue = "1", property = "cgen.threads")
+    private int threads;
+
+    /**
+     * If set to <code>true</code>, entity classes will include ordinal-based property accessors used by Cayenne
+     * runtime instead of reflection. Accessors are registered in
+     * "META-INF/services/org.apache.cayenne.reflect.generic.PersistentClassAccessors" file under "destDir", that is
+     * added to the project resources.
+     * Default is <code>false</code>.
+     *
+     * @since 5.0
+     */
+    @Parameter(defaultValue = "false", property = "cgen.createAccessors")
+    private boolean createAccessors;
+
+    @Parameter(defaultValue = "${project}", readonly = true)
+    private MavenProject project;
+
     private transient Injector injector;
 
     private static final Logger logger = LoggerFactory.getLogger(CayenneGeneratorMojo.class);
@@ -283,6 +318,14 @@ public class CayenneGeneratorMojo extends AbstractMojo {
                     generator.getCgenConfiguration().setForce(true);
                 }
                 generator.getCgenConfiguration().setTimestamp(map.lastModified());
+                if (manifest != null) {
+                    generator.getCgenConfiguration().setManifestPath(manifest.toPath());
+                }
+                generator.getCgenConfiguration().setThreadCount(threads);
+                if (createAccessors) {
+                    generator.getCgenConfiguration().setCreateAccessors(true);
+                    addServicesResource(generator.getCgenConfiguration().buildOutputPath().toFile());
+                }
                 if (!hasConfig() && useConfigFromDataMap) {
                     generator.prepareArtifacts();
                 } else {
@@ -297,6 +340,28 @@ public class CayenneGeneratorMojo extends AbstractMojo {
         }
     }
 
+    /**
+     * Registers generated "META-INF/services" file as a project resource, so that accessors are discoverable at
+     * runtime.
+     */
+    private void addServicesResource(File outputDir) {
+        if (project == null) {
+            return;
+        }
+
+        String directory = outputDir.getAbsolutePath();
+        for (Resource resource : project.getResources()) {
+            if (directory.equals(new File(resource.getDirectory()).getAbsolutePath())) {
+                return;
+            }
+        }
+
+        Resource resource = new Resource();
+        resource.setDirectory(directory);
+        resource.addInclude("META-INF/services/**");
+        project.addResource(resource);
+    }
+
     /**
      * Loads and returns DataMap based on <code>cgenConfiguration</code> attribute.
      */
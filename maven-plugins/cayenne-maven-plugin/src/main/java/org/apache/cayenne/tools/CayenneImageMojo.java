@@ -0,0 +1,132 @@
+/*****************************************************************
+ *   Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ ****************************************************************/
+package org.apache.cayenne.tools;
+
+import java.io.File;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.apache.cayenne.configuration.DataChannelDescriptor;
+import org.apache.cayenne.configuration.DataChannelDescriptorLoader;
+import org.apache.cayenne.configuration.image.ProjectImage;
+import org.apache.cayenne.dbsync.reverse.configuration.ToolsModule;
+import org.apache.cayenne.di.Injector;
+import org.apache.cayenne.resource.URLResource;
+import org.apache.cayenne.util.Util;
+import org.apache.maven.model.Resource;
+import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugins.annotations.LifecyclePhase;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.maven.project.MavenProject;
+import org.slf4j.Logger;
+
+/**
+ * Maven mojo that creates a binary image of a Cayenne project. At runtime the image is loaded instead of parsing
+ * the project XML files, as long as the XML files are not changed after the image was created.
+ *
+ * @since 5.0
+ */
+@Mojo(name = "cimage", defaultPhase = LifecyclePhase.PROCESS_RESOURCES)
+public class CayenneImageMojo extends AbstractMojo {
+
+    /**
+     * Project XML file, e.g. "cayenne-project.xml". DataMaps referenced from the project are included in the image.
+     */
+    @Parameter(required = true)
+    private File projectFile;
+
+    /**
+     * Directory to write the image to. The image is placed in this directory under the same relative path as the
+     * project XML file has in its resources directory, so that it ends up next to the XML file on the runtime
+     * classpath. Default is "${project.build.outputDirectory}".
+     */
+    @Parameter(defaultValue = "${project.build.outputDirectory}")
+    private File outputDirectory;
+
+    @Parameter(defaultValue = "${project}", readonly = true)
+    private MavenProject project;
+
+    public void execute() throws MojoExecutionException, MojoFailureException {
+
+        Logger logger = new MavenLogger(this);
+
+        Injector injector = new ToolsInjectorBuilder()
+                .addModule(new ToolsModule(logger))
+                .create();
+
+        File imageFile = new File(imageDirectory(logger), ProjectImage.imageLocation(projectFile.getName()));
+        logger.info("Creating project image " + imageFile + " from " + projectFile);
+
+        try {
+            DataChannelDescriptor descriptor = injector.getInstance(DataChannelDescriptorLoader.class)
+                    .load(new URLResource(projectFile.toURI().toURL()))
+                    .getRootNode();
+
+            Files.createDirectories(imageFile.getParentFile().toPath());
+            try (OutputStream out = Files.newOutputStream(imageFile.toPath())) {
+                ProjectImage.write(descriptor, out);
+            }
+        } catch (Exception ex) {
+            Throwable th = Util.unwindException(ex);
+            String message = "Error creating project image";
+            if (th.getLocalizedMessage() != null) {
+                message += ": " + th.getLocalizedMessage();
+            }
+            logger.error(message);
+            throw new MojoExecutionException(message, th);
+        } finally {
+            injector.shutdown();
+        }
+    }
+
+    // resolves the directory of the project XML on the classpath, the same way it is resolved when the resources are
+    // copied to the output directory
+    private File imageDirectory(Logger logger) {
+        Path projectPath = projectFile.getAbsoluteFile().toPath().normalize();
+
+        if (project != null) {
+            for (Resource resource : project.getResources()) {
+                Path root = new File(resource.getDirectory()).getAbsoluteFile().toPath().normalize();
+                if (!projectPath.startsWith(root)) {
+                    continue;
+                }
+
+                if (resource.isFiltering()) {
+                    logger.warn("Resource filtering is enabled for " + root + ". If filtering changes the project "
+                            + "XML, the image checksum won't match, and the image will be ignored at runtime.");
+                }
+
+                File directory = resource.getTargetPath() != null
+                        ? new File(outputDirectory, resource.getTargetPath())
+                        : outputDirectory;
+                Path relativeParent = root.relativize(projectPath).getParent();
+                return relativeParent != null ? new File(directory, relativeParent.toString()) : directory;
+            }
+        }
+
+        logger.warn("Project file " + projectFile + " is not located in any of the resource directories. The image "
+                + "is written to the root of " + outputDirectory + ", and will only be used if the project XML is "
+                + "located in the root of the classpath.");
+        return outputDirectory;
+    }
+}
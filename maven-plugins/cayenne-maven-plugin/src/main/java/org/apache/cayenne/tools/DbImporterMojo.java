@@ -92,6 +92,15 @@ public class DbImporterMojo extends AbstractMojo {
     @Parameter(name = "dbimport", property = "dbimport", alias = "dbImport")
     private ReverseEngineering dbImportConfig = new ReverseEngineering();
 
+    /**
+     * Number of threads (and DB connections) used to load per-table metadata, such as primary and foreign keys.
+     * Values greater than one speed up import of large schemas. Default is 1.
+     *
+     * @since 5.0
+     */
+    @Parameter(property = "cdbimport.threads", defaultValue = "1")
+    private int threads = 1;
+
     @Parameter(defaultValue = "${project}" )
     private MavenProject project;
 
@@ -172,6 +181,7 @@ public class DbImporterMojo extends AbstractMojo {
         config.setSkipPrimaryKeyLoading(dbImportConfig.getSkipPrimaryKeyLoading());
         config.setStripFromTableNames(dbImportConfig.getStripFromTableNames());
         config.setTableTypes(dbImportConfig.getTableTypes());
+        config.setThreadCount(threads);
         config.setTargetDataMap(map);
         config.setCayenneProject(cayenneProject);
         config.setUrl(dataSource.getUrl());